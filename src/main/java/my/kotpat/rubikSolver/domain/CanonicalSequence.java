@@ -0,0 +1,120 @@
+package my.kotpat.rubikSolver.domain;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+
+/**
+ * Automaton of the canonical sequences of the moves. The state of the
+ * automaton is the layer of the last move ({@link MoveLayer#ordinal()}, or
+ * {@link CanonicalSequence#START} before the first move) and the move is
+ * allowed if:
+ * <ul>
+ * <li>it does not turn the same layer as the last move (two moves of the
+ * layer are always one move or nothing),</li>
+ * <li>it does not turn the opposite layer which is after the last one in
+ * {@link MoveLayer} (opposite layers commute, so "L R" is the same as "R L"
+ * and only the first one is allowed).</li>
+ * </ul>
+ * Every sequence of the moves has the canonical sequence which is not longer
+ * and moves the cube the same way, so the searches which visit only the
+ * canonical sequences find the same solutions. The average number of allowed
+ * moves is about 13.35 instead of 18.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public final class CanonicalSequence {
+
+	/**
+	 * State before the first move.
+	 */
+	public static final int START = -1;
+
+	/**
+	 * Allowed layers for every state (bit mask of the layer ordinals, indexed
+	 * by the state + 1).
+	 */
+	private static final int[] ALLOWED_LAYERS = new int[MoveLayer.values().length + 1];
+
+	static {
+		int layers = MoveLayer.values().length;
+		ALLOWED_LAYERS[0] = (1 << layers) - 1;
+		for (int lastLayer = 0; lastLayer < layers; lastLayer++) {
+			int allowed = (1 << layers) - 1;
+			allowed &= ~(1 << lastLayer);
+			// Opposite layers are pairs: RIGHT and LEFT, UP and DOWN, FRONT and
+			// BACK
+			if (lastLayer % 2 == 0)
+				allowed &= ~(1 << (lastLayer + 1));
+			ALLOWED_LAYERS[lastLayer + 1] = allowed;
+		}
+	}
+
+	private CanonicalSequence() {
+	}
+
+	/**
+	 * Checks if the layer could be turned after the last layer.
+	 *
+	 * @param lastLayer
+	 *            ordinal of the layer of the last move (or
+	 *            {@link CanonicalSequence#START})
+	 * @param layer
+	 *            ordinal of the layer of the next move
+	 * @return true if the sequence is canonical
+	 */
+	public static boolean isAllowed(int lastLayer, int layer) {
+		return (ALLOWED_LAYERS[lastLayer + 1] & (1 << layer)) != 0;
+	}
+
+	/**
+	 * Checks if the move could be done after the last one.
+	 *
+	 * @param lastMove
+	 *            the last move (or {@code null} before the first move)
+	 * @param move
+	 *            the next move
+	 * @return true if the sequence is canonical
+	 */
+	public static boolean isAllowed(Move lastMove, Move move) {
+		return isAllowed(getState(lastMove), getLayer(move.ordinal()));
+	}
+
+	/**
+	 * Returns the state of the automaton after the move.
+	 *
+	 * @param move
+	 *            the last move (or {@code null} before the first move)
+	 * @return ordinal of the layer or {@link CanonicalSequence#START}
+	 */
+	public static int getState(Move move) {
+		return move == null ? START : move.getMoveLayer().ordinal();
+	}
+
+	/**
+	 * Returns ordinal of the layer of the move.
+	 *
+	 * @param move
+	 *            ordinal of the move (see {@link Move#ordinal()})
+	 * @return ordinal of the layer
+	 */
+	public static int getLayer(int move) {
+		return move / 3;
+	}
+
+	/**
+	 * Checks if the whole scramble is canonical.
+	 *
+	 * @param scramble
+	 *            the scramble
+	 * @return true if every move is allowed after the previous one
+	 */
+	public static boolean isCanonical(Scramble scramble) {
+		Move lastMove = null;
+		for (Move move : scramble) {
+			if (!isAllowed(lastMove, move))
+				return false;
+			lastMove = move;
+		}
+		return true;
+	}
+}
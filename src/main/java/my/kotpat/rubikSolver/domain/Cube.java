@@ -14,12 +14,37 @@ import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
  * @author Patryk Kotlarz
  *
  */
-public class Cube {
+public class Cube implements RubiksCube {
 	/**
 	 * Dimension of the cube.
 	 */
 	private int dimension;
 
+	/**
+	 * All the fields of the cube. Layers keep their fields in this array (face
+	 * by face in the order of {@link MoveLayer}, row by row inside the face).
+	 */
+	private Field[] fields;
+
+	/**
+	 * Information about the state (Zobrist hash, solved faces, misplaced
+	 * fields) updated by every move.
+	 */
+	private StateTracker tracker;
+
+	/**
+	 * Rotations of the faces as 4-cycles of indices in {@link Cube#fields}
+	 * (see {@link CubeGeometry#getFaceCycles(int)}). Used only to update the
+	 * {@link Cube#tracker}.
+	 */
+	private int[][] faceCycles;
+
+	/**
+	 * Layers in the order of {@link MoveLayer} (used to find the moved layer
+	 * by {@link Move#ordinal()}).
+	 */
+	private Layer[] layers;
+
 	/**
 	 * References to all of the layers.
 	 */
@@ -59,22 +84,61 @@ public class Cube {
 	 * Constructor creates cube with the specific {@link dimension}. This
 	 * constructor allocates memory for all layers (with specific color and
 	 * name) and sets connections between layers to allow correct rotations.
+	 * Connections are resolved to the fixed index tables, so the rotations do
+	 * not allocate any memory.
 	 * 
 	 * @param dimension
 	 *            dimension of cube
 	 * @throws UnsupportedLayerDimensionException
-	 *             if dimension is less than 2 or more than 3 (in currect
-	 *             version of project)
+	 *             if dimension is less than 2 or more than
+	 *             {@link Layer#MAXIMUM_CUBE_DIMENSION}
 	 */
 	public Cube(int dimension) throws UnsupportedLayerDimensionException {
+		createLayers(dimension);
+	}
 
-		up = new Layer(dimension, Field.Color.WHITE, "U");
-		down = new Layer(dimension, Field.Color.YELLOW, "D");
-		right = new Layer(dimension, Field.Color.RED, "R");
-		left = new Layer(dimension, Field.Color.ORANGE, "L");
-		front = new Layer(dimension, Field.Color.GREEN, "F");
-		back = new Layer(dimension, Field.Color.BLUE, "B");
+	/**
+	 * Standard copying constructor. Allocates new fields (with the same
+	 * colors), so the copy is independent of the copied cube.
+	 * 
+	 * @param cube
+	 *            Cube object to copy
+	 */
+	public Cube(Cube cube) {
+		try {
+			createLayers(cube.dimension);
+		} catch (UnsupportedLayerDimensionException e) {
+			throw new IllegalStateException(e);
+		}
+
+		for (int i = 0; i < fields.length; i++) {
+			fields[i].setFieldColor(cube.fields[i].getFieldColor());
+		}
+		tracker.copyFrom(cube.tracker);
+	}
+
+	/**
+	 * Allocates memory for all layers (with specific color and name) and sets
+	 * connections between layers.
+	 * 
+	 * @param dimension
+	 *            dimension of cube
+	 * @throws UnsupportedLayerDimensionException
+	 *             if dimension is not supported
+	 */
+	private void createLayers(int dimension) throws UnsupportedLayerDimensionException {
+		int faceSize = dimension * dimension;
+		fields = new Field[6 * faceSize];
+		up = new Layer(fields, MoveLayer.UP.ordinal() * faceSize, dimension, Field.Color.WHITE, "U");
+		down = new Layer(fields, MoveLayer.DOWN.ordinal() * faceSize, dimension, Field.Color.YELLOW, "D");
+		right = new Layer(fields, MoveLayer.RIGHT.ordinal() * faceSize, dimension, Field.Color.RED, "R");
+		left = new Layer(fields, MoveLayer.LEFT.ordinal() * faceSize, dimension, Field.Color.ORANGE, "L");
+		front = new Layer(fields, MoveLayer.FRONT.ordinal() * faceSize, dimension, Field.Color.GREEN, "F");
+		back = new Layer(fields, MoveLayer.BACK.ordinal() * faceSize, dimension, Field.Color.BLUE, "B");
 		this.dimension = dimension;
+		this.faceCycles = CubeGeometry.getFaceCycles(dimension);
+		this.tracker = new StateTracker(dimension);
+		this.layers = new Layer[] { right, left, up, down, front, back };
 
 		up.setUp(back);
 		up.setDown(front);
@@ -142,45 +206,25 @@ public class Cube {
 		layerList.add(right);
 		layerList.add(front);
 		layerList.add(down);
+
+		for (Layer layer : layerList) {
+			layer.resolveNeighbors();
+		}
+		tracker.reset(fields);
 	}
 
 	/**
-	 * Method rotate a layer specified by {@link Move} object.
+	 * Method rotate a layer specified by {@link Move} object. The layer is
+	 * found by {@link Move#ordinal()}. The information about the state (hash,
+	 * solved faces) is updated only by the moved fields.
 	 * 
 	 * @param move
 	 *            {@link Move} object
 	 */
 	public void move(Move move) {
-		boolean doubled = move.isDoubled();
-		boolean clockwise = move.isClockwise();
-		MoveLayer moveLayer = move.getMoveLayer();
-
-		switch (moveLayer) {
-		case BACK: {
-			back.turnAround(clockwise, doubled);
-			break;
-		}
-		case FRONT: {
-			front.turnAround(clockwise, doubled);
-			break;
-		}
-		case RIGHT: {
-			right.turnAround(clockwise, doubled);
-			break;
-		}
-		case LEFT: {
-			left.turnAround(clockwise, doubled);
-			break;
-		}
-		case UP: {
-			up.turnAround(clockwise, doubled);
-			break;
-		}
-		case DOWN: {
-			down.turnAround(clockwise, doubled);
-			break;
-		}
-		}
+		int face = move.ordinal() / 3;
+		tracker.move(faceCycles[face], move.getTurns(), fields);
+		layers[face].turnAround(move.isClockwise(), move.isDoubled());
 	}
 
 	/**
@@ -190,22 +234,97 @@ public class Cube {
 	 *            {@link Scramble} object
 	 */
 	public void scramble(Scramble scramble) {
-		for (Move move : scramble) {
-			move(move);
+		for (int i = 0; i < scramble.size(); i++) {
+			move(scramble.get(i));
 		}
 	}
 
+	public RubiksCube copy() {
+		return new Cube(this);
+	}
+
+	/**
+	 * Saves the current state of the cube (positions of all the
+	 * {@link Field} objects). The snapshot could be restored only by this
+	 * cube.
+	 * 
+	 * @return snapshot of the state
+	 */
+	public CubeSnapshot snapshot() {
+		Snapshot snapshot = new Snapshot(this);
+		snapshot(snapshot);
+		return snapshot;
+	}
+
+	public void snapshot(CubeSnapshot snapshot) {
+		Snapshot cubeSnapshot = getSnapshot(snapshot);
+		System.arraycopy(fields, 0, cubeSnapshot.fields, 0, fields.length);
+		cubeSnapshot.tracker.copyFrom(tracker);
+	}
+
+	public void restore(CubeSnapshot snapshot) {
+		Snapshot cubeSnapshot = getSnapshot(snapshot);
+		System.arraycopy(cubeSnapshot.fields, 0, fields, 0, fields.length);
+		tracker.copyFrom(cubeSnapshot.tracker);
+	}
+
 	/**
-	 * Returns {@code true} if cube is solved.
+	 * Recomputes the information about the state (hash, solved layers and
+	 * misplaced fields). Method
+	 * should be called after changing the cube without the moves: by
+	 * {@link Field#setFieldColor(Field.Color)} or
+	 * {@link Layer#setField(int, int, Field)}.
+	 */
+	public void updateState() {
+		tracker.reset(fields);
+	}
+
+	/**
+	 * Returns 64-bit Zobrist hash of the state. It is updated by every move
+	 * (only by the moved fields), so the method does not scan the cube.
+	 * 
+	 * @return hash of the state
+	 */
+	public long getStateHash() {
+		return tracker.getHash();
+	}
+
+	/**
+	 * Checks if the snapshot was created by this cube.
+	 * 
+	 * @param snapshot
+	 *            snapshot to check
+	 * @return the snapshot
+	 * @throws IllegalArgumentException
+	 *             if the snapshot was not created by this cube
+	 */
+	private Snapshot getSnapshot(CubeSnapshot snapshot) {
+		if (snapshot.getCube() != this)
+			throw new IllegalArgumentException("Snapshot of the other cube");
+		return (Snapshot) snapshot;
+	}
+
+	/**
+	 * Returns {@code true} if cube is solved (every layer has all the fields
+	 * of the same color). The number of solved layers is updated by every
+	 * move, so the method does not scan the cube.
 	 * 
 	 * @return true if cube is solved
 	 */
 	public boolean isSolved() {
-		for (Layer layer : layerList) {
-			if (!layer.hasAllFieldsEqual())
-				return false;
-		}
-		return true;
+		return tracker.isSolved();
+	}
+
+	/**
+	 * Returns number of fields with other color than the face in the solved
+	 * cube (0 for the solved cube in the standard orientation). The value is
+	 * updated by every move, so it could be used as the cheap distance from
+	 * the solved state by the heuristic solvers.
+	 * 
+	 * @return number of misplaced fields
+	 */
+	public int getMisplacedStickers() {
+		return tracker.getMisplacedStickers();
 	}
 
 	/**
@@ -217,6 +336,36 @@ public class Cube {
 		return dimension;
 	}
 
+	public Field.Color getFieldColor(MoveLayer layer, int row, int col) {
+		return getLayer(layer).getField(row, col).getFieldColor();
+	}
+
+	/**
+	 * Returns the layer specified by {@link MoveLayer}.
+	 * 
+	 * @param moveLayer
+	 *            layer to return
+	 * @return the layer
+	 */
+	public Layer getLayer(MoveLayer moveLayer) {
+		switch (moveLayer) {
+		case BACK:
+			return back;
+		case FRONT:
+			return front;
+		case RIGHT:
+			return right;
+		case LEFT:
+			return left;
+		case UP:
+			return up;
+		case DOWN:
+			return down;
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+
 	/**
 	 * Returns the upper layer.
 	 * 
@@ -271,6 +420,33 @@ public class Cube {
 		return back;
 	}
 
+	@Override
+	public int hashCode() {
+		long hash = tracker.getHash();
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Two cubes are equal if they have the same dimension and the same colors
+	 * of all the fields. Cubes with different hashes are rejected without
+	 * comparing the fields.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		Cube other = (Cube) obj;
+		if (dimension != other.dimension || tracker.getHash() != other.tracker.getHash())
+			return false;
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i].getFieldColor() != other.fields[i].getFieldColor())
+				return false;
+		}
+		return true;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder("Cube " + dimension + "x" + dimension + "x" + dimension);
@@ -282,4 +458,35 @@ public class Cube {
 
 		return builder.toString();
 	}
+
+	/**
+	 * Implementation of {@link CubeSnapshot} which keeps references to all
+	 * the fields of the cube.
+	 */
+	private static class Snapshot implements CubeSnapshot {
+		/**
+		 * The cube which state is saved.
+		 */
+		private final Cube cube;
+
+		/**
+		 * Copy of {@link Cube#fields}.
+		 */
+		private final Field[] fields;
+
+		/**
+		 * Copy of {@link Cube#tracker}.
+		 */
+		private final StateTracker tracker;
+
+		private Snapshot(Cube cube) {
+			this.cube = cube;
+			this.fields = new Field[cube.fields.length];
+			this.tracker = new StateTracker(cube.dimension);
+		}
+
+		public RubiksCube getCube() {
+			return cube;
+		}
+	}
 }
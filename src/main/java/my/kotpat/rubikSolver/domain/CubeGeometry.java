@@ -0,0 +1,270 @@
+package my.kotpat.rubikSolver.domain;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+
+/**
+ * Helper class which describes the positions of the stickers of
+ * {@link PackedCube} in 3D space. Faces are numbered in the order of
+ * {@link MoveLayer}, rows and columns are the same as in the {@link Layer}
+ * objects of {@link Cube} (every face is seen from outside of the cube). All
+ * the tables are computed once and used by the cube engines.
+ * 
+ * @author Patryk Kotlarz
+ *
+ */
+final class CubeGeometry {
+
+	/**
+	 * Colors of the faces in the solved cube (in the order of
+	 * {@link MoveLayer}). The same color scheme is used in
+	 * {@link Cube}.
+	 */
+	static final Field.Color[] FACE_COLORS = { Field.Color.RED, Field.Color.ORANGE, Field.Color.WHITE,
+			Field.Color.YELLOW, Field.Color.GREEN, Field.Color.BLUE };
+
+	/**
+	 * Unit normal vectors of the faces (x to the right, y up, z to the front).
+	 */
+	private static final int[][] NORMALS = { { 1, 0, 0 }, { -1, 0, 0 }, { 0, 1, 0 }, { 0, -1, 0 }, { 0, 0, 1 },
+			{ 0, 0, -1 } };
+
+	/**
+	 * Directions of growing column number of the faces (looking at the face
+	 * from outside of the cube).
+	 */
+	private static final int[][] COL_DIRECTIONS = { { 0, -1, 0 }, { 0, 1, 0 }, { 1, 0, 0 }, { 1, 0, 0 },
+			{ 1, 0, 0 }, { 1, 0, 0 } };
+
+	/**
+	 * Directions of growing row number of the faces (looking at the face from
+	 * outside of the cube).
+	 */
+	private static final int[][] ROW_DIRECTIONS = { { 0, 0, 1 }, { 0, 0, 1 }, { 0, 0, 1 }, { 0, 0, -1 },
+			{ 0, -1, 0 }, { 0, 1, 0 } };
+
+	/**
+	 * Cached permutations of all supported dimensions (indexed by dimension).
+	 */
+	private static final int[][][] FACE_CYCLES = new int[Layer.MAXIMUM_CUBE_DIMENSION + 1][][];
+
+	/**
+	 * Cached permutations of the inner slices of all supported dimensions
+	 * (indexed by dimension).
+	 */
+	private static final int[][][][] SLICE_CYCLES = new int[Layer.MAXIMUM_CUBE_DIMENSION + 1][][][];
+
+	private CubeGeometry() {
+	}
+
+	/**
+	 * Returns index of the sticker which lies on the specific face of the
+	 * cubie. The cubie is described by signs of its coordinates (-1, 0 or 1
+	 * for every axis, where 0 means the middle layer of 3x3x3 cube), e.g.
+	 * {@code (1, 1, 1)} is the up-right-front corner.
+	 * 
+	 * @param dimension
+	 *            dimension of the cube
+	 * @param face
+	 *            ordinal of {@link MoveLayer}
+	 * @param cubie
+	 *            signs of cubie coordinates (x to the right, y up, z to the
+	 *            front)
+	 * @return index of the sticker
+	 */
+	static int getStickerIndex(int dimension, int face, int[] cubie) {
+		int row = getCoordinate(dimension, dot(cubie, ROW_DIRECTIONS[face]));
+		int col = getCoordinate(dimension, dot(cubie, COL_DIRECTIONS[face]));
+		return (face * dimension + row) * dimension + col;
+	}
+
+	/**
+	 * Converts the sign of cubie coordinate to the row or column number.
+	 * 
+	 * @param dimension
+	 *            dimension of the cube
+	 * @param sign
+	 *            -1, 0 or 1
+	 * @return row or column number
+	 */
+	private static int getCoordinate(int dimension, int sign) {
+		if (sign < 0)
+			return 0;
+		if (sign > 0)
+			return dimension - 1;
+		return dimension / 2;
+	}
+
+	/**
+	 * Returns (and caches) the cycles of clockwise quarter turns of all the
+	 * faces for the specific dimension.
+	 *
+	 * @param dimension
+	 *            dimension of the cube
+	 * @return cycles of every face in the order of {@link MoveLayer}
+	 */
+	static synchronized int[][] getFaceCycles(int dimension) {
+		if (FACE_CYCLES[dimension] == null) {
+			int[][] cycles = new int[6][];
+			for (int face = 0; face < 6; face++) {
+				cycles[face] = computeLayerCycles(dimension, face, 1);
+			}
+			FACE_CYCLES[dimension] = cycles;
+		}
+		return FACE_CYCLES[dimension];
+	}
+
+	/**
+	 * Returns (and caches) the cycles of clockwise quarter turns (looking at
+	 * the face) of the inner slices for the specific dimension. Slice
+	 * {@code [face][layer]} is the layer number {@code layer} counting from
+	 * the face (from 2 to {@code dimension - 1}, other elements are
+	 * {@code null}). Every slice moves only 4 * dimension stickers.
+	 *
+	 * @param dimension
+	 *            dimension of the cube
+	 * @return cycles of every slice indexed by face and layer number
+	 */
+	static synchronized int[][][] getSliceCycles(int dimension) {
+		if (SLICE_CYCLES[dimension] == null) {
+			int[][][] cycles = new int[6][dimension][];
+			for (int face = 0; face < 6; face++) {
+				for (int layer = 2; layer < dimension; layer++) {
+					cycles[face][layer] = computeLayerCycles(dimension, face, layer);
+				}
+			}
+			SLICE_CYCLES[dimension] = cycles;
+		}
+		return SLICE_CYCLES[dimension];
+	}
+
+	/**
+	 * Computes the clockwise quarter turn of the layer by rotating every
+	 * sticker of the layer in 3D space. Coordinates are doubled so all the
+	 * sticker centers are integers. The first layer contains also the stickers
+	 * of the face, inner layers contain only 4 * dimension stickers.
+	 *
+	 * @param dimension
+	 *            dimension of the cube
+	 * @param face
+	 *            ordinal of {@link MoveLayer}
+	 * @param layer
+	 *            number of the layer counting from the face (from 1 to
+	 *            {@code dimension - 1})
+	 * @return flat array of 4-cycles of sticker indices
+	 */
+	private static int[] computeLayerCycles(int dimension, int face, int layer) {
+		int stickersCount = 6 * dimension * dimension;
+		int[] normal = NORMALS[face];
+		int depth = dimension + 1 - 2 * layer;
+		int[] target = new int[stickersCount];
+		int[] rotated = new int[6];
+		int moved = 0;
+		for (int i = 0; i < stickersCount; i++) {
+			int[] position = getPosition(dimension, i);
+			int distance = dot(position, normal);
+			target[i] = i;
+			if (distance == depth || (layer == 1 && distance == dimension)) {
+				rotateClockwise(position, 0, normal, rotated);
+				rotateClockwise(position, 3, normal, rotated);
+				target[i] = getIndex(dimension, rotated);
+			}
+			if (target[i] != i)
+				moved++;
+		}
+
+		int[] cycles = new int[moved];
+		boolean[] visited = new boolean[stickersCount];
+		int counter = 0;
+		for (int i = 0; i < stickersCount; i++) {
+			if (visited[i] || target[i] == i)
+				continue;
+			for (int j = i; !visited[j]; j = target[j]) {
+				visited[j] = true;
+				cycles[counter++] = j;
+			}
+		}
+		return cycles;
+	}
+
+	/**
+	 * Returns doubled position of the sticker center (first three values) and
+	 * the normal vector of its face (last three values).
+	 *
+	 * @param dimension
+	 *            dimension of the cube
+	 * @param index
+	 *            index of the sticker
+	 * @return position and normal vector of the sticker
+	 */
+	private static int[] getPosition(int dimension, int index) {
+		int faceSize = dimension * dimension;
+		int face = index / faceSize;
+		int row = index % faceSize / dimension;
+		int col = index % dimension;
+		int[] position = new int[6];
+		for (int k = 0; k < 3; k++) {
+			position[k] = NORMALS[face][k] * dimension + COL_DIRECTIONS[face][k] * (2 * col - dimension + 1)
+					+ ROW_DIRECTIONS[face][k] * (2 * row - dimension + 1);
+			position[3 + k] = NORMALS[face][k];
+		}
+		return position;
+	}
+
+	/**
+	 * Returns index of the sticker with the doubled position and the normal
+	 * vector (inverse of {@link CubeGeometry#getPosition(int, int)}).
+	 *
+	 * @param dimension
+	 *            dimension of the cube
+	 * @param position
+	 *            position and normal vector of the sticker
+	 * @return index of the sticker
+	 */
+	private static int getIndex(int dimension, int[] position) {
+		for (int face = 0; face < 6; face++) {
+			int[] normal = NORMALS[face];
+			if (normal[0] == position[3] && normal[1] == position[4] && normal[2] == position[5]) {
+				int row = (dot(position, ROW_DIRECTIONS[face]) + dimension - 1) / 2;
+				int col = (dot(position, COL_DIRECTIONS[face]) + dimension - 1) / 2;
+				return (face * dimension + row) * dimension + col;
+			}
+		}
+		throw new IllegalArgumentException("Not a normal vector of the face");
+	}
+
+	/**
+	 * Dot product of the position part of the {@code vector} and the
+	 * {@code normal} vector.
+	 *
+	 * @param vector
+	 *            position (and normal vector) of the sticker
+	 * @param normal
+	 *            normal vector of the face
+	 * @return dot product
+	 */
+	private static int dot(int[] vector, int[] normal) {
+		return vector[0] * normal[0] + vector[1] * normal[1] + vector[2] * normal[2];
+	}
+
+	/**
+	 * Rotates 3D vector (starting from {@code offset}) by 90 degrees clockwise
+	 * looking from the end of the {@code axis}.
+	 *
+	 * @param vector
+	 *            vector to rotate
+	 * @param offset
+	 *            first coordinate of the vector
+	 * @param axis
+	 *            unit axis of the rotation
+	 * @param result
+	 *            array for rotated vector (written from {@code offset})
+	 */
+	private static void rotateClockwise(int[] vector, int offset, int[] axis, int[] result) {
+		int x = vector[offset], y = vector[offset + 1], z = vector[offset + 2];
+		int d = axis[0] * x + axis[1] * y + axis[2] * z;
+		result[offset] = -(axis[1] * z - axis[2] * y) + axis[0] * d;
+		result[offset + 1] = -(axis[2] * x - axis[0] * z) + axis[1] * d;
+		result[offset + 2] = -(axis[0] * y - axis[1] * x) + axis[2] * d;
+	}
+
+}
@@ -0,0 +1,19 @@
+package my.kotpat.rubikSolver.domain;
+
+/**
+ * Saved state of the cube. The snapshot is created by
+ * {@link RubiksCube#snapshot()} and allows to return the cube to the saved
+ * state with {@link RubiksCube#restore(CubeSnapshot)} (by a bulk copy of the
+ * state, without reversing any moves).
+ * 
+ * @author Patryk Kotlarz
+ *
+ */
+public interface CubeSnapshot {
+	/**
+	 * Returns the cube which state is saved in the snapshot.
+	 * 
+	 * @return the cube
+	 */
+	public RubiksCube getCube();
+}
@@ -0,0 +1,728 @@
+package my.kotpat.rubikSolver.domain;
+
+import java.util.Arrays;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+import my.kotpat.rubikSolver.exceptions.InvalidCubeStateException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+
+/**
+ * Representation of 2x2x2 or 3x3x3 cube on the cubie level. Instead of colors
+ * of the stickers it keeps permutation and orientation of the corners (and
+ * edges for 3x3x3 cube). The 2x2x2 cube is represented by corners only (edges
+ * are moved too, but they are ignored for 2x2x2 cube). Moves are applied by multiplication of permutations, so
+ * the state could be composed with any other state without touching the
+ * stickers.
+ * <p>
+ * The numbering of the cubies and orientations follows the common convention
+ * of the computer solvers (e.g. two-phase algorithm). Orientation of the
+ * corner is the number of its sticker which lies on the U or D face (stickers
+ * are counted clockwise, starting from the U/D sticker of the corner). An edge
+ * is oriented (0) if it could be solved using U, D, R, L moves and F2, B2 only.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class CubieCube {
+
+	/**
+	 * Corners (and their positions) of the cube.
+	 */
+	public enum Corner {
+		URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB
+	}
+
+	/**
+	 * Edges (and their positions) of the cube.
+	 */
+	public enum Edge {
+		UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR
+	}
+
+	/**
+	 * Number of corners.
+	 */
+	public static final int CORNERS = 8;
+
+	/**
+	 * Number of edges.
+	 */
+	public static final int EDGES = 12;
+
+	/**
+	 * Signs of the coordinates of the corner positions (x to the right, y up,
+	 * z to the front).
+	 */
+	private static final int[][] CORNER_CUBIES = { { 1, 1, 1 }, { -1, 1, 1 }, { -1, 1, -1 }, { 1, 1, -1 },
+			{ 1, -1, 1 }, { -1, -1, 1 }, { -1, -1, -1 }, { 1, -1, -1 } };
+
+	/**
+	 * Faces of the corner stickers. The first one is always U or D face, next
+	 * ones are in the clockwise order.
+	 */
+	private static final MoveLayer[][] CORNER_FACES = {
+			{ MoveLayer.UP, MoveLayer.RIGHT, MoveLayer.FRONT }, { MoveLayer.UP, MoveLayer.FRONT, MoveLayer.LEFT },
+			{ MoveLayer.UP, MoveLayer.LEFT, MoveLayer.BACK }, { MoveLayer.UP, MoveLayer.BACK, MoveLayer.RIGHT },
+			{ MoveLayer.DOWN, MoveLayer.FRONT, MoveLayer.RIGHT }, { MoveLayer.DOWN, MoveLayer.LEFT, MoveLayer.FRONT },
+			{ MoveLayer.DOWN, MoveLayer.BACK, MoveLayer.LEFT }, { MoveLayer.DOWN, MoveLayer.RIGHT, MoveLayer.BACK } };
+
+	/**
+	 * Signs of the coordinates of the edge positions (x to the right, y up, z
+	 * to the front).
+	 */
+	private static final int[][] EDGE_CUBIES = { { 1, 1, 0 }, { 0, 1, 1 }, { -1, 1, 0 }, { 0, 1, -1 },
+			{ 1, -1, 0 }, { 0, -1, 1 }, { -1, -1, 0 }, { 0, -1, -1 }, { 1, 0, 1 }, { -1, 0, 1 }, { -1, 0, -1 },
+			{ 1, 0, -1 } };
+
+	/**
+	 * Faces of the edge stickers. The first one is the sticker which
+	 * determines the orientation of the edge.
+	 */
+	private static final MoveLayer[][] EDGE_FACES = { { MoveLayer.UP, MoveLayer.RIGHT },
+			{ MoveLayer.UP, MoveLayer.FRONT }, { MoveLayer.UP, MoveLayer.LEFT }, { MoveLayer.UP, MoveLayer.BACK },
+			{ MoveLayer.DOWN, MoveLayer.RIGHT }, { MoveLayer.DOWN, MoveLayer.FRONT },
+			{ MoveLayer.DOWN, MoveLayer.LEFT }, { MoveLayer.DOWN, MoveLayer.BACK },
+			{ MoveLayer.FRONT, MoveLayer.RIGHT }, { MoveLayer.FRONT, MoveLayer.LEFT },
+			{ MoveLayer.BACK, MoveLayer.LEFT }, { MoveLayer.BACK, MoveLayer.RIGHT } };
+
+	/**
+	 * All 18 moves (in the order of {@link MoveLayer}, for every layer:
+	 * clockwise, doubled and counter-clockwise) as cubie cubes.
+	 */
+	private static final CubieCube[] MOVE_CUBES = new CubieCube[Move.MOVES_COUNT];
+
+	static {
+		// Clockwise quarter turns of R, L, U, D, F and B (corners permutation,
+		// corners orientation, edges permutation, edges orientation)
+		int[][][] basicMoves = {
+				{ { 4, 1, 2, 0, 7, 5, 6, 3 }, { 2, 0, 0, 1, 1, 0, 0, 2 },
+						{ 8, 1, 2, 3, 11, 5, 6, 7, 4, 9, 10, 0 }, { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 } },
+				{ { 0, 2, 6, 3, 4, 1, 5, 7 }, { 0, 1, 2, 0, 0, 2, 1, 0 },
+						{ 0, 1, 10, 3, 4, 5, 9, 7, 8, 2, 6, 11 }, { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 } },
+				{ { 3, 0, 1, 2, 4, 5, 6, 7 }, { 0, 0, 0, 0, 0, 0, 0, 0 },
+						{ 3, 0, 1, 2, 4, 5, 6, 7, 8, 9, 10, 11 }, { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 } },
+				{ { 0, 1, 2, 3, 5, 6, 7, 4 }, { 0, 0, 0, 0, 0, 0, 0, 0 },
+						{ 0, 1, 2, 3, 5, 6, 7, 4, 8, 9, 10, 11 }, { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 } },
+				{ { 1, 5, 2, 3, 0, 4, 6, 7 }, { 1, 2, 0, 0, 2, 1, 0, 0 },
+						{ 0, 9, 2, 3, 4, 8, 6, 7, 1, 5, 10, 11 }, { 0, 1, 0, 0, 0, 1, 0, 0, 1, 1, 0, 0 } },
+				{ { 0, 1, 3, 7, 4, 5, 2, 6 }, { 0, 0, 1, 2, 0, 0, 2, 1 },
+						{ 0, 1, 2, 11, 4, 5, 6, 10, 8, 9, 3, 7 }, { 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 1, 1 } } };
+
+		for (int layer = 0; layer < 6; layer++) {
+			CubieCube basic = new CubieCube();
+			for (int i = 0; i < CORNERS; i++) {
+				basic.cp[i] = (byte) basicMoves[layer][0][i];
+				basic.co[i] = (byte) basicMoves[layer][1][i];
+			}
+			for (int i = 0; i < EDGES; i++) {
+				basic.ep[i] = (byte) basicMoves[layer][2][i];
+				basic.eo[i] = (byte) basicMoves[layer][3][i];
+			}
+			CubieCube power = new CubieCube(basic);
+			MOVE_CUBES[layer * 3] = new CubieCube(power);
+			power.multiply(basic);
+			MOVE_CUBES[layer * 3 + 1] = new CubieCube(power);
+			power.multiply(basic);
+			MOVE_CUBES[layer * 3 + 2] = new CubieCube(power);
+		}
+	}
+
+	/**
+	 * Corners permutation (corner which is placed at the specific position).
+	 */
+	private byte[] cp = new byte[CORNERS];
+
+	/**
+	 * Corners orientation (0, 1 or 2 for every position).
+	 */
+	private byte[] co = new byte[CORNERS];
+
+	/**
+	 * Edges permutation (edge which is placed at the specific position).
+	 */
+	private byte[] ep = new byte[EDGES];
+
+	/**
+	 * Edges orientation (0 or 1 for every position).
+	 */
+	private byte[] eo = new byte[EDGES];
+
+	/**
+	 * Buffers used in multiplication (swapped with permutation and orientation
+	 * arrays so the multiplication does not allocate memory).
+	 */
+	private byte[] cpBuffer = new byte[CORNERS], coBuffer = new byte[CORNERS], epBuffer = new byte[EDGES],
+			eoBuffer = new byte[EDGES];
+
+	/**
+	 * Default constructor. Creates solved cube.
+	 */
+	public CubieCube() {
+		for (int i = 0; i < CORNERS; i++) {
+			cp[i] = (byte) i;
+		}
+		for (int i = 0; i < EDGES; i++) {
+			ep[i] = (byte) i;
+		}
+	}
+
+	/**
+	 * Standard copying constructor.
+	 *
+	 * @param cubieCube
+	 *            CubieCube object to copy
+	 */
+	public CubieCube(CubieCube cubieCube) {
+		copyFrom(cubieCube);
+	}
+
+	/**
+	 * Constructor which converts colors of the 2x2x2 or 3x3x3 cube to the
+	 * cubie level. Color scheme of the cube has to be the same as in the
+	 * solved {@link Cube}.
+	 *
+	 * @param cube
+	 *            cube to convert
+	 * @throws UnsupportedLayerDimensionException
+	 *             if dimension of the cube is not 2 or 3
+	 * @throws InvalidCubeStateException
+	 *             if the colors do not describe the valid cube
+	 */
+	public CubieCube(RubiksCube cube) throws UnsupportedLayerDimensionException, InvalidCubeStateException {
+		this();
+		int dimension = cube.getDimension();
+		if (dimension != 2 && dimension != 3)
+			throw new UnsupportedLayerDimensionException();
+
+		boolean[] used = new boolean[EDGES];
+		for (int position = 0; position < CORNERS; position++) {
+			Field.Color[] colors = new Field.Color[3];
+			int orientation = -1;
+			for (int i = 0; i < 3; i++) {
+				colors[i] = getFieldColor(cube, CORNER_FACES[position][i], CORNER_CUBIES[position]);
+				if (colors[i] == getFaceColor(MoveLayer.UP) || colors[i] == getFaceColor(MoveLayer.DOWN))
+					orientation = i;
+			}
+			if (orientation < 0)
+				throw new InvalidCubeStateException();
+
+			int corner = findCubie(CORNER_FACES, colors[(orientation + 1) % 3], colors[(orientation + 2) % 3], 1);
+			if (corner < 0 || used[corner] || colors[orientation] != getFaceColor(CORNER_FACES[corner][0]))
+				throw new InvalidCubeStateException();
+			used[corner] = true;
+			cp[position] = (byte) corner;
+			co[position] = (byte) orientation;
+		}
+
+		if (dimension == 3) {
+			for (MoveLayer layer : MoveLayer.values()) {
+				if (cube.getFieldColor(layer, 1, 1) != getFaceColor(layer))
+					throw new InvalidCubeStateException();
+			}
+
+			Arrays.fill(used, false);
+			for (int position = 0; position < EDGES; position++) {
+				Field.Color first = getFieldColor(cube, EDGE_FACES[position][0], EDGE_CUBIES[position]);
+				Field.Color second = getFieldColor(cube, EDGE_FACES[position][1], EDGE_CUBIES[position]);
+				int edge = findCubie(EDGE_FACES, first, second, 0);
+				int orientation = 0;
+				if (edge < 0) {
+					edge = findCubie(EDGE_FACES, second, first, 0);
+					orientation = 1;
+				}
+				if (edge < 0 || used[edge])
+					throw new InvalidCubeStateException();
+				used[edge] = true;
+				ep[position] = (byte) edge;
+				eo[position] = (byte) orientation;
+			}
+		}
+
+		if (!isValid(dimension))
+			throw new InvalidCubeStateException();
+	}
+
+	/**
+	 * Returns color of the sticker of the cubie.
+	 *
+	 * @param cube
+	 *            cube to read
+	 * @param layer
+	 *            face of the sticker
+	 * @param cubie
+	 *            signs of the cubie coordinates
+	 * @return color of the sticker
+	 */
+	private static Field.Color getFieldColor(RubiksCube cube, MoveLayer layer, int[] cubie) {
+		int dimension = cube.getDimension();
+		int index = CubeGeometry.getStickerIndex(dimension, layer.ordinal(), cubie) % (dimension * dimension);
+		return cube.getFieldColor(layer, index / dimension, index % dimension);
+	}
+
+	/**
+	 * Returns color of the face in the solved cube.
+	 *
+	 * @param layer
+	 *            face of the cube
+	 * @return color of the face
+	 */
+	private static Field.Color getFaceColor(MoveLayer layer) {
+		return CubeGeometry.FACE_COLORS[layer.ordinal()];
+	}
+
+	/**
+	 * Finds the cubie which has two specific colors on the neighboring
+	 * stickers.
+	 *
+	 * @param cubieFaces
+	 *            faces of all the cubies ({@link CubieCube#CORNER_FACES} or
+	 *            {@link CubieCube#EDGE_FACES})
+	 * @param first
+	 *            color of the first sticker
+	 * @param second
+	 *            color of the next sticker
+	 * @param offset
+	 *            index of the first sticker in the cubie
+	 * @return number of the cubie or -1 if there is no such cubie
+	 */
+	private static int findCubie(MoveLayer[][] cubieFaces, Field.Color first, Field.Color second, int offset) {
+		for (int cubie = 0; cubie < cubieFaces.length; cubie++) {
+			if (getFaceColor(cubieFaces[cubie][offset]) == first
+					&& getFaceColor(cubieFaces[cubie][offset + 1]) == second)
+				return cubie;
+		}
+		return -1;
+	}
+
+	/**
+	 * Copies the whole state of the other cubie cube.
+	 *
+	 * @param cubieCube
+	 *            CubieCube object to copy
+	 */
+	public void copyFrom(CubieCube cubieCube) {
+		System.arraycopy(cubieCube.cp, 0, cp, 0, CORNERS);
+		System.arraycopy(cubieCube.co, 0, co, 0, CORNERS);
+		System.arraycopy(cubieCube.ep, 0, ep, 0, EDGES);
+		System.arraycopy(cubieCube.eo, 0, eo, 0, EDGES);
+	}
+
+	/**
+	 * Multiplies this cube by the other one (the result is the state of this
+	 * cube after applying all the moves which lead to the {@code cubieCube}).
+	 *
+	 * @param cubieCube
+	 *            second factor
+	 */
+	public void multiply(CubieCube cubieCube) {
+		cornerMultiply(cubieCube);
+		edgeMultiply(cubieCube);
+	}
+
+	/**
+	 * Multiplies corners of this cube by the corners of the other one.
+	 *
+	 * @param cubieCube
+	 *            second factor
+	 */
+	public void cornerMultiply(CubieCube cubieCube) {
+		for (int i = 0; i < CORNERS; i++) {
+			int from = cubieCube.cp[i];
+			cpBuffer[i] = cp[from];
+			coBuffer[i] = (byte) ((co[from] + cubieCube.co[i]) % 3);
+		}
+		byte[] temp = cp;
+		cp = cpBuffer;
+		cpBuffer = temp;
+		temp = co;
+		co = coBuffer;
+		coBuffer = temp;
+	}
+
+	/**
+	 * Multiplies edges of this cube by the edges of the other one.
+	 *
+	 * @param cubieCube
+	 *            second factor
+	 */
+	public void edgeMultiply(CubieCube cubieCube) {
+		for (int i = 0; i < EDGES; i++) {
+			int from = cubieCube.ep[i];
+			epBuffer[i] = ep[from];
+			eoBuffer[i] = (byte) (eo[from] ^ cubieCube.eo[i]);
+		}
+		byte[] temp = ep;
+		ep = epBuffer;
+		epBuffer = temp;
+		temp = eo;
+		eo = eoBuffer;
+		eoBuffer = temp;
+	}
+
+	/**
+	 * Method rotate a layer specified by {@link Move} object.
+	 *
+	 * @param move
+	 *            {@link Move} object
+	 */
+	public void move(Move move) {
+		multiply(getMoveCube(move));
+	}
+
+	/**
+	 * Method do all the rotations specified by {@link Scramble} object.
+	 *
+	 * @param scramble
+	 *            {@link Scramble} object
+	 */
+	public void scramble(Scramble scramble) {
+		for (int i = 0; i < scramble.size(); i++) {
+			move(scramble.get(i));
+		}
+	}
+
+	/**
+	 * Returns the cubie cube of the single move (applied to the solved cube).
+	 *
+	 * @param move
+	 *            {@link Move} object
+	 * @return state after the move (must not be modified)
+	 */
+	public static CubieCube getMoveCube(Move move) {
+		return MOVE_CUBES[move.ordinal()];
+	}
+
+	/**
+	 * Returns the cubie cube of the single move (applied to the solved cube).
+	 *
+	 * @param move
+	 *            index of the move (see {@link Move#ordinal()})
+	 * @return state after the move (must not be modified)
+	 */
+	public static CubieCube getMoveCube(int move) {
+		return MOVE_CUBES[move];
+	}
+
+	/**
+	 * Returns {@code true} if all the cubies are on their places and oriented.
+	 *
+	 * @return true if cube is solved
+	 */
+	public boolean isSolved() {
+		return isSolved(3);
+	}
+
+	/**
+	 * Returns {@code true} if all the cubies of the cube with specific
+	 * dimension are on their places and oriented.
+	 *
+	 * @param dimension
+	 *            dimension of the cube (edges are not checked for 2x2x2 cube)
+	 * @return true if cube is solved
+	 */
+	public boolean isSolved(int dimension) {
+		for (int i = 0; i < CORNERS; i++) {
+			if (cp[i] != i || co[i] != 0)
+				return false;
+		}
+		if (dimension == 2)
+			return true;
+		for (int i = 0; i < EDGES; i++) {
+			if (ep[i] != i || eo[i] != 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if the state could be reached from the solved cube
+	 * by moves (both permutations are correct, orientations sums are 0 and for
+	 * 3x3x3 cube the parities of corners and edges are the same).
+	 *
+	 * @param dimension
+	 *            dimension of the cube (edges are not checked for 2x2x2 cube)
+	 * @return true if the state is valid
+	 */
+	public boolean isValid(int dimension) {
+		if (!isPermutation(cp) || !isPermutation(ep))
+			return false;
+		int twist = 0;
+		for (int i = 0; i < CORNERS; i++) {
+			twist += co[i];
+		}
+		if (twist % 3 != 0)
+			return false;
+		if (dimension == 2)
+			return true;
+
+		int flip = 0;
+		for (int i = 0; i < EDGES; i++) {
+			flip += eo[i];
+		}
+		return flip % 2 == 0 && getCornerParity() == getEdgeParity();
+	}
+
+	/**
+	 * Returns {@code true} if the array is a permutation of its indices.
+	 *
+	 * @param permutation
+	 *            array to check
+	 * @return true if the array is a permutation
+	 */
+	private static boolean isPermutation(byte[] permutation) {
+		boolean[] used = new boolean[permutation.length];
+		for (byte cubie : permutation) {
+			if (cubie < 0 || cubie >= permutation.length || used[cubie])
+				return false;
+			used[cubie] = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns parity of the corners permutation.
+	 *
+	 * @return 0 for even and 1 for odd permutation
+	 */
+	public int getCornerParity() {
+		return getParity(cp);
+	}
+
+	/**
+	 * Returns parity of the edges permutation.
+	 *
+	 * @return 0 for even and 1 for odd permutation
+	 */
+	public int getEdgeParity() {
+		return getParity(ep);
+	}
+
+	/**
+	 * Returns parity of the permutation (by counting the inversions).
+	 *
+	 * @param permutation
+	 *            permutation to check
+	 * @return 0 for even and 1 for odd permutation
+	 */
+	private static int getParity(byte[] permutation) {
+		int inversions = 0;
+		for (int i = 0; i < permutation.length; i++) {
+			for (int j = i + 1; j < permutation.length; j++) {
+				if (permutation[i] > permutation[j])
+					inversions++;
+			}
+		}
+		return inversions % 2;
+	}
+
+	/**
+	 * Returns signs of the coordinates of the corner position (x to the
+	 * right, y up, z to the front).
+	 *
+	 * @param position
+	 *            position of the corner (ordinal of {@link Corner})
+	 * @return signs of the x, y and z coordinates
+	 */
+	public static int[] getCornerCoordinates(int position) {
+		return CORNER_CUBIES[position].clone();
+	}
+
+	/**
+	 * Returns signs of the coordinates of the edge position (x to the right,
+	 * y up, z to the front).
+	 *
+	 * @param position
+	 *            position of the edge (ordinal of {@link Edge})
+	 * @return signs of the x, y and z coordinates (0 for the axis of the
+	 *         edge)
+	 */
+	public static int[] getEdgeCoordinates(int position) {
+		return EDGE_CUBIES[position].clone();
+	}
+
+	/**
+	 * Returns corner which is placed at the specific position.
+	 *
+	 * @param position
+	 *            position of the corner (ordinal of {@link Corner})
+	 * @return corner (ordinal of {@link Corner})
+	 */
+	public int getCornerPermutation(int position) {
+		return cp[position];
+	}
+
+	/**
+	 * Returns orientation of the corner which is placed at the specific
+	 * position.
+	 *
+	 * @param position
+	 *            position of the corner (ordinal of {@link Corner})
+	 * @return orientation (0, 1 or 2)
+	 */
+	public int getCornerOrientation(int position) {
+		return co[position];
+	}
+
+	/**
+	 * Places the corner at the specific position.
+	 *
+	 * @param position
+	 *            position of the corner (ordinal of {@link Corner})
+	 * @param corner
+	 *            corner (ordinal of {@link Corner})
+	 * @param orientation
+	 *            orientation (0, 1 or 2)
+	 */
+	public void setCorner(int position, int corner, int orientation) {
+		cp[position] = (byte) corner;
+		co[position] = (byte) orientation;
+	}
+
+	/**
+	 * Returns edge which is placed at the specific position.
+	 *
+	 * @param position
+	 *            position of the edge (ordinal of {@link Edge})
+	 * @return edge (ordinal of {@link Edge})
+	 */
+	public int getEdgePermutation(int position) {
+		return ep[position];
+	}
+
+	/**
+	 * Returns orientation of the edge which is placed at the specific
+	 * position.
+	 *
+	 * @param position
+	 *            position of the edge (ordinal of {@link Edge})
+	 * @return orientation (0 or 1)
+	 */
+	public int getEdgeOrientation(int position) {
+		return eo[position];
+	}
+
+	/**
+	 * Places the edge at the specific position.
+	 *
+	 * @param position
+	 *            position of the edge (ordinal of {@link Edge})
+	 * @param edge
+	 *            edge (ordinal of {@link Edge})
+	 * @param orientation
+	 *            orientation (0 or 1)
+	 */
+	public void setEdge(int position, int edge, int orientation) {
+		ep[position] = (byte) edge;
+		eo[position] = (byte) orientation;
+	}
+
+	/**
+	 * Returns colors of all the stickers of the cube with specific dimension
+	 * (indexed the same way as in {@link PackedCube}).
+	 *
+	 * @param dimension
+	 *            dimension of the cube (2 or 3)
+	 * @return colors of the stickers
+	 * @throws UnsupportedLayerDimensionException
+	 *             if dimension is not 2 or 3
+	 */
+	private Field.Color[] getFieldColors(int dimension) throws UnsupportedLayerDimensionException {
+		if (dimension != 2 && dimension != 3)
+			throw new UnsupportedLayerDimensionException();
+
+		int faceSize = dimension * dimension;
+		Field.Color[] colors = new Field.Color[6 * faceSize];
+		for (int i = 0; i < colors.length; i++) {
+			colors[i] = CubeGeometry.FACE_COLORS[i / faceSize];
+		}
+
+		for (int position = 0; position < CORNERS; position++) {
+			for (int i = 0; i < 3; i++) {
+				int index = CubeGeometry.getStickerIndex(dimension, CORNER_FACES[position][(i + co[position]) % 3]
+						.ordinal(), CORNER_CUBIES[position]);
+				colors[index] = getFaceColor(CORNER_FACES[cp[position]][i]);
+			}
+		}
+
+		if (dimension == 3) {
+			for (int position = 0; position < EDGES; position++) {
+				for (int i = 0; i < 2; i++) {
+					int index = CubeGeometry.getStickerIndex(dimension,
+							EDGE_FACES[position][(i + eo[position]) % 2].ordinal(), EDGE_CUBIES[position]);
+					colors[index] = getFaceColor(EDGE_FACES[ep[position]][i]);
+				}
+			}
+		}
+		return colors;
+	}
+
+	/**
+	 * Converts the cubie cube to the {@link Cube} object.
+	 *
+	 * @param dimension
+	 *            dimension of the cube (2 or 3)
+	 * @return cube with the same state
+	 * @throws UnsupportedLayerDimensionException
+	 *             if dimension is not 2 or 3
+	 */
+	public Cube toCube(int dimension) throws UnsupportedLayerDimensionException {
+		Field.Color[] colors = getFieldColors(dimension);
+		Cube cube = new Cube(dimension);
+		int faceSize = dimension * dimension;
+		MoveLayer[] layers = MoveLayer.values();
+		for (int i = 0; i < colors.length; i++) {
+			Layer layer = cube.getLayer(layers[i / faceSize]);
+			layer.getField(i % faceSize / dimension, i % dimension).setFieldColor(colors[i]);
+		}
+		cube.updateState();
+		return cube;
+	}
+
+	/**
+	 * Converts the cubie cube to the {@link PackedCube} object.
+	 *
+	 * @param dimension
+	 *            dimension of the cube (2 or 3)
+	 * @return cube with the same state
+	 * @throws UnsupportedLayerDimensionException
+	 *             if dimension is not 2 or 3
+	 */
+	public PackedCube toPackedCube(int dimension) throws UnsupportedLayerDimensionException {
+		Field.Color[] colors = getFieldColors(dimension);
+		PackedCube cube = new PackedCube(dimension);
+		for (int i = 0; i < colors.length; i++) {
+			cube.setFieldColor(i, colors[i]);
+		}
+		return cube;
+	}
+
+	@Override
+	public String toString() {
+		return "CubieCube [cp = " + Arrays.toString(cp) + ", co = " + Arrays.toString(co) + ", ep = "
+				+ Arrays.toString(ep) + ", eo = " + Arrays.toString(eo) + "]";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(cp);
+		result = prime * result + Arrays.hashCode(co);
+		result = prime * result + Arrays.hashCode(ep);
+		result = prime * result + Arrays.hashCode(eo);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CubieCube other = (CubieCube) obj;
+		return Arrays.equals(cp, other.cp) && Arrays.equals(co, other.co) && Arrays.equals(ep, other.ep)
+				&& Arrays.equals(eo, other.eo);
+	}
+}
@@ -1,5 +1,6 @@
 package my.kotpat.rubikSolver.domain;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
@@ -16,11 +17,11 @@ import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
 public class Layer {
 	/**
 	 * The maximum cube dimension. The structure of this project is designed for
-	 * every cube with dimension more than 2x2x2 but the moving system is
-	 * designed to turn only external faces. Internal faces (like M, r, u etc.)
-	 * are not supported in this version.
+	 * every cube with dimension more than 2x2x2 but the layers of {@link Cube}
+	 * turn only external faces. Internal slices and wide moves (like M, Rw,
+	 * 3Rw) are supported by {@link PackedCube} (see {@link SliceMove}).
 	 */
-	public static final int MAXIMUM_CUBE_DIMENSION = 3;
+	public static final int MAXIMUM_CUBE_DIMENSION = 11;
 
 	/**
 	 * Text name of layer. Additional field for user.
@@ -33,10 +34,54 @@ public class Layer {
 	private int dimension;
 
 	/**
-	 * Two-dimensional array of layer's fields (2x2 for 2x2x2 cube, 3x3 for
-	 * 3x3x3 cube etc.).
+	 * Array which contains layer's fields (4 for 2x2x2 cube, 9 for 3x3x3 cube
+	 * etc.) row by row, starting from {@link Layer#offset}. The array is
+	 * shared by all the layers of the {@link Cube}.
 	 */
-	private Field[][] layerFields;
+	private Field[] fields;
+
+	/**
+	 * Index of the first layer's field in {@link Layer#fields}.
+	 */
+	private int offset;
+
+	/**
+	 * Clockwise rotation of the face as a flat array of 4-cycles of the field
+	 * indices (relative to {@link Layer#offset}). The field from the first
+	 * index of the cycle goes to the second index and so on.
+	 */
+	private int[] faceCycles;
+
+	/**
+	 * Equals {@code true} if the connections with neighboring layers are
+	 * resolved to the {@link Layer#upIndices}, {@link Layer#downIndices},
+	 * {@link Layer#rightIndices} and {@link Layer#leftIndices} tables.
+	 */
+	private boolean resolved = false;
+
+	/**
+	 * Indices of the connected row/column fields in the fields array of the
+	 * layer above.
+	 */
+	private int[] upIndices;
+
+	/**
+	 * Indices of the connected row/column fields in the fields array of the
+	 * layer below.
+	 */
+	private int[] downIndices;
+
+	/**
+	 * Indices of the connected row/column fields in the fields array of the
+	 * layer to the right.
+	 */
+	private int[] rightIndices;
+
+	/**
+	 * Indices of the connected row/column fields in the fields array of the
+	 * layer to the left.
+	 */
+	private int[] leftIndices;
 
 	/**
 	 * The reference for layer which is above the current layer.
@@ -98,17 +143,40 @@ public class Layer {
 	 */
 	public Layer(int dimension, Field.Color defaultFieldColor, String layerName)
 			throws UnsupportedLayerDimensionException {
+		this(new Field[dimension * dimension], 0, dimension, defaultFieldColor, layerName);
+	}
+
+	/**
+	 * Creates layer which keeps its fields in the specific part of the shared
+	 * array (used by {@link Cube}).
+	 * 
+	 * @param fields
+	 *            shared array of fields
+	 * @param offset
+	 *            index of the first layer's field in the array
+	 * @param dimension
+	 *            layer's dimension
+	 * @param defaultFieldColor
+	 *            default layer's color
+	 * @param layerName
+	 *            additional layer's name
+	 * @throws UnsupportedLayerDimensionException
+	 *             if dimension is lower than 2 or bigger than
+	 *             {@link MAXIMUM_CUBE_DIMENSION}
+	 */
+	Layer(Field[] fields, int offset, int dimension, Field.Color defaultFieldColor, String layerName)
+			throws UnsupportedLayerDimensionException {
 		if (dimension < 2 || dimension > MAXIMUM_CUBE_DIMENSION)
 			throw new UnsupportedLayerDimensionException();
 
 		this.dimension = dimension;
 		this.layerName = layerName;
+		this.fields = fields;
+		this.offset = offset;
+		this.faceCycles = getFaceCycles(dimension);
 
-		layerFields = new Field[dimension][dimension];
-		for (int row = 0; row < dimension; row++) {
-			for (int col = 0; col < dimension; col++) {
-				layerFields[row][col] = new Field(defaultFieldColor);
-			}
+		for (int i = offset; i < offset + dimension * dimension; i++) {
+			fields[i] = new Field(defaultFieldColor);
 		}
 	}
 
@@ -118,78 +186,89 @@ public class Layer {
 	 * @return true if all the fields have the same color.
 	 */
 	public boolean hasAllFieldsEqual() {
-		Field.Color color = layerFields[0][0].getFieldColor();
+		Field.Color color = fields[offset].getFieldColor();
 
-		for (Field[] fields : layerFields) {
-			for (Field field : fields) {
-				if (!field.getFieldColor().equals(color))
-					return false;
-			}
+		for (int i = offset + 1; i < offset + dimension * dimension; i++) {
+			if (fields[i].getFieldColor() != color)
+				return false;
 		}
 
 		return true;
 	}
 
 	/**
-	 * Static method which transposes 2D field's array. Used in the a rotation
-	 * of 90 degrees.
+	 * Static method which computes the clockwise rotation of the face as
+	 * 4-cycles of the field indices. Every field goes from row {@code r} and
+	 * column {@code c} to row {@code c} and column {@code dimension - r - 1}.
 	 * 
-	 * @param fields
-	 *            2D field's array
-	 * @return new rotated array
-	 */
-	private static Field[][] getTransposed(Field[][] fields) {
-		int dimension = fields.length;
-		Field[][] temporaryLayerFields = new Field[dimension][dimension];
-		for (int row = 0; row < dimension; row++) {
-			for (int col = 0; col < dimension; col++) {
-				temporaryLayerFields[row][col] = fields[col][row];
+	 * @param dimension
+	 *            layer's dimension
+	 * @return flat array of 4-cycles
+	 */
+	private static int[] getFaceCycles(int dimension) {
+		int[] cycles = new int[dimension * dimension];
+		int counter = 0;
+		for (int row = 0; row < dimension / 2; row++) {
+			for (int col = row; col < dimension - row - 1; col++) {
+				int r = row, c = col;
+				for (int i = 0; i < 4; i++) {
+					cycles[counter++] = r * dimension + c;
+					int temp = r;
+					r = c;
+					c = dimension - temp - 1;
+				}
 			}
 		}
-		return temporaryLayerFields;
+		return Arrays.copyOf(cycles, counter);
 	}
 
 	/**
-	 * Static method which swaps rows in the 2D field's array. Used in the a
-	 * rotation of 90 and 180 degrees.
+	 * Static method which moves fields along the 4-cycles of indices. Used in
+	 * the rotations of 90 and 180 degrees.
 	 * 
 	 * @param fields
-	 *            2D field's array
-	 */
-	private static void swapRows(Field[][] fields) {
-		int length = fields.length;
-		for (Field[] fieldArray : fields) {
-			for (int i = 0; i < length / 2; i++) {
-				Field temp = fieldArray[i];
-				fieldArray[i] = fieldArray[length - i - 1];
-				fieldArray[length - i - 1] = temp;
+	 *            array of fields
+	 * @param offset
+	 *            offset added to every index
+	 * @param cycles
+	 *            flat array of 4-cycles
+	 * @param clockwise
+	 *            is clockwise (field goes to the next index of the cycle)
+	 * @param doubled
+	 *            is doubled (field goes to the opposite index of the cycle)
+	 */
+	private static void rotateCycles(Field[] fields, int offset, int[] cycles, boolean clockwise, boolean doubled) {
+		for (int i = 0; i < cycles.length; i += 4) {
+			int a = offset + cycles[i], b = offset + cycles[i + 1], c = offset + cycles[i + 2],
+					d = offset + cycles[i + 3];
+			Field temp = fields[a];
+			if (doubled) {
+				fields[a] = fields[c];
+				fields[c] = temp;
+				temp = fields[b];
+				fields[b] = fields[d];
+				fields[d] = temp;
+			} else if (clockwise) {
+				fields[a] = fields[d];
+				fields[d] = fields[c];
+				fields[c] = fields[b];
+				fields[b] = temp;
+			} else {
+				fields[a] = fields[b];
+				fields[b] = fields[c];
+				fields[c] = fields[d];
+				fields[d] = temp;
 			}
 		}
 	}
 
 	/**
-	 * Static method which swaps columns in the 2D field's array. Used in the a
-	 * rotation of 90 and 180 degrees.
-	 * 
-	 * @param fields
-	 *            2D field's array
-	 */
-	private static void swapCols(Field[][] fields) {
-		int length = fields.length;
-		for (int i = 0; i < length / 2; i++) {
-			Field[] temp = fields[i];
-			fields[i] = fields[length - i - 1];
-			fields[length - i - 1] = temp;
-		}
-	}
-
-	/**
-	 * Method rotates layer clockwise, counter-clockwise or doubled. If move is
-	 * doubled it delegates to the private method
-	 * {@link Layer#turnAroundDoubled()}. If it is a 90 degree rotation, at
-	 * first method transposes field's array and then swaps rows (clockwise) or
-	 * swaps columns (counter-clockwise) and then rotates neighboring layers by
-	 * method {@link Layer#turnAroundNeighbors(boolean)}
+	 * Method rotates layer clockwise, counter-clockwise or doubled. At first
+	 * method moves the fields of the face along the precomputed cycles and
+	 * then rotates neighboring layers by method
+	 * {@link Layer#turnAroundNeighbors(boolean)} (or
+	 * {@link Layer#turnAroundNeighborsDoubled()}). The rotation is done in
+	 * place and does not allocate any memory.
 	 * 
 	 * @param clockwise
 	 *            is clockwise
@@ -197,30 +276,16 @@ public class Layer {
 	 *            is doubled
 	 */
 	public void turnAround(boolean clockwise, boolean doubled) {
-		if (doubled) {
-			turnAroundDoubled();
-			return;
-		}
+		if (!resolved)
+			resolveNeighbors();
 
-		layerFields = getTransposed(layerFields);
+		rotateCycles(fields, offset, faceCycles, clockwise, doubled);
 
-		if (clockwise) {
-			swapRows(layerFields);
+		if (doubled) {
+			turnAroundNeighborsDoubled();
 		} else {
-			swapCols(layerFields);
+			turnAroundNeighbors(clockwise);
 		}
-
-		turnAroundNeighbors(clockwise);
-	}
-
-	/**
-	 * Method does 180 degrees rotation of layer by swapping rows and columns
-	 * and then rotates neighboring layers.
-	 */
-	private void turnAroundDoubled() {
-		swapRows(layerFields);
-		swapCols(layerFields);
-		turnAroundNeighborsDoubled();
 	}
 
 	/**
@@ -234,31 +299,50 @@ public class Layer {
 	 */
 	public void addLayerPosition(LayerPosition layerPosition, RowColPosition rowColPosition) {
 		this.layerPositions.put(layerPosition, rowColPosition);
+		resolved = false;
+	}
+
+	/**
+	 * Method resolves connections with neighboring layers (references and
+	 * {@link Layer#layerPositions}) to the tables of field indices, so the
+	 * rotation does not need to look up the map. It is called by {@link Cube}
+	 * after setting all the connections (and again before the rotation if
+	 * any connection has been changed).
+	 */
+	void resolveNeighbors() {
+		upIndices = up.getIndices(layerPositions.get(LayerPosition.UP_LAYER));
+		downIndices = down.getIndices(layerPositions.get(LayerPosition.DOWN_LAYER));
+		rightIndices = right.getIndices(layerPositions.get(LayerPosition.RIGHT_LAYER));
+		leftIndices = left.getIndices(layerPositions.get(LayerPosition.LEFT_LAYER));
+		resolved = true;
 	}
 
 	/**
-	 * Method rotates neighboring layers by swaping their rows or columns.
+	 * Method rotates neighboring layers by swapping their connected rows or
+	 * columns (field by field).
 	 * 
 	 * @param clockwise
 	 *            is clockwise
 	 */
 	private void turnAroundNeighbors(boolean clockwise) {
-
-		Field[] upFields = up.getFields(layerPositions.get(LayerPosition.UP_LAYER));
-		Field[] downFields = down.getFields(layerPositions.get(LayerPosition.DOWN_LAYER));
-		Field[] rightFields = right.getFields(layerPositions.get(LayerPosition.RIGHT_LAYER));
-		Field[] leftFields = left.getFields(layerPositions.get(LayerPosition.LEFT_LAYER));
-
-		if (clockwise) {
-			up.setFields(layerPositions.get(LayerPosition.UP_LAYER), leftFields);
-			left.setFields(layerPositions.get(LayerPosition.LEFT_LAYER), downFields);
-			down.setFields(layerPositions.get(LayerPosition.DOWN_LAYER), rightFields);
-			right.setFields(layerPositions.get(LayerPosition.RIGHT_LAYER), upFields);
-		} else {
-			up.setFields(layerPositions.get(LayerPosition.UP_LAYER), rightFields);
-			right.setFields(layerPositions.get(LayerPosition.RIGHT_LAYER), downFields);
-			down.setFields(layerPositions.get(LayerPosition.DOWN_LAYER), leftFields);
-			left.setFields(layerPositions.get(LayerPosition.LEFT_LAYER), upFields);
+		Field[] upFields = up.fields, downFields = down.fields, rightFields = right.fields,
+				leftFields = left.fields;
+
+		for (int i = 0; i < dimension; i++) {
+			int upIndex = upIndices[i], downIndex = downIndices[i], rightIndex = rightIndices[i],
+					leftIndex = leftIndices[i];
+			Field temp = upFields[upIndex];
+			if (clockwise) {
+				upFields[upIndex] = leftFields[leftIndex];
+				leftFields[leftIndex] = downFields[downIndex];
+				downFields[downIndex] = rightFields[rightIndex];
+				rightFields[rightIndex] = temp;
+			} else {
+				upFields[upIndex] = rightFields[rightIndex];
+				rightFields[rightIndex] = downFields[downIndex];
+				downFields[downIndex] = leftFields[leftIndex];
+				leftFields[leftIndex] = temp;
+			}
 		}
 	}
 
@@ -267,15 +351,17 @@ public class Layer {
 	 * every opposing pairs of rows and columns.
 	 */
 	private void turnAroundNeighborsDoubled() {
-		Field[] upFields = up.getFields(layerPositions.get(LayerPosition.UP_LAYER));
-		Field[] downFields = down.getFields(layerPositions.get(LayerPosition.DOWN_LAYER));
-		Field[] rightFields = right.getFields(layerPositions.get(LayerPosition.RIGHT_LAYER));
-		Field[] leftFields = left.getFields(layerPositions.get(LayerPosition.LEFT_LAYER));
-
-		up.setFields(layerPositions.get(LayerPosition.UP_LAYER), downFields);
-		left.setFields(layerPositions.get(LayerPosition.LEFT_LAYER), rightFields);
-		down.setFields(layerPositions.get(LayerPosition.DOWN_LAYER), upFields);
-		right.setFields(layerPositions.get(LayerPosition.RIGHT_LAYER), leftFields);
+		Field[] upFields = up.fields, downFields = down.fields, rightFields = right.fields,
+				leftFields = left.fields;
+
+		for (int i = 0; i < dimension; i++) {
+			Field temp = upFields[upIndices[i]];
+			upFields[upIndices[i]] = downFields[downIndices[i]];
+			downFields[downIndices[i]] = temp;
+			temp = leftFields[leftIndices[i]];
+			leftFields[leftIndices[i]] = rightFields[rightIndices[i]];
+			rightFields[rightIndices[i]] = temp;
+		}
 	}
 
 	/**
@@ -288,7 +374,7 @@ public class Layer {
 	 * @return {@link Field} object
 	 */
 	public Field getField(int row, int col) {
-		return layerFields[row][col];
+		return fields[offset + row * dimension + col];
 	}
 
 	/**
@@ -302,85 +388,49 @@ public class Layer {
 	 *            {@link Field} object
 	 */
 	public void setField(int row, int col, Field field) {
-		layerFields[row][col] = field;
+		fields[offset + row * dimension + col] = field;
 	}
 
 	/**
-	 * Set a row or column of fields to the specific position in the layer.
+	 * Returns indices (in {@link Layer#fields}) of a row or column of fields
+	 * from the specific position in the layer. Fields are ordered clockwise
+	 * around the layer.
 	 * 
 	 * @param rowColPosition
 	 *            row or column position
-	 * @param fields
-	 *            row or column of fields
-	 */
-	private void setFields(RowColPosition rowColPosition, Field[] fields) {
-
-		switch (rowColPosition) {
-		case DOWN: {
-			for (int i = 0; i < dimension; i++) {
-				layerFields[dimension - 1][dimension - i - 1] = fields[i];
-			}
-			break;
-		}
-		case LEFT: {
-			for (int i = 0; i < dimension; i++) {
-				layerFields[dimension - i - 1][0] = fields[i];
-			}
-			break;
-		}
-		case RIGHT: {
-			for (int i = 0; i < dimension; i++) {
-				layerFields[i][dimension - 1] = fields[i];
+	 * @return indices of row or column of fields
+	 */
+	private int[] getIndices(RowColPosition rowColPosition) {
+		int[] indices = new int[dimension];
+
+		for (int i = 0; i < dimension; i++) {
+			int row = 0, col = 0;
+			switch (rowColPosition) {
+			case DOWN: {
+				row = dimension - 1;
+				col = dimension - i - 1;
+				break;
 			}
-			break;
-		}
-		case UP: {
-			for (int i = 0; i < dimension; i++) {
-				layerFields[0][i] = fields[i];
-			}
-			break;
-		}
-		}
-	}
-
-	/**
-	 * Returns row or column of fields from the specific position in the layer.
-	 * 
-	 * @param rowColPosition
-	 *            row or column position
-	 * @return row or column of fields
-	 */
-	private Field[] getFields(RowColPosition rowColPosition) {
-		Field[] tempFields = new Field[dimension];
-
-		switch (rowColPosition) {
-		case DOWN: {
-			for (int i = 0; i < dimension; i++) {
-				tempFields[i] = layerFields[dimension - 1][dimension - i - 1];
+			case LEFT: {
+				row = dimension - i - 1;
+				col = 0;
+				break;
 			}
-			break;
-		}
-		case LEFT: {
-			for (int i = 0; i < dimension; i++) {
-				tempFields[i] = layerFields[dimension - i - 1][0];
+			case RIGHT: {
+				row = i;
+				col = dimension - 1;
+				break;
 			}
-			break;
-		}
-		case RIGHT: {
-			for (int i = 0; i < dimension; i++) {
-				tempFields[i] = layerFields[i][dimension - 1];
+			case UP: {
+				row = 0;
+				col = i;
+				break;
 			}
-			break;
-		}
-		case UP: {
-			for (int i = 0; i < dimension; i++) {
-				tempFields[i] = layerFields[0][i];
 			}
-			break;
-		}
+			indices[i] = offset + row * dimension + col;
 		}
 
-		return tempFields;
+		return indices;
 	}
 
 	/**
@@ -400,6 +450,7 @@ public class Layer {
 	 */
 	public void setUp(Layer up) {
 		this.up = up;
+		resolved = false;
 	}
 
 	/**
@@ -419,6 +470,7 @@ public class Layer {
 	 */
 	public void setDown(Layer down) {
 		this.down = down;
+		resolved = false;
 	}
 
 	/**
@@ -438,6 +490,7 @@ public class Layer {
 	 */
 	public void setRight(Layer right) {
 		this.right = right;
+		resolved = false;
 	}
 
 	/**
@@ -457,15 +510,16 @@ public class Layer {
 	 */
 	public void setLeft(Layer left) {
 		this.left = left;
+		resolved = false;
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder("Layer " + layerName + " " + dimension + "x" + dimension);
-		for (Field[] fields : layerFields) {
+		for (int row = 0; row < dimension; row++) {
 			builder.append("\n");
-			for (Field field : fields) {
-				builder.append(field.getFieldColor().toString());
+			for (int col = 0; col < dimension; col++) {
+				builder.append(getField(row, col).getFieldColor().toString());
 				builder.append("\t");
 			}
 		}
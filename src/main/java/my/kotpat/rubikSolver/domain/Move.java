@@ -1,8 +1,5 @@
 package my.kotpat.rubikSolver.domain;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import my.kotpat.rubikSolver.exceptions.DifferentMoveLayersException;
 import my.kotpat.rubikSolver.exceptions.FullAngleMoveException;
 import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
@@ -12,21 +9,36 @@ import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
  * WCA (World Cube Association) notation. Allowed moves: R, L, U, D, F, B
  * clockwise (e.g. R, U) or counter-clockwise (e.g. R', U') or "doubled" moves
  * (e.g. R2, U2).
+ * <p>
+ * Moves are immutable and there are only {@link Move#MOVES_COUNT} instances
+ * of the class (one for every move), so they could be shared and compared by
+ * reference. Instances are returned by {@link Move#of(MoveLayer, int)},
+ * {@link Move#of(int)} and {@link Move#of(String)}.
  * 
  * @author Patryk Kotlarz
  *
  */
-public class Move {
+public final class Move {
+
+	/**
+	 * Number of different moves (6 layers, 3 directions for every layer).
+	 */
+	public static final int MOVES_COUNT = 18;
+
+	/**
+	 * All the moves indexed by {@link Move#ordinal()}.
+	 */
+	private static final Move[] MOVES = new Move[MOVES_COUNT];
 
 	/**
 	 * Equals <code>true</code> if the move is clockwise.
 	 */
-	private boolean clockwise = false;
+	private final boolean clockwise;
 
 	/**
 	 * Equals <code>true</code> if the move is "doubled".
 	 */
-	private boolean doubled = false;
+	private final boolean doubled;
 
 	/**
 	 * Allowed moves (layer without specific information about direction).
@@ -38,79 +50,137 @@ public class Move {
 	/**
 	 * Layer to move.
 	 */
-	private MoveLayer moveLayer;
+	private final MoveLayer moveLayer;
+
+	/**
+	 * Index of the move (see {@link Move#ordinal()}).
+	 */
+	private final int ordinal;
+
+	/**
+	 * Number of clockwise quarter turns (1, 2 or 3).
+	 */
+	private final int turns;
+
+	static {
+		for (MoveLayer moveLayer : MoveLayer.values()) {
+			for (int turns = 1; turns <= 3; turns++) {
+				Move move = new Move(moveLayer, turns);
+				MOVES[move.ordinal] = move;
+			}
+		}
+	}
+
+	/**
+	 * Private constructor (used only to create all the instances).
+	 * 
+	 * @param moveLayer
+	 *            layer to move
+	 * @param turns
+	 *            number of clockwise quarter turns (1, 2 or 3)
+	 */
+	private Move(MoveLayer moveLayer, int turns) {
+		this.moveLayer = moveLayer;
+		this.turns = turns;
+		this.doubled = turns == 2;
+		this.clockwise = turns != 3;
+		this.ordinal = moveLayer.ordinal() * 3 + turns - 1;
+	}
 
 	/**
-	 * Standard copying constructor.
+	 * Returns the move of the layer with the specific number of clockwise
+	 * quarter turns.
 	 * 
-	 * @param move
-	 *            Move object to copy
+	 * @param moveLayer
+	 *            layer to move
+	 * @param turns
+	 *            number of clockwise quarter turns (1 - clockwise, 2 -
+	 *            doubled, 3 - counter-clockwise)
+	 * @return the move
+	 * @throws IllegalArgumentException
+	 *             if number of turns is not 1, 2 or 3
 	 */
-	public Move(Move move) {
-		this.clockwise = move.clockwise;
-		this.doubled = move.doubled;
-		this.moveLayer = move.moveLayer;
+	public static Move of(MoveLayer moveLayer, int turns) {
+		if (turns < 1 || turns > 3)
+			throw new IllegalArgumentException("Number of turns should be 1, 2 or 3");
+		return MOVES[moveLayer.ordinal() * 3 + turns - 1];
 	}
 
 	/**
-	 * Constructor which converts text description about turning the layer
-	 * ("R2", "U'") to the specific Move object. Uses regex "[R,L,U,D,F,B]2?'?"
-	 * to filter the unused information.
+	 * Returns the move with the specific index.
+	 * 
+	 * @param ordinal
+	 *            index of the move (see {@link Move#ordinal()})
+	 * @return the move
+	 * @throws ArrayIndexOutOfBoundsException
+	 *             if index is not from 0 to {@link Move#MOVES_COUNT} - 1
+	 */
+	public static Move of(int ordinal) {
+		return MOVES[ordinal];
+	}
+
+	/**
+	 * Converts text description about turning the layer ("R2", "U'") to the
+	 * specific Move object. Returns the first move found in the text (letter
+	 * R, L, U, D, F or B with optional "2" and optional "'"), other characters
+	 * are ignored.
 	 * 
 	 * @param moveString
 	 *            text description of move
+	 * @return the move
 	 * @throws UnsupportedMoveException
-	 *             if a <code>moveString</code> does not match to regex
+	 *             if a <code>moveString</code> does not contain any move
 	 */
-	public Move(String moveString) throws UnsupportedMoveException {
-		String moveStringTemp = null;
-		Pattern pattern = Pattern.compile("[R,L,U,D,F,B]2?'?");
-		Matcher matcher = pattern.matcher(moveString);
-		if (matcher.find()) {
-			moveStringTemp = matcher.group();
-		} else
-			throw new UnsupportedMoveException();
-
-		if (moveStringTemp.contains("2")) {
-			doubled = true;
-			moveStringTemp = moveStringTemp.replace("'", "");
+	public static Move of(String moveString) throws UnsupportedMoveException {
+		int length = moveString.length();
+		for (int i = 0; i < length; i++) {
+			MoveLayer moveLayer = getMoveLayer(moveString.charAt(i));
+			if (moveLayer != null) {
+				int turns = 1;
+				if (i + 1 < length && moveString.charAt(i + 1) == '2')
+					turns = 2;
+				else if (i + 1 < length && moveString.charAt(i + 1) == '\'')
+					turns = 3;
+				return of(moveLayer, turns);
+			}
 		}
+		throw new UnsupportedMoveException();
+	}
 
-		if (!moveStringTemp.contains("'")) {
-			clockwise = true;
+	/**
+	 * Returns the layer with the specific letter in the WCA notation.
+	 * 
+	 * @param letter
+	 *            letter of the layer (R, L, U, D, F or B)
+	 * @return the layer or {@code null} if the character is not a letter of
+	 *         any layer
+	 */
+	static MoveLayer getMoveLayer(char letter) {
+		switch (letter) {
+		case 'R':
+			return MoveLayer.RIGHT;
+		case 'L':
+			return MoveLayer.LEFT;
+		case 'U':
+			return MoveLayer.UP;
+		case 'D':
+			return MoveLayer.DOWN;
+		case 'F':
+			return MoveLayer.FRONT;
+		case 'B':
+			return MoveLayer.BACK;
+		default:
+			return null;
 		}
+	}
 
-		char c = moveStringTemp.charAt(0);
-
-		switch (c) {
-		case 'R': {
-			moveLayer = MoveLayer.RIGHT;
-			break;
-		}
-		case 'L': {
-			moveLayer = MoveLayer.LEFT;
-			break;
-		}
-		case 'U': {
-			moveLayer = MoveLayer.UP;
-			break;
-		}
-		case 'D': {
-			moveLayer = MoveLayer.DOWN;
-			break;
-		}
-		case 'F': {
-			moveLayer = MoveLayer.FRONT;
-			break;
-		}
-		case 'B': {
-			moveLayer = MoveLayer.BACK;
-			break;
-		}
-		default: {
-			throw new UnsupportedMoveException();
-		}
-		}
+	/**
+	 * Returns all the moves ordered by {@link Move#ordinal()}.
+	 * 
+	 * @return array of all the moves
+	 */
+	public static Move[] values() {
+		return MOVES.clone();
 	}
 
 	/**
@@ -123,52 +193,52 @@ public class Move {
 	}
 
 	/**
+	 * Returns <code>true</code> if the move is clockwise (also for doubled
+	 * moves).
 	 * 
-	 * MoveLayer setter.
-	 * 
-	 * @param moveLayer
-	 *            layer to move
+	 * @return true if the move is clockwise
 	 */
-	public void setMoveLayer(MoveLayer moveLayer) {
-		this.moveLayer = moveLayer;
+	public boolean isClockwise() {
+		return clockwise;
 	}
 
 	/**
-	 * Returns <code>true</code> if the move is clockwise.
+	 * Returns <code>true</code> if the move is "doubled".
 	 * 
-	 * @return true if the move is clockwise
+	 * @return true of the move is "doubled"
 	 */
-	public boolean isClockwise() {
-		return clockwise;
+	public boolean isDoubled() {
+		return doubled;
 	}
 
 	/**
-	 * Setter of {@link clockwise} parameter.
+	 * Returns number of clockwise quarter turns.
 	 * 
-	 * @param clockwise
-	 *            true if move should be clockwise
+	 * @return 1 (clockwise), 2 (doubled) or 3 (counter-clockwise)
 	 */
-	public void setClockwise(boolean clockwise) {
-		this.clockwise = clockwise;
+	public int getTurns() {
+		return turns;
 	}
 
 	/**
-	 * Returns <code>true</code> if the move is "doubled".
+	 * Returns index of the move (from 0 to {@link Move#MOVES_COUNT} - 1) which
+	 * could be used as an index in the tables. Moves are ordered by
+	 * {@link MoveLayer} and then by direction: clockwise, doubled,
+	 * counter-clockwise (R = 0, R2 = 1, R' = 2, L = 3 etc.).
 	 * 
-	 * @return true of the move is "doubled"
+	 * @return index of the move
 	 */
-	public boolean isDoubled() {
-		return doubled;
+	public int ordinal() {
+		return ordinal;
 	}
 
 	/**
-	 * Setter of {@link doubled} parameter.
+	 * Returns the move which reverses this move (e.g. R' for R, R2 for R2).
 	 * 
-	 * @param doubled
-	 *            true if move should be "doubled"
+	 * @return inverse move
 	 */
-	public void setDoubled(boolean doubled) {
-		this.doubled = doubled;
+	public Move inverse() {
+		return MOVES[ordinal + 2 - 2 * (turns - 1)];
 	}
 
 	/**
@@ -205,44 +275,11 @@ public class Move {
 	public static Move connect(Move move1, Move move2) throws DifferentMoveLayersException, FullAngleMoveException {
 		if (move1.getMoveLayer() != move2.getMoveLayer())
 			throw new DifferentMoveLayersException();
-		Move move = new Move(move1);
-		move.setDoubled(false);
 
-		if (move1.doubled) {
-			if (move2.doubled) {
-				throw new FullAngleMoveException();
-			} else {
-				if (move2.clockwise) {
-					move.setClockwise(false);
-				} else {
-					move.setClockwise(true);
-				}
-			}
-		} else {
-			if (move1.clockwise) {
-				if (move2.doubled) {
-					move.setClockwise(false);
-				} else {
-					if (move2.clockwise) {
-						move.setDoubled(true);
-					} else {
-						throw new FullAngleMoveException();
-					}
-				}
-			} else {
-				if (move2.doubled) {
-					move.setClockwise(true);
-				} else {
-					if (move2.clockwise) {
-						throw new FullAngleMoveException();
-					} else {
-						move.setDoubled(true);
-					}
-				}
-			}
-		}
-
-		return move;
+		int turns = (move1.turns + move2.turns) % 4;
+		if (turns == 0)
+			throw new FullAngleMoveException();
+		return of(move1.moveLayer, turns);
 	}
 
 	@Override
@@ -252,30 +289,16 @@ public class Move {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + (clockwise ? 1231 : 1237);
-		result = prime * result + (doubled ? 1231 : 1237);
-		result = prime * result + ((moveLayer == null) ? 0 : moveLayer.hashCode());
-		return result;
+		return ordinal;
 	}
 
+	/**
+	 * Moves are equal only if they are the same instance (there is only one
+	 * instance of every move).
+	 */
 	@Override
 	public boolean equals(Object obj) {
-		if (this == obj)
-			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
-			return false;
-		Move other = (Move) obj;
-		if (clockwise != other.clockwise)
-			return false;
-		if (doubled != other.doubled)
-			return false;
-		if (moveLayer != other.moveLayer)
-			return false;
-		return true;
+		return this == obj;
 	}
 
 }
@@ -0,0 +1,389 @@
+package my.kotpat.rubikSolver.domain;
+
+import java.util.Arrays;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+
+/**
+ * Alternative implementation of {@link RubiksCube}. All the 6 * N * N stickers
+ * are kept in a single {@code byte} array (the value of each byte is the
+ * ordinal of the sticker's {@link Field.Color}) and every turn of an external
+ * face is applied as a precomputed permutation of sticker indices. Moving the
+ * cube does not allocate any memory and does not walk any references between
+ * layers, so this engine is designed for searching and random walks.
+ * <p>
+ * Stickers are stored face by face in the order of {@link MoveLayer} (R, L, U,
+ * D, F, B) and row by row inside the face. Rows and columns of the faces are
+ * the same as in the {@link Layer} objects of {@link Cube}, so both engines
+ * always describe the same cube after the same moves.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class PackedCube implements RubiksCube {
+
+	/**
+	 * All the colors (indexed by the values stored in
+	 * {@link PackedCube#stickers}).
+	 */
+	private static final Field.Color[] COLORS = Field.Color.values();
+
+	/**
+	 * Dimension of the cube.
+	 */
+	private int dimension;
+
+	/**
+	 * Stickers of the cube (ordinals of {@link Field.Color}).
+	 */
+	private byte[] stickers;
+
+	/**
+	 * Clockwise quarter turn of every face (in the order of {@link MoveLayer})
+	 * as a flat array of 4-cycles of sticker indices. The sticker from the
+	 * first index of the cycle goes to the second index, from the second to
+	 * the third and so on.
+	 */
+	private int[][] faceCycles;
+
+	/**
+	 * Clockwise quarter turns of the inner slices (indexed by face and number
+	 * of the layer counting from the face, see
+	 * {@link CubeGeometry#getSliceCycles(int)}).
+	 */
+	private int[][][] sliceCycles;
+
+	/**
+	 * Information about the state (Zobrist hash, solved faces, misplaced
+	 * stickers) updated by every move.
+	 */
+	private StateTracker tracker;
+
+	/**
+	 * Constructor creates solved cube with the specific {@link dimension}.
+	 *
+	 * @param dimension
+	 *            dimension of cube
+	 * @throws UnsupportedLayerDimensionException
+	 *             if dimension is less than 2 or more than
+	 *             {@link Layer#MAXIMUM_CUBE_DIMENSION}
+	 */
+	public PackedCube(int dimension) throws UnsupportedLayerDimensionException {
+		if (dimension < 2 || dimension > Layer.MAXIMUM_CUBE_DIMENSION)
+			throw new UnsupportedLayerDimensionException();
+
+		this.dimension = dimension;
+		this.faceCycles = CubeGeometry.getFaceCycles(dimension);
+		this.sliceCycles = CubeGeometry.getSliceCycles(dimension);
+		this.tracker = new StateTracker(dimension);
+
+		int faceSize = dimension * dimension;
+		stickers = new byte[6 * faceSize];
+		for (int i = 0; i < stickers.length; i++) {
+			stickers[i] = (byte) CubeGeometry.FACE_COLORS[i / faceSize].ordinal();
+		}
+		tracker.reset(stickers);
+	}
+
+	/**
+	 * Standard copying constructor.
+	 *
+	 * @param cube
+	 *            PackedCube object to copy
+	 */
+	public PackedCube(PackedCube cube) {
+		this.dimension = cube.dimension;
+		this.faceCycles = cube.faceCycles;
+		this.sliceCycles = cube.sliceCycles;
+		this.stickers = cube.stickers.clone();
+		this.tracker = new StateTracker(dimension);
+		this.tracker.copyFrom(cube.tracker);
+	}
+
+	/**
+	 * Method rotate a layer specified by {@link Move} object.
+	 *
+	 * @param move
+	 *            {@link Move} object
+	 */
+	public void move(Move move) {
+		turn(faceCycles[move.ordinal() / 3], move.getTurns());
+	}
+
+	/**
+	 * Method rotates layers specified by {@link SliceMove} object. Every inner
+	 * slice moves only 4 * N stickers, stickers of the face are moved only if
+	 * the move contains the outer layer.
+	 *
+	 * @param move
+	 *            {@link SliceMove} object
+	 * @throws IllegalArgumentException
+	 *             if the move has layers which does not exist in this cube
+	 */
+	public void move(SliceMove move) {
+		int face = move.getMoveLayer().ordinal();
+		int firstLayer = move.getFirstLayer();
+		int lastLayer = move.getLastLayer(dimension);
+		if (lastLayer > dimension || lastLayer < firstLayer)
+			throw new IllegalArgumentException(move.getMoveString() + " is not a move of the cube " + dimension + "x"
+					+ dimension + "x" + dimension);
+
+		int turns = move.getTurns();
+		if (firstLayer == 1)
+			turn(faceCycles[face], turns);
+		for (int layer = Math.max(firstLayer, 2); layer <= Math.min(lastLayer, dimension - 1); layer++) {
+			turn(sliceCycles[face][layer], turns);
+		}
+		// The last layer is the opposite face turned in the other direction
+		if (lastLayer == dimension)
+			turn(faceCycles[face ^ 1], 4 - turns);
+	}
+
+	/**
+	 * Rotates layer by applying its precomputed cycles (after updating the
+	 * information about the state by the moved stickers).
+	 *
+	 * @param cycles
+	 *            flat array of 4-cycles of the layer
+	 * @param turns
+	 *            number of clockwise quarter turns (1, 2 or 3)
+	 */
+	private void turn(int[] cycles, int turns) {
+		byte[] s = stickers;
+		tracker.move(cycles, turns, s);
+
+		switch (turns) {
+		case 1: {
+			for (int i = 0; i < cycles.length; i += 4) {
+				byte temp = s[cycles[i + 3]];
+				s[cycles[i + 3]] = s[cycles[i + 2]];
+				s[cycles[i + 2]] = s[cycles[i + 1]];
+				s[cycles[i + 1]] = s[cycles[i]];
+				s[cycles[i]] = temp;
+			}
+			break;
+		}
+		case 2: {
+			for (int i = 0; i < cycles.length; i += 4) {
+				byte temp = s[cycles[i]];
+				s[cycles[i]] = s[cycles[i + 2]];
+				s[cycles[i + 2]] = temp;
+				temp = s[cycles[i + 1]];
+				s[cycles[i + 1]] = s[cycles[i + 3]];
+				s[cycles[i + 3]] = temp;
+			}
+			break;
+		}
+		case 3: {
+			for (int i = 0; i < cycles.length; i += 4) {
+				byte temp = s[cycles[i]];
+				s[cycles[i]] = s[cycles[i + 1]];
+				s[cycles[i + 1]] = s[cycles[i + 2]];
+				s[cycles[i + 2]] = s[cycles[i + 3]];
+				s[cycles[i + 3]] = temp;
+			}
+			break;
+		}
+		}
+	}
+
+	/**
+	 * Method do all the rotations specified by {@link Scramble} object.
+	 *
+	 * @param scramble
+	 *            {@link Scramble} object
+	 */
+	public void scramble(Scramble scramble) {
+		for (int i = 0; i < scramble.size(); i++) {
+			move(scramble.get(i));
+		}
+	}
+
+	/**
+	 * Returns {@code true} if every face has all the stickers of the same
+	 * color. The number of solved faces is updated by every move, so the
+	 * method does not scan the stickers.
+	 *
+	 * @return true if cube is solved
+	 */
+	public boolean isSolved() {
+		return tracker.isSolved();
+	}
+
+	/**
+	 * Returns number of stickers with other color than the face in the solved
+	 * cube (0 for the solved cube in the standard orientation). The value is
+	 * updated by every move, so it could be used as the cheap distance from
+	 * the solved state by the heuristic solvers.
+	 *
+	 * @return number of misplaced stickers
+	 */
+	public int getMisplacedStickers() {
+		return tracker.getMisplacedStickers();
+	}
+
+	public RubiksCube copy() {
+		return new PackedCube(this);
+	}
+
+	/**
+	 * Saves the current state of the cube. The snapshot could be restored by
+	 * every {@link PackedCube} with the same dimension (so it could be used to
+	 * copy the state between cubes).
+	 *
+	 * @return snapshot of the state
+	 */
+	public CubeSnapshot snapshot() {
+		Snapshot snapshot = new Snapshot(this);
+		snapshot(snapshot);
+		return snapshot;
+	}
+
+	public void snapshot(CubeSnapshot snapshot) {
+		Snapshot packedSnapshot = getSnapshot(snapshot);
+		System.arraycopy(stickers, 0, packedSnapshot.stickers, 0, stickers.length);
+		packedSnapshot.tracker.copyFrom(tracker);
+	}
+
+	public void restore(CubeSnapshot snapshot) {
+		Snapshot packedSnapshot = getSnapshot(snapshot);
+		System.arraycopy(packedSnapshot.stickers, 0, stickers, 0, stickers.length);
+		tracker.copyFrom(packedSnapshot.tracker);
+	}
+
+	/**
+	 * Returns 64-bit Zobrist hash of the state. It is updated by every move
+	 * (only by the moved stickers), so the method does not scan the cube.
+	 *
+	 * @return hash of the state
+	 */
+	public long getStateHash() {
+		return tracker.getHash();
+	}
+
+	/**
+	 * Checks if the snapshot was created by the {@link PackedCube} with the
+	 * same dimension.
+	 *
+	 * @param snapshot
+	 *            snapshot to check
+	 * @return the snapshot
+	 * @throws IllegalArgumentException
+	 *             if the snapshot is not compatible with this cube
+	 */
+	private Snapshot getSnapshot(CubeSnapshot snapshot) {
+		if (!(snapshot instanceof Snapshot) || ((Snapshot) snapshot).stickers.length != stickers.length)
+			throw new IllegalArgumentException("Snapshot of the other type of cube");
+		return (Snapshot) snapshot;
+	}
+
+	public int getDimension() {
+		return dimension;
+	}
+
+	public Field.Color getFieldColor(MoveLayer layer, int row, int col) {
+		return COLORS[stickers[index(layer.ordinal(), row, col)]];
+	}
+
+	/**
+	 * Sets color of the sticker.
+	 *
+	 * @param index
+	 *            index of the sticker in {@link PackedCube#stickers}
+	 * @param color
+	 *            new color
+	 */
+	void setFieldColor(int index, Field.Color color) {
+		tracker.changeSticker(index, stickers[index], color.ordinal());
+		stickers[index] = (byte) color.ordinal();
+	}
+
+	/**
+	 * Returns index of the sticker in {@link PackedCube#stickers}.
+	 *
+	 * @param face
+	 *            ordinal of {@link MoveLayer}
+	 * @param row
+	 *            number of row
+	 * @param col
+	 *            number of column
+	 * @return index of the sticker
+	 */
+	private int index(int face, int row, int col) {
+		return (face * dimension + row) * dimension + col;
+	}
+
+	@Override
+	public int hashCode() {
+		long hash = tracker.getHash();
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Two cubes are equal if they have the same dimension and the same colors
+	 * of all the stickers. Cubes with different hashes are rejected without
+	 * comparing the stickers.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		PackedCube other = (PackedCube) obj;
+		return dimension == other.dimension && tracker.getHash() == other.tracker.getHash()
+				&& Arrays.equals(stickers, other.stickers);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("Cube " + dimension + "x" + dimension + "x" + dimension);
+		MoveLayer[] order = { MoveLayer.BACK, MoveLayer.LEFT, MoveLayer.UP, MoveLayer.RIGHT, MoveLayer.FRONT,
+				MoveLayer.DOWN };
+
+		for (MoveLayer layer : order) {
+			builder.append("\nLayer " + layer.toString().charAt(0) + " " + dimension + "x" + dimension);
+			for (int row = 0; row < dimension; row++) {
+				builder.append("\n");
+				for (int col = 0; col < dimension; col++) {
+					builder.append(getFieldColor(layer, row, col).toString());
+					builder.append("\t");
+				}
+			}
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Implementation of {@link CubeSnapshot} which keeps copy of all the
+	 * stickers.
+	 */
+	private static class Snapshot implements CubeSnapshot {
+		/**
+		 * The cube which state is saved.
+		 */
+		private final PackedCube cube;
+
+		/**
+		 * Copy of {@link PackedCube#stickers}.
+		 */
+		private final byte[] stickers;
+
+		/**
+		 * Copy of {@link PackedCube#tracker}.
+		 */
+		private final StateTracker tracker;
+
+		private Snapshot(PackedCube cube) {
+			this.cube = cube;
+			this.stickers = new byte[cube.stickers.length];
+			this.tracker = new StateTracker(cube.dimension);
+		}
+
+		public RubiksCube getCube() {
+			return cube;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package my.kotpat.rubikSolver.domain;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+
+/**
+ * Common interface of all the cube implementations (engines). Allows rotating
+ * layers, scrambling and checking information about fields, so every
+ * {@link my.kotpat.rubikSolver.services.CubeSolver} can work with each of
+ * them.
+ * 
+ * @see Cube
+ * @see PackedCube
+ * @author Patryk Kotlarz
+ *
+ */
+public interface RubiksCube {
+	/**
+	 * Method rotate a layer specified by {@link Move} object.
+	 * 
+	 * @param move
+	 *            {@link Move} object
+	 */
+	public void move(Move move);
+
+	/**
+	 * Method do all the rotations specified by {@link Scramble} object.
+	 * 
+	 * @param scramble
+	 *            {@link Scramble} object
+	 */
+	public void scramble(Scramble scramble);
+
+	/**
+	 * Returns {@code true} if cube is solved.
+	 * 
+	 * @return true if cube is solved
+	 */
+	public boolean isSolved();
+
+	/**
+	 * Returns dimension of the cube.
+	 * 
+	 * @return dimension of the cube
+	 */
+	public int getDimension();
+
+	/**
+	 * Returns color of the specific field (sticker) of the cube. Rows and
+	 * columns are numbered the same way as in {@link Layer#getField(int, int)}.
+	 * 
+	 * @param layer
+	 *            face of the cube
+	 * @param row
+	 *            number of row
+	 * @param col
+	 *            number of column
+	 * @return color of the field
+	 */
+	public Field.Color getFieldColor(MoveLayer layer, int row, int col);
+
+	/**
+	 * Returns 64-bit Zobrist hash of the state (colors of all the fields). The
+	 * hash is updated by every move, so it could be used on every node of the
+	 * search (e.g. in the sets of visited states). Cubes with the same state
+	 * and dimension have the same hash.
+	 * 
+	 * @return hash of the state
+	 */
+	public long getStateHash();
+
+	/**
+	 * Returns number of fields with other color than the face in the solved
+	 * cube (0 for the solved cube in the standard orientation). The value is
+	 * updated by every move, so it could be used as the cheap distance from
+	 * the solved state by greedy and heuristic solvers.
+	 * 
+	 * @return number of misplaced fields
+	 */
+	public int getMisplacedStickers();
+
+	/**
+	 * Returns new cube (of the same implementation) with the same state. The
+	 * copy is independent of this cube, so it could be used e.g. by other
+	 * thread.
+	 * 
+	 * @return copy of the cube
+	 */
+	public RubiksCube copy();
+
+	/**
+	 * Saves the current state of the cube.
+	 * 
+	 * @return snapshot of the state
+	 */
+	public CubeSnapshot snapshot();
+
+	/**
+	 * Saves the current state of the cube to the existing snapshot (created
+	 * by this cube), so no memory is allocated.
+	 * 
+	 * @param snapshot
+	 *            snapshot to overwrite
+	 * @throws IllegalArgumentException
+	 *             if the snapshot is not compatible with this cube
+	 */
+	public void snapshot(CubeSnapshot snapshot);
+
+	/**
+	 * Returns the cube to the saved state.
+	 * 
+	 * @param snapshot
+	 *            snapshot of the state
+	 * @throws IllegalArgumentException
+	 *             if the snapshot is not compatible with this cube
+	 */
+	public void restore(CubeSnapshot snapshot);
+}
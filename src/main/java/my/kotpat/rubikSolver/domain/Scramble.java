@@ -1,22 +1,26 @@
 package my.kotpat.rubikSolver.domain;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.NoSuchElementException;
 
-import my.kotpat.rubikSolver.exceptions.DifferentMoveLayersException;
-import my.kotpat.rubikSolver.exceptions.FullAngleMoveException;
-import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
+import my.kotpat.rubikSolver.exceptions.MoveSyntaxException;
 
 /**
  * 
- * This class represents scramble (sequence of moves). It has list of moves
+ * This class represents scramble (sequence of moves). It has array of moves
  * inside, allows adding new moves, deleting moves, reversing scramble and
  * simplifying scramble. Implements {@code Iterable<Move>} interface for greater
  * comfort in use.
+ * <p>
+ * Moves are kept as ordinals ({@link Move#ordinal()}) in the growable byte
+ * array, so every move takes one byte, {@link Scramble#get(int)} is O(1) and
+ * the iterator returns the shared {@link Move} instances (nothing is
+ * allocated per move). {@link Scramble#subScramble(int, int)} returns the
+ * view which shares the array with the scramble. The array is copied by the
+ * first change of the scramble or any of its views, so the changes are never
+ * visible in the other scrambles.
  * 
  * @author Patryk Kotlarz
  *
@@ -24,15 +28,46 @@ import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
 public class Scramble implements Iterable<Move> {
 
 	/**
-	 * List of moves.
+	 * Initial capacity of the array of moves.
 	 */
-	private List<Move> movesList;
+	private static final int DEFAULT_CAPACITY = 16;
 
 	/**
-	 * Default constructor. It allocates memory for {@link movesList}.
+	 * Ordinals of the moves (from {@link Scramble#offset}).
+	 */
+	private byte[] moves;
+
+	/**
+	 * Index of the first move in the array.
+	 */
+	private int offset;
+
+	/**
+	 * Number of moves.
+	 */
+	private int size;
+
+	/**
+	 * Equals {@code true} if the array could be used by other scramble (it has
+	 * to be copied before any change).
+	 */
+	private boolean shared;
+
+	/**
+	 * Default constructor. It allocates memory for {@link Scramble#moves}.
 	 */
 	public Scramble() {
-		movesList = new LinkedList<Move>();
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor which allocates memory for the specific number of moves.
+	 * 
+	 * @param capacity
+	 *            initial capacity of the scramble
+	 */
+	public Scramble(int capacity) {
+		moves = new byte[Math.max(capacity, 1)];
 	}
 
 	/**
@@ -42,30 +77,46 @@ public class Scramble implements Iterable<Move> {
 	 *            list of moves
 	 */
 	public Scramble(List<Move> movesList) {
-		this();
-		this.movesList.addAll(movesList);
+		this(movesList.size());
+		for (Move move : movesList) {
+			add(move);
+		}
 	}
 
 	/**
 	 * Constructor which converts text description of the scramble (e.g. R2 U2
-	 * L' L R") to the specific Scramble object. Uses regex "[R,L,U,D,F,B]2?'?"
-	 * to filter the unused information.
+	 * L' L R") to the specific Scramble object. Uses lenient
+	 * {@link ScrambleParser} to filter the unused information.
 	 * 
 	 * @param scramble
 	 *            text description of the scramble
 	 */
 	public Scramble(String scramble) {
 		this();
-		Pattern pattern = Pattern.compile("[r,R,l,L,u,U,d,D,f,F,b,B]2?'?");
-		Matcher matcher = pattern.matcher(scramble);
-		while (matcher.find()) {
-			try {
-				movesList.add(new Move(matcher.group()));
-			} catch (UnsupportedMoveException e) {
-			}
+		try {
+			new ScrambleParser(true).parse(scramble, this::add);
+		} catch (MoveSyntaxException e) {
+			// Lenient parser skips incorrect characters
 		}
 	}
 
+	/**
+	 * Creates the view of the moves of the array.
+	 * 
+	 * @param moves
+	 *            shared array of the move ordinals
+	 * @param offset
+	 *            index of the first move
+	 * @param size
+	 *            number of moves
+	 */
+	private Scramble(byte[] moves, int offset, int size) {
+		this.moves = moves;
+		this.offset = offset;
+		this.size = size;
+		this.shared = true;
+	}
+
 	/**
 	 * Adds new move to the sequence.
 	 * 
@@ -73,26 +124,126 @@ public class Scramble implements Iterable<Move> {
 	 *            new move
 	 */
 	public void add(Move move) {
-		movesList.add(move);
+		ensureCapacity(size + 1);
+		moves[offset + size++] = (byte) move.ordinal();
+	}
+
+	/**
+	 * Adds all the moves of the other scramble to the end of the sequence.
+	 * 
+	 * @param scramble
+	 *            scramble to add (could be this scramble)
+	 */
+	public void addAll(Scramble scramble) {
+		addAll(scramble.moves, scramble.offset, scramble.size);
+	}
+
+	/**
+	 * Adds the moves to the end of the sequence.
+	 * 
+	 * @param ordinals
+	 *            array of the move ordinals ({@link Move#ordinal()})
+	 * @param from
+	 *            index of the first move in the array
+	 * @param length
+	 *            number of moves
+	 * @throws IllegalArgumentException
+	 *             if any of the ordinals is not a move
+	 */
+	public void addAll(byte[] ordinals, int from, int length) {
+		for (int i = from; i < from + length; i++) {
+			if (ordinals[i] < 0 || ordinals[i] >= Move.MOVES_COUNT)
+				throw new IllegalArgumentException("Incorrect move ordinal: " + ordinals[i]);
+		}
+		ensureCapacity(size + length);
+		System.arraycopy(ordinals, from, moves, offset + size, length);
+		size += length;
+	}
+
+	/**
+	 * Returns the move with the specific index.
+	 * 
+	 * @param index
+	 *            index of the move
+	 * @return the move
+	 * @throws IndexOutOfBoundsException
+	 *             if index is not from 0 to {@link Scramble#size()} - 1
+	 */
+	public Move get(int index) {
+		return Move.of(getOrdinal(index));
+	}
+
+	/**
+	 * Returns ordinal of the move with the specific index.
+	 * 
+	 * @param index
+	 *            index of the move
+	 * @return ordinal of the move ({@link Move#ordinal()})
+	 * @throws IndexOutOfBoundsException
+	 *             if index is not from 0 to {@link Scramble#size()} - 1
+	 */
+	public int getOrdinal(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		return moves[offset + index];
+	}
+
+	/**
+	 * Returns the view of the moves from the range. The view shares the array
+	 * with this scramble until any of them is changed.
+	 * 
+	 * @param from
+	 *            index of the first move
+	 * @param to
+	 *            index after the last move
+	 * @return view of the moves
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is not correct
+	 */
+	public Scramble subScramble(int from, int to) {
+		if (from < 0 || to > size || from > to)
+			throw new IndexOutOfBoundsException("Range: " + from + "-" + to + ", size: " + size);
+		shared = true;
+		return new Scramble(moves, offset + from, to - from);
+	}
+
+	/**
+	 * Returns the copy of the move ordinals.
+	 * 
+	 * @return ordinals of the moves ({@link Move#ordinal()})
+	 */
+	public byte[] toOrdinals() {
+		return Arrays.copyOfRange(moves, offset, offset + size);
+	}
+
+	/**
+	 * Deletes all the moves. The array is kept, so the scramble could be
+	 * filled again without allocating memory.
+	 */
+	public void clear() {
+		size = 0;
 	}
 
 	/**
 	 * Deletes last move.
 	 */
 	public void deleteLast() {
-		movesList.remove(movesList.size() - 1);
+		if (size == 0)
+			throw new IndexOutOfBoundsException("Scramble is empty");
+		size--;
 	}
 
 	/**
-	 * Reversing the scramble (e.g. R2 U' L {@code ->} L' U R2). At first method
-	 * is reversing the list of moves and then changes in every move: clockwise
-	 * != clockwise
+	 * Reversing the scramble (e.g. R2 U' L {@code ->} L' U R2). Moves are
+	 * swapped from both ends and every move is replaced by its
+	 * {@link Move#inverse()}.
 	 */
 	public void reverse() {
-		Collections.reverse(movesList);
-
-		for (Move move : movesList) {
-			move.setClockwise(!move.isClockwise());
+		ensureCapacity(size);
+		for (int i = offset, j = offset + size - 1; i <= j; i++, j--) {
+			byte first = moves[i];
+			moves[i] = (byte) Move.of(moves[j]).inverse().ordinal();
+			moves[j] = (byte) Move.of(first).inverse().ordinal();
 		}
 	}
 
@@ -103,43 +254,81 @@ public class Scramble implements Iterable<Move> {
 	 * @return number of moves in scramble
 	 */
 	public int size() {
-		return movesList.size();
+		return size;
 	}
 
 	/**
-	 * Simplifies the scramble by trying to connect
-	 * {@link Move#connect(Move, Move)} every neighboring moves (e.g.
-	 * "R2 R' L2 F" {@code ->} "R L2 F").
+	 * Simplifies the scramble to the shortest sequence which could be found by
+	 * joining the moves of the same layer and of the opposite layers (they
+	 * commute), e.g. "R2 R' L2 F" {@code ->} "L2 R F" and "R L R'" {@code ->}
+	 * "L". The moves are reduced in one pass on the stack of the axes: every
+	 * entry keeps the quarter turns (modulo 4) of both layers of the axis and
+	 * it is removed when both are 0, so the next move could be joined with
+	 * the previous entry. The simplified scramble is canonical (see
+	 * {@link CanonicalSequence}).
 	 */
 	public void simplify() {
-		for (int i = 0; i < movesList.size(); i++) {
-			Move move = movesList.get(i);
-			for (int j = i + 1; j < movesList.size(); j++) {
-				try {
-					move = Move.connect(move, movesList.get(j));
-					movesList.remove(j);
-					movesList.set(i, move);
-					j--;
-				} catch (DifferentMoveLayersException e) {
-					// Break if next move has different moving layer
-					break;
-				} catch (FullAngleMoveException e) {
-					// Delete both moves if there is no move
-					movesList.remove(j);
-					movesList.remove(i);
-					i--;
-					break;
-				}
+		ensureCapacity(size);
+		// Entry of the stack: axis << 4 | turns of the even layer << 2 | turns
+		// of the odd layer
+		byte[] stack = new byte[size];
+		int top = -1;
+		for (int i = 0; i < size; i++) {
+			int move = moves[offset + i];
+			int layer = CanonicalSequence.getLayer(move);
+			int axis = layer >> 1;
+			int shift = (layer & 1) == 0 ? 2 : 0;
+			int turns = (move % 3 + 1) << shift;
+
+			if (top >= 0 && stack[top] >> 4 == axis) {
+				int mask = 3 << shift;
+				int entry = (stack[top] & ~mask) | ((stack[top] + turns) & mask);
+				if ((entry & 0xF) == 0)
+					top--;
+				else
+					stack[top] = (byte) entry;
+			} else {
+				stack[++top] = (byte) (axis << 4 | turns);
 			}
 		}
+
+		// The odd layer is the first one of the axis in the canonical sequence
+		int simplified = 0;
+		for (int i = 0; i <= top; i++) {
+			int axis = stack[i] >> 4;
+			int oddTurns = stack[i] & 3;
+			int evenTurns = stack[i] >> 2 & 3;
+			if (oddTurns != 0)
+				moves[offset + simplified++] = (byte) ((axis * 2 + 1) * 3 + oddTurns - 1);
+			if (evenTurns != 0)
+				moves[offset + simplified++] = (byte) (axis * 2 * 3 + evenTurns - 1);
+		}
+		size = simplified;
+	}
+
+	/**
+	 * Makes sure that the array could be changed and it has place for the
+	 * specific number of moves. The shared array is copied.
+	 * 
+	 * @param capacity
+	 *            required number of moves
+	 */
+	private void ensureCapacity(int capacity) {
+		if (!shared && offset + capacity <= moves.length)
+			return;
+		int length = Math.max(capacity, shared ? size : moves.length * 2);
+		moves = Arrays.copyOfRange(moves, offset, offset + Math.max(length, DEFAULT_CAPACITY));
+		offset = 0;
+		shared = false;
 	}
 
 	@Override
 	public String toString() {
-		StringBuilder builder = new StringBuilder("Scramble");
-		for (Move move : movesList) {
+		StringBuilder builder = new StringBuilder(9 + size * 3);
+		builder.append("Scramble");
+		for (int i = 0; i < size; i++) {
 			builder.append(' ');
-			builder.append(move.getMoveString());
+			builder.append(Move.of(moves[offset + i]).getMoveString());
 		}
 		return builder.toString();
 	}
@@ -149,11 +338,13 @@ public class Scramble implements Iterable<Move> {
 			int counter = 0;
 
 			public Move next() {
-				return movesList.get(counter++);
+				if (counter >= size)
+					throw new NoSuchElementException();
+				return Move.of(moves[offset + counter++]);
 			}
 
 			public boolean hasNext() {
-				return counter < movesList.size();
+				return counter < size;
 			}
 		};
 	}
@@ -0,0 +1,273 @@
+package my.kotpat.rubikSolver.domain;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+import my.kotpat.rubikSolver.exceptions.MoveSyntaxException;
+
+/**
+ * Hand-written single-pass parser of the scrambles (sequences of moves in the
+ * WCA notation, e.g. "R2 U' F"). The parser reads text character by character
+ * from {@link CharSequence}, {@link Reader} or {@link ByteBuffer} (US-ASCII)
+ * and passes every move to the handler as soon as it is read. Moves are the
+ * shared {@link Move} instances, so parsing does not allocate memory for the
+ * tokens.
+ * <p>
+ * Moves could be separated by white spaces or written one after another
+ * ("RUR'U'"). Move is a letter R, L, U, D, F or B with optional "2" and
+ * optional "'" ("R2'" is the same as "R2"). The strict parser throws
+ * {@link MoveSyntaxException} with the exact position of the first other
+ * character. The lenient parser skips other characters (the same way as
+ * {@link Scramble#Scramble(String)}).
+ * <p>
+ * The object keeps the state of the parsing, so it should not be used by many
+ * threads at the same time.
+ * 
+ * @author Patryk Kotlarz
+ *
+ */
+public class ScrambleParser {
+
+	/**
+	 * Size of the buffer used to read from {@link Reader}.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Equals {@code true} if the parser skips incorrect characters.
+	 */
+	private final boolean lenient;
+
+	/**
+	 * Handler of the moves.
+	 */
+	private Consumer<? super Move> handler;
+
+	/**
+	 * Layer of the move which is being read ({@code null} if there is no
+	 * such move).
+	 */
+	private MoveLayer pendingLayer;
+
+	/**
+	 * Number of clockwise quarter turns of the move which is being read.
+	 */
+	private int pendingTurns;
+
+	/**
+	 * Index of the current character.
+	 */
+	private long position;
+
+	/**
+	 * Line of the current character.
+	 */
+	private int line;
+
+	/**
+	 * Column of the current character.
+	 */
+	private int column;
+
+	/**
+	 * Creates strict parser.
+	 */
+	public ScrambleParser() {
+		this(false);
+	}
+
+	/**
+	 * Creates strict or lenient parser.
+	 * 
+	 * @param lenient
+	 *            {@code true} if the parser should skip incorrect characters
+	 *            instead of throwing {@link MoveSyntaxException}
+	 */
+	public ScrambleParser(boolean lenient) {
+		this.lenient = lenient;
+	}
+
+	/**
+	 * Parses the text and passes every move to the handler.
+	 * 
+	 * @param text
+	 *            text of the scramble
+	 * @param handler
+	 *            handler of the moves
+	 * @throws MoveSyntaxException
+	 *             if the text contains incorrect character (only strict
+	 *             parser)
+	 */
+	public void parse(CharSequence text, Consumer<? super Move> handler) throws MoveSyntaxException {
+		start(handler);
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			accept(text.charAt(i));
+		}
+		finish();
+	}
+
+	/**
+	 * Parses all the characters from the reader and passes every move to the
+	 * handler. The reader is not closed.
+	 * 
+	 * @param reader
+	 *            source of the scramble
+	 * @param handler
+	 *            handler of the moves
+	 * @throws IOException
+	 *             if the reader throws the exception
+	 * @throws MoveSyntaxException
+	 *             if the text contains incorrect character (only strict
+	 *             parser)
+	 */
+	public void parse(Reader reader, Consumer<? super Move> handler) throws IOException, MoveSyntaxException {
+		start(handler);
+		char[] buffer = new char[BUFFER_SIZE];
+		int read;
+		while ((read = reader.read(buffer)) >= 0) {
+			for (int i = 0; i < read; i++) {
+				accept(buffer[i]);
+			}
+		}
+		finish();
+	}
+
+	/**
+	 * Parses the bytes (US-ASCII characters) from the position to the limit of
+	 * the buffer and passes every move to the handler. The position of the
+	 * buffer is moved to the limit.
+	 * 
+	 * @param buffer
+	 *            source of the scramble
+	 * @param handler
+	 *            handler of the moves
+	 * @throws MoveSyntaxException
+	 *             if the text contains incorrect character (only strict
+	 *             parser)
+	 */
+	public void parse(ByteBuffer buffer, Consumer<? super Move> handler) throws MoveSyntaxException {
+		start(handler);
+		while (buffer.hasRemaining()) {
+			accept((char) (buffer.get() & 0xFF));
+		}
+		finish();
+	}
+
+	/**
+	 * Parses the text and applies every move to the cube (without creating
+	 * {@link Scramble} object).
+	 * 
+	 * @param text
+	 *            text of the scramble
+	 * @param cube
+	 *            cube to move
+	 * @throws MoveSyntaxException
+	 *             if the text contains incorrect character (only strict
+	 *             parser)
+	 */
+	public void apply(CharSequence text, RubiksCube cube) throws MoveSyntaxException {
+		parse(text, cube::move);
+	}
+
+	/**
+	 * Parses the text to the {@link Scramble} object.
+	 * 
+	 * @param text
+	 *            text of the scramble
+	 * @return parsed scramble
+	 * @throws MoveSyntaxException
+	 *             if the text contains incorrect character (only strict
+	 *             parser)
+	 */
+	public Scramble parseScramble(CharSequence text) throws MoveSyntaxException {
+		Scramble scramble = new Scramble();
+		parse(text, scramble::add);
+		return scramble;
+	}
+
+	/**
+	 * Prepares the parser to the new text.
+	 * 
+	 * @param handler
+	 *            handler of the moves
+	 */
+	private void start(Consumer<? super Move> handler) {
+		this.handler = handler;
+		pendingLayer = null;
+		position = 0;
+		line = 1;
+		column = 1;
+	}
+
+	/**
+	 * Passes the last move to the handler.
+	 */
+	private void finish() {
+		if (pendingLayer != null)
+			emit();
+		handler = null;
+	}
+
+	/**
+	 * Reads the next character.
+	 * 
+	 * @param c
+	 *            the character
+	 * @throws MoveSyntaxException
+	 *             if the character is not correct (only strict parser)
+	 */
+	private void accept(char c) throws MoveSyntaxException {
+		if (pendingLayer != null) {
+			if (c == '2' && pendingTurns == 1) {
+				pendingTurns = 2;
+				advance(c);
+				return;
+			}
+			if (c == '\'') {
+				if (pendingTurns == 1)
+					pendingTurns = 3;
+				emit();
+				advance(c);
+				return;
+			}
+			emit();
+		}
+
+		MoveLayer layer = Move.getMoveLayer(c);
+		if (layer != null) {
+			pendingLayer = layer;
+			pendingTurns = 1;
+		} else if (!lenient && !Character.isWhitespace(c)) {
+			throw new MoveSyntaxException(position, line, column, c);
+		}
+		advance(c);
+	}
+
+	/**
+	 * Passes the move which is being read to the handler.
+	 */
+	private void emit() {
+		handler.accept(Move.of(pendingLayer, pendingTurns));
+		pendingLayer = null;
+	}
+
+	/**
+	 * Moves the position after the character.
+	 * 
+	 * @param c
+	 *            the character
+	 */
+	private void advance(char c) {
+		position++;
+		if (c == '\n') {
+			line++;
+			column = 1;
+		} else {
+			column++;
+		}
+	}
+}
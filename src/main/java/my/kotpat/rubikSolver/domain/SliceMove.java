@@ -0,0 +1,357 @@
+package my.kotpat.rubikSolver.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
+
+/**
+ * Representation of the move of the NxNxN cube which turns one or more
+ * neighboring layers (counting from the specific face) standardized with the
+ * WCA notation. Allowed moves:
+ * <ul>
+ * <li>outer faces: R, L, U, D, F, B (layer 1),</li>
+ * <li>wide moves: Rw or r (layers 1-2), 3Rw or 3r (layers 1-3),</li>
+ * <li>single inner slices: 2R, 3R (only layer 2 or 3),</li>
+ * <li>ranges of layers: 2-4Rw (layers from 2 to 4),</li>
+ * <li>middle slices: M (like L), E (like D), S (like F) which turn all the
+ * layers except the outer faces,</li>
+ * <li>rotations of the whole cube: x (like R), y (like U), z (like F),</li>
+ * </ul>
+ * with clockwise (e.g. Rw), counter-clockwise (e.g. Rw') or "doubled" (e.g.
+ * Rw2) direction. Objects are immutable. Moves are supported by
+ * {@link PackedCube#move(SliceMove)}.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class SliceMove {
+
+	/**
+	 * Face from which the layers are counted (direction of the move is the
+	 * same as the direction of this face's turn).
+	 */
+	private final MoveLayer moveLayer;
+
+	/**
+	 * Number of the first moved layer (1 is the face).
+	 */
+	private final int firstLayer;
+
+	/**
+	 * Number of the last moved layer. Values less than 1 are counted from the
+	 * opposite face: 0 is the opposite face, -1 is the layer next to the
+	 * opposite face (so the move does not depend on the dimension).
+	 */
+	private final int lastLayer;
+
+	/**
+	 * Number of clockwise quarter turns (1, 2 or 3).
+	 */
+	private final int turns;
+
+	/**
+	 * Creates move of the layers from {@code firstLayer} to {@code lastLayer}
+	 * (counting from the face).
+	 *
+	 * @param moveLayer
+	 *            face from which the layers are counted
+	 * @param firstLayer
+	 *            number of the first moved layer (1 is the face)
+	 * @param lastLayer
+	 *            number of the last moved layer
+	 * @param turns
+	 *            number of clockwise quarter turns (1, 2 or 3)
+	 * @throws IllegalArgumentException
+	 *             if the layers or the number of turns are incorrect
+	 */
+	public SliceMove(MoveLayer moveLayer, int firstLayer, int lastLayer, int turns) {
+		this(moveLayer, firstLayer, lastLayer, turns, true);
+	}
+
+	/**
+	 * Creates move of the outer face equal to the {@link Move}.
+	 *
+	 * @param move
+	 *            {@link Move} object
+	 */
+	public SliceMove(Move move) {
+		this(move.getMoveLayer(), 1, 1, move.getTurns());
+	}
+
+	/**
+	 * Constructor which converts text description of the move ("Rw2", "3Rw'",
+	 * "M") to the specific SliceMove object.
+	 *
+	 * @param moveString
+	 *            text description of move
+	 * @throws UnsupportedMoveException
+	 *             if a <code>moveString</code> is not a correct move
+	 */
+	public SliceMove(String moveString) throws UnsupportedMoveException {
+		String text = moveString.trim();
+		int position = 0;
+		int first = 0, last = 0;
+
+		// Number of the layer or range of layers
+		while (position < text.length() && isDigit(text.charAt(position))) {
+			first = 10 * first + text.charAt(position++) - '0';
+		}
+		boolean prefix = position > 0;
+		if (prefix && position < text.length() && text.charAt(position) == '-') {
+			int start = ++position;
+			while (position < text.length() && isDigit(text.charAt(position))) {
+				last = 10 * last + text.charAt(position++) - '0';
+			}
+			if (position == start || last < first)
+				throw new UnsupportedMoveException();
+		} else {
+			last = first;
+		}
+		if (position == text.length() || (prefix && first < 1))
+			throw new UnsupportedMoveException();
+
+		char letter = text.charAt(position++);
+		boolean wide = Character.isLowerCase(letter);
+		if (position < text.length() && text.charAt(position) == 'w') {
+			if (wide)
+				throw new UnsupportedMoveException();
+			wide = true;
+			position++;
+		}
+
+		MoveLayer layer = getFace(Character.toUpperCase(letter));
+		if (layer != null) {
+			if (!prefix) {
+				first = 1;
+				last = wide ? 2 : 1;
+			} else if (wide && first == last) {
+				first = 1;
+			}
+		} else {
+			if (prefix || (wide && Character.isUpperCase(letter)))
+				throw new UnsupportedMoveException();
+			switch (letter) {
+			case 'M':
+				layer = MoveLayer.LEFT;
+				break;
+			case 'E':
+				layer = MoveLayer.DOWN;
+				break;
+			case 'S':
+				layer = MoveLayer.FRONT;
+				break;
+			case 'x':
+				layer = MoveLayer.RIGHT;
+				break;
+			case 'y':
+				layer = MoveLayer.UP;
+				break;
+			case 'z':
+				layer = MoveLayer.FRONT;
+				break;
+			default:
+				throw new UnsupportedMoveException();
+			}
+			boolean rotation = Character.isLowerCase(letter);
+			first = rotation ? 1 : 2;
+			last = rotation ? 0 : -1;
+		}
+
+		// Direction
+		int direction = 1;
+		if (position < text.length() && text.charAt(position) == '2') {
+			direction = 2;
+			position++;
+		}
+		if (position < text.length() && text.charAt(position) == '\'') {
+			if (direction == 1)
+				direction = 3;
+			position++;
+		}
+		if (position != text.length())
+			throw new UnsupportedMoveException();
+
+		this.moveLayer = layer;
+		this.firstLayer = first;
+		this.lastLayer = last;
+		this.turns = direction;
+	}
+
+	/**
+	 * Creates move and checks its parameters.
+	 *
+	 * @param moveLayer
+	 *            face from which the layers are counted
+	 * @param firstLayer
+	 *            number of the first moved layer
+	 * @param lastLayer
+	 *            number of the last moved layer
+	 * @param turns
+	 *            number of clockwise quarter turns
+	 * @param checkOrder
+	 *            {@code false} for the moves with layers counted from the
+	 *            opposite face (M, x etc.)
+	 */
+	private SliceMove(MoveLayer moveLayer, int firstLayer, int lastLayer, int turns, boolean checkOrder) {
+		if (moveLayer == null || firstLayer < 1 || turns < 1 || turns > 3)
+			throw new IllegalArgumentException("Incorrect move");
+		if (checkOrder && lastLayer < firstLayer)
+			throw new IllegalArgumentException("Last layer is before the first layer");
+		this.moveLayer = moveLayer;
+		this.firstLayer = firstLayer;
+		this.lastLayer = lastLayer;
+		this.turns = turns;
+	}
+
+	/**
+	 * Converts text description of the sequence of moves separated by white
+	 * spaces (e.g. "Rw U2 3Fw' M") to the list of SliceMove objects.
+	 *
+	 * @param sequence
+	 *            text description of the moves
+	 * @return list of moves
+	 * @throws UnsupportedMoveException
+	 *             if any move is not correct
+	 */
+	public static List<SliceMove> parseSequence(String sequence) throws UnsupportedMoveException {
+		List<SliceMove> moves = new ArrayList<SliceMove>();
+		for (String moveString : sequence.trim().split("\\s+")) {
+			if (!moveString.isEmpty())
+				moves.add(new SliceMove(moveString));
+		}
+		return moves;
+	}
+
+	/**
+	 * Returns {@code true} if the character is a digit from 0 to 9.
+	 *
+	 * @param c
+	 *            character to check
+	 * @return true if the character is a digit
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Returns the face with the specific letter.
+	 *
+	 * @param letter
+	 *            upper case letter
+	 * @return face or {@code null} if the letter is not a face
+	 */
+	private static MoveLayer getFace(char letter) {
+		for (MoveLayer layer : MoveLayer.values()) {
+			if (layer.toString().charAt(0) == letter)
+				return layer;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the move which reverses this move.
+	 *
+	 * @return inverse move
+	 */
+	public SliceMove inverse() {
+		return new SliceMove(moveLayer, firstLayer, lastLayer, 4 - turns, lastLayer > 0);
+	}
+
+	/**
+	 * Face from which the layers are counted.
+	 *
+	 * @return face of the move
+	 */
+	public MoveLayer getMoveLayer() {
+		return moveLayer;
+	}
+
+	/**
+	 * Returns number of the first moved layer (1 is the face).
+	 *
+	 * @return number of the first layer
+	 */
+	public int getFirstLayer() {
+		return firstLayer;
+	}
+
+	/**
+	 * Returns number of the last moved layer of the cube with specific
+	 * dimension.
+	 *
+	 * @param dimension
+	 *            dimension of the cube
+	 * @return number of the last layer
+	 */
+	public int getLastLayer(int dimension) {
+		return lastLayer > 0 ? lastLayer : dimension + lastLayer;
+	}
+
+	/**
+	 * Returns number of clockwise quarter turns.
+	 *
+	 * @return 1, 2 or 3
+	 */
+	public int getTurns() {
+		return turns;
+	}
+
+	/**
+	 * Return the short form standardized with the WCA notation.
+	 *
+	 * @return short text form of move
+	 */
+	public String getMoveString() {
+		char face = moveLayer.toString().charAt(0);
+		String moveString;
+		if (lastLayer == -1)
+			moveString = moveLayer == MoveLayer.LEFT ? "M" : (moveLayer == MoveLayer.DOWN ? "E" : "S");
+		else if (lastLayer == 0)
+			moveString = moveLayer == MoveLayer.RIGHT ? "x" : (moveLayer == MoveLayer.UP ? "y" : "z");
+		else if (firstLayer == 1 && lastLayer == 1)
+			moveString = "" + face;
+		else if (firstLayer == 1)
+			moveString = (lastLayer == 2 ? "" : "" + lastLayer) + face + "w";
+		else if (firstLayer == lastLayer)
+			moveString = "" + firstLayer + face;
+		else
+			moveString = firstLayer + "-" + lastLayer + face + "w";
+
+		if (turns == 2)
+			moveString += "2";
+		else if (turns == 3)
+			moveString += "'";
+		return moveString;
+	}
+
+	@Override
+	public String toString() {
+		return "SliceMove " + getMoveString();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + firstLayer;
+		result = prime * result + lastLayer;
+		result = prime * result + moveLayer.hashCode();
+		result = prime * result + turns;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		SliceMove other = (SliceMove) obj;
+		return moveLayer == other.moveLayer && firstLayer == other.firstLayer && lastLayer == other.lastLayer
+				&& turns == other.turns;
+	}
+}
@@ -2,7 +2,11 @@ package my.kotpat.rubikSolver.domain;
 
 /**
  * Represents meta data about cube solving. Includes solving time in ms, finish
- * {@link Scramble}, number of analyzed scrambles and analyzed moves.
+ * {@link Scramble}, number of analyzed scrambles and analyzed moves (and the
+ * number of analyzed moves of every worker if the cube was solved in
+ * parallel). If the deadline of the solving expired, the solution is marked
+ * as timed out: it is the best solution found before the deadline (it could be
+ * not optimal or {@code null}).
  * 
  * @author Patryk Kotlarz
  */
@@ -11,6 +15,8 @@ public class SolvingMeta {
 	public Scramble solvingScramble;
 	public long analyzedScrambles;
 	public long analyzedMoves;
+	public long[] workerAnalyzedMoves;
+	public boolean timedOut;
 
 	public SolvingMeta() {
 	}
@@ -47,4 +53,20 @@ public class SolvingMeta {
 		this.analyzedMoves = analyzedMoves;
 	}
 
+	public long[] getWorkerAnalyzedMoves() {
+		return workerAnalyzedMoves;
+	}
+
+	public void setWorkerAnalyzedMoves(long[] workerAnalyzedMoves) {
+		this.workerAnalyzedMoves = workerAnalyzedMoves;
+	}
+
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+
+	public void setTimedOut(boolean timedOut) {
+		this.timedOut = timedOut;
+	}
+
 }
\ No newline at end of file
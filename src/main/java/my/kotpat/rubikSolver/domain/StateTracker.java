@@ -0,0 +1,335 @@
+package my.kotpat.rubikSolver.domain;
+
+/**
+ * Helper class which keeps the information about the state of the cube
+ * updated by every move, so it does not have to be computed by scanning all
+ * the stickers. The main information is 64-bit Zobrist hash of the state: XOR
+ * of the random keys of every (sticker index, color) pair. The move changes
+ * the hash only by the keys of the stickers which have been moved.
+ * <p>
+ * The tracker also counts stickers of every color on every face (the cube is
+ * solved if all 6 faces have all the stickers of one color) and the stickers
+ * which have other color than the face in the solved cube. Both counters are
+ * changed only by the stickers moved to the other face.
+ * <p>
+ * Stickers are numbered the same way as in {@link PackedCube} (which is also
+ * the order of {@link Cube} fields). Keys are generated from the constant
+ * seed, so the hash of the state is the same in every run.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+final class StateTracker {
+
+	/**
+	 * Number of colors.
+	 */
+	private static final int COLORS = Field.Color.values().length;
+
+	/**
+	 * Zobrist keys indexed by {@code index * COLORS + color}.
+	 */
+	private static final long[] KEYS = new long[6 * Layer.MAXIMUM_CUBE_DIMENSION * Layer.MAXIMUM_CUBE_DIMENSION
+			* COLORS];
+
+	/**
+	 * Number of the face of every sticker (indexed by dimension and index of
+	 * the sticker).
+	 */
+	private static final byte[][] FACES = new byte[Layer.MAXIMUM_CUBE_DIMENSION + 1][];
+
+	/**
+	 * Ordinals of the colors of the faces in the solved cube.
+	 */
+	private static final int[] HOME_COLORS = new int[6];
+
+	static {
+		for (int dimension = 2; dimension <= Layer.MAXIMUM_CUBE_DIMENSION; dimension++) {
+			int faceSize = dimension * dimension;
+			FACES[dimension] = new byte[6 * faceSize];
+			for (int i = 0; i < FACES[dimension].length; i++) {
+				FACES[dimension][i] = (byte) (i / faceSize);
+			}
+		}
+		for (int face = 0; face < 6; face++) {
+			HOME_COLORS[face] = CubeGeometry.FACE_COLORS[face].ordinal();
+		}
+
+		// SplitMix64 generator with the constant seed
+		long seed = 0x5DEECE66DL;
+		for (int i = 0; i < KEYS.length; i++) {
+			long z = (seed += 0x9E3779B97F4A7C15L);
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			KEYS[i] = z ^ (z >>> 31);
+		}
+	}
+
+	/**
+	 * Zobrist hash of the state.
+	 */
+	private long hash;
+
+	/**
+	 * Number of stickers on the face.
+	 */
+	private final int faceSize;
+
+	/**
+	 * Number of the face of every sticker.
+	 */
+	private final byte[] faces;
+
+	/**
+	 * Number of stickers of every color on every face (indexed by
+	 * {@code face * COLORS + color}).
+	 */
+	private final int[] faceColors = new int[6 * COLORS];
+
+	/**
+	 * Number of faces with all the stickers of one color.
+	 */
+	private int uniformFaces;
+
+	/**
+	 * Number of stickers with other color than the face in the solved cube.
+	 */
+	private int misplacedStickers;
+
+	/**
+	 * Creates tracker of the cube with the specific dimension. Information
+	 * must be computed by the reset methods.
+	 *
+	 * @param dimension
+	 *            dimension of the cube
+	 */
+	StateTracker(int dimension) {
+		this.faceSize = dimension * dimension;
+		this.faces = FACES[dimension];
+	}
+
+	/**
+	 * Computes the information about the state from the colors of all the
+	 * stickers.
+	 *
+	 * @param stickers
+	 *            ordinals of {@link Field.Color} of the stickers
+	 */
+	void reset(byte[] stickers) {
+		clear();
+		for (int i = 0; i < stickers.length; i++) {
+			add(i, stickers[i]);
+		}
+	}
+
+	/**
+	 * Computes the information about the state from the colors of all the
+	 * fields.
+	 *
+	 * @param fields
+	 *            fields of the cube
+	 */
+	void reset(Field[] fields) {
+		clear();
+		for (int i = 0; i < fields.length; i++) {
+			add(i, fields[i].getFieldColor().ordinal());
+		}
+	}
+
+	/**
+	 * Copies the information from the other tracker.
+	 *
+	 * @param tracker
+	 *            tracker to copy
+	 */
+	void copyFrom(StateTracker tracker) {
+		hash = tracker.hash;
+		System.arraycopy(tracker.faceColors, 0, faceColors, 0, faceColors.length);
+		uniformFaces = tracker.uniformFaces;
+		misplacedStickers = tracker.misplacedStickers;
+	}
+
+	/**
+	 * Clears all the information (the state without any sticker).
+	 */
+	private void clear() {
+		hash = 0;
+		for (int i = 0; i < faceColors.length; i++) {
+			faceColors[i] = 0;
+		}
+		uniformFaces = 0;
+		misplacedStickers = 0;
+	}
+
+	/**
+	 * Updates the information before the stickers are moved along the cycles
+	 * (see {@link CubeGeometry#getFaceCycles(int)}).
+	 *
+	 * @param cycles
+	 *            flat array of 4-cycles of sticker indices
+	 * @param turns
+	 *            number of clockwise quarter turns (1, 2 or 3)
+	 * @param stickers
+	 *            ordinals of {@link Field.Color} of the stickers (before the
+	 *            move)
+	 */
+	void move(int[] cycles, int turns, byte[] stickers) {
+		for (int i = 0; i < cycles.length; i += 4) {
+			for (int k = 0; k < 4; k++) {
+				int from = cycles[i + k];
+				moveSticker(from, cycles[i + ((k + turns) & 3)], stickers[from]);
+			}
+		}
+	}
+
+	/**
+	 * Updates the information before the fields are moved along the cycles
+	 * (see {@link CubeGeometry#getFaceCycles(int)}).
+	 *
+	 * @param cycles
+	 *            flat array of 4-cycles of field indices
+	 * @param turns
+	 *            number of clockwise quarter turns (1, 2 or 3)
+	 * @param fields
+	 *            fields of the cube (before the move)
+	 */
+	void move(int[] cycles, int turns, Field[] fields) {
+		for (int i = 0; i < cycles.length; i += 4) {
+			for (int k = 0; k < 4; k++) {
+				int from = cycles[i + k];
+				moveSticker(from, cycles[i + ((k + turns) & 3)], fields[from].getFieldColor().ordinal());
+			}
+		}
+	}
+
+	/**
+	 * Changes color of the sticker.
+	 *
+	 * @param index
+	 *            index of the sticker
+	 * @param oldColor
+	 *            ordinal of the previous color
+	 * @param newColor
+	 *            ordinal of the new color
+	 */
+	void changeSticker(int index, int oldColor, int newColor) {
+		remove(index, oldColor);
+		add(index, newColor);
+	}
+
+	/**
+	 * Adds the sticker to the information about the state.
+	 *
+	 * @param index
+	 *            index of the sticker
+	 * @param color
+	 *            ordinal of the sticker's color
+	 */
+	private void add(int index, int color) {
+		hash ^= KEYS[index * COLORS + color];
+		int face = faces[index];
+		if (HOME_COLORS[face] != color)
+			misplacedStickers++;
+		increment(face * COLORS + color);
+	}
+
+	/**
+	 * Removes the sticker from the information about the state.
+	 *
+	 * @param index
+	 *            index of the sticker
+	 * @param color
+	 *            ordinal of the sticker's color
+	 */
+	private void remove(int index, int color) {
+		hash ^= KEYS[index * COLORS + color];
+		int face = faces[index];
+		if (HOME_COLORS[face] != color)
+			misplacedStickers--;
+		decrement(face * COLORS + color);
+	}
+
+	/**
+	 * Moves the sticker from one index to another.
+	 *
+	 * @param from
+	 *            index before the move
+	 * @param to
+	 *            index after the move
+	 * @param color
+	 *            ordinal of the sticker's color
+	 */
+	private void moveSticker(int from, int to, int color) {
+		hash ^= KEYS[from * COLORS + color] ^ KEYS[to * COLORS + color];
+
+		int fromFace = faces[from], toFace = faces[to];
+		if (fromFace != toFace) {
+			if (HOME_COLORS[fromFace] == color)
+				misplacedStickers++;
+			else if (HOME_COLORS[toFace] == color)
+				misplacedStickers--;
+			decrement(fromFace * COLORS + color);
+			increment(toFace * COLORS + color);
+		}
+	}
+
+	/**
+	 * Increments the number of stickers of the color on the face (and
+	 * updates {@link StateTracker#uniformFaces}). During the move the number
+	 * could temporarily exceed the size of the face.
+	 *
+	 * @param faceColor
+	 *            {@code face * COLORS + color}
+	 */
+	private void increment(int faceColor) {
+		int count = ++faceColors[faceColor];
+		if (count == faceSize)
+			uniformFaces++;
+		else if (count == faceSize + 1)
+			uniformFaces--;
+	}
+
+	/**
+	 * Decrements the number of stickers of the color on the face (and
+	 * updates {@link StateTracker#uniformFaces}).
+	 *
+	 * @param faceColor
+	 *            {@code face * COLORS + color}
+	 */
+	private void decrement(int faceColor) {
+		int count = --faceColors[faceColor];
+		if (count == faceSize - 1)
+			uniformFaces--;
+		else if (count == faceSize)
+			uniformFaces++;
+	}
+
+	/**
+	 * Returns Zobrist hash of the state.
+	 *
+	 * @return hash of the state
+	 */
+	long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Returns {@code true} if every face has all the stickers of the same
+	 * color.
+	 *
+	 * @return true if cube is solved
+	 */
+	boolean isSolved() {
+		return uniformFaces == 6;
+	}
+
+	/**
+	 * Returns number of stickers with other color than the face in the solved
+	 * cube.
+	 *
+	 * @return number of misplaced stickers
+	 */
+	int getMisplacedStickers() {
+		return misplacedStickers;
+	}
+}
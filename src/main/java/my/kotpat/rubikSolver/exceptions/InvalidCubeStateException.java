@@ -0,0 +1,15 @@
+package my.kotpat.rubikSolver.exceptions;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+
+/**
+ * @see CubieCube#CubieCube(RubiksCube)
+ * @author Patryk Kotlarz
+ *
+ */
+public class InvalidCubeStateException extends Exception {
+
+	private static final long serialVersionUID = 4178306251936580318L;
+
+}
@@ -0,0 +1,98 @@
+package my.kotpat.rubikSolver.exceptions;
+
+import my.kotpat.rubikSolver.domain.ScrambleParser;
+
+/**
+ * Exception thrown by {@link ScrambleParser} if the text contains character
+ * which is not a part of any move. Contains the exact position of the
+ * character.
+ * 
+ * @see ScrambleParser
+ * @author Patryk Kotlarz
+ *
+ */
+public class MoveSyntaxException extends UnsupportedMoveException {
+
+	private static final long serialVersionUID = -2779440387640154632L;
+
+	/**
+	 * Index of the incorrect character (counting from 0).
+	 */
+	private final long position;
+
+	/**
+	 * Line of the incorrect character (counting from 1).
+	 */
+	private final int line;
+
+	/**
+	 * Column of the incorrect character (counting from 1).
+	 */
+	private final int column;
+
+	/**
+	 * The incorrect character.
+	 */
+	private final char character;
+
+	/**
+	 * Creates exception with the position of the incorrect character.
+	 * 
+	 * @param position
+	 *            index of the character (counting from 0)
+	 * @param line
+	 *            line of the character (counting from 1)
+	 * @param column
+	 *            column of the character (counting from 1)
+	 * @param character
+	 *            the incorrect character
+	 */
+	public MoveSyntaxException(long position, int line, int column, char character) {
+		this.position = position;
+		this.line = line;
+		this.column = column;
+		this.character = character;
+	}
+
+	/**
+	 * Returns index of the incorrect character (counting from 0).
+	 * 
+	 * @return index of the character
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns line of the incorrect character (counting from 1).
+	 * 
+	 * @return line of the character
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Returns column of the incorrect character (counting from 1).
+	 * 
+	 * @return column of the character
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Returns the incorrect character.
+	 * 
+	 * @return the character
+	 */
+	public char getCharacter() {
+		return character;
+	}
+
+	@Override
+	public String getMessage() {
+		return "Unexpected character '" + character + "' at position " + position + " (line " + line + ", column "
+				+ column + ")";
+	}
+}
@@ -3,7 +3,7 @@ package my.kotpat.rubikSolver.exceptions;
 import my.kotpat.rubikSolver.domain.Move;
 
 /**
- * @see Move#Move(String)
+ * @see Move#of(String)
  * @author Patryk Kotlarz
  */
 public class UnsupportedMoveException extends Exception {
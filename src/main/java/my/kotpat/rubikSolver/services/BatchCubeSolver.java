@@ -0,0 +1,484 @@
+package my.kotpat.rubikSolver.services;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import my.kotpat.rubikSolver.domain.PackedCube;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+
+/**
+ * Solves many cubes on the bounded pool of the worker threads. Every worker
+ * has its own solver (created once by the factory or shared if the solver is
+ * thread-safe, e.g. {@link IDAStarCubeSolver} or {@link TwoPhaseCubeSolver}),
+ * so the state of the solver is not rebuilt for every cube, and all the
+ * solvers share the read-only tables (e.g. {@link my.kotpat.rubikSolver.tables.MoveTables}).
+ * <p>
+ * Cubes are read from the iterator (or the stream) lazily: at most two cubes
+ * per worker are solved or waiting, so the batch could be much bigger than
+ * the memory. Results are returned by the {@link Batch} in the order of the
+ * cubes or in the order of completion. The batch counts the solved cubes and
+ * the analyzed moves and reports the throughput.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class BatchCubeSolver implements AutoCloseable {
+
+	/**
+	 * Number of the cubes which could wait for every worker.
+	 */
+	private static final int CUBES_PER_WORKER = 2;
+
+	/**
+	 * Solver of every worker.
+	 */
+	private final ThreadLocal<CubeSolver> solvers;
+
+	/**
+	 * Number of the workers.
+	 */
+	private final int threads;
+
+	/**
+	 * Pool of the workers.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Maximum time of solving one cube (nanoseconds, 0 for no limit).
+	 */
+	private volatile long timeout = 0;
+
+	/**
+	 * Creates batch solver which uses one (thread-safe) solver in all the
+	 * workers.
+	 *
+	 * @param solver
+	 *            thread-safe solver
+	 * @param threads
+	 *            number of the workers
+	 */
+	public BatchCubeSolver(CubeSolver solver, int threads) {
+		this(() -> solver, threads);
+	}
+
+	/**
+	 * Creates batch solver which creates one solver for every worker.
+	 *
+	 * @param solverFactory
+	 *            factory of the solvers
+	 * @param threads
+	 *            number of the workers
+	 */
+	public BatchCubeSolver(Supplier<? extends CubeSolver> solverFactory, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+
+		this.solvers = ThreadLocal.withInitial(solverFactory);
+		this.threads = threads;
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "batch-cube-solver-" + counter.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Solves the cubes from the iterator. Cubes must not be changed until
+	 * they are solved.
+	 *
+	 * @param cubes
+	 *            cubes to solve
+	 * @param ordered
+	 *            true if the results should be returned in the order of the
+	 *            cubes, false if they should be returned when they are solved
+	 * @return batch which returns the results
+	 */
+	public Batch solve(Iterator<? extends RubiksCube> cubes, boolean ordered) {
+		Iterator<Supplier<RubiksCube>> tasks = new Iterator<Supplier<RubiksCube>>() {
+			public boolean hasNext() {
+				return cubes.hasNext();
+			}
+
+			public Supplier<RubiksCube> next() {
+				RubiksCube cube = cubes.next();
+				return () -> cube;
+			}
+		};
+		return new Batch(tasks, ordered);
+	}
+
+	/**
+	 * Solves the cubes from the stream (see
+	 * {@link BatchCubeSolver#solve(Iterator, boolean)}).
+	 *
+	 * @param cubes
+	 *            cubes to solve
+	 * @param ordered
+	 *            true if the results should be returned in the order of the
+	 *            cubes, false if they should be returned when they are solved
+	 * @return batch which returns the results
+	 */
+	public Batch solve(Stream<? extends RubiksCube> cubes, boolean ordered) {
+		return solve(cubes.iterator(), ordered);
+	}
+
+	/**
+	 * Solves the cubes scrambled by the scrambles. Every cube is created and
+	 * scrambled by the worker which solves it, so the calling thread only
+	 * reads the scrambles. The worker gets the view of the scramble (see
+	 * {@link Scramble#subScramble(int, int)}), so the scramble could be
+	 * changed or reused by the caller as soon as it is returned by the
+	 * iterator.
+	 *
+	 * @param scrambles
+	 *            scrambles of the cubes
+	 * @param dimension
+	 *            dimension of the cubes
+	 * @param ordered
+	 *            true if the results should be returned in the order of the
+	 *            scrambles, false if they should be returned when they are
+	 *            solved
+	 * @return batch which returns the results
+	 * @throws UnsupportedLayerDimensionException
+	 *             if the dimension is not supported
+	 */
+	public Batch solveScrambles(Iterator<Scramble> scrambles, int dimension, boolean ordered)
+			throws UnsupportedLayerDimensionException {
+		PackedCube solved = new PackedCube(dimension);
+		Iterator<Supplier<RubiksCube>> tasks = new Iterator<Supplier<RubiksCube>>() {
+			public boolean hasNext() {
+				return scrambles.hasNext();
+			}
+
+			public Supplier<RubiksCube> next() {
+				// The scramble could be reused by the caller after this call
+				Scramble scramble = scrambles.next();
+				Scramble snapshot = scramble.subScramble(0, scramble.size());
+				return () -> {
+					RubiksCube cube = solved.copy();
+					cube.scramble(snapshot);
+					return cube;
+				};
+			}
+		};
+		return new Batch(tasks, ordered);
+	}
+
+	/**
+	 * Solves the cubes scrambled by the scrambles (see
+	 * {@link BatchCubeSolver#solveScrambles(Iterator, int, boolean)}).
+	 *
+	 * @param scrambles
+	 *            scrambles of the cubes
+	 * @param dimension
+	 *            dimension of the cubes
+	 * @param ordered
+	 *            true if the results should be returned in the order of the
+	 *            scrambles, false if they should be returned when they are
+	 *            solved
+	 * @return batch which returns the results
+	 * @throws UnsupportedLayerDimensionException
+	 *             if the dimension is not supported
+	 */
+	public Batch solveScrambles(Stream<Scramble> scrambles, int dimension, boolean ordered)
+			throws UnsupportedLayerDimensionException {
+		return solveScrambles(scrambles.iterator(), dimension, ordered);
+	}
+
+	/**
+	 * Sets maximum time of solving one cube (see
+	 * {@link CubeSolver#getSolution(RubiksCube, long, TimeUnit)}).
+	 *
+	 * @param timeout
+	 *            maximum time (0 for no limit)
+	 * @param unit
+	 *            unit of the time
+	 */
+	public void setTimeout(long timeout, TimeUnit unit) {
+		this.timeout = unit.toNanos(timeout);
+	}
+
+	/**
+	 * Returns number of the workers.
+	 *
+	 * @return number of the workers
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Stops all the workers.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Creates the cube and solves it by the solver of the current worker.
+	 *
+	 * @param index
+	 *            index of the cube in the batch
+	 * @param task
+	 *            supplier of the cube to solve
+	 * @return result
+	 */
+	private Result solve(long index, Supplier<? extends RubiksCube> task) {
+		RubiksCube cube = task.get();
+		CubeSolver solver = solvers.get();
+		long cubeTimeout = timeout;
+		SolvingMeta meta = cubeTimeout > 0 ? solver.getSolution(cube, cubeTimeout, TimeUnit.NANOSECONDS)
+				: solver.getSolution(cube);
+		return new Result(index, cube, meta);
+	}
+
+	/**
+	 * Solved cube of the batch.
+	 *
+	 * @author Patryk Kotlarz
+	 *
+	 */
+	public static final class Result {
+
+		/**
+		 * Index of the cube in the batch.
+		 */
+		private final long index;
+
+		/**
+		 * The cube.
+		 */
+		private final RubiksCube cube;
+
+		/**
+		 * Solution of the cube.
+		 */
+		private final SolvingMeta meta;
+
+		Result(long index, RubiksCube cube, SolvingMeta meta) {
+			this.index = index;
+			this.cube = cube;
+			this.meta = meta;
+		}
+
+		/**
+		 * Returns index of the cube in the batch (from 0).
+		 *
+		 * @return index of the cube
+		 */
+		public long getIndex() {
+			return index;
+		}
+
+		/**
+		 * Returns the solved cube (not changed by the solver).
+		 *
+		 * @return the cube
+		 */
+		public RubiksCube getCube() {
+			return cube;
+		}
+
+		/**
+		 * Returns solution of the cube.
+		 *
+		 * @return solving information
+		 */
+		public SolvingMeta getMeta() {
+			return meta;
+		}
+	}
+
+	/**
+	 * Results of the cubes which are solved by the workers. The batch should
+	 * be read by one thread. If the solving of any cube throws an exception,
+	 * it is thrown by {@link Batch#next()} instead of its result and the batch
+	 * continues with the next cubes.
+	 *
+	 * @author Patryk Kotlarz
+	 *
+	 */
+	public final class Batch implements Iterator<Result> {
+
+		/**
+		 * Suppliers of the cubes which have not been submitted yet (called by
+		 * the workers).
+		 */
+		private final Iterator<? extends Supplier<? extends RubiksCube>> cubes;
+
+		/**
+		 * Submitted cubes in the order of the batch (ordered batch).
+		 */
+		private final Deque<Future<Result>> pending = new ArrayDeque<Future<Result>>();
+
+		/**
+		 * Solved cubes in the order of completion (not ordered batch).
+		 */
+		private final CompletionService<Result> completed;
+
+		/**
+		 * Number of submitted cubes which have not been returned.
+		 */
+		private int inFlight = 0;
+
+		/**
+		 * Number of submitted cubes.
+		 */
+		private long submitted = 0;
+
+		/**
+		 * Number of returned results.
+		 */
+		private long solved = 0;
+
+		/**
+		 * Sum of the analyzed moves of the returned results.
+		 */
+		private long analyzedMoves = 0;
+
+		/**
+		 * Starting time of the batch ({@link System#nanoTime()}).
+		 */
+		private final long startingTime = System.nanoTime();
+
+		/**
+		 * Time of the last result ({@link System#nanoTime()}).
+		 */
+		private long finishingTime = startingTime;
+
+		/**
+		 * Creates batch.
+		 *
+		 * @param cubes
+		 *            suppliers of the cubes to solve
+		 * @param ordered
+		 *            true if the results should be returned in the order of
+		 *            the cubes
+		 */
+		Batch(Iterator<? extends Supplier<? extends RubiksCube>> cubes, boolean ordered) {
+			this.cubes = cubes;
+			this.completed = ordered ? null : new ExecutorCompletionService<Result>(executor);
+			submit();
+		}
+
+		/**
+		 * Submits the next cubes until every worker has
+		 * {@link BatchCubeSolver#CUBES_PER_WORKER} cubes.
+		 */
+		private void submit() {
+			while (inFlight < threads * CUBES_PER_WORKER && cubes.hasNext()) {
+				Supplier<? extends RubiksCube> cube = cubes.next();
+				long index = submitted++;
+				if (completed == null)
+					pending.add(executor.submit(() -> solve(index, cube)));
+				else
+					completed.submit(() -> solve(index, cube));
+				inFlight++;
+			}
+		}
+
+		public boolean hasNext() {
+			return inFlight > 0;
+		}
+
+		public Result next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			// The finished cube is removed (and the next one submitted) also
+			// when its solving has thrown an exception
+			Future<Result> future = null;
+			Result result;
+			try {
+				future = completed == null ? pending.peek() : completed.take();
+				result = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Batch solving has been interrupted", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new IllegalStateException("Cube could not be solved", e.getCause());
+			} finally {
+				if (future != null && future.isDone()) {
+					if (completed == null)
+						pending.poll();
+					inFlight--;
+					submit();
+				}
+			}
+			solved++;
+			analyzedMoves += result.getMeta().getAnalyzedMoves();
+			finishingTime = System.nanoTime();
+			return result;
+		}
+
+		/**
+		 * Returns the results as the sequential stream.
+		 *
+		 * @return stream of the results
+		 */
+		public Stream<Result> stream() {
+			return StreamSupport.stream(
+					Spliterators.spliteratorUnknownSize(this, Spliterator.NONNULL | Spliterator.ORDERED), false);
+		}
+
+		/**
+		 * Returns number of returned results.
+		 *
+		 * @return number of solved cubes
+		 */
+		public long getSolvedCount() {
+			return solved;
+		}
+
+		/**
+		 * Returns sum of the analyzed moves of the returned results.
+		 *
+		 * @return analyzed moves
+		 */
+		public long getAnalyzedMoves() {
+			return analyzedMoves;
+		}
+
+		/**
+		 * Returns time from the beginning of the batch to the last result.
+		 *
+		 * @return time in ms
+		 */
+		public double getTimeMs() {
+			return (double) (finishingTime - startingTime) / 1000000;
+		}
+
+		/**
+		 * Returns number of the solved cubes per second.
+		 *
+		 * @return throughput of the batch
+		 */
+		public double getThroughput() {
+			long time = finishingTime - startingTime;
+			return time == 0 ? 0 : solved * 1e9 / time;
+		}
+	}
+}
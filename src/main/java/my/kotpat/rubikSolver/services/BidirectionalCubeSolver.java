@@ -0,0 +1,597 @@
+package my.kotpat.rubikSolver.services;
+
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
+import my.kotpat.rubikSolver.domain.CubeSnapshot;
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.PackedCube;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.InvalidCubeStateException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+
+/**
+ * Implementation of {@link CubeSolver} which finds the optimal solution by the
+ * bidirectional (meet-in-the-middle) search. The search goes forward from the
+ * scrambled cube and backward from the solved cube, one depth at a time
+ * (always the side with the smaller number of states). States of both sides
+ * are kept in the hash maps indexed by {@link RubiksCube#getStateHash()} and
+ * the search stops when the new state of one side is found in the map of the
+ * other one. Every meeting is checked by applying the solution to the copy of
+ * the cube, so the collisions of the hashes do not give incorrect solutions.
+ * <p>
+ * The solver needs no precomputed tables and visits only about the square
+ * root of the nodes of the one-directional search, but it keeps all the
+ * visited states in memory (16-32 bytes per state). The states of the last
+ * depth are only looked up in the map of the other side, so the solution of
+ * 12 moves needs both sides searched to 6 moves, but only about 9 million
+ * states are kept. The search stops without a solution (the solving scramble
+ * is {@code null}) if the solution is longer than
+ * {@link BidirectionalCubeSolver#getMaxDepth()} moves. If the number of the
+ * kept states exceeds {@link BidirectionalCubeSolver#getMaxStates()} the
+ * search is stopped by {@link IllegalStateException}. Every 2x2x2 cube and
+ * 3x3x3 cubes scrambled with up to 12 moves are solved with the default
+ * limits (about 300 MB of memory). Bigger cubes are searched using the face
+ * moves only.
+ * <p>
+ * {@link SolvingMeta#getAnalyzedMoves()} is the number of visited nodes and
+ * {@link SolvingMeta#getAnalyzedScrambles()} is the number of searched
+ * depths of both sides.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class BidirectionalCubeSolver implements CubeSolver {
+
+	/**
+	 * Default maximum length of the solution.
+	 */
+	public static final int DEFAULT_MAX_DEPTH = 12;
+
+	/**
+	 * Default maximum number of states of both sides (enough for the depths
+	 * 6 and 5 of the 3x3x3 cube).
+	 */
+	public static final int DEFAULT_MAX_STATES = 10000000;
+
+	/**
+	 * Maximum depth of one side (moves of the path are packed in one
+	 * {@code long} value).
+	 */
+	private static final int MAX_SIDE_DEPTH = 11;
+
+	/**
+	 * All the moves in the order of {@link Move#ordinal()}.
+	 */
+	private static final int[] ALL_MOVES = new int[Move.MOVES_COUNT];
+
+	/**
+	 * Moves of the 2x2x2 cube with fixed DBL corner (R, U and F).
+	 */
+	private static final int[] FIXED_CORNER_MOVES = { 0, 1, 2, 6, 7, 8, 12, 13, 14 };
+
+	static {
+		for (int i = 0; i < Move.MOVES_COUNT; i++) {
+			ALL_MOVES[i] = i;
+		}
+	}
+
+	/**
+	 * Maximum length of the solution.
+	 */
+	private int maxDepth = DEFAULT_MAX_DEPTH;
+
+	/**
+	 * Maximum number of states of both sides.
+	 */
+	private int maxStates = DEFAULT_MAX_STATES;
+
+	public BidirectionalCubeSolver() {
+	}
+
+	/**
+	 * Constructor with the limits of the search.
+	 * 
+	 * @param maxDepth
+	 *            maximum length of the solution
+	 * @param maxStates
+	 *            maximum number of states of both sides
+	 */
+	public BidirectionalCubeSolver(int maxDepth, int maxStates) {
+		this.maxDepth = maxDepth;
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Finds the optimal solution of the cube. The cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube is not a valid cube
+	 * @throws IllegalStateException
+	 *             if the limit of the states is exceeded before the solution
+	 *             is found
+	 */
+	public SolvingMeta getSolution(RubiksCube cube) {
+		return getSolution(cube, Deadline.none());
+	}
+
+	/**
+	 * Finds the optimal solution of the cube before the deadline. The cube is
+	 * not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube is not a valid cube
+	 * @throws IllegalStateException
+	 *             if the limit of the states is exceeded before the solution
+	 *             is found
+	 */
+	@Override
+	public SolvingMeta getSolution(RubiksCube cube, Deadline deadline) {
+		long startingTime = System.nanoTime();
+
+		int dimension = cube.getDimension();
+		RubiksCube start;
+		int[] moves = ALL_MOVES;
+		int rotation = -1;
+		try {
+			if (dimension <= 3) {
+				CubieCube cubieCube = new CubieCube(cube);
+				if (dimension == 2) {
+					// Rotating the cube, so the DBL corner is fixed
+					CubieCube rotated = new CubieCube();
+					rotation = CornerRotations.fixCorner(cubieCube, rotated);
+					cubieCube = rotated;
+					moves = FIXED_CORNER_MOVES;
+				}
+				start = cubieCube.toPackedCube(dimension);
+			} else {
+				start = cube.copy();
+			}
+		} catch (UnsupportedLayerDimensionException | InvalidCubeStateException e) {
+			throw new IllegalArgumentException("Cube could not be solved", e);
+		}
+
+		Search search;
+		try {
+			search = new Search(start, new PackedCube(dimension), moves, deadline);
+		} catch (UnsupportedLayerDimensionException e) {
+			throw new IllegalArgumentException("Cube could not be solved", e);
+		}
+		int[] path = cube.isSolved() ? new int[0] : search.solve();
+		if (search.limitExceeded)
+			throw new IllegalStateException("Limit of " + maxStates + " states is exceeded");
+
+		Scramble solution = null;
+		if (path != null) {
+			solution = new Scramble();
+			for (int move : path) {
+				solution.add(rotation < 0 ? Move.of(move) : CornerRotations.translate(rotation, move));
+			}
+		}
+
+		long finishingTime = System.nanoTime();
+		double timeMs = (double) (finishingTime - startingTime) / 1000000;
+
+		SolvingMeta meta = new SolvingMeta();
+		meta.setAnalyzedMoves(search.nodes);
+		meta.setAnalyzedScrambles(search.levels);
+		meta.setSolvingScramble(solution);
+		meta.setTimedOut(search.timedOut);
+		meta.setTimeMs(timeMs);
+
+		return meta;
+	}
+
+	/**
+	 * Maximum length of the solution getter.
+	 * 
+	 * @return maximum length of the solution
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Maximum length of the solution setter.
+	 * 
+	 * @param maxDepth
+	 *            maximum length of the solution
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Maximum number of states getter.
+	 * 
+	 * @return maximum number of states of both sides
+	 */
+	public int getMaxStates() {
+		return maxStates;
+	}
+
+	/**
+	 * Maximum number of states setter.
+	 * 
+	 * @param maxStates
+	 *            maximum number of states of both sides
+	 */
+	public void setMaxStates(int maxStates) {
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Packs the moves of the path into one value: length in the lowest 4 bits
+	 * and 5 bits for every move.
+	 * 
+	 * @param path
+	 *            moves ({@link Move#ordinal()})
+	 * @param length
+	 *            number of moves
+	 * @return packed path
+	 */
+	private static long pack(int[] path, int length) {
+		long packed = length;
+		for (int i = 0; i < length; i++) {
+			packed |= (long) path[i] << (4 + 5 * i);
+		}
+		return packed;
+	}
+
+	/**
+	 * Returns number of moves of the packed path.
+	 * 
+	 * @param packed
+	 *            packed path
+	 * @return number of moves
+	 */
+	private static int getLength(long packed) {
+		return (int) (packed & 15);
+	}
+
+	/**
+	 * Returns move of the packed path.
+	 * 
+	 * @param packed
+	 *            packed path
+	 * @param index
+	 *            index of the move
+	 * @return the move ({@link Move#ordinal()})
+	 */
+	private static int getMove(long packed, int index) {
+		return (int) (packed >>> (4 + 5 * index)) & 31;
+	}
+
+	/**
+	 * State of the single search.
+	 */
+	private final class Search {
+
+		/**
+		 * Cubes moved by the forward (0) and backward (1) side.
+		 */
+		private final RubiksCube[] cubes = new RubiksCube[2];
+
+		/**
+		 * Initial states of both sides.
+		 */
+		private final CubeSnapshot[] roots = new CubeSnapshot[2];
+
+		/**
+		 * Visited states of both sides (hash of the state and packed path
+		 * from the initial state of the side).
+		 */
+		private final StateMap[] maps = { new StateMap(), new StateMap() };
+
+		/**
+		 * Searched depth of both sides.
+		 */
+		private final int[] depths = new int[2];
+
+		/**
+		 * Moves of the current paths of both sides.
+		 */
+		private final int[][] paths = new int[2][MAX_SIDE_DEPTH];
+
+		/**
+		 * Cube used to check the solutions.
+		 */
+		private final RubiksCube verification;
+
+		/**
+		 * Initial state of the cube used to check the solutions.
+		 */
+		private final CubeSnapshot verificationRoot;
+
+		/**
+		 * Hash of the solved state.
+		 */
+		private final long goalHash;
+
+		/**
+		 * Allowed moves.
+		 */
+		private final int[] moves;
+
+		/**
+		 * Deadline of the search.
+		 */
+		private final Deadline deadline;
+
+		/**
+		 * True if the deadline has expired.
+		 */
+		private boolean timedOut = false;
+
+		/**
+		 * True if the limit of the states has been exceeded.
+		 */
+		private boolean limitExceeded = false;
+
+		/**
+		 * True if the states of the current depth are kept in the map (false
+		 * on the last depth, they are only looked up in the other map).
+		 */
+		private boolean keepStates;
+
+		/**
+		 * The found solution.
+		 */
+		private int[] solution;
+
+		/**
+		 * Number of visited nodes.
+		 */
+		long nodes;
+
+		/**
+		 * Number of searched depths.
+		 */
+		long levels;
+
+		Search(RubiksCube start, RubiksCube goal, int[] moves, Deadline deadline) {
+			this.moves = moves;
+			this.deadline = deadline;
+			cubes[0] = start;
+			cubes[1] = goal;
+			roots[0] = start.snapshot();
+			roots[1] = goal.snapshot();
+			verification = start.copy();
+			verificationRoot = verification.snapshot();
+			goalHash = goal.getStateHash();
+		}
+
+		/**
+		 * Searches deeper levels of both sides until they meet.
+		 * 
+		 * @return moves of the solution or {@code null}
+		 */
+		int[] solve() {
+			maps[0].put(cubes[0].getStateHash(), 0);
+			maps[1].put(cubes[1].getStateHash(), 0);
+
+			while (depths[0] + depths[1] < maxDepth) {
+				int side = maps[0].size() <= maps[1].size() ? 0 : 1;
+				if (depths[side] == MAX_SIDE_DEPTH)
+					side = 1 - side;
+				if (depths[side] == MAX_SIDE_DEPTH)
+					break;
+
+				depths[side]++;
+				levels++;
+				keepStates = depths[0] + depths[1] < maxDepth;
+				cubes[side].restore(roots[side]);
+				if (expand(side, 0, -1) || timedOut)
+					return solution;
+			}
+			return null;
+		}
+
+		/**
+		 * Depth-first search of the states on the current depth of the side.
+		 * 
+		 * @param side
+		 *            0 for forward and 1 for backward side
+		 * @param depth
+		 *            number of moves done
+		 * @param lastFace
+		 *            face of the last move (-1 if there is no move)
+		 * @return true if the search should be stopped (solution is found,
+		 *         the limit of states is exceeded or the deadline has expired)
+		 */
+		private boolean expand(int side, int depth, int lastFace) {
+			if ((nodes & (IDAStarCubeSolver.DEADLINE_CHECK_NODES - 1)) == 0 && deadline.isExpired())
+				timedOut = true;
+			if (timedOut)
+				return true;
+
+			RubiksCube cube = cubes[side];
+			if (depth == depths[side]) {
+				long hash = cube.getStateHash();
+				long path = pack(paths[side], depth);
+				if (keepStates && maps[side].get(hash) < 0) {
+					if (maps[0].size() + maps[1].size() >= maxStates) {
+						limitExceeded = true;
+						return true;
+					}
+					maps[side].put(hash, path);
+				}
+				long other = maps[1 - side].get(hash);
+				return other >= 0 && meet(side == 0 ? path : other, side == 0 ? other : path);
+			}
+
+			for (int move : moves) {
+				int face = CanonicalSequence.getLayer(move);
+				if (!CanonicalSequence.isAllowed(lastFace, face))
+					continue;
+				nodes++;
+				Move next = Move.of(move);
+				cube.move(next);
+				paths[side][depth] = move;
+				boolean stop = expand(side, depth + 1, face);
+				cube.move(next.inverse());
+				if (stop)
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Joins the paths of both sides and checks the solution.
+		 * 
+		 * @param forward
+		 *            packed path of the forward side
+		 * @param backward
+		 *            packed path of the backward side
+		 * @return true if the cube is solved by the joined path
+		 */
+		private boolean meet(long forward, long backward) {
+			int forwardLength = getLength(forward);
+			int backwardLength = getLength(backward);
+			int[] path = new int[forwardLength + backwardLength];
+			for (int i = 0; i < forwardLength; i++) {
+				path[i] = getMove(forward, i);
+			}
+			for (int i = 0; i < backwardLength; i++) {
+				path[forwardLength + i] = Move.of(getMove(backward, backwardLength - 1 - i)).inverse().ordinal();
+			}
+
+			verification.restore(verificationRoot);
+			for (int move : path) {
+				verification.move(Move.of(move));
+			}
+			if (verification.getStateHash() != goalHash || !verification.isSolved())
+				return false;
+			solution = path;
+			return true;
+		}
+	}
+
+	/**
+	 * Hash map with open addressing from the hash of the state to the packed
+	 * path (both are primitive {@code long} values, so the map does not
+	 * allocate memory for the entries).
+	 */
+	private static final class StateMap {
+
+		/**
+		 * Hashes of the states (0 is an empty slot).
+		 */
+		private long[] keys = new long[1024];
+
+		/**
+		 * Packed paths.
+		 */
+		private long[] values = new long[1024];
+
+		/**
+		 * Number of the entries.
+		 */
+		private int size;
+
+		/**
+		 * Equals {@code true} if the map contains the state with hash 0.
+		 */
+		private boolean hasZero;
+
+		/**
+		 * Value of the state with hash 0.
+		 */
+		private long zeroValue;
+
+		/**
+		 * Returns value of the state.
+		 * 
+		 * @param key
+		 *            hash of the state
+		 * @return packed path or -1 if there is no such state
+		 */
+		long get(long key) {
+			if (key == 0)
+				return hasZero ? zeroValue : -1;
+			int mask = keys.length - 1;
+			for (int i = slot(key, mask);; i = (i + 1) & mask) {
+				if (keys[i] == key)
+					return values[i];
+				if (keys[i] == 0)
+					return -1;
+			}
+		}
+
+		/**
+		 * Puts the state (which is not in the map yet).
+		 * 
+		 * @param key
+		 *            hash of the state
+		 * @param value
+		 *            packed path
+		 */
+		void put(long key, long value) {
+			size++;
+			if (key == 0) {
+				hasZero = true;
+				zeroValue = value;
+				return;
+			}
+			if (4 * (long) size > 3 * (long) keys.length)
+				grow();
+			insert(key, value);
+		}
+
+		/**
+		 * Returns number of the states.
+		 * 
+		 * @return number of the states
+		 */
+		int size() {
+			return size;
+		}
+
+		/**
+		 * Inserts the entry to the first empty slot.
+		 * 
+		 * @param key
+		 *            hash of the state
+		 * @param value
+		 *            packed path
+		 */
+		private void insert(long key, long value) {
+			int mask = keys.length - 1;
+			int i = slot(key, mask);
+			while (keys[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+		}
+
+		/**
+		 * Doubles the size of the tables.
+		 */
+		private void grow() {
+			long[] oldKeys = keys;
+			long[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new long[oldValues.length * 2];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0)
+					insert(oldKeys[i], oldValues[i]);
+			}
+		}
+
+		/**
+		 * Returns the first slot of the key (Zobrist hashes are already
+		 * uniformly distributed).
+		 * 
+		 * @param key
+		 *            hash of the state
+		 * @param mask
+		 *            size of the table - 1
+		 * @return index of the slot
+		 */
+		private static int slot(long key, int mask) {
+			return (int) (key ^ (key >>> 32)) & mask;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package my.kotpat.rubikSolver.services;
+
+import java.util.function.IntSupplier;
+
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+
+/**
+ * The {@link CubeSolver} which could find the solution not longer than the
+ * limit. The limit is read during the search, so it could be decreased by
+ * other thread (e.g. when the shorter solution has been found by other
+ * solver) and the search is stopped as soon as the shorter solution could not
+ * be found.
+ * 
+ * @author Patryk Kotlarz
+ */
+public interface BoundedCubeSolver extends CubeSolver {
+	/**
+	 * Returns the scramble which solves the cube and is not longer than the
+	 * limit (see
+	 * {@link BoundedCubeSolver#getSolution(RubiksCube, IntSupplier, Deadline)})
+	 * without the time limit.
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @param maxLength
+	 *            current maximum length of the solution
+	 * @return solving information
+	 */
+	public default SolvingMeta getSolution(RubiksCube cube, IntSupplier maxLength) {
+		return getSolution(cube, maxLength, Deadline.none());
+	}
+
+	/**
+	 * This method should return the scramble which solves the cube and is not
+	 * longer than the limit or {@code null} scramble if there is no such
+	 * solution (or it has not been found before the deadline).
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @param maxLength
+	 *            current maximum length of the solution
+	 * @param deadline
+	 *            deadline of the solving
+	 * @return solving information
+	 */
+	public SolvingMeta getSolution(RubiksCube cube, IntSupplier maxLength, Deadline deadline);
+
+	/**
+	 * Returns the number of moves which is never greater than the length of
+	 * the shortest solution of the cube (e.g. the distance estimated by the
+	 * heuristic of the search).
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @return lower bound of the length of the solution
+	 * @throws IllegalArgumentException
+	 *             if the cube could not be solved by the solver
+	 */
+	public default int getLowerBound(RubiksCube cube) {
+		return 0;
+	}
+
+	/**
+	 * Returns the maximum length of the solution (the solver never returns
+	 * longer one, whatever the limit is).
+	 * 
+	 * @return maximum length of the solution
+	 */
+	public int getMaxLength();
+}
@@ -0,0 +1,144 @@
+package my.kotpat.rubikSolver.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+
+/**
+ * Helper class for the solvers of the 2x2x2 cube. The 2x2x2 cube has no
+ * centers, so it is solved in any of 24 rotations of the whole cube. Solvers
+ * rotate the cube (on the cubie level), so the DBL corner is on its place and
+ * oriented, solve it using only R, U and F moves and translate the moves back
+ * to the faces of the not rotated cube.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+final class CornerRotations {
+
+	/**
+	 * Rotations of the whole cube (on the cubie level).
+	 */
+	private static final List<CubieCube> ROTATIONS = new ArrayList<CubieCube>();
+
+	/**
+	 * Face moves of the not rotated cube equal to every move of the rotated
+	 * cube (indexed by number of rotation and {@link Move#ordinal()}).
+	 */
+	private static final int[][] MOVE_MAPS;
+
+	static {
+		// Rotations generated by R L', U D' and F B'
+		int[][] generators = { { 0, 5 }, { 6, 11 }, { 12, 17 } };
+		Deque<CubieCube> queue = new ArrayDeque<CubieCube>();
+		queue.add(new CubieCube());
+		ROTATIONS.add(new CubieCube());
+		while (!queue.isEmpty()) {
+			CubieCube rotation = queue.poll();
+			for (int[] generator : generators) {
+				CubieCube next = new CubieCube(rotation);
+				next.cornerMultiply(CubieCube.getMoveCube(generator[0]));
+				next.cornerMultiply(CubieCube.getMoveCube(generator[1]));
+				if (indexOf(next) < 0) {
+					ROTATIONS.add(next);
+					queue.add(next);
+				}
+			}
+		}
+
+		MOVE_MAPS = new int[ROTATIONS.size()][Move.MOVES_COUNT];
+		for (int r = 0; r < ROTATIONS.size(); r++) {
+			CubieCube inverse = null;
+			for (CubieCube candidate : ROTATIONS) {
+				CubieCube product = new CubieCube(ROTATIONS.get(r));
+				product.cornerMultiply(candidate);
+				if (sameCorners(product, new CubieCube()))
+					inverse = candidate;
+			}
+			for (int move = 0; move < Move.MOVES_COUNT; move++) {
+				CubieCube conjugate = new CubieCube(ROTATIONS.get(r));
+				conjugate.cornerMultiply(CubieCube.getMoveCube(move));
+				conjugate.cornerMultiply(inverse);
+				for (int face = 0; face < Move.MOVES_COUNT; face++) {
+					if (sameCorners(conjugate, CubieCube.getMoveCube(face)))
+						MOVE_MAPS[r][move] = face;
+				}
+			}
+		}
+	}
+
+	private CornerRotations() {
+	}
+
+	/**
+	 * Rotates the cube, so the DBL corner is on its place and oriented.
+	 * 
+	 * @param cube
+	 *            cube to rotate (not changed)
+	 * @param rotated
+	 *            cube for the result
+	 * @return number of the rotation (used by
+	 *         {@link CornerRotations#translate(int, int)})
+	 */
+	static int fixCorner(CubieCube cube, CubieCube rotated) {
+		int fixed = CubieCube.Corner.DBL.ordinal();
+		for (int rotation = 0; rotation < ROTATIONS.size(); rotation++) {
+			rotated.copyFrom(cube);
+			rotated.cornerMultiply(ROTATIONS.get(rotation));
+			if (rotated.getCornerPermutation(fixed) == fixed && rotated.getCornerOrientation(fixed) == 0)
+				return rotation;
+		}
+		throw new IllegalStateException("No rotation fixes the corner");
+	}
+
+	/**
+	 * Translates the move of the rotated cube to the move of the not rotated
+	 * cube.
+	 * 
+	 * @param rotation
+	 *            number of the rotation
+	 * @param move
+	 *            index of the move of the rotated cube ({@link Move#ordinal()})
+	 * @return move of the not rotated cube
+	 */
+	static Move translate(int rotation, int move) {
+		return Move.of(MOVE_MAPS[rotation][move]);
+	}
+
+	/**
+	 * Returns index of the rotation with the same corners.
+	 * 
+	 * @param cube
+	 *            cubie cube
+	 * @return index in {@link CornerRotations#ROTATIONS} or -1
+	 */
+	private static int indexOf(CubieCube cube) {
+		for (int i = 0; i < ROTATIONS.size(); i++) {
+			if (sameCorners(ROTATIONS.get(i), cube))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns {@code true} if the corners of both cubes are the same.
+	 * 
+	 * @param first
+	 *            first cube
+	 * @param second
+	 *            second cube
+	 * @return true if the corners are the same
+	 */
+	private static boolean sameCorners(CubieCube first, CubieCube second) {
+		for (int i = 0; i < CubieCube.CORNERS; i++) {
+			if (first.getCornerPermutation(i) != second.getCornerPermutation(i)
+					|| first.getCornerOrientation(i) != second.getCornerOrientation(i))
+				return false;
+		}
+		return true;
+	}
+}
@@ -1,11 +1,16 @@
 package my.kotpat.rubikSolver.services;
 
-import my.kotpat.rubikSolver.domain.Cube;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import my.kotpat.rubikSolver.domain.RubiksCube;
 import my.kotpat.rubikSolver.domain.SolvingMeta;
 
 /**
  * The class which is implementing {@link CubeSolver} should has ability to
- * solve the scrambled cube.
+ * solve the scrambled cube (any implementation of {@link RubiksCube}).
  * 
  * @author Patryk Kotlarz
  */
@@ -18,5 +23,83 @@ public interface CubeSolver {
 	 *            cube to solve
 	 * @return solving information
 	 */
-	public SolvingMeta getSolution(Cube cube);
+	public SolvingMeta getSolution(RubiksCube cube);
+
+	/**
+	 * This method should return the best scramble which solves the cube found
+	 * before the deadline. If the deadline expires,
+	 * {@link SolvingMeta#isTimedOut()} is set and the scramble could be not
+	 * optimal (or {@code null} if no solution has been found). The default
+	 * implementation ignores the deadline, so the solvers which could work
+	 * long should override it.
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @param deadline
+	 *            deadline of the solving
+	 * @return solving information
+	 */
+	public default SolvingMeta getSolution(RubiksCube cube, Deadline deadline) {
+		return getSolution(cube);
+	}
+
+	/**
+	 * Returns the best scramble which solves the cube found in the specific
+	 * time (see {@link CubeSolver#getSolution(RubiksCube, Deadline)}).
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @param timeout
+	 *            maximum time of the solving
+	 * @param unit
+	 *            unit of the time
+	 * @return solving information
+	 */
+	public default SolvingMeta getSolution(RubiksCube cube, long timeout, TimeUnit unit) {
+		return getSolution(cube, Deadline.after(timeout, unit));
+	}
+
+	/**
+	 * Solves the copy of the cube in the common {@link ForkJoinPool} (see
+	 * {@link CubeSolver#getSolutionAsync(RubiksCube, long, TimeUnit, Executor)}).
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @param timeout
+	 *            maximum time of the solving
+	 * @param unit
+	 *            unit of the time
+	 * @return future solving information
+	 */
+	public default CompletableFuture<SolvingMeta> getSolutionAsync(RubiksCube cube, long timeout, TimeUnit unit) {
+		return getSolutionAsync(cube, timeout, unit, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Solves the copy of the cube by the executor. Cancelling the returned
+	 * future cancels the deadline, so the solving is stopped and the thread of
+	 * the executor is released.
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @param timeout
+	 *            maximum time of the solving
+	 * @param unit
+	 *            unit of the time
+	 * @param executor
+	 *            executor which runs the solving
+	 * @return future solving information
+	 */
+	public default CompletableFuture<SolvingMeta> getSolutionAsync(RubiksCube cube, long timeout, TimeUnit unit,
+			Executor executor) {
+		RubiksCube copy = cube.copy();
+		Deadline deadline = Deadline.after(timeout, unit);
+		CompletableFuture<SolvingMeta> future = CompletableFuture.supplyAsync(() -> getSolution(copy, deadline),
+				executor);
+		future.whenComplete((meta, exception) -> {
+			if (future.isCancelled())
+				deadline.cancel();
+		});
+		return future;
+	}
 }
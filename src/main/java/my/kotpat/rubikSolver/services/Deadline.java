@@ -0,0 +1,100 @@
+package my.kotpat.rubikSolver.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the solving. The deadline expires when its time is over, when
+ * it is cancelled (e.g. by cancelling the future returned by
+ * {@link CubeSolver#getSolutionAsync(my.kotpat.rubikSolver.domain.RubiksCube, long, TimeUnit)})
+ * or when the thread which checks it is interrupted. Solvers check the
+ * deadline regularly (not after every move, reading the time is much slower
+ * than the move) and return the best solution found before the deadline.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public final class Deadline {
+
+	/**
+	 * Time of the deadline ({@link System#nanoTime()}).
+	 */
+	private final long end;
+
+	/**
+	 * True if the deadline has no time limit.
+	 */
+	private final boolean unlimited;
+
+	/**
+	 * True if the deadline has been cancelled.
+	 */
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Creates deadline.
+	 *
+	 * @param end
+	 *            time of the deadline ({@link System#nanoTime()})
+	 * @param unlimited
+	 *            true if the deadline has no time limit
+	 */
+	private Deadline(long end, boolean unlimited) {
+		this.end = end;
+		this.unlimited = unlimited;
+	}
+
+	/**
+	 * Returns the deadline which expires after the specific time.
+	 *
+	 * @param timeout
+	 *            the time
+	 * @param unit
+	 *            unit of the time
+	 * @return deadline
+	 */
+	public static Deadline after(long timeout, TimeUnit unit) {
+		long nanos = unit.toNanos(timeout);
+		// Time later than about 146 years is no limit
+		if (nanos >= Long.MAX_VALUE / 2)
+			return none();
+		return new Deadline(System.nanoTime() + Math.max(nanos, 0), false);
+	}
+
+	/**
+	 * Returns the deadline without the time limit (it expires only if it is
+	 * cancelled or the thread is interrupted).
+	 *
+	 * @return deadline
+	 */
+	public static Deadline none() {
+		return new Deadline(0, true);
+	}
+
+	/**
+	 * Checks if the deadline has expired.
+	 *
+	 * @return true if the time is over, the deadline is cancelled or the
+	 *         current thread is interrupted
+	 */
+	public boolean isExpired() {
+		if (cancelled || Thread.currentThread().isInterrupted())
+			return true;
+		return !unlimited && System.nanoTime() - end >= 0;
+	}
+
+	/**
+	 * Cancels the deadline (it expires immediately).
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns true if the deadline has been cancelled.
+	 *
+	 * @return true if the deadline is cancelled
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
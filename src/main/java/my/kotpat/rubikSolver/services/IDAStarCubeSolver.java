@@ -0,0 +1,688 @@
+package my.kotpat.rubikSolver.services;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.function.IntSupplier;
+
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.InvalidCubeStateException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.tables.Coordinate;
+import my.kotpat.rubikSolver.tables.MoveTable;
+import my.kotpat.rubikSolver.tables.MoveTables;
+import my.kotpat.rubikSolver.tables.Pattern;
+import my.kotpat.rubikSolver.tables.PatternDatabase;
+import my.kotpat.rubikSolver.tables.PruningTable;
+
+/**
+ * Implementation of {@link CubeSolver} which finds the shortest solution of
+ * the 2x2x2 or 3x3x3 cube by the iterative deepening A* search. The state of
+ * the cube is described by the {@link Coordinate} values (moved by
+ * {@link MoveTables}) and the distance to the solved cube is estimated by the
+ * maximum of the distances:
+ * <ul>
+ * <li>3x3x3 cube: {@link PatternDatabase} distances of
+ * {@link Pattern#CORNERS}, {@link Pattern#FIRST_SEVEN_EDGES} and
+ * {@link Pattern#LAST_SEVEN_EDGES} if their files exist in the directory of
+ * the move tables (see {@link PatternDatabase#main(String[])}), otherwise
+ * {@link PruningTable} distances of the orientation of the corners with
+ * positions of the UD-slice edges, orientation of the edges with positions
+ * of the UD-slice edges and permutation of the corners,</li>
+ * <li>2x2x2 cube: orientation and permutation of the corners (every rotation
+ * of the whole cube is solved).</li>
+ * </ul>
+ * Pruning tables are computed (and pattern databases are memory-mapped) once
+ * per {@link MoveTables} object and shared by all the solvers.
+ * <p>
+ * The solution is always optimal. With the pattern databases the 3x3x3
+ * scrambles of 14 moves are solved in seconds; without them the search of
+ * the deep 3x3x3 states could take very long. The search should be limited
+ * by the deadline (see
+ * {@link CubeSolver#getSolution(RubiksCube, long, java.util.concurrent.TimeUnit)})
+ * or replaced by {@link TwoPhaseCubeSolver} when the short (not optimal)
+ * solution is enough. {@link SolvingMeta#getAnalyzedMoves()} is the number
+ * of visited nodes and {@link SolvingMeta#getAnalyzedScrambles()} is the
+ * number of the iterations of the search. If there is no solution up to
+ * {@link IDAStarCubeSolver#getMaxDepth()} moves, the solving scramble is
+ * {@code null}. The limit of the length could be also changed during the
+ * search (see {@link BoundedCubeSolver}), so the solver could be used by
+ * {@link ParallelCubeSolver}.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class IDAStarCubeSolver implements BoundedCubeSolver {
+
+	/**
+	 * Default maximum length of the solution (every 3x3x3 cube could be solved
+	 * in 20 moves).
+	 */
+	public static final int DEFAULT_MAX_DEPTH = 20;
+
+	/**
+	 * Number of the nodes between the checks of the deadline (power of 2).
+	 */
+	static final int DEADLINE_CHECK_NODES = 1 << 12;
+
+	/**
+	 * Search spaces of the 2x2x2 and 3x3x3 cube (indexed by dimension) for
+	 * every {@link MoveTables} object.
+	 */
+	private static final Map<MoveTables, SearchSpace[]> SEARCH_SPACES = new WeakHashMap<MoveTables, SearchSpace[]>();
+
+	/**
+	 * Move tables of the coordinates.
+	 */
+	private final MoveTables tables;
+
+	/**
+	 * Maximum length of the solution.
+	 */
+	private int maxDepth = DEFAULT_MAX_DEPTH;
+
+	/**
+	 * Creates solver which uses move tables from the default directory (see
+	 * {@link MoveTables#getInstance()}).
+	 */
+	public IDAStarCubeSolver() {
+		this(MoveTables.getInstance());
+	}
+
+	/**
+	 * Creates solver which uses specific move tables.
+	 * 
+	 * @param tables
+	 *            move tables
+	 */
+	public IDAStarCubeSolver(MoveTables tables) {
+		this.tables = tables;
+	}
+
+	/**
+	 * Finds the solution of the 2x2x2 or 3x3x3 cube. The cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	public SolvingMeta getSolution(RubiksCube cube) {
+		return getSolution(cube, Deadline.none());
+	}
+
+	/**
+	 * Finds the solution of the 2x2x2 or 3x3x3 cube before the deadline. The
+	 * cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	@Override
+	public SolvingMeta getSolution(RubiksCube cube, Deadline deadline) {
+		return getSolution(cube, () -> maxDepth, deadline);
+	}
+
+	/**
+	 * Finds the solution of the 2x2x2 or 3x3x3 cube which is not longer than
+	 * the limit (and {@link IDAStarCubeSolver#getMaxDepth()}) before the
+	 * deadline. The cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	public SolvingMeta getSolution(RubiksCube cube, IntSupplier maxLength, Deadline deadline) {
+		long startingTime = System.nanoTime();
+
+		CubieCube cubieCube = toCubieCube(cube);
+		SearchSpace space = getSearchSpace(tables, cube.getDimension());
+		Search search = new Search(space, maxDepth, maxLength, deadline);
+		Scramble solution = cube.isSolved() ? new Scramble() : search.solve(cubieCube);
+
+		long finishingTime = System.nanoTime();
+		double timeMs = (double) (finishingTime - startingTime) / 1000000;
+
+		SolvingMeta meta = new SolvingMeta();
+		meta.setAnalyzedMoves(search.nodes);
+		meta.setAnalyzedScrambles(search.iterations);
+		meta.setSolvingScramble(solution);
+		meta.setTimedOut(search.timedOut);
+		meta.setTimeMs(timeMs);
+
+		return meta;
+	}
+
+	/**
+	 * Returns the distance of the cube estimated by the pattern databases or
+	 * the pruning tables (the bound of the first iteration of the search). The cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	@Override
+	public int getLowerBound(RubiksCube cube) {
+		CubieCube cubieCube = toCubieCube(cube);
+		SearchSpace space = getSearchSpace(tables, cube.getDimension());
+		int[] values = new int[space.coordinates.length];
+		int[] patternIndices = new int[space.databases.length];
+		space.getValues(cubieCube, values);
+		for (int i = 0; i < space.databases.length; i++) {
+			patternIndices[i] = space.databases[i].getPattern().getIndex(cubieCube);
+		}
+		return space.getDistance(values, patternIndices);
+	}
+
+	/**
+	 * Converts the cube to the cubie cube.
+	 * 
+	 * @param cube
+	 *            2x2x2 or 3x3x3 cube
+	 * @return cubie cube
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	private static CubieCube toCubieCube(RubiksCube cube) {
+		try {
+			return new CubieCube(cube);
+		} catch (UnsupportedLayerDimensionException | InvalidCubeStateException e) {
+			throw new IllegalArgumentException("Cube could not be solved", e);
+		}
+	}
+
+	/**
+	 * Returns search space of the cube (computes it if it is used for the
+	 * first time).
+	 * 
+	 * @param tables
+	 *            move tables
+	 * @param dimension
+	 *            dimension of the cube (2 or 3)
+	 * @return search space
+	 */
+	private static synchronized SearchSpace getSearchSpace(MoveTables tables, int dimension) {
+		SearchSpace[] spaces = SEARCH_SPACES.get(tables);
+		if (spaces == null) {
+			spaces = new SearchSpace[4];
+			SEARCH_SPACES.put(tables, spaces);
+		}
+		if (spaces[dimension] == null)
+			spaces[dimension] = dimension == 2 ? createTwoByTwoSpace(tables) : createThreeByThreeSpace(tables);
+		return spaces[dimension];
+	}
+
+	/**
+	 * Creates search space of the 3x3x3 cube (one solved state). The pattern
+	 * databases are used if all of them have been built in the directory of
+	 * the move tables, otherwise the pruning tables are computed.
+	 * 
+	 * @param tables
+	 *            move tables
+	 * @return search space
+	 */
+	private static SearchSpace createThreeByThreeSpace(MoveTables tables) {
+		Coordinate[] coordinates = { Coordinate.CORNER_PERMUTATION, Coordinate.TWIST, Coordinate.FLIP,
+				Coordinate.UD_SLICE, Coordinate.UD_SLICE_SORTED, Coordinate.U_EDGES, Coordinate.D_EDGES };
+		Pattern[] patterns = { Pattern.CORNERS, Pattern.FIRST_SEVEN_EDGES, Pattern.LAST_SEVEN_EDGES };
+		PatternDatabase[] databases = new PatternDatabase[patterns.length];
+		try {
+			for (int i = 0; i < patterns.length; i++) {
+				databases[i] = PatternDatabase.open(patterns[i], tables.getDirectory());
+			}
+			return new SearchSpace(tables, coordinates, new PruningTable[0], new int[0][], new int[] { 0 },
+					databases);
+		} catch (IOException e) {
+			// The databases have not been built
+		}
+
+		PruningTable[] pruningTables = { PruningTable.get(tables, Coordinate.TWIST, Coordinate.UD_SLICE),
+				PruningTable.get(tables, Coordinate.FLIP, Coordinate.UD_SLICE),
+				PruningTable.get(tables, Coordinate.CORNER_PERMUTATION, null) };
+		int[][] pruningCoordinates = { { 1, 3 }, { 2, 3 }, { 0, -1 } };
+		return new SearchSpace(tables, coordinates, pruningTables, pruningCoordinates, new int[] { 0 },
+				new PatternDatabase[0]);
+	}
+
+	/**
+	 * Creates search space of the 2x2x2 cube (corners only). Every rotation of
+	 * the whole cube is a solved state, because 2x2x2 cube has no centers.
+	 * 
+	 * @param tables
+	 *            move tables
+	 * @return search space
+	 */
+	private static SearchSpace createTwoByTwoSpace(MoveTables tables) {
+		Coordinate[] coordinates = { Coordinate.CORNER_PERMUTATION, Coordinate.TWIST };
+		int twistSize = Coordinate.TWIST.getSize();
+
+		// Rotations of the whole cube: R L', U D' and F B'
+		int[][] rotations = { { 0, 5 }, { 6, 11 }, { 12, 17 } };
+		TreeSet<Integer> goals = new TreeSet<Integer>();
+		TreeSet<Integer> twistGoals = new TreeSet<Integer>();
+		TreeSet<Integer> cornerGoals = new TreeSet<Integer>();
+		Deque<CubieCube> queue = new ArrayDeque<CubieCube>();
+		queue.add(new CubieCube());
+		goals.add(0);
+		while (!queue.isEmpty()) {
+			CubieCube state = queue.poll();
+			int corners = Coordinate.CORNER_PERMUTATION.get(state);
+			int twist = Coordinate.TWIST.get(state);
+			cornerGoals.add(corners);
+			twistGoals.add(twist);
+			for (int[] rotation : rotations) {
+				CubieCube rotated = new CubieCube(state);
+				rotated.multiply(CubieCube.getMoveCube(rotation[0]));
+				rotated.multiply(CubieCube.getMoveCube(rotation[1]));
+				int key = Coordinate.CORNER_PERMUTATION.get(rotated) * twistSize + Coordinate.TWIST.get(rotated);
+				if (goals.add(key))
+					queue.add(rotated);
+			}
+		}
+
+		PruningTable[] pruningTables = {
+				new PruningTable(tables.get(Coordinate.TWIST), null, MoveTables.ALL_MOVES, toArray(twistGoals)),
+				new PruningTable(tables.get(Coordinate.CORNER_PERMUTATION), null, MoveTables.ALL_MOVES,
+						toArray(cornerGoals)) };
+		int[][] pruningCoordinates = { { 1, -1 }, { 0, -1 } };
+		return new SearchSpace(tables, coordinates, pruningTables, pruningCoordinates, toArray(goals),
+				new PatternDatabase[0]);
+	}
+
+	/**
+	 * Converts sorted set to the array.
+	 * 
+	 * @param set
+	 *            sorted set
+	 * @return sorted array
+	 */
+	private static int[] toArray(TreeSet<Integer> set) {
+		int[] array = new int[set.size()];
+		int i = 0;
+		for (int value : set) {
+			array[i++] = value;
+		}
+		return array;
+	}
+
+	/**
+	 * Maximum length of the solution getter.
+	 * 
+	 * @return maximum length of the solution
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Returns the maximum length of the solution (the same as
+	 * {@link IDAStarCubeSolver#getMaxDepth()}).
+	 * 
+	 * @return maximum length of the solution
+	 */
+	@Override
+	public int getMaxLength() {
+		return maxDepth;
+	}
+
+	/**
+	 * Maximum length of the solution setter.
+	 * 
+	 * @param maxDepth
+	 *            maximum length of the solution
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Coordinates of the cube with their move tables, pruning tables and
+	 * solved states. Object is immutable and shared by all the searches.
+	 */
+	private static final class SearchSpace {
+
+		/**
+		 * Coordinates describing the whole state. The first two are always
+		 * {@link Coordinate#CORNER_PERMUTATION} and {@link Coordinate#TWIST}.
+		 */
+		private final Coordinate[] coordinates;
+
+		/**
+		 * Move tables of the coordinates.
+		 */
+		private final MoveTable[] moveTables;
+
+		/**
+		 * Pruning tables.
+		 */
+		private final PruningTable[] pruningTables;
+
+		/**
+		 * Indices of the coordinates of every pruning table (-1 if the table
+		 * has only one coordinate).
+		 */
+		private final int[][] pruningCoordinates;
+
+		/**
+		 * Sorted keys ({@code cornerPermutation * TWIST size + twist}) of the
+		 * solved states (other coordinates of the solved state are 0).
+		 */
+		private final int[] goals;
+
+		/**
+		 * Pattern databases (the patterns are tracked by the search besides
+		 * the coordinates).
+		 */
+		private final PatternDatabase[] databases;
+
+		SearchSpace(MoveTables tables, Coordinate[] coordinates, PruningTable[] pruningTables,
+				int[][] pruningCoordinates, int[] goals, PatternDatabase[] databases) {
+			this.coordinates = coordinates;
+			this.moveTables = new MoveTable[coordinates.length];
+			for (int i = 0; i < coordinates.length; i++) {
+				moveTables[i] = tables.get(coordinates[i]);
+			}
+			this.pruningTables = pruningTables;
+			this.pruningCoordinates = pruningCoordinates;
+			this.goals = goals;
+			this.databases = databases;
+		}
+
+		/**
+		 * Computes values of the coordinates.
+		 * 
+		 * @param cube
+		 *            cubie cube
+		 * @param values
+		 *            array for the values
+		 */
+		void getValues(CubieCube cube, int[] values) {
+			for (int i = 0; i < coordinates.length; i++) {
+				values[i] = coordinates[i].get(cube);
+			}
+		}
+
+		/**
+		 * Computes values of the coordinates after the move.
+		 * 
+		 * @param values
+		 *            values before the move
+		 * @param move
+		 *            index of the move ({@link Move#ordinal()})
+		 * @param next
+		 *            array for the values after the move
+		 */
+		void move(int[] values, int move, int[] next) {
+			for (int i = 0; i < values.length; i++) {
+				next[i] = moveTables[i].move(values[i], move);
+			}
+		}
+
+		/**
+		 * Computes states of the patterns of the databases.
+		 * 
+		 * @param cube
+		 *            cubie cube
+		 * @param positions
+		 *            arrays for the positions of the cubies of every pattern
+		 * @param orientations
+		 *            arrays for the orientations of the cubies of every
+		 *            pattern
+		 * @param indices
+		 *            array for the indices of the states of the patterns
+		 */
+		void getPatterns(CubieCube cube, int[][] positions, int[][] orientations, int[] indices) {
+			for (int i = 0; i < databases.length; i++) {
+				Pattern pattern = databases[i].getPattern();
+				indices[i] = pattern.getIndex(cube);
+				pattern.decode(indices[i], positions[i], orientations[i]);
+			}
+		}
+
+		/**
+		 * Computes states of the patterns after the move.
+		 * 
+		 * @param positions
+		 *            positions of the cubies before the move
+		 * @param orientations
+		 *            orientations of the cubies before the move
+		 * @param move
+		 *            index of the move ({@link Move#ordinal()})
+		 * @param nextPositions
+		 *            arrays for the positions after the move
+		 * @param nextOrientations
+		 *            arrays for the orientations after the move
+		 * @param nextIndices
+		 *            array for the indices of the states after the move
+		 */
+		void movePatterns(int[][] positions, int[][] orientations, int move, int[][] nextPositions,
+				int[][] nextOrientations, int[] nextIndices) {
+			for (int i = 0; i < databases.length; i++) {
+				nextIndices[i] = databases[i].getPattern().move(positions[i], orientations[i], move,
+						nextPositions[i], nextOrientations[i]);
+			}
+		}
+
+		/**
+		 * Returns estimated (never greater than real) number of moves which
+		 * solves the cube.
+		 * 
+		 * @param values
+		 *            values of the coordinates
+		 * @param patternIndices
+		 *            indices of the states of the patterns
+		 * @return estimated distance or {@link PruningTable#UNREACHABLE}
+		 */
+		int getDistance(int[] values, int[] patternIndices) {
+			int distance = 0;
+			for (int i = 0; i < databases.length; i++) {
+				distance = Math.max(distance, databases[i].getDistance(patternIndices[i]));
+			}
+			for (int i = 0; i < pruningTables.length; i++) {
+				int[] indices = pruningCoordinates[i];
+				int second = indices[1] < 0 ? 0 : values[indices[1]];
+				distance = Math.max(distance, pruningTables[i].getDistance(values[indices[0]], second));
+			}
+			return distance;
+		}
+
+		/**
+		 * Returns {@code true} if the state is solved.
+		 * 
+		 * @param values
+		 *            values of the coordinates
+		 * @return true if the state is solved
+		 */
+		boolean isGoal(int[] values) {
+			for (int i = 2; i < values.length; i++) {
+				if (values[i] != 0)
+					return false;
+			}
+			int key = values[0] * Coordinate.TWIST.getSize() + values[1];
+			return Arrays.binarySearch(goals, key) >= 0;
+		}
+	}
+
+	/**
+	 * State of the single search. Values of the coordinates are kept for
+	 * every depth, so the search does not allocate memory.
+	 */
+	private static final class Search {
+
+		/**
+		 * Search space of the cube.
+		 */
+		private final SearchSpace space;
+
+		/**
+		 * Maximum length of the solution.
+		 */
+		private final int maxDepth;
+
+		/**
+		 * Current limit of the length of the solution.
+		 */
+		private final IntSupplier limit;
+
+		/**
+		 * Deadline of the search.
+		 */
+		private final Deadline deadline;
+
+		/**
+		 * True if the deadline has expired.
+		 */
+		private boolean timedOut = false;
+
+		/**
+		 * Values of the coordinates for every depth.
+		 */
+		private final int[][] values;
+
+		/**
+		 * Positions and orientations of the cubies of every pattern for every
+		 * depth.
+		 */
+		private final int[][][] patternPositions, patternOrientations;
+
+		/**
+		 * Indices of the states of the patterns for every depth.
+		 */
+		private final int[][] patternIndices;
+
+		/**
+		 * Moves of the current path.
+		 */
+		private final int[] path;
+
+		/**
+		 * Minimum estimated length which exceeded the current bound.
+		 */
+		private int nextBound;
+
+		/**
+		 * Number of visited nodes.
+		 */
+		long nodes;
+
+		/**
+		 * Number of iterations.
+		 */
+		long iterations;
+
+		Search(SearchSpace space, int maxDepth, IntSupplier limit, Deadline deadline) {
+			this.space = space;
+			this.maxDepth = maxDepth;
+			this.limit = limit;
+			this.deadline = deadline;
+			this.values = new int[maxDepth + 1][space.coordinates.length];
+			this.patternPositions = new int[maxDepth + 1][space.databases.length][];
+			this.patternOrientations = new int[maxDepth + 1][space.databases.length][];
+			for (int depth = 0; depth <= maxDepth; depth++) {
+				for (int i = 0; i < space.databases.length; i++) {
+					int cubies = space.databases[i].getPattern().getCubiesCount();
+					patternPositions[depth][i] = new int[cubies];
+					patternOrientations[depth][i] = new int[cubies];
+				}
+			}
+			this.patternIndices = new int[maxDepth + 1][space.databases.length];
+			this.path = new int[maxDepth];
+		}
+
+		/**
+		 * Runs iterations with increasing bound until the solution is found.
+		 * 
+		 * @param cube
+		 *            cube to solve
+		 * @return solution or {@code null} if there is no solution up to the
+		 *         maximum depth (or the limit, or the deadline has expired)
+		 */
+		Scramble solve(CubieCube cube) {
+			space.getValues(cube, values[0]);
+			space.getPatterns(cube, patternPositions[0], patternOrientations[0], patternIndices[0]);
+			int bound = estimate(0);
+			while (!timedOut && bound <= Math.min(maxDepth, limit.getAsInt())) {
+				iterations++;
+				nextBound = Integer.MAX_VALUE;
+				int length = search(0, bound, -1);
+				if (length >= 0) {
+					Scramble solution = new Scramble();
+					for (int i = 0; i < length; i++) {
+						solution.add(Move.of(path[i]));
+					}
+					return solution;
+				}
+				bound = nextBound;
+			}
+			return null;
+		}
+
+		/**
+		 * Returns estimated length of the solution going through the state.
+		 * 
+		 * @param depth
+		 *            number of moves done
+		 * @return estimated length or {@link Integer#MAX_VALUE}
+		 */
+		private int estimate(int depth) {
+			int distance = space.getDistance(values[depth], patternIndices[depth]);
+			if (distance == PruningTable.UNREACHABLE)
+				return Integer.MAX_VALUE;
+			return depth + distance;
+		}
+
+		/**
+		 * Depth-first search limited by the bound.
+		 * 
+		 * @param depth
+		 *            number of moves done
+		 * @param bound
+		 *            maximum estimated length of the solution
+		 * @param lastFace
+		 *            face of the last move (-1 if there is no move)
+		 * @return length of the found solution or -1
+		 */
+		private int search(int depth, int bound, int lastFace) {
+			// The deadline is checked every DEADLINE_CHECK_NODES nodes
+			if ((nodes & (DEADLINE_CHECK_NODES - 1)) == 0 && deadline.isExpired())
+				timedOut = true;
+			// The limit has been decreased
+			if (timedOut || bound > limit.getAsInt())
+				return -1;
+
+			int[] state = values[depth];
+			int estimated = estimate(depth);
+			if (estimated > bound) {
+				nextBound = Math.min(nextBound, estimated);
+				return -1;
+			}
+			if (estimated == depth && space.isGoal(state))
+				return depth;
+			if (depth == bound) {
+				nextBound = Math.min(nextBound, depth + 1);
+				return -1;
+			}
+
+			int[] next = values[depth + 1];
+			for (int move = 0; move < Move.MOVES_COUNT; move++) {
+				int face = CanonicalSequence.getLayer(move);
+				if (!CanonicalSequence.isAllowed(lastFace, face))
+					continue;
+				nodes++;
+				space.move(state, move, next);
+				space.movePatterns(patternPositions[depth], patternOrientations[depth], move,
+						patternPositions[depth + 1], patternOrientations[depth + 1], patternIndices[depth + 1]);
+				path[depth] = move;
+				int length = search(depth + 1, bound, face);
+				if (length >= 0)
+					return length;
+			}
+			return -1;
+		}
+	}
+}
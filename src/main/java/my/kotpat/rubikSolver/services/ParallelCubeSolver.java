@@ -0,0 +1,474 @@
+package my.kotpat.rubikSolver.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+
+/**
+ * Implementation of {@link CubeSolver} which searches the tree of the moves
+ * on all the cores. The first {@link ParallelCubeSolver#getSplitDepth()}
+ * moves of the solution (243 canonical sequences for the default depth 2,
+ * see {@link CanonicalSequence}) are the roots of the subtrees, which
+ * are split between the workers of the {@link ForkJoinPool}. Every subtree is
+ * searched on the private copy of the cube by the {@link BoundedCubeSolver}.
+ * <p>
+ * The iterations of the search are shared by all the subtrees, the same as
+ * the iterations of {@link IDAStarCubeSolver}: the bound of the length starts
+ * at {@link BoundedCubeSolver#getLowerBound(RubiksCube)} of the cube and
+ * every subtree is searched for the solution not longer than the bound. The
+ * bound is increased only when all the subtrees are searched, so no subtree
+ * is searched deeper than the shortest solution. The first solution is
+ * shortest one (if the solutions of the delegate are optimal) and all the
+ * workers are stopped when it is found. If
+ * {@link ParallelCubeSolver#isStopOnFirstSolution()} is set, there is only
+ * one iteration with the bound {@link BoundedCubeSolver#getMaxLength()} (e.g.
+ * for {@link TwoPhaseCubeSolver}, when any solution is good enough).
+ * <p>
+ * {@link SolvingMeta#getAnalyzedMoves()} and
+ * {@link SolvingMeta#getAnalyzedScrambles()} are the sums of the values of
+ * all the searches and {@link SolvingMeta#getWorkerAnalyzedMoves()} is the
+ * number of analyzed moves of every worker.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class ParallelCubeSolver implements CubeSolver {
+
+	/**
+	 * Default number of the moves which are the roots of the subtrees.
+	 */
+	public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+	/**
+	 * Length of the best solution before any solution is found (the limit of
+	 * the delegate could not overflow).
+	 */
+	private static final int NO_SOLUTION = Integer.MAX_VALUE / 2;
+
+	/**
+	 * Solver of the subtrees.
+	 */
+	private final BoundedCubeSolver solver;
+
+	/**
+	 * Number of the moves which are the roots of the subtrees.
+	 */
+	private final int splitDepth;
+
+	/**
+	 * Pool of the workers.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Stop all the workers when the first solution is found.
+	 */
+	private boolean stopOnFirstSolution = false;
+
+	/**
+	 * Creates solver which splits the search after
+	 * {@link ParallelCubeSolver#DEFAULT_SPLIT_DEPTH} moves and uses the common
+	 * pool.
+	 *
+	 * @param solver
+	 *            solver of the subtrees
+	 */
+	public ParallelCubeSolver(BoundedCubeSolver solver) {
+		this(solver, DEFAULT_SPLIT_DEPTH);
+	}
+
+	/**
+	 * Creates solver which uses the common pool.
+	 *
+	 * @param solver
+	 *            solver of the subtrees
+	 * @param splitDepth
+	 *            number of the moves which are the roots of the subtrees (at
+	 *            least 1)
+	 */
+	public ParallelCubeSolver(BoundedCubeSolver solver, int splitDepth) {
+		this(solver, splitDepth, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates solver.
+	 *
+	 * @param solver
+	 *            solver of the subtrees
+	 * @param splitDepth
+	 *            number of the moves which are the roots of the subtrees (at
+	 *            least 1)
+	 * @param pool
+	 *            pool of the workers
+	 */
+	public ParallelCubeSolver(BoundedCubeSolver solver, int splitDepth, ForkJoinPool pool) {
+		if (splitDepth < 1)
+			throw new IllegalArgumentException("Split depth must be at least 1");
+
+		this.solver = solver;
+		this.splitDepth = splitDepth;
+		this.pool = pool;
+	}
+
+	/**
+	 * Finds the solution of the cube. The cube is not changed.
+	 */
+	public SolvingMeta getSolution(RubiksCube cube) {
+		return getSolution(cube, Deadline.none());
+	}
+
+	/**
+	 * Finds the solution of the cube before the deadline. If the deadline
+	 * expires before the solution is found, the solving scramble is
+	 * {@code null}. The cube is not changed.
+	 */
+	@Override
+	public SolvingMeta getSolution(RubiksCube cube, Deadline deadline) {
+		long startingTime = System.nanoTime();
+
+		Search search = new Search(cube, deadline);
+		search.solve();
+
+		long finishingTime = System.nanoTime();
+		double timeMs = (double) (finishingTime - startingTime) / 1000000;
+
+		SolvingMeta meta = new SolvingMeta();
+		meta.setAnalyzedMoves(search.getAnalyzedMoves());
+		meta.setAnalyzedScrambles(search.analyzedScrambles.get());
+		meta.setWorkerAnalyzedMoves(search.getWorkerAnalyzedMoves());
+		meta.setSolvingScramble(search.solution);
+		meta.setTimedOut(search.timedOut);
+		meta.setTimeMs(timeMs);
+
+		return meta;
+	}
+
+	/**
+	 * Returns number of the moves which are the roots of the subtrees.
+	 *
+	 * @return split depth
+	 */
+	public int getSplitDepth() {
+		return splitDepth;
+	}
+
+	/**
+	 * Returns true if all the workers are stopped when the first solution is
+	 * found.
+	 *
+	 * @return true if the search is stopped on the first solution
+	 */
+	public boolean isStopOnFirstSolution() {
+		return stopOnFirstSolution;
+	}
+
+	/**
+	 * Sets if all the workers are stopped when the first solution is found
+	 * (the solution could be not the shortest one).
+	 *
+	 * @param stopOnFirstSolution
+	 *            true if the search should be stopped on the first solution
+	 */
+	public void setStopOnFirstSolution(boolean stopOnFirstSolution) {
+		this.stopOnFirstSolution = stopOnFirstSolution;
+	}
+
+	/**
+	 * Parallel search of the one cube.
+	 *
+	 * @author Patryk Kotlarz
+	 *
+	 */
+	private class Search {
+
+		/**
+		 * Cube to solve.
+		 */
+		private final RubiksCube cube;
+
+		/**
+		 * Deadline of the search.
+		 */
+		private final Deadline deadline;
+
+		/**
+		 * True if the deadline has expired.
+		 */
+		private volatile boolean timedOut = false;
+
+		/**
+		 * Length of the best solution.
+		 */
+		private final AtomicInteger best = new AtomicInteger(NO_SOLUTION);
+
+		/**
+		 * Maximum length of the solution in the current iteration.
+		 */
+		private volatile int bound;
+
+		/**
+		 * Sum of the analyzed scrambles of all the searches.
+		 */
+		private final AtomicLong analyzedScrambles = new AtomicLong();
+
+		/**
+		 * Analyzed moves of every worker.
+		 */
+		private final Map<Thread, long[]> workerMoves = new ConcurrentHashMap<Thread, long[]>();
+
+		/**
+		 * Best solution.
+		 */
+		private Scramble solution;
+
+		/**
+		 * Creates search.
+		 *
+		 * @param cube
+		 *            cube to solve
+		 * @param deadline
+		 *            deadline of the search
+		 */
+		Search(RubiksCube cube, Deadline deadline) {
+			this.cube = cube;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Finds the solution (if it is shorter than the split depth, it is
+		 * found without the workers). All the subtrees are searched in every
+		 * iteration until the solution is found.
+		 */
+		void solve() {
+			List<int[]> prefixes = new ArrayList<int[]>();
+			prefixes.add(new int[0]);
+			for (int length = 0; length < splitDepth; length++) {
+				for (int[] prefix : prefixes) {
+					if (isSolution(prefix)) {
+						solution = toScramble(prefix);
+						return;
+					}
+				}
+				prefixes = expand(prefixes);
+			}
+
+			int maxLength = solver.getMaxLength();
+			bound = stopOnFirstSolution ? maxLength : Math.max(splitDepth, solver.getLowerBound(cube));
+			for (; bound <= maxLength && !timedOut && solution == null; bound++) {
+				pool.invoke(new SubtreeTask(this, prefixes, 0, prefixes.size()));
+			}
+		}
+
+		/**
+		 * Searches the subtree of the prefix.
+		 *
+		 * @param prefix
+		 *            first moves of the solution
+		 */
+		void searchSubtree(int[] prefix) {
+			if (deadline.isExpired())
+				timedOut = true;
+			if (timedOut || prefix.length >= limit())
+				return;
+
+			RubiksCube copy = cube.copy();
+			for (int move : prefix) {
+				copy.move(Move.of(move));
+			}
+
+			SolvingMeta meta = solver.getSolution(copy, () -> limit() - 1 - prefix.length, deadline);
+			if (meta.isTimedOut())
+				timedOut = true;
+
+			workerMoves.computeIfAbsent(Thread.currentThread(), thread -> new long[1])[0] += meta.getAnalyzedMoves();
+			analyzedScrambles.addAndGet(meta.getAnalyzedScrambles());
+
+			Scramble remainder = meta.getSolvingScramble();
+			if (remainder != null)
+				offer(prefix, remainder);
+		}
+
+		/**
+		 * Saves the solution if it is better than the best one.
+		 *
+		 * @param prefix
+		 *            first moves of the solution
+		 * @param remainder
+		 *            solution of the cube after the prefix
+		 */
+		private synchronized void offer(int[] prefix, Scramble remainder) {
+			int length = prefix.length + remainder.size();
+			if (length >= best.get())
+				return;
+
+			Scramble scramble = toScramble(prefix);
+			for (Move move : remainder) {
+				scramble.add(move);
+			}
+			solution = scramble;
+			best.set(length);
+		}
+
+		/**
+		 * Returns current maximum length of the solution (plus one). It is 0
+		 * when the solution has been found, because no shorter solution has
+		 * been found in the previous iterations.
+		 *
+		 * @return limit of the length
+		 */
+		int limit() {
+			return best.get() != NO_SOLUTION ? 0 : bound + 1;
+		}
+
+		/**
+		 * Checks if the sequence of the moves solves the cube.
+		 *
+		 * @param prefix
+		 *            moves
+		 * @return true if the cube is solved
+		 */
+		private boolean isSolution(int[] prefix) {
+			RubiksCube copy = cube.copy();
+			for (int move : prefix) {
+				copy.move(Move.of(move));
+			}
+			return copy.isSolved();
+		}
+
+		/**
+		 * Extends every sequence by one move (only the canonical sequences, see
+		 * {@link CanonicalSequence}).
+		 *
+		 * @param prefixes
+		 *            sequences of the moves
+		 * @return longer sequences
+		 */
+		private List<int[]> expand(List<int[]> prefixes) {
+			List<int[]> expanded = new ArrayList<int[]>();
+			for (int[] prefix : prefixes) {
+				for (int move = 0; move < Move.MOVES_COUNT; move++) {
+					int lastLayer = prefix.length > 0 ? CanonicalSequence.getLayer(prefix[prefix.length - 1])
+							: CanonicalSequence.START;
+					if (!CanonicalSequence.isAllowed(lastLayer, CanonicalSequence.getLayer(move)))
+						continue;
+
+					int[] longer = new int[prefix.length + 1];
+					System.arraycopy(prefix, 0, longer, 0, prefix.length);
+					longer[prefix.length] = move;
+					expanded.add(longer);
+				}
+			}
+			return expanded;
+		}
+
+		/**
+		 * Creates scramble of the moves.
+		 *
+		 * @param prefix
+		 *            moves
+		 * @return scramble
+		 */
+		private Scramble toScramble(int[] prefix) {
+			Scramble scramble = new Scramble();
+			for (int move : prefix) {
+				scramble.add(Move.of(move));
+			}
+			return scramble;
+		}
+
+		/**
+		 * Returns sum of the analyzed moves of all the workers.
+		 *
+		 * @return analyzed moves
+		 */
+		long getAnalyzedMoves() {
+			long analyzedMoves = 0;
+			for (long[] moves : workerMoves.values()) {
+				analyzedMoves += moves[0];
+			}
+			return analyzedMoves;
+		}
+
+		/**
+		 * Returns analyzed moves of every worker.
+		 *
+		 * @return analyzed moves
+		 */
+		long[] getWorkerAnalyzedMoves() {
+			return workerMoves.values().stream().mapToLong(moves -> moves[0]).toArray();
+		}
+	}
+
+	/**
+	 * Task which searches the range of the subtrees (splits it in halves until
+	 * there is one subtree).
+	 *
+	 * @author Patryk Kotlarz
+	 *
+	 */
+	private static class SubtreeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 5264418316870247361L;
+
+		/**
+		 * Search of the cube.
+		 */
+		private final Search search;
+
+		/**
+		 * Prefixes of the subtrees.
+		 */
+		private final List<int[]> prefixes;
+
+		/**
+		 * First subtree of the range.
+		 */
+		private final int from;
+
+		/**
+		 * End of the range (exclusive).
+		 */
+		private final int to;
+
+		/**
+		 * Creates task.
+		 *
+		 * @param search
+		 *            search of the cube
+		 * @param prefixes
+		 *            prefixes of the subtrees
+		 * @param from
+		 *            first subtree of the range
+		 * @param to
+		 *            end of the range (exclusive)
+		 */
+		SubtreeTask(Search search, List<int[]> prefixes, int from, int to) {
+			this.search = search;
+			this.prefixes = prefixes;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				search.searchSubtree(prefixes.get(from));
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new SubtreeTask(search, prefixes, from, middle), new SubtreeTask(search, prefixes, middle, to));
+		}
+	}
+}
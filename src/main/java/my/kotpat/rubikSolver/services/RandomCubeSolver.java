@@ -1,7 +1,11 @@
 package my.kotpat.rubikSolver.services;
 
-import my.kotpat.rubikSolver.domain.Cube;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
+import my.kotpat.rubikSolver.domain.CubeSnapshot;
 import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.RubiksCube;
 import my.kotpat.rubikSolver.domain.Scramble;
 import my.kotpat.rubikSolver.domain.SolvingMeta;
 
@@ -12,17 +16,36 @@ import my.kotpat.rubikSolver.domain.SolvingMeta;
  * not bad for 2x2x2 cube (sometimes it finds solution after 3 seconds,
  * sometimes after 2-5 minutes) but it is useless for 3x3x3 cube (more than 43
  * trillion combinations).
+ * <p>
+ * With more than one thread (see {@link RandomCubeSolver#setThreads(int)})
+ * every thread generates its own random scrambles (using
+ * {@link RandomScrambleGenerator#split()}) on the private copy of the cube
+ * and the first thread which solves the cube stops all the others.
+ * {@link SolvingMeta#getAnalyzedMoves()} and
+ * {@link SolvingMeta#getAnalyzedScrambles()} are the sums of all the threads.
  * 
  * @author Patryk Kotlarz
  *
  */
 public class RandomCubeSolver implements CubeSolver {
 
+	/**
+	 * Generator of every thread (created once, so the allowed moves are not
+	 * computed for every solved cube).
+	 */
+	private static final ThreadLocal<RandomScrambleGenerator> GENERATORS = ThreadLocal
+			.withInitial(RandomScrambleGenerator::new);
+
 	/**
 	 * Maximum scramble length (default 100)
 	 */
 	int maxScrambleLength = 100;
 
+	/**
+	 * Number of the threads which are searching the solution (default 1)
+	 */
+	int threads = 1;
+
 	public RandomCubeSolver() {
 	}
 
@@ -36,63 +59,164 @@ public class RandomCubeSolver implements CubeSolver {
 		this.maxScrambleLength = maxScrambleLength;
 	}
 
-	public SolvingMeta getSolution(Cube cube) {
-		ScrambleGenerator generator = new RandomScrambleGenerator();
-		Scramble randomScramble = null;
+	/**
+	 * Constructor with {@link RandomCubeSolver#maxScrambleLength} and
+	 * {@link RandomCubeSolver#threads} setter.
+	 * 
+	 * @param maxScrambleLength
+	 *            maximum scramble length
+	 * @param threads
+	 *            number of the threads
+	 */
+	public RandomCubeSolver(int maxScrambleLength, int threads) {
+		this.maxScrambleLength = maxScrambleLength;
+		setThreads(threads);
+	}
+
+	public SolvingMeta getSolution(RubiksCube cube) {
+		return getSolution(cube, Deadline.none());
+	}
+
+	/**
+	 * Searches the solution until the cube is solved or the deadline expires
+	 * (then the solving scramble is {@code null}). The deadline is checked
+	 * after every random scramble. Random moves are kept as ordinals, so the
+	 * scramble is created only for the solution.
+	 */
+	@Override
+	public SolvingMeta getSolution(RubiksCube cube, Deadline deadline) {
+		if (threads > 1)
+			return getParallelSolution(cube, deadline);
+
+		RandomScrambleGenerator generator = GENERATORS.get();
+		int[] moves = new int[maxScrambleLength];
 		boolean solved = false;
 		int movesInScramble = 0;
 		long analyzedMoves = 0;
 		long analyzedScrambles = 0;
 
+		// Saving the initial state (instead of reversing every scramble)
+		CubeSnapshot initialState = cube.snapshot();
+
 		long startingTime = System.nanoTime();
 
 		// Until not solved
-		while (!solved) {
+		while (!solved && !deadline.isExpired()) {
 			// Generating random scramble
-			randomScramble = generator.getRandomScramble(maxScrambleLength);
-			movesInScramble = 0;
+			generator.getRandomMoves(moves, maxScrambleLength);
 			analyzedScrambles++;
 
 			// Rotating layers
-			for (Move move : randomScramble) {
+			for (int i = 0; i <= maxScrambleLength; i++) {
 
 				// Checking the cube
 				if (cube.isSolved()) {
 					solved = true;
-
-					// Deleting unnecessary moves if cube is solved
-					int toDelete = randomScramble.size() - movesInScramble;
-					for (int i = 0; i < toDelete; i++) {
-						randomScramble.deleteLast();
-					}
+					movesInScramble = i;
 					break;
 				}
+				if (i == maxScrambleLength)
+					break;
 
-				cube.move(move);
-				movesInScramble++;
+				cube.move(Move.of(moves[i]));
 				analyzedMoves++;
 			}
 
-			// Reversing the scramble
-			randomScramble.reverse();
-			// Reversing cube to the initial state
-			cube.scramble(randomScramble);
+			// Returning cube to the initial state
+			cube.restore(initialState);
 		}
 		long finishingTime = System.nanoTime();
 		double timeMs = (double) (finishingTime - startingTime) / 1000000;
 
-		// Reversing the scramble to get the "solution scramble"
-		randomScramble.reverse();
-
 		SolvingMeta meta = new SolvingMeta();
 		meta.setAnalyzedMoves(analyzedMoves);
 		meta.setAnalyzedScrambles(analyzedScrambles);
-		meta.setSolvingScramble(randomScramble);
+		meta.setSolvingScramble(solved ? getScramble(moves, movesInScramble) : null);
+		meta.setTimedOut(!solved);
+		meta.setTimeMs(timeMs);
+
+		return meta;
+	}
+
+	/**
+	 * Searches the solution on {@link RandomCubeSolver#threads} threads. If the
+	 * deadline expires or the calling thread is interrupted, all the threads
+	 * are stopped and joined, and the solving scramble is {@code null} (unless
+	 * any thread has found it before stopping). The interrupted status of the
+	 * calling thread is kept.
+	 * 
+	 * @param cube
+	 *            cube to solve
+	 * @param deadline
+	 *            deadline of the solving
+	 * @return solving information
+	 */
+	private SolvingMeta getParallelSolution(RubiksCube cube, Deadline deadline) {
+		long startingTime = System.nanoTime();
+
+		AtomicBoolean finished = new AtomicBoolean();
+		RandomScrambleGenerator generator = GENERATORS.get();
+		Walker[] walkers = new Walker[threads];
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			walkers[i] = new Walker(cube.copy(), generator.split(), finished, deadline);
+			workers[i] = new Thread(walkers[i], "random-cube-solver-" + i);
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+
+		// Workers are always joined (they stop quickly when the flag is set),
+		// so their results are read after they have finished
+		boolean interrupted = false;
+		for (Thread worker : workers) {
+			while (worker.isAlive()) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					finished.set(true);
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		long finishingTime = System.nanoTime();
+		double timeMs = (double) (finishingTime - startingTime) / 1000000;
+
+		SolvingMeta meta = new SolvingMeta();
+		long[] workerAnalyzedMoves = new long[threads];
+		for (int i = 0; i < threads; i++) {
+			Walker walker = walkers[i];
+			workerAnalyzedMoves[i] = walker.analyzedMoves;
+			meta.setAnalyzedMoves(meta.getAnalyzedMoves() + walker.analyzedMoves);
+			meta.setAnalyzedScrambles(meta.getAnalyzedScrambles() + walker.analyzedScrambles);
+			if (walker.solution != null)
+				meta.setSolvingScramble(walker.solution);
+		}
+		meta.setWorkerAnalyzedMoves(workerAnalyzedMoves);
+		meta.setTimedOut(meta.getSolvingScramble() == null);
 		meta.setTimeMs(timeMs);
 
 		return meta;
 	}
 
+	/**
+	 * Creates the scramble of the first moves.
+	 * 
+	 * @param moves
+	 *            ordinals of the moves
+	 * @param length
+	 *            number of the moves
+	 * @return the scramble
+	 */
+	private static Scramble getScramble(int[] moves, int length) {
+		Scramble scramble = new Scramble(length);
+		for (int i = 0; i < length; i++) {
+			scramble.add(Move.of(moves[i]));
+		}
+		return scramble;
+	}
+
 	public int getMaxScrambleLength() {
 		return maxScrambleLength;
 	}
@@ -100,4 +224,94 @@ public class RandomCubeSolver implements CubeSolver {
 	public void setMaxScrambleLength(int maxScrambleLength) {
 		this.maxScrambleLength = maxScrambleLength;
 	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+		this.threads = threads;
+	}
+
+	/**
+	 * One thread of the parallel search. Moves are drawn one by one from
+	 * the split {@link RandomScrambleGenerator} (only the canonical sequences,
+	 * see {@link CanonicalSequence}), so nothing is allocated until the
+	 * solution is found.
+	 * 
+	 * @author Patryk Kotlarz
+	 *
+	 */
+	private class Walker implements Runnable {
+
+		/**
+		 * Private copy of the cube.
+		 */
+		private final RubiksCube cube;
+
+		/**
+		 * Random moves generator of the thread.
+		 */
+		private final RandomScrambleGenerator generator;
+
+		/**
+		 * Flag shared by all the threads (set by the first thread which solves
+		 * the cube or when the calling thread is interrupted).
+		 */
+		private final AtomicBoolean finished;
+
+		/**
+		 * Deadline of the solving.
+		 */
+		private final Deadline deadline;
+
+		/**
+		 * Found solution (or {@code null}).
+		 */
+		private Scramble solution;
+
+		private long analyzedMoves;
+		private long analyzedScrambles;
+
+		Walker(RubiksCube cube, RandomScrambleGenerator generator, AtomicBoolean finished, Deadline deadline) {
+			this.cube = cube;
+			this.generator = generator;
+			this.finished = finished;
+			this.deadline = deadline;
+		}
+
+		public void run() {
+			CubeSnapshot initialState = cube.snapshot();
+			int[] moves = new int[maxScrambleLength];
+
+			while (!finished.get() && !deadline.isExpired()) {
+				analyzedScrambles++;
+				int lastLayer = CanonicalSequence.START;
+
+				for (int i = 0;; i++) {
+					// Checking the cube
+					if (cube.isSolved()) {
+						if (finished.compareAndSet(false, true))
+							solution = getScramble(moves, i);
+						return;
+					}
+					if (i == maxScrambleLength)
+						break;
+
+					// Random move of the canonical sequence
+					int move = generator.getRandomMove(lastLayer);
+					lastLayer = CanonicalSequence.getLayer(move);
+
+					moves[i] = move;
+					cube.move(Move.of(move));
+					analyzedMoves++;
+				}
+
+				// Returning cube to the initial state
+				cube.restore(initialState);
+			}
+		}
+	}
 }
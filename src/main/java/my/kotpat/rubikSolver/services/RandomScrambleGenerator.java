@@ -1,20 +1,26 @@
 package my.kotpat.rubikSolver.services;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
 
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
 import my.kotpat.rubikSolver.domain.Move;
 import my.kotpat.rubikSolver.domain.Scramble;
-import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
 
 /**
- * The class represents random scramble generator. Has a list of allowed moves (
- * {@link RandomScrambleGenerator#allowedMoves}) and generates random scrambles
- * using {@link Random} class.
+ * The class represents random scramble generator. Has an array of allowed
+ * moves ({@link RandomScrambleGenerator#allowedMoves}) and generates random
+ * scrambles using {@link SplittableRandom} class. Scrambles are canonical
+ * sequences of the moves (see {@link CanonicalSequence}), so they could not be
+ * simplified.
+ * <p>
+ * Generators created with the same seed return the same scrambles. The
+ * generator is not thread-safe, so every thread should use its own generator
+ * created by {@link RandomScrambleGenerator#split()}. Moves are kept as
+ * ordinals ({@link Move#ordinal()}) and
+ * {@link RandomScrambleGenerator#getRandomMove(int)} does not allocate
+ * anything.
  * 
  * @author Patryk Kotlarz
  *
@@ -22,102 +28,206 @@ import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
 public class RandomScrambleGenerator implements ScrambleGenerator {
 
 	/**
-	 * The list of allowed moves used in generating random scramble.
+	 * Ordinals of all the moves.
 	 */
-	private List<Move> allowedMoves = new LinkedList<Move>();
+	private static final byte[] ALL_MOVES = getOrdinals(Arrays.asList(Move.values()));
 
 	/**
-	 * Helpful {@link Random} object.
+	 * {@link RandomScrambleGenerator#followingMoves} of all the moves.
 	 */
-	private Random random;
+	private static final byte[][] ALL_FOLLOWING_MOVES = getFollowingMoves(ALL_MOVES);
 
 	/**
-	 * The constructor which allocates the memory for {@link Random} object and
-	 * sets the {@link RandomScrambleGenerator#allowedMoves}.
+	 * Ordinals of the allowed moves used in generating random scramble.
+	 */
+	private final byte[] allowedMoves;
+
+	/**
+	 * Ordinals of the allowed moves which could follow every state of the
+	 * {@link CanonicalSequence} (indexed by the state + 1).
+	 */
+	private final byte[][] followingMoves;
+
+	/**
+	 * Helpful {@link SplittableRandom} object.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * The constructor which sets the allowed moves and creates
+	 * {@link SplittableRandom} object with random seed.
 	 * 
 	 * @param allowedMoves
 	 *            list of allowed moves
 	 */
 	public RandomScrambleGenerator(List<Move> allowedMoves) {
-		random = new Random();
-		this.allowedMoves = allowedMoves;
+		this(allowedMoves, new SplittableRandom());
 	}
 
 	/**
-	 * The constructor which allocates the memory for {@link Random} object and
-	 * generates the {@link RandomScrambleGenerator#allowedMoves} by checking
-	 * all the possibilities which are not throwing the
-	 * {@link UnsupportedMoveException} by {@link Move} objects.
+	 * The constructor which sets the allowed moves and creates
+	 * {@link SplittableRandom} object with the specific seed.
 	 * 
-	 * @see RandomScrambleGenerator#updateAllowedMoves()
+	 * @param allowedMoves
+	 *            list of allowed moves
+	 * @param seed
+	 *            seed of the random moves
+	 */
+	public RandomScrambleGenerator(List<Move> allowedMoves, long seed) {
+		this(allowedMoves, new SplittableRandom(seed));
+	}
+
+	/**
+	 * The constructor which sets all the {@link Move#MOVES_COUNT} moves as the
+	 * allowed moves and creates {@link SplittableRandom} object with random
+	 * seed.
 	 */
 	public RandomScrambleGenerator() {
-		random = new Random();
-		updateAllowedMoves();
+		this(ALL_MOVES, ALL_FOLLOWING_MOVES, new SplittableRandom());
 	}
 
 	/**
-	 * This method clears the {@link RandomScrambleGenerator#allowedMoves} and
-	 * tries to generate all the possible {@link Move} objects (which are not
-	 * throwing {@link UnsupportedMoveException}). The method uses {@link Set}
-	 * to filter equivalent {@link Move} objects.
+	 * The constructor which sets all the {@link Move#MOVES_COUNT} moves as the
+	 * allowed moves and creates {@link SplittableRandom} object with the
+	 * specific seed.
 	 * 
-	 * @see Move#equals(Object)
-	 * @see Move#hashCode()
-	 */
-	private void updateAllowedMoves() {
-		allowedMoves.clear();
-
-		List<String> letters = new LinkedList<String>(
-				Arrays.asList("AaBbCcDdEeFfGgHhIiJjKkLlMmNnOoPpRrSsTtUuWwYyZzXxQq".split("")));
-		List<String> digits = new LinkedList<String>(Arrays.asList("0123456789".split("")));
-		digits.add("");
-		List<String> signs = new LinkedList<String>(Arrays.asList("'".split("")));
-		signs.add("");
-
-		Set<Move> temporarySet = new HashSet<Move>();
-
-		for (String letter : letters) {
-			for (String digit : digits) {
-				for (String sign : signs) {
-					try {
-						Move move = new Move(letter + digit + sign);
-						temporarySet.add(move);
-					} catch (UnsupportedMoveException e) {
-					}
-				}
-			}
+	 * @param seed
+	 *            seed of the random moves
+	 */
+	public RandomScrambleGenerator(long seed) {
+		this(ALL_MOVES, ALL_FOLLOWING_MOVES, new SplittableRandom(seed));
+	}
+
+	private RandomScrambleGenerator(List<Move> allowedMoves, SplittableRandom random) {
+		this.allowedMoves = getOrdinals(allowedMoves);
+		this.followingMoves = getFollowingMoves(this.allowedMoves);
+		this.random = random;
+	}
+
+	private RandomScrambleGenerator(byte[] allowedMoves, byte[][] followingMoves, SplittableRandom random) {
+		this.allowedMoves = allowedMoves;
+		this.followingMoves = followingMoves;
+		this.random = random;
+	}
+
+	/**
+	 * Returns the new generator with the same allowed moves (the arrays are
+	 * shared, not copied). Its random moves are independent of the moves of
+	 * this generator, so it could be used by other thread.
+	 * 
+	 * @return new generator
+	 */
+	public RandomScrambleGenerator split() {
+		return new RandomScrambleGenerator(allowedMoves, followingMoves, random.split());
+	}
+
+	/**
+	 * Returns ordinals of the moves.
+	 * 
+	 * @param moves
+	 *            list of moves
+	 * @return ordinals of the moves
+	 */
+	private static byte[] getOrdinals(List<Move> moves) {
+		byte[] ordinals = new byte[moves.size()];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = (byte) moves.get(i).ordinal();
 		}
+		return ordinals;
+	}
 
-		allowedMoves.addAll(temporarySet);
+	/**
+	 * This method computes the {@link RandomScrambleGenerator#followingMoves}
+	 * from the allowed moves.
+	 * 
+	 * @param allowedMoves
+	 *            ordinals of the allowed moves
+	 * @return allowed moves for every state of the {@link CanonicalSequence}
+	 */
+	private static byte[][] getFollowingMoves(byte[] allowedMoves) {
+		int layers = Move.MoveLayer.values().length;
+		byte[][] followingMoves = new byte[layers + 1][];
+		for (int state = CanonicalSequence.START; state < layers; state++) {
+			byte[] moves = new byte[allowedMoves.length];
+			int count = 0;
+			for (byte move : allowedMoves) {
+				if (CanonicalSequence.isAllowed(state, CanonicalSequence.getLayer(move)))
+					moves[count++] = move;
+			}
+			followingMoves[state + 1] = Arrays.copyOf(moves, count);
+		}
+		return followingMoves;
 	}
 
 	/**
 	 * Returns random item from {@link RandomScrambleGenerator#allowedMoves}
-	 * list.
+	 * array. Moves are immutable, so the method does not allocate any copy.
 	 * 
 	 * @return random random move
 	 */
 	public Move getRandomMove() {
-		int randomNumber = random.nextInt(allowedMoves.size());
-		return new Move(allowedMoves.get(randomNumber));
+		return Move.of(allowedMoves[random.nextInt(allowedMoves.length)]);
 	}
 
 	/**
-	 * Returns random scramble with specific length.
+	 * Returns random allowed move which could follow the layer of the previous
+	 * move in the canonical sequence.
+	 * 
+	 * @param lastLayer
+	 *            ordinal of the layer of the previous move (or
+	 *            {@link CanonicalSequence#START})
+	 * @return ordinal of the move ({@link Move#ordinal()})
+	 * @throws IllegalStateException
+	 *             if there is no allowed move which could follow the layer
+	 *             (e.g. all the allowed moves turn the same layer)
+	 */
+	public int getRandomMove(int lastLayer) {
+		byte[] moves = followingMoves[lastLayer + 1];
+		if (moves.length == 0)
+			throw new IllegalStateException("No allowed move could follow the layer " + lastLayer);
+		return moves[random.nextInt(moves.length)];
+	}
+
+	/**
+	 * Fills the array by the random canonical sequence of the move ordinals
+	 * (the same as {@link RandomScrambleGenerator#getRandomScramble(int)},
+	 * but nothing is allocated).
+	 * 
+	 * @param moves
+	 *            array of the move ordinals
+	 * @param length
+	 *            number of the moves
+	 * @throws IllegalStateException
+	 *             if there is no allowed move which could follow the previous
+	 *             one
+	 */
+	public void getRandomMoves(int[] moves, int length) {
+		int lastLayer = CanonicalSequence.START;
+		for (int i = 0; i < length; i++) {
+			moves[i] = getRandomMove(lastLayer);
+			lastLayer = CanonicalSequence.getLayer(moves[i]);
+		}
+	}
+
+	/**
+	 * Returns random scramble with specific length. Every move is drawn from
+	 * the allowed moves which could follow the previous one, so the scramble
+	 * is generated in one pass.
 	 * 
 	 * @param length
 	 *            scramble length
+	 * @throws IllegalStateException
+	 *             if there is no allowed move which could follow the previous
+	 *             one (e.g. all the allowed moves turn the same layer)
 	 */
 	public Scramble getRandomScramble(int length) {
 		Scramble scramble = new Scramble();
+		int lastLayer = CanonicalSequence.START;
 
-		while (scramble.size() != length) {
-			int currentSize = scramble.size();
-			for (int i = 0; i < length - currentSize; i++) {
-				scramble.add(getRandomMove());
-			}
-			scramble.simplify();
+		for (int i = 0; i < length; i++) {
+			int move = getRandomMove(lastLayer);
+			scramble.add(Move.of(move));
+			lastLayer = CanonicalSequence.getLayer(move);
 		}
 		return scramble;
 	}
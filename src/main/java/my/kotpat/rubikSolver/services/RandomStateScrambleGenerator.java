@@ -0,0 +1,201 @@
+package my.kotpat.rubikSolver.services;
+
+import java.util.SplittableRandom;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.tables.PermutationPruningTable;
+
+/**
+ * Generator of the scrambles of the uniformly random states of the 3x3x3
+ * cube. Scrambles of the random moves are far from uniform (short ones could
+ * reach only a small part of the states), so the generator draws the state
+ * (random permutations and orientations which could be reached by the moves)
+ * and returns the inverse of its solution found by
+ * {@link TwoPhaseCubeSolver}. Every state of the cube could be solved by 20
+ * moves, but the two-phase search is much faster if the scramble could be a
+ * bit longer (see {@link RandomStateScrambleGenerator#DEFAULT_LENGTH}).
+ * With the default length one thread generates a few thousand scrambles per
+ * second, because the second phase is pruned by
+ * {@link PermutationPruningTable} (it is built once, in a few seconds, and
+ * memory-mapped by the next processes).
+ * <p>
+ * The generator is not thread-safe. Every thread should have its own
+ * generator, e.g. created by {@link RandomStateScrambleGenerator#split()}.
+ * 
+ * @author Patryk Kotlarz
+ *
+ */
+public class RandomStateScrambleGenerator implements ScrambleGenerator {
+
+	/**
+	 * The least maximum length of the scramble which is accepted. Every state
+	 * of the cube could be solved by 20 moves, so the scramble is found for
+	 * every state (but slowly, see
+	 * {@link RandomStateScrambleGenerator#getRandomScramble(int)}).
+	 */
+	public static final int MIN_LENGTH = 20;
+
+	/**
+	 * Maximum length of the scramble which is found quickly for most of the
+	 * states.
+	 */
+	public static final int DEFAULT_LENGTH = 23;
+
+	/**
+	 * Solver which finds the scrambles.
+	 */
+	private final TwoPhaseCubeSolver solver;
+
+	/**
+	 * Source of the random states.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * Permutations drawn by {@link RandomStateScrambleGenerator#shuffle(int[])}.
+	 */
+	private final int[] corners = new int[CubieCube.CORNERS], edges = new int[CubieCube.EDGES];
+
+	/**
+	 * Creates generator with random seed.
+	 */
+	public RandomStateScrambleGenerator() {
+		this(new TwoPhaseCubeSolver(), new SplittableRandom());
+	}
+
+	/**
+	 * Creates generator with the specific seed (generators with the same seed
+	 * return the same scrambles).
+	 * 
+	 * @param seed
+	 *            seed of the random states
+	 */
+	public RandomStateScrambleGenerator(long seed) {
+		this(new TwoPhaseCubeSolver(), new SplittableRandom(seed));
+	}
+
+	/**
+	 * Creates generator.
+	 * 
+	 * @param solver
+	 *            solver which finds the scrambles
+	 * @param random
+	 *            source of the random states
+	 */
+	private RandomStateScrambleGenerator(TwoPhaseCubeSolver solver, SplittableRandom random) {
+		this.solver = solver;
+		this.random = random;
+	}
+
+	/**
+	 * Returns the new generator which could be used by other thread. Its
+	 * random states are independent of the states of this generator.
+	 * 
+	 * @return new generator
+	 */
+	public RandomStateScrambleGenerator split() {
+		return new RandomStateScrambleGenerator(solver, random.split());
+	}
+
+	/**
+	 * Returns the scramble of the uniformly random state which is not longer
+	 * than {@link RandomStateScrambleGenerator#DEFAULT_LENGTH}.
+	 * 
+	 * @return generated scramble
+	 */
+	public Scramble getRandomScramble() {
+		return getRandomScramble(DEFAULT_LENGTH);
+	}
+
+	/**
+	 * Returns the scramble of the uniformly random state which is not longer
+	 * than {@code length}. The scramble is found much slower if the length is
+	 * close to {@link RandomStateScrambleGenerator#MIN_LENGTH}.
+	 * 
+	 * @param length
+	 *            maximum length of the scramble
+	 * @return generated scramble
+	 * @throws IllegalArgumentException
+	 *             if the length is less than
+	 *             {@link RandomStateScrambleGenerator#MIN_LENGTH}
+	 */
+	public Scramble getRandomScramble(int length) {
+		if (length < MIN_LENGTH)
+			throw new IllegalArgumentException("Random state could need " + MIN_LENGTH + " moves");
+
+		Scramble scramble = solver.getSolution(getRandomState(), length);
+		scramble.reverse();
+		return scramble;
+	}
+
+	/**
+	 * Returns the uniformly random state of the cube. The corners and the
+	 * edges are shuffled independently, so the parities of their permutations
+	 * are made equal by swapping the last two edges if they are different.
+	 * The orientations are random except the last corner and the last edge,
+	 * which make the sums of the orientations valid.
+	 * 
+	 * @return the random state
+	 */
+	public CubieCube getRandomState() {
+		shuffle(corners);
+		shuffle(edges);
+		if (getParity(corners) != getParity(edges)) {
+			int edge = edges[CubieCube.EDGES - 1];
+			edges[CubieCube.EDGES - 1] = edges[CubieCube.EDGES - 2];
+			edges[CubieCube.EDGES - 2] = edge;
+		}
+
+		CubieCube cube = new CubieCube();
+		int twist = 0;
+		for (int position = 0; position < CubieCube.CORNERS - 1; position++) {
+			int orientation = random.nextInt(3);
+			twist += orientation;
+			cube.setCorner(position, corners[position], orientation);
+		}
+		cube.setCorner(CubieCube.CORNERS - 1, corners[CubieCube.CORNERS - 1], (3 - twist % 3) % 3);
+
+		int flip = 0;
+		for (int position = 0; position < CubieCube.EDGES - 1; position++) {
+			int orientation = random.nextInt(2);
+			flip += orientation;
+			cube.setEdge(position, edges[position], orientation);
+		}
+		cube.setEdge(CubieCube.EDGES - 1, edges[CubieCube.EDGES - 1], flip % 2);
+		return cube;
+	}
+
+	/**
+	 * Fills the array by the random permutation of its indices (Fisher-Yates
+	 * shuffle).
+	 * 
+	 * @param permutation
+	 *            the array
+	 */
+	private void shuffle(int[] permutation) {
+		for (int i = 0; i < permutation.length; i++) {
+			int j = random.nextInt(i + 1);
+			permutation[i] = permutation[j];
+			permutation[j] = i;
+		}
+	}
+
+	/**
+	 * Returns parity of the permutation (by counting the inversions).
+	 * 
+	 * @param permutation
+	 *            the permutation
+	 * @return 0 for even and 1 for odd permutation
+	 */
+	private static int getParity(int[] permutation) {
+		int inversions = 0;
+		for (int i = 0; i < permutation.length; i++) {
+			for (int j = i + 1; j < permutation.length; j++) {
+				if (permutation[i] > permutation[j])
+					inversions++;
+			}
+		}
+		return inversions % 2;
+	}
+}
@@ -0,0 +1,509 @@
+package my.kotpat.rubikSolver.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.Scramble;
+
+/**
+ * Binary file of many scrambles (e.g. generated once for the load tests). The
+ * file (little-endian) has:
+ * <ul>
+ * <li>the header: magic number, version, number of the scrambles, offset of
+ * the index block and {@link ScrambleCorpus#INDEX_INTERVAL},</li>
+ * <li>the records: number of the moves (unsigned LEB128) and 5-bit codes of
+ * the moves ({@link Move#ordinal()}, the first move in the lowest bits),
+ * every record starts at the new byte,</li>
+ * <li>the index block: offsets of every {@link ScrambleCorpus#INDEX_INTERVAL}
+ * -th record (the other records are found by skipping the records after
+ * the indexed one).</li>
+ * </ul>
+ * The scramble of 20 moves takes 14 bytes. The file is written by
+ * {@link ScrambleCorpus.Writer} through the large direct buffer and read from
+ * the memory-mapped file, so the pages of the corpus are shared by all the
+ * processes on the host and the corpus could be much bigger than the memory.
+ * The corpus is thread-safe.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public final class ScrambleCorpus {
+
+	/**
+	 * Maximum number of the moves of one scramble.
+	 */
+	public static final int MAX_LENGTH = 0xFFFF;
+
+	/**
+	 * Number of the records between the offsets of the index block.
+	 */
+	public static final int INDEX_INTERVAL = 64;
+
+	/**
+	 * Magic number at the beginning of every corpus file ("RCSC").
+	 */
+	private static final int MAGIC = 0x52435343;
+
+	/**
+	 * Version of the file format.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Size of the header: magic number, version, number of the scrambles,
+	 * offset of the index block, index interval and reserved int.
+	 */
+	private static final int HEADER_SIZE = 32;
+
+	/**
+	 * Number of bits of the move code.
+	 */
+	private static final int CODE_BITS = 5;
+
+	/**
+	 * Mask of the move code.
+	 */
+	private static final int CODE_MASK = (1 << CODE_BITS) - 1;
+
+	/**
+	 * Maximum size of the record (in bytes).
+	 */
+	private static final int MAX_RECORD_SIZE = 3 + (MAX_LENGTH * CODE_BITS + 7) / 8;
+
+	/**
+	 * Size of the mapped segment of the records (the file could be bigger
+	 * than one {@link ByteBuffer}). Every segment is mapped with
+	 * {@link ScrambleCorpus#MAX_RECORD_SIZE} more bytes, so the records which
+	 * start in the segment could be read from its buffer.
+	 */
+	private static final int SEGMENT_SIZE = 1 << 30;
+
+	/**
+	 * Mapped segments of the file.
+	 */
+	private final ByteBuffer[] segments;
+
+	/**
+	 * Mapped index block.
+	 */
+	private final ByteBuffer index;
+
+	/**
+	 * Number of the scrambles.
+	 */
+	private final long size;
+
+	/**
+	 * Offset of the index block (end of the records).
+	 */
+	private final long indexOffset;
+
+	/**
+	 * Creates corpus.
+	 *
+	 * @param segments
+	 *            mapped segments of the file
+	 * @param index
+	 *            mapped index block
+	 * @param size
+	 *            number of the scrambles
+	 * @param indexOffset
+	 *            offset of the index block
+	 */
+	private ScrambleCorpus(ByteBuffer[] segments, ByteBuffer index, long size, long indexOffset) {
+		this.segments = segments;
+		this.index = index;
+		this.size = size;
+		this.indexOffset = indexOffset;
+	}
+
+	/**
+	 * Memory-maps the corpus file.
+	 *
+	 * @param file
+	 *            path of the file
+	 * @return the corpus
+	 * @throws IOException
+	 *             if the file could not be read or it is not a valid corpus
+	 */
+	public static ScrambleCorpus open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0)
+					throw new IOException("Corpus file " + file + " is too short");
+			}
+			header.flip();
+			if (header.getInt() != MAGIC || header.getInt() != VERSION)
+				throw new IOException("Corpus file " + file + " has incorrect header");
+			long size = header.getLong();
+			long indexOffset = header.getLong();
+			long indexLength = (size + INDEX_INTERVAL - 1) / INDEX_INTERVAL * Long.BYTES;
+			if (header.getInt() != INDEX_INTERVAL || size < 0 || indexOffset < HEADER_SIZE
+					|| indexOffset + indexLength != channel.size())
+				throw new IOException("Corpus file " + file + " is not complete");
+
+			ByteBuffer[] segments = new ByteBuffer[(int) ((indexOffset - HEADER_SIZE + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = HEADER_SIZE + (long) i * SEGMENT_SIZE;
+				long length = Math.min(SEGMENT_SIZE + (long) MAX_RECORD_SIZE, indexOffset - start);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			}
+			ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexLength)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			return new ScrambleCorpus(segments, index, size, indexOffset);
+		}
+	}
+
+	/**
+	 * Creates the writer of the new corpus file (the existing file is
+	 * replaced).
+	 *
+	 * @param file
+	 *            path of the file
+	 * @return the writer
+	 * @throws IOException
+	 *             if the file could not be created
+	 */
+	public static Writer create(Path file) throws IOException {
+		return new Writer(file);
+	}
+
+	/**
+	 * Writes the corpus of the scrambles returned by the generator.
+	 *
+	 * @param file
+	 *            path of the file
+	 * @param generator
+	 *            generator of the scrambles
+	 * @param count
+	 *            number of the scrambles
+	 * @param length
+	 *            length of every scramble (see
+	 *            {@link ScrambleGenerator#getRandomScramble(int)})
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	public static void generate(Path file, ScrambleGenerator generator, long count, int length)
+			throws IOException {
+		try (Writer writer = create(file)) {
+			for (long i = 0; i < count; i++) {
+				writer.write(generator.getRandomScramble(length));
+			}
+		}
+	}
+
+	/**
+	 * Returns number of the scrambles.
+	 *
+	 * @return number of the scrambles
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the scramble with the specific index. The record is found by
+	 * the index block and decoded directly from the mapped file.
+	 *
+	 * @param index
+	 *            index of the scramble (from 0)
+	 * @return the scramble
+	 * @throws IndexOutOfBoundsException
+	 *             if index is not from 0 to {@link ScrambleCorpus#size()} - 1
+	 */
+	public Scramble get(long index) {
+		Scramble scramble = new Scramble(0);
+		read(index, scramble);
+		return scramble;
+	}
+
+	/**
+	 * Reads the scramble with the specific index to the existing scramble
+	 * (its moves are replaced). The moves are decoded directly to the
+	 * scramble, so nothing is allocated if the scramble has enough capacity
+	 * (e.g. when it is reused for the next reads).
+	 *
+	 * @param index
+	 *            index of the scramble (from 0)
+	 * @param scramble
+	 *            scramble which gets the moves
+	 * @throws IndexOutOfBoundsException
+	 *             if index is not from 0 to {@link ScrambleCorpus#size()} - 1
+	 */
+	public void read(long index, Scramble scramble) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+
+		long offset = this.index.getLong((int) (index / INDEX_INTERVAL) * Long.BYTES);
+		for (long i = index / INDEX_INTERVAL * INDEX_INTERVAL; i < index; i++) {
+			offset = skip(offset);
+		}
+		decode(offset, scramble);
+	}
+
+	/**
+	 * Passes all the scrambles to the action in the order of the file. The
+	 * same scramble object is reused for every record, so the action should
+	 * copy it if it has to be kept.
+	 *
+	 * @param action
+	 *            action for every scramble
+	 */
+	public void forEach(Consumer<? super Scramble> action) {
+		Scramble scramble = new Scramble();
+		long offset = HEADER_SIZE;
+		while (offset < indexOffset) {
+			offset = decode(offset, scramble);
+			action.accept(scramble);
+		}
+	}
+
+	/**
+	 * Returns the segment of the record.
+	 *
+	 * @param offset
+	 *            offset of the record in the file
+	 * @return mapped segment
+	 */
+	private ByteBuffer getSegment(long offset) {
+		return segments[(int) ((offset - HEADER_SIZE) / SEGMENT_SIZE)];
+	}
+
+	/**
+	 * Returns the offset of the record after the record.
+	 *
+	 * @param offset
+	 *            offset of the record in the file
+	 * @return offset of the next record
+	 */
+	private long skip(long offset) {
+		ByteBuffer segment = getSegment(offset);
+		int start = (int) ((offset - HEADER_SIZE) % SEGMENT_SIZE);
+		int position = start;
+		int length = 0;
+		for (int shift = 0;; shift += 7) {
+			int value = segment.get(position++);
+			length |= (value & 0x7F) << shift;
+			if (value >= 0)
+				break;
+		}
+		return offset + (position - start) + (length * CODE_BITS + 7) / 8;
+	}
+
+	/**
+	 * Decodes the record. The moves are added to the scramble one by one
+	 * (without any buffer).
+	 *
+	 * @param offset
+	 *            offset of the record in the file
+	 * @param scramble
+	 *            scramble which gets the moves
+	 * @return offset of the next record
+	 * @throws IllegalArgumentException
+	 *             if any of the codes is not a move
+	 */
+	private long decode(long offset, Scramble scramble) {
+		ByteBuffer segment = getSegment(offset);
+		int start = (int) ((offset - HEADER_SIZE) % SEGMENT_SIZE);
+		int position = start;
+		int length = 0;
+		for (int shift = 0;; shift += 7) {
+			int value = segment.get(position++);
+			length |= (value & 0x7F) << shift;
+			if (value >= 0)
+				break;
+		}
+
+		scramble.clear();
+		int bits = 0;
+		int bitCount = 0;
+		for (int i = 0; i < length; i++) {
+			if (bitCount < CODE_BITS) {
+				bits |= (segment.get(position++) & 0xFF) << bitCount;
+				bitCount += 8;
+			}
+			int code = bits & CODE_MASK;
+			if (code >= Move.MOVES_COUNT) {
+				scramble.clear();
+				throw new IllegalArgumentException("Incorrect move ordinal: " + code);
+			}
+			scramble.add(Move.of(code));
+			bits >>>= CODE_BITS;
+			bitCount -= CODE_BITS;
+		}
+		return offset + (position - start);
+	}
+
+	/**
+	 * Writer of the corpus file. The records are encoded to the large direct
+	 * buffer which is written to the {@link FileChannel} when it is full. The
+	 * header and the index block are written by {@link Writer#close()}, so
+	 * the file is valid only after it is closed.
+	 *
+	 * @author Patryk Kotlarz
+	 *
+	 */
+	public static final class Writer implements AutoCloseable {
+
+		/**
+		 * Size of the buffer.
+		 */
+		private static final int BUFFER_SIZE = 1 << 22;
+
+		/**
+		 * The file.
+		 */
+		private final FileChannel channel;
+
+		/**
+		 * Buffer of the records.
+		 */
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		/**
+		 * Offsets of the indexed records.
+		 */
+		private long[] offsets = new long[1024];
+
+		/**
+		 * Number of the written scrambles.
+		 */
+		private long count = 0;
+
+		/**
+		 * Offset of the next record in the file.
+		 */
+		private long offset = HEADER_SIZE;
+
+		/**
+		 * Creates writer.
+		 *
+		 * @param file
+		 *            path of the file
+		 * @throws IOException
+		 *             if the file could not be created
+		 */
+		Writer(Path file) throws IOException {
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			// The header is written when the writer is closed
+			buffer.position(HEADER_SIZE);
+		}
+
+		/**
+		 * Writes the scramble at the end of the corpus.
+		 *
+		 * @param scramble
+		 *            the scramble
+		 * @throws IOException
+		 *             if the file could not be written
+		 * @throws IllegalArgumentException
+		 *             if the scramble is longer than
+		 *             {@link ScrambleCorpus#MAX_LENGTH}
+		 */
+		public void write(Scramble scramble) throws IOException {
+			int length = scramble.size();
+			if (length > MAX_LENGTH)
+				throw new IllegalArgumentException("Scramble could have at most " + MAX_LENGTH + " moves");
+			if (buffer.remaining() < MAX_RECORD_SIZE)
+				flush();
+
+			if (count % INDEX_INTERVAL == 0) {
+				int indexed = (int) (count / INDEX_INTERVAL);
+				if (indexed == offsets.length)
+					offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				offsets[indexed] = offset;
+			}
+
+			int start = buffer.position();
+			int value = length;
+			while (value >= 0x80) {
+				buffer.put((byte) (value | 0x80));
+				value >>>= 7;
+			}
+			buffer.put((byte) value);
+
+			long bits = 0;
+			int bitCount = 0;
+			for (int i = 0; i < length; i++) {
+				bits |= (long) scramble.getOrdinal(i) << bitCount;
+				bitCount += CODE_BITS;
+				if (bitCount >= 32) {
+					buffer.putInt((int) bits);
+					bits >>>= 32;
+					bitCount -= 32;
+				}
+			}
+			for (; bitCount > 0; bitCount -= 8) {
+				buffer.put((byte) bits);
+				bits >>>= 8;
+			}
+
+			offset += buffer.position() - start;
+			count++;
+		}
+
+		/**
+		 * Returns number of the written scrambles.
+		 *
+		 * @return number of the scrambles
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Writes the buffer to the file.
+		 *
+		 * @throws IOException
+		 *             if the file could not be written
+		 */
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * Writes the index block and the header and closes the file.
+		 *
+		 * @throws IOException
+		 *             if the file could not be written
+		 */
+		@Override
+		public void close() throws IOException {
+			if (!channel.isOpen())
+				return;
+			try {
+				long indexOffset = offset;
+				long indexed = (count + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+				for (int i = 0; i < indexed; i++) {
+					if (buffer.remaining() < Long.BYTES)
+						flush();
+					buffer.putLong(offsets[i]);
+				}
+				flush();
+
+				buffer.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(indexOffset).putInt(INDEX_INTERVAL)
+						.putInt(0);
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer, buffer.position());
+				}
+				buffer.clear();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
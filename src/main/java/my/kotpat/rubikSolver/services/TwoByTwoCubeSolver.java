@@ -0,0 +1,112 @@
+package my.kotpat.rubikSolver.services;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.InvalidCubeStateException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.tables.CornerDistanceTable;
+
+/**
+ * Implementation of {@link CubeSolver} which finds the optimal solution of the
+ * 2x2x2 cube using {@link CornerDistanceTable}. The cube is rotated (as a
+ * whole) so the DBL corner is on its place, then every move decreases the
+ * distance from the table until the cube is solved. Moves are translated back
+ * to the faces of the not rotated cube (see {@link CornerRotations}), so the
+ * solution could be applied directly to the cube.
+ * <p>
+ * The solution is found in microseconds (the table has to be built or loaded
+ * only once per process). {@link SolvingMeta#getAnalyzedMoves()} is the number
+ * of checked moves.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class TwoByTwoCubeSolver implements CubeSolver {
+
+	/**
+	 * Maximum length of the optimal solution of the 2x2x2 cube (in the
+	 * half-turn metric). Longer path means the table is not valid.
+	 */
+	private static final int MAX_LENGTH = 11;
+
+	/**
+	 * Distance table.
+	 */
+	private final CornerDistanceTable table;
+
+	/**
+	 * Creates solver which uses table from the default directory (see
+	 * {@link CornerDistanceTable#getInstance()}).
+	 */
+	public TwoByTwoCubeSolver() {
+		this(CornerDistanceTable.getInstance());
+	}
+
+	/**
+	 * Creates solver which uses specific table.
+	 * 
+	 * @param table
+	 *            distance table
+	 */
+	public TwoByTwoCubeSolver(CornerDistanceTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Finds the optimal solution of the 2x2x2 cube. The cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 * @throws IllegalStateException
+	 *             if the table is not valid (e.g. the table file is corrupted)
+	 */
+	public SolvingMeta getSolution(RubiksCube cube) {
+		long startingTime = System.nanoTime();
+
+		if (cube.getDimension() != 2)
+			throw new IllegalArgumentException("Only 2x2x2 cube could be solved");
+		CubieCube cubieCube;
+		try {
+			cubieCube = new CubieCube(cube);
+		} catch (UnsupportedLayerDimensionException | InvalidCubeStateException e) {
+			throw new IllegalArgumentException("Cube could not be solved", e);
+		}
+
+		// Rotating the cube, so the DBL corner is fixed
+		CubieCube rotated = new CubieCube();
+		int rotation = CornerRotations.fixCorner(cubieCube, rotated);
+
+		Scramble solution = new Scramble();
+		long analyzedMoves = 0;
+		int index = CornerDistanceTable.getIndex(rotated);
+		while (index != 0) {
+			int next = (table.getDistanceMod3(index) + 2) % 3;
+			int move = 0;
+			while (move < CornerDistanceTable.MOVES.length) {
+				analyzedMoves++;
+				int moved = table.move(index, move);
+				if (table.getDistanceMod3(moved) == next) {
+					solution.add(CornerRotations.translate(rotation, CornerDistanceTable.MOVES[move]));
+					index = moved;
+					break;
+				}
+				move++;
+			}
+			if (move == CornerDistanceTable.MOVES.length || solution.size() > MAX_LENGTH)
+				throw new IllegalStateException("Distance table is not valid: no move decreases the distance");
+		}
+
+		long finishingTime = System.nanoTime();
+		double timeMs = (double) (finishingTime - startingTime) / 1000000;
+
+		SolvingMeta meta = new SolvingMeta();
+		meta.setAnalyzedMoves(analyzedMoves);
+		meta.setAnalyzedScrambles(1);
+		meta.setSolvingScramble(solution);
+		meta.setTimeMs(timeMs);
+
+		return meta;
+	}
+}
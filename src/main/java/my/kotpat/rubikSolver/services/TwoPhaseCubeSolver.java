@@ -0,0 +1,506 @@
+package my.kotpat.rubikSolver.services;
+
+import java.util.function.IntSupplier;
+
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.InvalidCubeStateException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.tables.Coordinate;
+import my.kotpat.rubikSolver.tables.MoveTable;
+import my.kotpat.rubikSolver.tables.MoveTables;
+import my.kotpat.rubikSolver.tables.PermutationPruningTable;
+import my.kotpat.rubikSolver.tables.PruningTable;
+
+/**
+ * Implementation of {@link CubeSolver} which solves the 3x3x3 cube by the
+ * two-phase algorithm of Herbert Kociemba. The first phase moves the cube to
+ * the &lt;U, D, R2, L2, F2, B2&gt; group (all the cubies oriented and the
+ * UD-slice edges in the slice), the second phase solves the cube using only
+ * moves of this group. Both phases are the iterative deepening A* searches
+ * over the {@link Coordinate} values with {@link PruningTable} distances
+ * (the second phase is pruned by {@link PermutationPruningTable} too).
+ * <p>
+ * Every solution of the first phase (in order of increasing length) is
+ * completed by the shortest second phase. The first solution which is not
+ * longer than {@link TwoPhaseCubeSolver#getMaxLength()} is returned, so the
+ * solution is not optimal, but it is usually found in a few milliseconds
+ * (after the tables are loaded). If there is no such solution, the solving
+ * scramble is {@code null}. The limit of the length could be also changed
+ * during the search (see {@link BoundedCubeSolver}).
+ * {@link SolvingMeta#getAnalyzedMoves()} is the
+ * number of visited nodes of both phases and
+ * {@link SolvingMeta#getAnalyzedScrambles()} is the number of the first phase
+ * solutions completed by the second phase.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class TwoPhaseCubeSolver implements BoundedCubeSolver {
+
+	/**
+	 * Default maximum length of the solution.
+	 */
+	public static final int DEFAULT_MAX_LENGTH = 22;
+
+	/**
+	 * Maximum length of the second phase (every cube of the &lt;U, D, R2, L2,
+	 * F2, B2&gt; group could be solved in 18 moves).
+	 */
+	private static final int MAX_PHASE_TWO_LENGTH = 18;
+
+	/**
+	 * Equals {@code true} for moves of the &lt;U, D, R2, L2, F2, B2&gt; group
+	 * (indexed by {@link Move#ordinal()}).
+	 */
+	private static final boolean[] PHASE_TWO_MOVE = new boolean[Move.MOVES_COUNT];
+
+	static {
+		for (int move : MoveTables.PHASE_TWO_MOVES) {
+			PHASE_TWO_MOVE[move] = true;
+		}
+	}
+
+	/**
+	 * Move tables of the coordinates.
+	 */
+	private final MoveTables tables;
+
+	/**
+	 * Maximum length of the solution.
+	 */
+	private int maxLength = DEFAULT_MAX_LENGTH;
+
+	/**
+	 * Creates solver which uses move tables from the default directory (see
+	 * {@link MoveTables#getInstance()}).
+	 */
+	public TwoPhaseCubeSolver() {
+		this(MoveTables.getInstance());
+	}
+
+	/**
+	 * Creates solver which uses specific move tables. The
+	 * {@link PermutationPruningTable} is kept in the same directory (see
+	 * {@link MoveTables#getDirectory()}).
+	 * 
+	 * @param tables
+	 *            move tables
+	 */
+	public TwoPhaseCubeSolver(MoveTables tables) {
+		this.tables = tables;
+	}
+
+	/**
+	 * Creates solver with {@link TwoPhaseCubeSolver#maxLength} setter.
+	 * 
+	 * @param maxLength
+	 *            maximum length of the solution
+	 */
+	public TwoPhaseCubeSolver(int maxLength) {
+		this();
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Finds the solution of the 3x3x3 cube. The cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	public SolvingMeta getSolution(RubiksCube cube) {
+		return getSolution(cube, Deadline.none());
+	}
+
+	/**
+	 * Finds the solution of the 3x3x3 cube before the deadline. The cube is
+	 * not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	@Override
+	public SolvingMeta getSolution(RubiksCube cube, Deadline deadline) {
+		return getSolution(cube, () -> maxLength, deadline);
+	}
+
+	/**
+	 * Finds the solution of the 3x3x3 cube which is not longer than the limit
+	 * (and {@link TwoPhaseCubeSolver#getMaxLength()}) before the deadline. The
+	 * cube is not changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the cube has other dimension or it is not a valid cube
+	 */
+	public SolvingMeta getSolution(RubiksCube cube, IntSupplier maxLength, Deadline deadline) {
+		long startingTime = System.nanoTime();
+
+		if (cube.getDimension() != 3)
+			throw new IllegalArgumentException("Only 3x3x3 cube could be solved");
+		CubieCube cubieCube;
+		try {
+			cubieCube = new CubieCube(cube);
+		} catch (UnsupportedLayerDimensionException | InvalidCubeStateException e) {
+			throw new IllegalArgumentException("Cube could not be solved", e);
+		}
+
+		Search search = new Search(tables, this.maxLength, maxLength, deadline);
+		Scramble solution = search.solve(cubieCube);
+
+		long finishingTime = System.nanoTime();
+		double timeMs = (double) (finishingTime - startingTime) / 1000000;
+
+		SolvingMeta meta = new SolvingMeta();
+		meta.setAnalyzedMoves(search.nodes);
+		meta.setAnalyzedScrambles(search.phaseTwoSearches);
+		meta.setSolvingScramble(solution);
+		meta.setTimedOut(search.timedOut);
+		meta.setTimeMs(timeMs);
+
+		return meta;
+	}
+
+	/**
+	 * Finds the solution of the cubie cube which is not longer than the
+	 * maximum length (used by the services which already have the cubie cube,
+	 * e.g. {@link RandomStateScrambleGenerator}). The cube is not changed.
+	 * 
+	 * @param cubieCube
+	 *            valid cubie cube
+	 * @param maxLength
+	 *            maximum length of the solution
+	 * @return solution or {@code null} if there is no solution up to the
+	 *         maximum length
+	 */
+	Scramble getSolution(CubieCube cubieCube, int maxLength) {
+		return new Search(tables, maxLength, () -> maxLength, Deadline.none()).solve(cubieCube);
+	}
+
+	/**
+	 * Maximum length of the solution getter.
+	 * 
+	 * @return maximum length of the solution
+	 */
+	@Override
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Maximum length of the solution setter.
+	 * 
+	 * @param maxLength
+	 *            maximum length of the solution
+	 */
+	public void setMaxLength(int maxLength) {
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * State of the single search. Values of the coordinates are kept for
+	 * every depth, so the search allocates memory only for the solution.
+	 */
+	private static final class Search {
+
+		/**
+		 * Maximum length of the solution.
+		 */
+		private final int maxLength;
+
+		/**
+		 * Current limit of the length of the solution.
+		 */
+		private final IntSupplier limit;
+
+		/**
+		 * Deadline of the search.
+		 */
+		private final Deadline deadline;
+
+		/**
+		 * True if the deadline has expired.
+		 */
+		private boolean timedOut = false;
+
+		/**
+		 * Move tables of the first phase coordinates.
+		 */
+		private final MoveTable twistTable, flipTable, sliceTable;
+
+		/**
+		 * Move tables of the second phase coordinates.
+		 */
+		private final MoveTable cornersTable, edgesTable, slicePermutationTable;
+
+		/**
+		 * Pruning tables of the first phase.
+		 */
+		private final PruningTable twistPruning, flipPruning, orientationPruning;
+
+		/**
+		 * Pruning tables of the second phase.
+		 */
+		private final PruningTable cornersPruning, edgesPruning;
+
+		/**
+		 * Pruning table of the permutations of the corners and the U and D
+		 * edges.
+		 */
+		private final PermutationPruningTable permutationPruning;
+
+		/**
+		 * Values of the first phase coordinates for every depth.
+		 */
+		private final int[] twist, flip, slice;
+
+		/**
+		 * Values of the second phase coordinates for every depth.
+		 */
+		private final int[] corners, edges, slicePermutation;
+
+		/**
+		 * Moves of the current path (both phases).
+		 */
+		private final int[] path;
+
+		/**
+		 * The cube to solve.
+		 */
+		private CubieCube initial;
+
+		/**
+		 * Cube used to compute the second phase coordinates.
+		 */
+		private final CubieCube phaseTwoCube = new CubieCube();
+
+		/**
+		 * Length of the found solution.
+		 */
+		private int length = -1;
+
+		/**
+		 * Number of visited nodes.
+		 */
+		long nodes;
+
+		/**
+		 * Number of the second phase searches.
+		 */
+		long phaseTwoSearches;
+
+		Search(MoveTables tables, int maxLength, IntSupplier limit, Deadline deadline) {
+			this.maxLength = maxLength;
+			this.limit = limit;
+			this.deadline = deadline;
+			twistTable = tables.get(Coordinate.TWIST);
+			flipTable = tables.get(Coordinate.FLIP);
+			sliceTable = tables.get(Coordinate.UD_SLICE);
+			cornersTable = tables.get(Coordinate.CORNER_PERMUTATION);
+			edgesTable = tables.get(Coordinate.UD_EDGE_PERMUTATION);
+			slicePermutationTable = tables.get(Coordinate.UD_SLICE_PERMUTATION);
+			twistPruning = PruningTable.get(tables, Coordinate.TWIST, Coordinate.UD_SLICE);
+			flipPruning = PruningTable.get(tables, Coordinate.FLIP, Coordinate.UD_SLICE);
+			orientationPruning = PruningTable.get(tables, Coordinate.TWIST, Coordinate.FLIP);
+			cornersPruning = PruningTable.get(tables, Coordinate.CORNER_PERMUTATION,
+					Coordinate.UD_SLICE_PERMUTATION);
+			edgesPruning = PruningTable.get(tables, Coordinate.UD_EDGE_PERMUTATION,
+					Coordinate.UD_SLICE_PERMUTATION);
+			permutationPruning = PermutationPruningTable.get(tables.getDirectory());
+
+			int size = Math.max(maxLength, 0) + 1;
+			twist = new int[size];
+			flip = new int[size];
+			slice = new int[size];
+			corners = new int[size];
+			edges = new int[size];
+			slicePermutation = new int[size];
+			path = new int[size];
+		}
+
+		/**
+		 * Runs the first phase with increasing length until the solution is
+		 * found.
+		 * 
+		 * @param cube
+		 *            cube to solve
+		 * @return solution or {@code null} if there is no solution up to the
+		 *         maximum length (or the deadline has expired)
+		 */
+		Scramble solve(CubieCube cube) {
+			initial = cube;
+			twist[0] = Coordinate.TWIST.get(cube);
+			flip[0] = Coordinate.FLIP.get(cube);
+			slice[0] = Coordinate.UD_SLICE.get(cube);
+
+			for (int phaseOneLength = getPhaseOneDistance(0); !timedOut && phaseOneLength <= getMaxLength(); phaseOneLength++) {
+				if (phaseOne(0, phaseOneLength, -1)) {
+					Scramble solution = new Scramble();
+					for (int i = 0; i < length; i++) {
+						solution.add(Move.of(path[i]));
+					}
+					return solution;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Checks the deadline every
+		 * {@link IDAStarCubeSolver#DEADLINE_CHECK_NODES} nodes.
+		 * 
+		 * @return true if the deadline has expired
+		 */
+		private boolean isTimedOut() {
+			if ((nodes & (IDAStarCubeSolver.DEADLINE_CHECK_NODES - 1)) == 0 && deadline.isExpired())
+				timedOut = true;
+			return timedOut;
+		}
+
+		/**
+		 * Returns the current maximum length of the solution.
+		 * 
+		 * @return maximum length of the solution
+		 */
+		private int getMaxLength() {
+			return Math.min(maxLength, limit.getAsInt());
+		}
+
+		/**
+		 * Returns estimated length of the first phase.
+		 * 
+		 * @param depth
+		 *            depth of the state
+		 * @return estimated length
+		 */
+		private int getPhaseOneDistance(int depth) {
+			return Math.max(orientationPruning.getDistance(twist[depth], flip[depth]),
+					Math.max(twistPruning.getDistance(twist[depth], slice[depth]),
+							flipPruning.getDistance(flip[depth], slice[depth])));
+		}
+
+		/**
+		 * Returns estimated length of the second phase.
+		 * 
+		 * @param depth
+		 *            depth of the state
+		 * @return estimated length
+		 */
+		private int getPhaseTwoDistance(int depth) {
+			return Math.max(permutationPruning.getDistance(corners[depth], edges[depth]),
+					Math.max(cornersPruning.getDistance(corners[depth], slicePermutation[depth]),
+							edgesPruning.getDistance(edges[depth], slicePermutation[depth])));
+		}
+
+		/**
+		 * Finds solutions of the first phase with exactly {@code length}
+		 * moves and completes them by the second phase.
+		 * 
+		 * @param depth
+		 *            number of moves done
+		 * @param phaseOneLength
+		 *            length of the first phase
+		 * @param lastMove
+		 *            the last move (-1 if there is no move)
+		 * @return true if the solution is found
+		 */
+		private boolean phaseOne(int depth, int phaseOneLength, int lastMove) {
+			// The limit has been decreased
+			if (isTimedOut() || phaseOneLength > limit.getAsInt())
+				return false;
+
+			int distance = getPhaseOneDistance(depth);
+			if (distance == 0 && depth == phaseOneLength) {
+				// Shorter first phase has been already checked
+				if (lastMove >= 0 && PHASE_TWO_MOVE[lastMove])
+					return false;
+				return startPhaseTwo(depth, lastMove);
+			}
+			if (distance > phaseOneLength - depth || depth == phaseOneLength)
+				return false;
+
+			int lastFace = lastMove < 0 ? CanonicalSequence.START : CanonicalSequence.getLayer(lastMove);
+			for (int move = 0; move < Move.MOVES_COUNT; move++) {
+				if (!CanonicalSequence.isAllowed(lastFace, CanonicalSequence.getLayer(move)))
+					continue;
+				nodes++;
+				twist[depth + 1] = twistTable.move(twist[depth], move);
+				flip[depth + 1] = flipTable.move(flip[depth], move);
+				slice[depth + 1] = sliceTable.move(slice[depth], move);
+				path[depth] = move;
+				if (phaseOne(depth + 1, phaseOneLength, move))
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Computes the second phase coordinates of the state after the first
+		 * phase and runs the second phase.
+		 * 
+		 * @param depth
+		 *            length of the first phase
+		 * @param lastMove
+		 *            the last move of the first phase
+		 * @return true if the solution is found
+		 */
+		private boolean startPhaseTwo(int depth, int lastMove) {
+			phaseTwoSearches++;
+			phaseTwoCube.copyFrom(initial);
+			for (int i = 0; i < depth; i++) {
+				phaseTwoCube.multiply(CubieCube.getMoveCube(path[i]));
+			}
+			corners[depth] = Coordinate.CORNER_PERMUTATION.get(phaseTwoCube);
+			edges[depth] = Coordinate.UD_EDGE_PERMUTATION.get(phaseTwoCube);
+			slicePermutation[depth] = Coordinate.UD_SLICE_PERMUTATION.get(phaseTwoCube);
+
+			int maxPhaseTwoLength = Math.min(getMaxLength() - depth, MAX_PHASE_TWO_LENGTH);
+			int lastFace = lastMove < 0 ? CanonicalSequence.START : CanonicalSequence.getLayer(lastMove);
+			for (int bound = getPhaseTwoDistance(depth); bound <= maxPhaseTwoLength; bound++) {
+				if (phaseTwo(depth, depth + bound, lastFace))
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Depth-first search of the second phase limited by the bound.
+		 * 
+		 * @param depth
+		 *            number of moves done (both phases)
+		 * @param bound
+		 *            maximum length of the solution
+		 * @param lastFace
+		 *            face of the last move (-1 if there is no move)
+		 * @return true if the solution is found
+		 */
+		private boolean phaseTwo(int depth, int bound, int lastFace) {
+			if (isTimedOut())
+				return false;
+
+			int distance = getPhaseTwoDistance(depth);
+			if (distance == 0) {
+				length = depth;
+				return true;
+			}
+			if (distance > bound - depth)
+				return false;
+
+			for (int move : MoveTables.PHASE_TWO_MOVES) {
+				if (!CanonicalSequence.isAllowed(lastFace, CanonicalSequence.getLayer(move)))
+					continue;
+				nodes++;
+				corners[depth + 1] = cornersTable.move(corners[depth], move);
+				edges[depth + 1] = edgesTable.move(edges[depth], move);
+				slicePermutation[depth + 1] = slicePermutationTable.move(slicePermutation[depth], move);
+				path[depth] = move;
+				if (phaseTwo(depth + 1, bound, CanonicalSequence.getLayer(move)))
+					return true;
+			}
+			return false;
+		}
+	}
+}
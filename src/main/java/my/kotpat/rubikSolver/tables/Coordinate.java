@@ -0,0 +1,422 @@
+package my.kotpat.rubikSolver.tables;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+
+/**
+ * Integer coordinates of the 3x3x3 cube used in the table-driven search. Every
+ * coordinate describes only a part of the cube state (e.g. orientation of the
+ * corners) as a number from 0 to {@link Coordinate#getSize()} - 1. Coordinates
+ * are computed from {@link CubieCube} and could be converted back to the
+ * (partially set) {@link CubieCube}, which is used to build
+ * {@link MoveTables}.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public enum Coordinate {
+	/**
+	 * Orientation of the corners (3^7 values).
+	 */
+	TWIST(2187, false) {
+		@Override
+		public int get(CubieCube cube) {
+			int twist = 0;
+			for (int i = 0; i < CubieCube.CORNERS - 1; i++) {
+				twist = 3 * twist + cube.getCornerOrientation(i);
+			}
+			return twist;
+		}
+
+		@Override
+		public void set(CubieCube cube, int twist) {
+			int sum = 0;
+			for (int i = CubieCube.CORNERS - 2; i >= 0; i--) {
+				cube.setCorner(i, cube.getCornerPermutation(i), twist % 3);
+				sum += twist % 3;
+				twist /= 3;
+			}
+			int last = CubieCube.CORNERS - 1;
+			cube.setCorner(last, cube.getCornerPermutation(last), (3 - sum % 3) % 3);
+		}
+	},
+
+	/**
+	 * Orientation of the edges (2^11 values).
+	 */
+	FLIP(2048, false) {
+		@Override
+		public int get(CubieCube cube) {
+			int flip = 0;
+			for (int i = 0; i < CubieCube.EDGES - 1; i++) {
+				flip = 2 * flip + cube.getEdgeOrientation(i);
+			}
+			return flip;
+		}
+
+		@Override
+		public void set(CubieCube cube, int flip) {
+			int sum = 0;
+			for (int i = CubieCube.EDGES - 2; i >= 0; i--) {
+				cube.setEdge(i, cube.getEdgePermutation(i), flip % 2);
+				sum += flip % 2;
+				flip /= 2;
+			}
+			int last = CubieCube.EDGES - 1;
+			cube.setEdge(last, cube.getEdgePermutation(last), sum % 2);
+		}
+	},
+
+	/**
+	 * Permutation of the corners (8! values).
+	 */
+	CORNER_PERMUTATION(40320, false) {
+		@Override
+		public int get(CubieCube cube) {
+			int[] permutation = new int[CubieCube.CORNERS];
+			for (int i = 0; i < CubieCube.CORNERS; i++) {
+				permutation[i] = cube.getCornerPermutation(i);
+			}
+			return getPermutationIndex(permutation);
+		}
+
+		@Override
+		public void set(CubieCube cube, int index) {
+			int[] permutation = getPermutation(index, CubieCube.CORNERS);
+			for (int i = 0; i < CubieCube.CORNERS; i++) {
+				cube.setCorner(i, permutation[i], cube.getCornerOrientation(i));
+			}
+		}
+	},
+
+	/**
+	 * Positions of the four UD-slice edges (FR, FL, BL, BR) without their
+	 * order (C(12, 4) values). Equals 0 if all of them are in the slice.
+	 */
+	UD_SLICE(495, false) {
+		@Override
+		public int get(CubieCube cube) {
+			return UD_SLICE_SORTED.get(cube) / 24;
+		}
+
+		@Override
+		public void set(CubieCube cube, int index) {
+			UD_SLICE_SORTED.set(cube, 24 * index);
+		}
+	},
+
+	/**
+	 * Positions and order of the four UD-slice edges (12! / 8! values). The
+	 * coordinate divided by 24 is {@link Coordinate#UD_SLICE}, the remainder
+	 * is the permutation of the slice edges.
+	 */
+	UD_SLICE_SORTED(11880, false) {
+		@Override
+		public int get(CubieCube cube) {
+			return getEdgeGroup(cube, FIRST_SLICE_EDGE);
+		}
+
+		@Override
+		public void set(CubieCube cube, int index) {
+			setEdgeGroup(cube, FIRST_SLICE_EDGE, index);
+		}
+	},
+
+	/**
+	 * Positions and order of the four U edges (UR, UF, UL, UB), defined the
+	 * same way as {@link Coordinate#UD_SLICE_SORTED} (12! / 8! values).
+	 * Together with {@link Coordinate#UD_SLICE_SORTED} and
+	 * {@link Coordinate#D_EDGES} it describes the whole permutation of the
+	 * edges.
+	 */
+	U_EDGES(11880, false) {
+		@Override
+		public int get(CubieCube cube) {
+			return getEdgeGroup(cube, CubieCube.Edge.UR.ordinal());
+		}
+
+		@Override
+		public void set(CubieCube cube, int index) {
+			setEdgeGroup(cube, CubieCube.Edge.UR.ordinal(), index);
+		}
+	},
+
+	/**
+	 * Positions and order of the four D edges (DR, DF, DL, DB), defined the
+	 * same way as {@link Coordinate#UD_SLICE_SORTED} (12! / 8! values).
+	 */
+	D_EDGES(11880, false) {
+		@Override
+		public int get(CubieCube cube) {
+			return getEdgeGroup(cube, CubieCube.Edge.DR.ordinal());
+		}
+
+		@Override
+		public void set(CubieCube cube, int index) {
+			setEdgeGroup(cube, CubieCube.Edge.DR.ordinal(), index);
+		}
+	},
+
+	/**
+	 * Permutation of the eight U and D edges (8! values). Defined only if the
+	 * UD-slice edges are in the slice, so the table of this coordinate
+	 * contains only moves of the &lt;U, D, R2, L2, F2, B2&gt; group.
+	 */
+	UD_EDGE_PERMUTATION(40320, true) {
+		@Override
+		public int get(CubieCube cube) {
+			int[] permutation = new int[FIRST_SLICE_EDGE];
+			for (int i = 0; i < FIRST_SLICE_EDGE; i++) {
+				permutation[i] = cube.getEdgePermutation(i);
+				if (permutation[i] >= FIRST_SLICE_EDGE)
+					throw new IllegalArgumentException("UD-slice edges are not in the slice");
+			}
+			return getPermutationIndex(permutation);
+		}
+
+		@Override
+		public void set(CubieCube cube, int index) {
+			int[] permutation = getPermutation(index, FIRST_SLICE_EDGE);
+			for (int i = 0; i < CubieCube.EDGES; i++) {
+				int edge = i < FIRST_SLICE_EDGE ? permutation[i] : i;
+				cube.setEdge(i, edge, cube.getEdgeOrientation(i));
+			}
+		}
+	},
+
+	/**
+	 * Permutation of the four UD-slice edges (4! values). Defined only if the
+	 * UD-slice edges are in the slice (it is {@link Coordinate#UD_SLICE_SORTED}
+	 * in such case), so the table of this coordinate contains only moves of
+	 * the &lt;U, D, R2, L2, F2, B2&gt; group.
+	 */
+	UD_SLICE_PERMUTATION(24, true) {
+		@Override
+		public int get(CubieCube cube) {
+			int index = getEdgeGroup(cube, FIRST_SLICE_EDGE);
+			if (index >= 24)
+				throw new IllegalArgumentException("UD-slice edges are not in the slice");
+			return index;
+		}
+
+		@Override
+		public void set(CubieCube cube, int index) {
+			setEdgeGroup(cube, FIRST_SLICE_EDGE, index);
+		}
+	};
+
+	/**
+	 * Ordinal of the first UD-slice edge ({@link CubieCube.Edge#FR}).
+	 */
+	private static final int FIRST_SLICE_EDGE = CubieCube.Edge.FR.ordinal();
+
+	/**
+	 * Number of different values of the coordinate.
+	 */
+	private final int size;
+
+	/**
+	 * Equals {@code true} if the coordinate is defined only in the &lt;U, D,
+	 * R2, L2, F2, B2&gt; group.
+	 */
+	private final boolean phaseTwo;
+
+	private Coordinate(int size, boolean phaseTwo) {
+		this.size = size;
+		this.phaseTwo = phaseTwo;
+	}
+
+	/**
+	 * Returns value of the coordinate of the cube.
+	 *
+	 * @param cube
+	 *            cubie cube
+	 * @return value of the coordinate
+	 */
+	public abstract int get(CubieCube cube);
+
+	/**
+	 * Changes the part of the cube described by the coordinate, so
+	 * {@link Coordinate#get(CubieCube)} returns {@code value} (other parts of
+	 * the cube are not changed).
+	 *
+	 * @param cube
+	 *            cubie cube to change
+	 * @param value
+	 *            value of the coordinate
+	 */
+	public abstract void set(CubieCube cube, int value);
+
+	/**
+	 * Returns number of different values of the coordinate.
+	 *
+	 * @return number of values
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns {@code true} if the coordinate is defined only in the &lt;U, D,
+	 * R2, L2, F2, B2&gt; group (second phase of the two-phase algorithm).
+	 *
+	 * @return true if the coordinate is defined only in the second phase
+	 */
+	public boolean isPhaseTwo() {
+		return phaseTwo;
+	}
+
+	/**
+	 * Returns positions and order of the four edges from {@code first} to
+	 * {@code first + 3}. Positions are counted from {@code first + 4}, so the
+	 * edges on their own positions give 0 (for the UD-slice edges positions
+	 * are not shifted).
+	 *
+	 * @param cube
+	 *            cubie cube
+	 * @param first
+	 *            ordinal of the first edge of the group
+	 * @return 24 * combination of the positions + permutation of the edges
+	 */
+	private static int getEdgeGroup(CubieCube cube, int first) {
+		int combination = 0;
+		int found = 0;
+		int[] groupEdges = new int[4];
+		for (int j = CubieCube.EDGES - 1; j >= 0; j--) {
+			int edge = cube.getEdgePermutation((j + first + 4) % CubieCube.EDGES);
+			if (edge >= first && edge < first + 4) {
+				combination += binomial(CubieCube.EDGES - 1 - j, found + 1);
+				groupEdges[3 - found] = edge - first;
+				found++;
+			}
+		}
+		return 24 * combination + getPermutationIndex(groupEdges);
+	}
+
+	/**
+	 * Sets positions and order of the four edges from {@code first} to
+	 * {@code first + 3}. Other edges are placed in order on the remaining
+	 * positions, orientations are not changed.
+	 *
+	 * @param cube
+	 *            cubie cube to change
+	 * @param first
+	 *            ordinal of the first edge of the group
+	 * @param index
+	 *            value of the coordinate
+	 * @see Coordinate#getEdgeGroup(CubieCube, int)
+	 */
+	private static void setEdgeGroup(CubieCube cube, int first, int index) {
+		int[] groupEdges = getPermutation(index % 24, 4);
+		int combination = index / 24;
+		int[] edges = new int[CubieCube.EDGES];
+		int left = 3;
+		for (int j = 0; j < CubieCube.EDGES; j++) {
+			edges[j] = -1;
+			if (left >= 0 && combination - binomial(CubieCube.EDGES - 1 - j, left + 1) >= 0) {
+				edges[j] = first + groupEdges[3 - left];
+				combination -= binomial(CubieCube.EDGES - 1 - j, left + 1);
+				left--;
+			}
+		}
+		int other = 0;
+		for (int j = 0; j < CubieCube.EDGES; j++) {
+			if (edges[j] < 0)
+				edges[j] = (first + 4 + other++) % CubieCube.EDGES;
+			int position = (j + first + 4) % CubieCube.EDGES;
+			cube.setEdge(position, edges[j], cube.getEdgeOrientation(position));
+		}
+	}
+
+	/**
+	 * Returns the index of the permutation of numbers from 0 to
+	 * {@code permutation.length - 1} (Lehmer code, 0 for the identity).
+	 *
+	 * @param permutation
+	 *            permutation (modified by the method)
+	 * @return index of the permutation
+	 */
+	static int getPermutationIndex(int[] permutation) {
+		int index = 0;
+		for (int j = permutation.length - 1; j > 0; j--) {
+			int rotations = 0;
+			while (permutation[j] != j) {
+				rotateLeft(permutation, j);
+				rotations++;
+			}
+			index = (j + 1) * index + rotations;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the permutation with specific index.
+	 *
+	 * @param index
+	 *            index of the permutation
+	 * @param length
+	 *            length of the permutation
+	 * @return permutation
+	 * @see Coordinate#getPermutationIndex(int[])
+	 */
+	static int[] getPermutation(int index, int length) {
+		int[] permutation = new int[length];
+		for (int i = 0; i < length; i++) {
+			permutation[i] = i;
+		}
+		for (int j = 1; j < length; j++) {
+			int rotations = index % (j + 1);
+			index /= j + 1;
+			while (rotations-- > 0) {
+				rotateRight(permutation, j);
+			}
+		}
+		return permutation;
+	}
+
+	/**
+	 * Rotates elements from 0 to {@code last} to the left.
+	 *
+	 * @param array
+	 *            array to rotate
+	 * @param last
+	 *            index of the last rotated element
+	 */
+	private static void rotateLeft(int[] array, int last) {
+		int temp = array[0];
+		System.arraycopy(array, 1, array, 0, last);
+		array[last] = temp;
+	}
+
+	/**
+	 * Rotates elements from 0 to {@code last} to the right.
+	 *
+	 * @param array
+	 *            array to rotate
+	 * @param last
+	 *            index of the last rotated element
+	 */
+	private static void rotateRight(int[] array, int last) {
+		int temp = array[last];
+		System.arraycopy(array, 0, array, 1, last);
+		array[0] = temp;
+	}
+
+	/**
+	 * Returns binomial coefficient (0 if {@code n < k}).
+	 *
+	 * @param n
+	 *            size of the set
+	 * @param k
+	 *            size of the subset
+	 * @return number of k-element subsets
+	 */
+	static int binomial(int n, int k) {
+		if (n < k)
+			return 0;
+		int result = 1;
+		for (int i = 1; i <= k; i++) {
+			result = result * (n - k + i) / i;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,314 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+
+/**
+ * Complete table of the distances to the solved state of the 2x2x2 cube with
+ * one fixed corner (DBL). Such cube is moved only by R, U and F moves and it
+ * has 7! * 3^6 = 3674160 states. The state is indexed by the permutation of
+ * the other seven corners and orientation of six of them
+ * ({@code permutation * 729 + twist}).
+ * <p>
+ * Every distance is kept modulo 3 in 2 bits (distances of the neighboring
+ * states differ by at most 1, so it is enough to find the move which
+ * decreases the distance). The table is built by the parallel breadth-first
+ * search (every thread fills its own part of the table) and kept in the
+ * versioned file ({@link CornerDistanceTable#FILE_NAME}) which is
+ * memory-mapped by all the next processes (see {@link TableFile}).
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class CornerDistanceTable {
+
+	/**
+	 * Name of the table file.
+	 */
+	public static final String FILE_NAME = "corner-distances.bin";
+
+	/**
+	 * Version of the table. Has to be changed with every change of the
+	 * indexing.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Moves of the cube with fixed DBL corner (R, U and F) in the order of
+	 * {@link Move#ordinal()}.
+	 */
+	public static final int[] MOVES = { 0, 1, 2, 6, 7, 8, 12, 13, 14 };
+
+	/**
+	 * Number of permutations of the seven corners.
+	 */
+	private static final int PERMUTATIONS = 5040;
+
+	/**
+	 * Number of orientations of the seven corners.
+	 */
+	private static final int TWISTS = 729;
+
+	/**
+	 * Number of states.
+	 */
+	public static final int SIZE = PERMUTATIONS * TWISTS;
+
+	/**
+	 * The fixed corner ({@link CubieCube.Corner#DBL}).
+	 */
+	private static final int FIXED_CORNER = CubieCube.Corner.DBL.ordinal();
+
+	/**
+	 * Value of the entry which has not been visited yet.
+	 */
+	private static final int EMPTY = 3;
+
+	/**
+	 * Number of entries processed by one task of the parallel search
+	 * (multiple of 4, so every byte is written by one thread).
+	 */
+	private static final int CHUNK = 1 << 14;
+
+	/**
+	 * Table loaded from the default directory.
+	 */
+	private static CornerDistanceTable instance;
+
+	/**
+	 * Permutation after every move ({@code permutation * MOVES.length +
+	 * move}).
+	 */
+	private final char[] permutationMoves = new char[PERMUTATIONS * MOVES.length];
+
+	/**
+	 * Orientation after every move ({@code twist * MOVES.length + move}).
+	 */
+	private final char[] twistMoves = new char[TWISTS * MOVES.length];
+
+	/**
+	 * Distances modulo 3 (4 entries in every byte).
+	 */
+	private final ByteBuffer distances;
+
+	/**
+	 * Loads (or builds and saves) the table from the specific directory.
+	 *
+	 * @param directory
+	 *            directory of the table file
+	 */
+	public CornerDistanceTable(Path directory) {
+		buildMoveTables();
+		distances = TableFile.load(directory.resolve(FILE_NAME), VERSION, SIZE / 4, new TableFile.TableBuilder() {
+			public void build(ByteBuffer table) {
+				table.put(buildDistances());
+			}
+		});
+	}
+
+	/**
+	 * Returns table from the default directory (see
+	 * {@link TableFile#getDefaultDirectory()}). Table is loaded only once per
+	 * process.
+	 *
+	 * @return distance table
+	 */
+	public static synchronized CornerDistanceTable getInstance() {
+		if (instance == null)
+			instance = new CornerDistanceTable(TableFile.getDefaultDirectory());
+		return instance;
+	}
+
+	/**
+	 * Returns index of the state of the cube.
+	 *
+	 * @param cube
+	 *            cubie cube with DBL corner on its place and oriented
+	 * @return index of the state
+	 * @throws IllegalArgumentException
+	 *             if the DBL corner is not fixed
+	 */
+	public static int getIndex(CubieCube cube) {
+		if (cube.getCornerPermutation(FIXED_CORNER) != FIXED_CORNER || cube.getCornerOrientation(FIXED_CORNER) != 0)
+			throw new IllegalArgumentException("DBL corner is not fixed");
+
+		int[] permutation = new int[CubieCube.CORNERS - 1];
+		int twist = 0;
+		for (int position = 0; position < CubieCube.CORNERS; position++) {
+			if (position == FIXED_CORNER)
+				continue;
+			permutation[getSlot(position)] = getSlot(cube.getCornerPermutation(position));
+			if (getSlot(position) < 6)
+				twist = 3 * twist + cube.getCornerOrientation(position);
+		}
+		return Coordinate.getPermutationIndex(permutation) * TWISTS + twist;
+	}
+
+	/**
+	 * Sets corners of the cube to the specific state.
+	 *
+	 * @param cube
+	 *            cubie cube to change
+	 * @param permutation
+	 *            index of the permutation
+	 * @param twist
+	 *            index of the orientation
+	 */
+	private static void setState(CubieCube cube, int permutation, int twist) {
+		int[] corners = Coordinate.getPermutation(permutation, CubieCube.CORNERS - 1);
+		int[] orientations = new int[CubieCube.CORNERS - 1];
+		int sum = 0;
+		for (int slot = 5; slot >= 0; slot--) {
+			orientations[slot] = twist % 3;
+			sum += twist % 3;
+			twist /= 3;
+		}
+		orientations[6] = (3 - sum % 3) % 3;
+
+		for (int position = 0; position < CubieCube.CORNERS; position++) {
+			if (position == FIXED_CORNER) {
+				cube.setCorner(position, FIXED_CORNER, 0);
+			} else {
+				int slot = getSlot(position);
+				int corner = corners[slot] < FIXED_CORNER ? corners[slot] : corners[slot] + 1;
+				cube.setCorner(position, corner, orientations[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Returns number of the position (or the corner) without the fixed
+	 * corner.
+	 *
+	 * @param position
+	 *            position of the cube (other than the fixed corner)
+	 * @return number from 0 to 6
+	 */
+	private static int getSlot(int position) {
+		return position < FIXED_CORNER ? position : position - 1;
+	}
+
+	/**
+	 * Computes the permutation and orientation tables.
+	 */
+	private void buildMoveTables() {
+		CubieCube cube = new CubieCube();
+		CubieCube moved = new CubieCube();
+		for (int permutation = 0; permutation < PERMUTATIONS; permutation++) {
+			setState(cube, permutation, 0);
+			for (int i = 0; i < MOVES.length; i++) {
+				moved.copyFrom(cube);
+				moved.cornerMultiply(CubieCube.getMoveCube(MOVES[i]));
+				permutationMoves[permutation * MOVES.length + i] = (char) (getIndex(moved) / TWISTS);
+			}
+		}
+		for (int twist = 0; twist < TWISTS; twist++) {
+			setState(cube, 0, twist);
+			for (int i = 0; i < MOVES.length; i++) {
+				moved.copyFrom(cube);
+				moved.cornerMultiply(CubieCube.getMoveCube(MOVES[i]));
+				twistMoves[twist * MOVES.length + i] = (char) (getIndex(moved) % TWISTS);
+			}
+		}
+	}
+
+	/**
+	 * Returns index of the state after the move.
+	 *
+	 * @param index
+	 *            index of the state
+	 * @param move
+	 *            index of the move in {@link CornerDistanceTable#MOVES}
+	 * @return index of the state after the move
+	 */
+	public int move(int index, int move) {
+		int permutation = permutationMoves[(index / TWISTS) * MOVES.length + move];
+		int twist = twistMoves[(index % TWISTS) * MOVES.length + move];
+		return permutation * TWISTS + twist;
+	}
+
+	/**
+	 * Returns distance of the state to the solved state modulo 3.
+	 *
+	 * @param index
+	 *            index of the state
+	 * @return distance modulo 3
+	 */
+	public int getDistanceMod3(int index) {
+		return (distances.get(index >> 2) >> ((index & 3) << 1)) & 3;
+	}
+
+	/**
+	 * Computes the table by the breadth-first search. In every step all the
+	 * not visited states are checked in parallel: the state has distance
+	 * {@code d + 1} if any of its neighbors has distance {@code d} (moves are
+	 * closed under inversion). Every task writes only its own bytes.
+	 *
+	 * @return packed table
+	 */
+	private byte[] buildDistances() {
+		final byte[] table = new byte[SIZE / 4];
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (byte) 0xFF;
+		}
+		table[0] = (byte) 0xFC;
+
+		int chunks = (SIZE + CHUNK - 1) / CHUNK;
+		for (int depth = 0;; depth++) {
+			final int previous = depth % 3;
+			final int next = (depth + 1) % 3;
+			int found = IntStream.range(0, chunks).parallel().map(chunk -> {
+				int count = 0;
+				int end = Math.min(SIZE, (chunk + 1) * CHUNK);
+				for (int index = chunk * CHUNK; index < end; index++) {
+					if (get(table, index) != EMPTY)
+						continue;
+					for (int move = 0; move < MOVES.length; move++) {
+						if (get(table, move(index, move)) == previous) {
+							set(table, index, next);
+							count++;
+							break;
+						}
+					}
+				}
+				return count;
+			}).sum();
+			if (found == 0)
+				break;
+		}
+		return table;
+	}
+
+	/**
+	 * Returns entry of the packed table.
+	 *
+	 * @param table
+	 *            packed table
+	 * @param index
+	 *            index of the state
+	 * @return value of the entry
+	 */
+	private static int get(byte[] table, int index) {
+		return (table[index >> 2] >> ((index & 3) << 1)) & 3;
+	}
+
+	/**
+	 * Sets entry of the packed table. The byte is written by one store, so
+	 * the other tasks never read its partially changed value.
+	 *
+	 * @param table
+	 *            packed table
+	 * @param index
+	 *            index of the state
+	 * @param value
+	 *            value of the entry
+	 */
+	private static void set(byte[] table, int index, int value) {
+		int shift = (index & 3) << 1;
+		table[index >> 2] = (byte) ((table[index >> 2] & ~(3 << shift)) | (value << shift));
+	}
+}
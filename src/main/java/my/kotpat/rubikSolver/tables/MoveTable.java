@@ -0,0 +1,88 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.nio.CharBuffer;
+
+import my.kotpat.rubikSolver.domain.Move;
+
+/**
+ * Transition table of the single {@link Coordinate}: value of the coordinate
+ * after every move applied to the cube with every value of the coordinate.
+ * Values are kept in the (usually memory-mapped) {@link CharBuffer}, so the
+ * table is never copied to the heap.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class MoveTable {
+
+	/**
+	 * The coordinate of the table.
+	 */
+	private final Coordinate coordinate;
+
+	/**
+	 * Values of the coordinate ({@code coordinate * movesCount + move}).
+	 */
+	private final CharBuffer table;
+
+	/**
+	 * Position of the move in the table for every {@link Move#ordinal()} (-1
+	 * if the move is not included in the table).
+	 */
+	private final int[] moveColumns;
+
+	/**
+	 * Number of moves included in the table.
+	 */
+	private final int movesCount;
+
+	/**
+	 * Creates the table from the buffer.
+	 *
+	 * @param coordinate
+	 *            the coordinate of the table
+	 * @param table
+	 *            values of the coordinate after moves
+	 * @param moves
+	 *            moves included in the table ({@link Move#ordinal()})
+	 */
+	MoveTable(Coordinate coordinate, CharBuffer table, int[] moves) {
+		this.coordinate = coordinate;
+		this.table = table;
+		this.movesCount = moves.length;
+		this.moveColumns = new int[Move.MOVES_COUNT];
+		for (int i = 0; i < Move.MOVES_COUNT; i++) {
+			moveColumns[i] = -1;
+		}
+		for (int i = 0; i < moves.length; i++) {
+			moveColumns[moves[i]] = i;
+		}
+	}
+
+	/**
+	 * Returns value of the coordinate after the move.
+	 *
+	 * @param value
+	 *            value of the coordinate before the move
+	 * @param move
+	 *            index of the move ({@link Move#ordinal()})
+	 * @return value of the coordinate after the move
+	 * @throws IllegalArgumentException
+	 *             if the move is not included in the table
+	 */
+	public int move(int value, int move) {
+		int column = moveColumns[move];
+		if (column < 0)
+			throw new IllegalArgumentException("Move " + move + " is not defined for " + coordinate);
+		return table.get(value * movesCount + column);
+	}
+
+	/**
+	 * Returns the coordinate of the table.
+	 *
+	 * @return the coordinate
+	 */
+	public Coordinate getCoordinate() {
+		return coordinate;
+	}
+}
@@ -0,0 +1,175 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+
+/**
+ * Move tables of all the {@link Coordinate} values. Tables are computed once
+ * and kept in the versioned binary file ({@link MoveTables#FILE_NAME}) which
+ * is memory-mapped by all the next processes (see {@link TableFile}).
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class MoveTables {
+
+	/**
+	 * Name of the table file.
+	 */
+	public static final String FILE_NAME = "move-tables.bin";
+
+	/**
+	 * Version of the tables. Has to be changed with every change of the
+	 * coordinates or the order of the moves.
+	 */
+	public static final int VERSION = 3;
+
+	/**
+	 * Moves of the &lt;U, D, R2, L2, F2, B2&gt; group (second phase of the
+	 * two-phase algorithm) in the order of {@link Move#ordinal()}.
+	 */
+	public static final int[] PHASE_TWO_MOVES = { 1, 4, 6, 7, 8, 9, 10, 11, 13, 16 };
+
+	/**
+	 * All the moves in the order of {@link Move#ordinal()}.
+	 */
+	public static final int[] ALL_MOVES = new int[Move.MOVES_COUNT];
+
+	static {
+		for (int i = 0; i < Move.MOVES_COUNT; i++) {
+			ALL_MOVES[i] = i;
+		}
+	}
+
+	/**
+	 * Tables loaded from the default directory.
+	 */
+	private static MoveTables instance;
+
+	/**
+	 * Tables of the coordinates (indexed by {@link Coordinate#ordinal()}).
+	 */
+	private final MoveTable[] tables = new MoveTable[Coordinate.values().length];
+
+	/**
+	 * Directory of the table file.
+	 */
+	private final Path directory;
+
+	/**
+	 * Loads (or builds and saves) the tables from the specific directory.
+	 *
+	 * @param directory
+	 *            directory of the table file
+	 */
+	public MoveTables(Path directory) {
+		this.directory = directory;
+		int length = 0;
+		for (Coordinate coordinate : Coordinate.values()) {
+			length += getLength(coordinate);
+		}
+
+		ByteBuffer buffer = TableFile.load(directory.resolve(FILE_NAME), VERSION, length,
+				new TableFile.TableBuilder() {
+					public void build(ByteBuffer table) {
+						for (Coordinate coordinate : Coordinate.values()) {
+							buildTable(coordinate, table);
+						}
+					}
+				});
+
+		int offset = 0;
+		for (Coordinate coordinate : Coordinate.values()) {
+			buffer.position(offset);
+			buffer.limit(offset + getLength(coordinate));
+			CharBuffer table = buffer.slice().asCharBuffer();
+			tables[coordinate.ordinal()] = new MoveTable(coordinate, table, getMoves(coordinate));
+			offset += getLength(coordinate);
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Returns tables from the default directory (see
+	 * {@link TableFile#getDefaultDirectory()}). Tables are loaded only once
+	 * per process.
+	 *
+	 * @return move tables
+	 */
+	public static synchronized MoveTables getInstance() {
+		if (instance == null)
+			instance = new MoveTables(TableFile.getDefaultDirectory());
+		return instance;
+	}
+
+	/**
+	 * Returns directory of the table file (the other tables used together
+	 * with the move tables are kept in the same directory).
+	 *
+	 * @return directory of the tables
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns move table of the coordinate.
+	 *
+	 * @param coordinate
+	 *            the coordinate
+	 * @return move table
+	 */
+	public MoveTable get(Coordinate coordinate) {
+		return tables[coordinate.ordinal()];
+	}
+
+	/**
+	 * Returns moves included in the table of the coordinate.
+	 *
+	 * @param coordinate
+	 *            the coordinate
+	 * @return moves ({@link Move#ordinal()})
+	 */
+	private static int[] getMoves(Coordinate coordinate) {
+		return coordinate.isPhaseTwo() ? PHASE_TWO_MOVES : ALL_MOVES;
+	}
+
+	/**
+	 * Returns length of the table of the coordinate in bytes.
+	 *
+	 * @param coordinate
+	 *            the coordinate
+	 * @return length of the table
+	 */
+	private static int getLength(Coordinate coordinate) {
+		return 2 * coordinate.getSize() * getMoves(coordinate).length;
+	}
+
+	/**
+	 * Computes the table of the coordinate by applying every move to the cube
+	 * with every value of the coordinate.
+	 *
+	 * @param coordinate
+	 *            the coordinate
+	 * @param table
+	 *            buffer for the table (filled from the current position)
+	 */
+	private static void buildTable(Coordinate coordinate, ByteBuffer table) {
+		int[] moves = getMoves(coordinate);
+		CubieCube cube = new CubieCube();
+		CubieCube moved = new CubieCube();
+
+		for (int value = 0; value < coordinate.getSize(); value++) {
+			coordinate.set(cube, value);
+			for (int move : moves) {
+				moved.copyFrom(cube);
+				moved.multiply(CubieCube.getMoveCube(move));
+				table.putChar((char) coordinate.get(moved));
+			}
+		}
+	}
+}
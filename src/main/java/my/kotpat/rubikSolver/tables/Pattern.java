@@ -0,0 +1,381 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.util.Arrays;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+
+/**
+ * Subset of the corners or the edges of the 3x3x3 cube which is tracked by
+ * the {@link PatternDatabase}. The state of the pattern is the position and
+ * the orientation of every tracked cubie (other cubies are ignored) and it is
+ * indexed by {@code positions * orientations + orientation}, where
+ * {@code positions} is the index of the positions of the tracked cubies (in
+ * the order of the cubies, {@code n! / (n - k)!} values) and
+ * {@code orientation} is the orientation of the cubies in base 3 (corners) or
+ * 2 (edges). If all the corners or all the edges are tracked, the orientation
+ * of the last cubie is skipped (it is given by the others).
+ * <p>
+ * Predefined patterns are used by {@link PatternDatabase#main(String[])}:
+ * all the corners (88179840 states) and two groups of six (42577920 states)
+ * and seven (510935040 states) edges.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public final class Pattern {
+
+	/**
+	 * All the corners.
+	 */
+	public static final Pattern CORNERS = new Pattern("corners", true, 0, 1, 2, 3, 4, 5, 6, 7);
+
+	/**
+	 * Edges UR, UF, UL, UB, DR and DF.
+	 */
+	public static final Pattern FIRST_SIX_EDGES = new Pattern("edges-6-first", false, 0, 1, 2, 3, 4, 5);
+
+	/**
+	 * Edges DL, DB, FR, FL, BL and BR.
+	 */
+	public static final Pattern LAST_SIX_EDGES = new Pattern("edges-6-last", false, 6, 7, 8, 9, 10, 11);
+
+	/**
+	 * Edges UR, UF, UL, UB, DR, DF and DL.
+	 */
+	public static final Pattern FIRST_SEVEN_EDGES = new Pattern("edges-7-first", false, 0, 1, 2, 3, 4, 5, 6);
+
+	/**
+	 * Edges DF, DL, DB, FR, FL, BL and BR.
+	 */
+	public static final Pattern LAST_SEVEN_EDGES = new Pattern("edges-7-last", false, 5, 6, 7, 8, 9, 10, 11);
+
+	/**
+	 * Name of the pattern (part of the file name).
+	 */
+	private final String name;
+
+	/**
+	 * True for the corners, false for the edges.
+	 */
+	private final boolean corners;
+
+	/**
+	 * Tracked cubies.
+	 */
+	private final int[] cubies;
+
+	/**
+	 * Number of positions of the cubies (8 or 12).
+	 */
+	private final int positions;
+
+	/**
+	 * Number of orientations of one cubie (3 or 2).
+	 */
+	private final int base;
+
+	/**
+	 * Number of cubies which orientation is a part of the index.
+	 */
+	private final int oriented;
+
+	/**
+	 * Number of orientations of the tracked cubies.
+	 */
+	private final int orientations;
+
+	/**
+	 * Number of states.
+	 */
+	private final int size;
+
+	/**
+	 * Position of the cubie after the move ({@code move * positions +
+	 * position}).
+	 */
+	private final byte[] movedPositions;
+
+	/**
+	 * Orientation added to the cubie by the move ({@code move * positions +
+	 * position}).
+	 */
+	private final byte[] movedOrientations;
+
+	/**
+	 * Creates pattern.
+	 *
+	 * @param name
+	 *            name of the pattern (part of the file name)
+	 * @param corners
+	 *            true for the corners, false for the edges
+	 * @param cubies
+	 *            tracked cubies (ordinals of {@link CubieCube.Corner} or
+	 *            {@link CubieCube.Edge})
+	 * @throws IllegalArgumentException
+	 *             if the cubies are repeated or there are no such cubies
+	 */
+	public Pattern(String name, boolean corners, int... cubies) {
+		this.name = name;
+		this.corners = corners;
+		this.cubies = cubies.clone();
+		this.positions = corners ? CubieCube.CORNERS : CubieCube.EDGES;
+		this.base = corners ? 3 : 2;
+
+		boolean[] used = new boolean[positions];
+		for (int cubie : cubies) {
+			if (cubie < 0 || cubie >= positions || used[cubie])
+				throw new IllegalArgumentException("Invalid cubies of the pattern: " + Arrays.toString(cubies));
+			used[cubie] = true;
+		}
+		if (cubies.length == 0)
+			throw new IllegalArgumentException("Pattern has no cubies");
+
+		this.oriented = cubies.length == positions ? cubies.length - 1 : cubies.length;
+		int states = 1;
+		for (int i = 0; i < cubies.length; i++) {
+			states *= positions - i;
+		}
+		int orientations = 1;
+		for (int i = 0; i < oriented; i++) {
+			orientations *= base;
+		}
+		this.orientations = orientations;
+		this.size = states * orientations;
+
+		movedPositions = new byte[Move.MOVES_COUNT * positions];
+		movedOrientations = new byte[Move.MOVES_COUNT * positions];
+		for (int move = 0; move < Move.MOVES_COUNT; move++) {
+			CubieCube moveCube = CubieCube.getMoveCube(move);
+			for (int position = 0; position < positions; position++) {
+				// The cubie from the position "from" is placed at the position
+				int from = corners ? moveCube.getCornerPermutation(position) : moveCube.getEdgePermutation(position);
+				int twist = corners ? moveCube.getCornerOrientation(position) : moveCube.getEdgeOrientation(position);
+				movedPositions[move * positions + from] = (byte) position;
+				movedOrientations[move * positions + from] = (byte) twist;
+			}
+		}
+	}
+
+	/**
+	 * Returns name of the pattern.
+	 *
+	 * @return name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns true if the corners are tracked.
+	 *
+	 * @return true for the corners, false for the edges
+	 */
+	public boolean isCorners() {
+		return corners;
+	}
+
+	/**
+	 * Returns tracked cubies.
+	 *
+	 * @return ordinals of the cubies
+	 */
+	public int[] getCubies() {
+		return cubies.clone();
+	}
+
+	/**
+	 * Returns number of the states of the pattern.
+	 *
+	 * @return number of states
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns index of the state of the pattern.
+	 *
+	 * @param cube
+	 *            cubie cube
+	 * @return index from 0 to {@link Pattern#getSize()} - 1
+	 */
+	public int getIndex(CubieCube cube) {
+		int[] cubiePositions = new int[cubies.length];
+		int[] cubieOrientations = new int[cubies.length];
+		for (int position = 0; position < positions; position++) {
+			int cubie = corners ? cube.getCornerPermutation(position) : cube.getEdgePermutation(position);
+			for (int i = 0; i < cubies.length; i++) {
+				if (cubies[i] == cubie) {
+					cubiePositions[i] = position;
+					cubieOrientations[i] = corners ? cube.getCornerOrientation(position)
+							: cube.getEdgeOrientation(position);
+				}
+			}
+		}
+		return getIndex(cubiePositions, cubieOrientations);
+	}
+
+	/**
+	 * Sets the tracked cubies of the cube to the specific state. Other
+	 * positions are filled by the other cubies (in the order of the
+	 * positions, not oriented).
+	 *
+	 * @param cube
+	 *            cubie cube to change
+	 * @param index
+	 *            index of the state
+	 */
+	public void setState(CubieCube cube, int index) {
+		int[] cubiePositions = new int[cubies.length];
+		int[] cubieOrientations = new int[cubies.length];
+		decode(index, cubiePositions, cubieOrientations);
+
+		boolean[] tracked = new boolean[positions];
+		boolean[] occupied = new boolean[positions];
+		for (int i = 0; i < cubies.length; i++) {
+			tracked[cubies[i]] = true;
+			occupied[cubiePositions[i]] = true;
+			setCubie(cube, cubiePositions[i], cubies[i], cubieOrientations[i]);
+		}
+		int position = 0;
+		for (int cubie = 0; cubie < positions; cubie++) {
+			if (tracked[cubie])
+				continue;
+			while (occupied[position]) {
+				position++;
+			}
+			setCubie(cube, position++, cubie, 0);
+		}
+	}
+
+	/**
+	 * Places the corner or the edge at the specific position.
+	 *
+	 * @param cube
+	 *            cubie cube to change
+	 * @param position
+	 *            position of the cubie
+	 * @param cubie
+	 *            the cubie
+	 * @param orientation
+	 *            orientation of the cubie
+	 */
+	private void setCubie(CubieCube cube, int position, int cubie, int orientation) {
+		if (corners)
+			cube.setCorner(position, cubie, orientation);
+		else
+			cube.setEdge(position, cubie, orientation);
+	}
+
+	/**
+	 * Reads positions and orientations of the tracked cubies from the index.
+	 *
+	 * @param index
+	 *            index of the state
+	 * @param cubiePositions
+	 *            positions of the cubies (filled by the method)
+	 * @param cubieOrientations
+	 *            orientations of the cubies (filled by the method)
+	 */
+	public void decode(int index, int[] cubiePositions, int[] cubieOrientations) {
+		int orientation = index % orientations;
+		int rank = index / orientations;
+
+		int sum = 0;
+		for (int i = oriented - 1; i >= 0; i--) {
+			cubieOrientations[i] = orientation % base;
+			sum += cubieOrientations[i];
+			orientation /= base;
+		}
+		if (oriented < cubies.length)
+			cubieOrientations[oriented] = (base - sum % base) % base;
+
+		// Digits of the rank (from the last cubie)
+		for (int i = cubies.length - 1; i >= 0; i--) {
+			cubiePositions[i] = rank % (positions - i);
+			rank /= positions - i;
+		}
+		// Digit is the number of the free position
+		int used = 0;
+		for (int i = 0; i < cubies.length; i++) {
+			int free = cubiePositions[i];
+			int position = 0;
+			while (true) {
+				if ((used & (1 << position)) == 0) {
+					if (free == 0)
+						break;
+					free--;
+				}
+				position++;
+			}
+			cubiePositions[i] = position;
+			used |= 1 << position;
+		}
+	}
+
+	/**
+	 * Returns index of the positions and orientations of the tracked cubies.
+	 *
+	 * @param cubiePositions
+	 *            positions of the cubies
+	 * @param cubieOrientations
+	 *            orientations of the cubies
+	 * @return index of the state
+	 */
+	int getIndex(int[] cubiePositions, int[] cubieOrientations) {
+		int rank = 0;
+		int used = 0;
+		for (int i = 0; i < cubies.length; i++) {
+			int position = cubiePositions[i];
+			int smaller = Integer.bitCount(used & ((1 << position) - 1));
+			rank = rank * (positions - i) + position - smaller;
+			used |= 1 << position;
+		}
+		int orientation = 0;
+		for (int i = 0; i < oriented; i++) {
+			orientation = orientation * base + cubieOrientations[i];
+		}
+		return rank * orientations + orientation;
+	}
+
+	/**
+	 * Returns index of the state after the move.
+	 *
+	 * @param cubiePositions
+	 *            positions of the cubies (not changed)
+	 * @param cubieOrientations
+	 *            orientations of the cubies (not changed)
+	 * @param move
+	 *            ordinal of the move
+	 * @param movedPositions
+	 *            positions after the move (filled by the method)
+	 * @param movedOrientations
+	 *            orientations after the move (filled by the method)
+	 * @return index of the state after the move
+	 */
+	public int move(int[] cubiePositions, int[] cubieOrientations, int move, int[] movedPositions,
+			int[] movedOrientations) {
+		int offset = move * positions;
+		for (int i = 0; i < cubies.length; i++) {
+			int position = cubiePositions[i];
+			movedPositions[i] = this.movedPositions[offset + position];
+			movedOrientations[i] = (cubieOrientations[i] + this.movedOrientations[offset + position]) % base;
+		}
+		return getIndex(movedPositions, movedOrientations);
+	}
+
+	/**
+	 * Returns number of the tracked cubies.
+	 *
+	 * @return number of cubies
+	 */
+	public int getCubiesCount() {
+		return cubies.length;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,335 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+
+/**
+ * Pattern database: the table of the exact distances (in the face turns) of
+ * every state of the {@link Pattern} to its solved state. The distance of the
+ * pattern is never greater than the distance of the whole cube, so it could
+ * be used as an admissible heuristic of the search.
+ * <p>
+ * Distances are kept in 4 bits per state (the corner database takes about 44
+ * MB). The databases are too big to be built by the service, so they are
+ * built once by {@link PatternDatabase#main(String[])} (or
+ * {@link PatternDatabase#build(Pattern, Path)}) and the service only
+ * memory-maps the files by {@link PatternDatabase#open(Pattern, Path)}. The
+ * pages of the mapped files are shared by all the processes on the host.
+ * The databases of {@link Pattern#CORNERS} and both groups of seven edges are
+ * the heuristic of {@link my.kotpat.rubikSolver.services.IDAStarCubeSolver}
+ * (the patterns are moved together with the cube by
+ * {@link Pattern#move(int[], int[], int, int[], int[])}).
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class PatternDatabase {
+
+	/**
+	 * Version of the database files. Has to be changed with every change of
+	 * the indexing.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Value of the entry which has not been visited yet.
+	 */
+	private static final int EMPTY = 0xF;
+
+	/**
+	 * Number of entries processed by one task of the parallel search
+	 * (multiple of 2, so every byte is written by one thread).
+	 */
+	private static final int CHUNK = 1 << 14;
+
+	/**
+	 * The pattern.
+	 */
+	private final Pattern pattern;
+
+	/**
+	 * Distances (2 entries in every byte, the first one in the lower bits).
+	 */
+	private final ByteBuffer distances;
+
+	/**
+	 * Creates database.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @param distances
+	 *            packed distances
+	 */
+	private PatternDatabase(Pattern pattern, ByteBuffer distances) {
+		this.pattern = pattern;
+		this.distances = distances;
+	}
+
+	/**
+	 * Memory-maps the database which has been already built. The database is
+	 * never built by this method.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @param directory
+	 *            directory of the database file
+	 * @return pattern database
+	 * @throws IOException
+	 *             if the file does not exist or it is not valid
+	 */
+	public static PatternDatabase open(Pattern pattern, Path directory) throws IOException {
+		ByteBuffer distances = TableFile.open(directory.resolve(getFileName(pattern)), VERSION,
+				getLength(pattern));
+		return new PatternDatabase(pattern, distances);
+	}
+
+	/**
+	 * Builds the database file (if the valid file does not exist yet) and
+	 * memory-maps it.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @param directory
+	 *            directory of the database file
+	 * @return pattern database
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	public static PatternDatabase build(Pattern pattern, Path directory) throws IOException {
+		try {
+			return open(pattern, directory);
+		} catch (IOException e) {
+			// The database has to be built
+		}
+
+		byte[] distances = computeDistances(pattern);
+		TableFile.save(directory.resolve(getFileName(pattern)), VERSION, ByteBuffer.wrap(distances));
+		return open(pattern, directory);
+	}
+
+	/**
+	 * Builds the predefined databases ({@link Pattern#CORNERS} and the groups
+	 * of six and seven edges) in the directory given as the argument (or the
+	 * default directory, see {@link TableFile#getDefaultDirectory()}). Files
+	 * which already exist are not built again.
+	 *
+	 * @param args
+	 *            optional directory of the database files
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path directory = args.length > 0 ? Paths.get(args[0]) : TableFile.getDefaultDirectory();
+		Pattern[] patterns = { Pattern.CORNERS, Pattern.FIRST_SIX_EDGES, Pattern.LAST_SIX_EDGES,
+				Pattern.FIRST_SEVEN_EDGES, Pattern.LAST_SEVEN_EDGES };
+		for (Pattern pattern : patterns) {
+			long startingTime = System.nanoTime();
+			build(pattern, directory);
+			long timeS = (System.nanoTime() - startingTime) / 1000000000;
+			System.out.println(directory.resolve(getFileName(pattern)) + " (" + timeS + " s)");
+		}
+	}
+
+	/**
+	 * Returns name of the database file.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return name of the file
+	 */
+	public static String getFileName(Pattern pattern) {
+		return "pattern-" + pattern.getName() + ".bin";
+	}
+
+	/**
+	 * Returns the pattern.
+	 *
+	 * @return the pattern
+	 */
+	public Pattern getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * Returns distance of the state to the solved state.
+	 *
+	 * @param index
+	 *            index of the state (see {@link Pattern#getIndex(CubieCube)})
+	 * @return distance
+	 */
+	public int getDistance(int index) {
+		return (distances.get(index >> 1) >> ((index & 1) << 2)) & 0xF;
+	}
+
+	/**
+	 * Returns distance of the pattern of the cube to the solved state.
+	 *
+	 * @param cube
+	 *            cubie cube
+	 * @return distance
+	 */
+	public int getDistance(CubieCube cube) {
+		return getDistance(pattern.getIndex(cube));
+	}
+
+	/**
+	 * Returns length of the packed table.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return length in bytes
+	 */
+	private static int getLength(Pattern pattern) {
+		return (pattern.getSize() + 1) / 2;
+	}
+
+	/**
+	 * Computes the table by the breadth-first search. While the last depth has
+	 * a few states, its states are expanded (every neighbor which has not been
+	 * visited gets the next distance). When it is bigger, all the not visited
+	 * states are checked in parallel: the state has the next distance if any
+	 * of its neighbors has the last distance (moves are closed under
+	 * inversion) and every task writes only its own bytes.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return packed table
+	 */
+	static byte[] computeDistances(Pattern pattern) {
+		final int size = pattern.getSize();
+		final byte[] table = new byte[getLength(pattern)];
+		Arrays.fill(table, (byte) 0xFF);
+		set(table, pattern.getIndex(new CubieCube()), 0);
+
+		long visited = 1;
+		long frontier = 1;
+		int chunks = (size + CHUNK - 1) / CHUNK;
+		for (int depth = 0; depth < EMPTY - 1; depth++) {
+			final int previous = depth;
+			long found;
+			if (frontier * 4 < size - visited) {
+				found = expand(pattern, table, previous);
+			} else {
+				found = IntStream.range(0, chunks).parallel()
+						.map(chunk -> check(pattern, table, previous, chunk * CHUNK, Math.min(size, (chunk + 1) * CHUNK)))
+						.asLongStream().sum();
+			}
+			if (found == 0)
+				break;
+			visited += found;
+			frontier = found;
+		}
+		return table;
+	}
+
+	/**
+	 * Sets the next distance to all the not visited neighbors of the states
+	 * with the specific distance.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @param table
+	 *            packed table
+	 * @param depth
+	 *            the last distance
+	 * @return number of states with the next distance
+	 */
+	private static long expand(Pattern pattern, byte[] table, int depth) {
+		int cubies = pattern.getCubiesCount();
+		int[] positions = new int[cubies];
+		int[] orientations = new int[cubies];
+		int[] movedPositions = new int[cubies];
+		int[] movedOrientations = new int[cubies];
+
+		long found = 0;
+		int size = pattern.getSize();
+		for (int index = 0; index < size; index++) {
+			if (get(table, index) != depth)
+				continue;
+			pattern.decode(index, positions, orientations);
+			for (int move = 0; move < Move.MOVES_COUNT; move++) {
+				int next = pattern.move(positions, orientations, move, movedPositions, movedOrientations);
+				if (get(table, next) == EMPTY) {
+					set(table, next, depth + 1);
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Sets the next distance to all the not visited states (from the range)
+	 * which have a neighbor with the specific distance.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @param table
+	 *            packed table
+	 * @param depth
+	 *            the last distance
+	 * @param from
+	 *            first index of the range (even)
+	 * @param to
+	 *            end of the range (exclusive)
+	 * @return number of states with the next distance
+	 */
+	private static int check(Pattern pattern, byte[] table, int depth, int from, int to) {
+		int cubies = pattern.getCubiesCount();
+		int[] positions = new int[cubies];
+		int[] orientations = new int[cubies];
+		int[] movedPositions = new int[cubies];
+		int[] movedOrientations = new int[cubies];
+
+		int found = 0;
+		for (int index = from; index < to; index++) {
+			if (get(table, index) != EMPTY)
+				continue;
+			pattern.decode(index, positions, orientations);
+			for (int move = 0; move < Move.MOVES_COUNT; move++) {
+				int next = pattern.move(positions, orientations, move, movedPositions, movedOrientations);
+				if (get(table, next) == depth) {
+					set(table, index, depth + 1);
+					found++;
+					break;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns entry of the packed table.
+	 *
+	 * @param table
+	 *            packed table
+	 * @param index
+	 *            index of the state
+	 * @return value of the entry
+	 */
+	private static int get(byte[] table, int index) {
+		return (table[index >> 1] >> ((index & 1) << 2)) & 0xF;
+	}
+
+	/**
+	 * Sets entry of the packed table.
+	 *
+	 * @param table
+	 *            packed table
+	 * @param index
+	 *            index of the state
+	 * @param value
+	 *            value of the entry
+	 */
+	private static void set(byte[] table, int index, int value) {
+		int shift = (index & 1) << 2;
+		table[index >> 1] = (byte) ((table[index >> 1] & ~(0xF << shift)) | (value << shift));
+	}
+}
@@ -0,0 +1,476 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+
+/**
+ * Pruning table of the second phase of the two-phase algorithm: exact number
+ * of the &lt;U, D, R2, L2, F2, B2&gt; moves needed to solve the permutation
+ * of the corners together with the permutation of the U and D edges (8! * 8!
+ * states). It is much stronger than the tables of
+ * {@link Coordinate#CORNER_PERMUTATION} and
+ * {@link Coordinate#UD_EDGE_PERMUTATION} with the UD-slice permutation.
+ * <p>
+ * The table is reduced by the 16 symmetries of the cube which keep the UD
+ * axis (rotations about the axis, half turns about the perpendicular axes
+ * and the mirror images). Conjugation by such symmetry maps the moves of the
+ * group to the moves of the group, so the symmetric states have the same
+ * distance. Corner permutations are divided into 2768 classes and the state
+ * is indexed by the class and the edge permutation transformed by the
+ * symmetry which moves the corner permutation to the representative of its
+ * class ({@code class * 40320 + edges}).
+ * <p>
+ * Distances are kept in 4 bits per state (about 56 MB). States which are
+ * more than 14 moves away from the solved state have the value 15, which is
+ * still their lower bound. The table is built by the breadth-first search
+ * and kept in the versioned file ({@link PermutationPruningTable#FILE_NAME})
+ * which is memory-mapped by all the next processes (see {@link TableFile}).
+ * Symmetry tables are computed in memory when the table is loaded.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class PermutationPruningTable {
+
+	/**
+	 * Name of the table file.
+	 */
+	public static final String FILE_NAME = "permutation-pruning.bin";
+
+	/**
+	 * Version of the table. Has to be changed with every change of the
+	 * indexing or the symmetries.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Number of permutations of the corners (and of the U and D edges).
+	 */
+	private static final int PERMUTATIONS = 40320;
+
+	/**
+	 * Number of the symmetries which keep the UD axis.
+	 */
+	private static final int SYMMETRIES = 16;
+
+	/**
+	 * Number of classes of the corner permutations.
+	 */
+	public static final int CLASSES = 2768;
+
+	/**
+	 * Number of states.
+	 */
+	public static final int SIZE = CLASSES * PERMUTATIONS;
+
+	/**
+	 * Number of the U and D edges.
+	 */
+	private static final int UD_EDGES = 8;
+
+	/**
+	 * Value of the entry which has not been visited yet.
+	 */
+	private static final int EMPTY = 0xF;
+
+	/**
+	 * Tables loaded by {@link PermutationPruningTable#get(Path)} (indexed by
+	 * the directory).
+	 */
+	private static final Map<Path, PermutationPruningTable> INSTANCES = new HashMap<Path, PermutationPruningTable>();
+
+	/**
+	 * Class of every corner permutation.
+	 */
+	private final char[] cornerClasses = new char[PERMUTATIONS];
+
+	/**
+	 * Symmetry which moves every corner permutation to the representative of
+	 * its class.
+	 */
+	private final byte[] cornerSymmetries = new byte[PERMUTATIONS];
+
+	/**
+	 * Corner permutation which represents every class (the least one).
+	 */
+	private final char[] representatives = new char[CLASSES];
+
+	/**
+	 * Symmetries (other than the identity) which do not change the
+	 * representative of every class.
+	 */
+	private final byte[][] stabilizers = new byte[CLASSES][];
+
+	/**
+	 * Edge permutation transformed by every symmetry ({@code symmetry *
+	 * 40320 + edges}).
+	 */
+	private final char[] edgeSymmetries = new char[SYMMETRIES * PERMUTATIONS];
+
+	/**
+	 * Distances (2 entries in every byte, the first one in the lower bits).
+	 */
+	private final ByteBuffer distances;
+
+	/**
+	 * Loads (or builds and saves) the table from the specific directory.
+	 *
+	 * @param directory
+	 *            directory of the table file
+	 */
+	public PermutationPruningTable(Path directory) {
+		buildSymmetryTables();
+		distances = TableFile.load(directory.resolve(FILE_NAME), VERSION, SIZE / 2, new TableFile.TableBuilder() {
+			public void build(ByteBuffer table) {
+				table.put(buildDistances());
+			}
+		});
+	}
+
+	/**
+	 * Returns table from the default directory (see
+	 * {@link TableFile#getDefaultDirectory()}). Table is loaded only once per
+	 * process.
+	 *
+	 * @return pruning table
+	 */
+	public static PermutationPruningTable getInstance() {
+		return get(TableFile.getDefaultDirectory());
+	}
+
+	/**
+	 * Returns table from the specific directory (e.g.
+	 * {@link MoveTables#getDirectory()}). Table is loaded only once per
+	 * process for every directory.
+	 *
+	 * @param directory
+	 *            directory of the table file
+	 * @return pruning table
+	 */
+	public static synchronized PermutationPruningTable get(Path directory) {
+		Path key = directory.toAbsolutePath().normalize();
+		PermutationPruningTable table = INSTANCES.get(key);
+		if (table == null) {
+			table = new PermutationPruningTable(key);
+			INSTANCES.put(key, table);
+		}
+		return table;
+	}
+
+	/**
+	 * Returns minimum number of the &lt;U, D, R2, L2, F2, B2&gt; moves which
+	 * solves the corners and the U and D edges.
+	 *
+	 * @param corners
+	 *            value of {@link Coordinate#CORNER_PERMUTATION}
+	 * @param edges
+	 *            value of {@link Coordinate#UD_EDGE_PERMUTATION}
+	 * @return minimum number of moves (15 if it is more than 14)
+	 */
+	public int getDistance(int corners, int edges) {
+		int index = cornerClasses[corners] * PERMUTATIONS
+				+ edgeSymmetries[cornerSymmetries[corners] * PERMUTATIONS + edges];
+		return (distances.get(index >> 1) >> ((index & 1) << 2)) & 0xF;
+	}
+
+	/**
+	 * Computes the positions of the corners and the edges after every
+	 * symmetry, the classes of the corner permutations and the transformed
+	 * edge permutations. The symmetry {@code 8 * m + 4 * f + r} is {@code r}
+	 * quarter turns of the cube about the UD axis, {@code f} half turns about
+	 * the FB axis and {@code m} reflections in the RL plane.
+	 */
+	private void buildSymmetryTables() {
+		int[][] cornerPositions = new int[SYMMETRIES][];
+		int[][] edgePositions = new int[SYMMETRIES][];
+		for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+			cornerPositions[symmetry] = new int[CubieCube.CORNERS];
+			for (int position = 0; position < CubieCube.CORNERS; position++) {
+				int[] point = transform(CubieCube.getCornerCoordinates(position), symmetry);
+				for (int other = 0; other < CubieCube.CORNERS; other++) {
+					if (Arrays.equals(point, CubieCube.getCornerCoordinates(other)))
+						cornerPositions[symmetry][position] = other;
+				}
+			}
+			edgePositions[symmetry] = new int[UD_EDGES];
+			for (int position = 0; position < UD_EDGES; position++) {
+				int[] point = transform(CubieCube.getEdgeCoordinates(position), symmetry);
+				for (int other = 0; other < UD_EDGES; other++) {
+					if (Arrays.equals(point, CubieCube.getEdgeCoordinates(other)))
+						edgePositions[symmetry][position] = other;
+				}
+			}
+		}
+
+		int[] inverse = new int[SYMMETRIES];
+		for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+			for (int other = 0; other < SYMMETRIES; other++) {
+				int[] positions = new int[CubieCube.CORNERS];
+				for (int position = 0; position < CubieCube.CORNERS; position++) {
+					positions[position] = cornerPositions[other][cornerPositions[symmetry][position]];
+				}
+				if (Coordinate.getPermutationIndex(positions) == 0)
+					inverse[symmetry] = other;
+			}
+		}
+
+		Arrays.fill(cornerClasses, (char) CLASSES);
+		int classes = 0;
+		for (int corners = 0; corners < PERMUTATIONS; corners++) {
+			if (cornerClasses[corners] != CLASSES)
+				continue;
+			byte[] stabilizer = new byte[SYMMETRIES];
+			int count = 0;
+			for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+				int conjugate = conjugate(corners, CubieCube.CORNERS, cornerPositions[symmetry]);
+				if (cornerClasses[conjugate] == CLASSES) {
+					cornerClasses[conjugate] = (char) classes;
+					cornerSymmetries[conjugate] = (byte) inverse[symmetry];
+				} else if (conjugate == corners && symmetry != 0) {
+					stabilizer[count++] = (byte) symmetry;
+				}
+			}
+			representatives[classes] = (char) corners;
+			stabilizers[classes++] = Arrays.copyOf(stabilizer, count);
+		}
+		if (classes != CLASSES)
+			throw new IllegalStateException("Incorrect number of the corner classes: " + classes);
+
+		for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+			for (int edges = 0; edges < PERMUTATIONS; edges++) {
+				edgeSymmetries[symmetry * PERMUTATIONS + edges] = (char) conjugate(edges, UD_EDGES,
+						edgePositions[symmetry]);
+			}
+		}
+	}
+
+	/**
+	 * Returns coordinates of the point after the symmetry.
+	 *
+	 * @param point
+	 *            coordinates of the point (x, y, z)
+	 * @param symmetry
+	 *            number of the symmetry
+	 * @return coordinates after the symmetry
+	 */
+	private static int[] transform(int[] point, int symmetry) {
+		int x = point[0], y = point[1], z = point[2];
+		for (int i = 0; i < (symmetry & 3); i++) {
+			int temp = x;
+			x = -z;
+			z = temp;
+		}
+		if ((symmetry & 4) != 0) {
+			x = -x;
+			y = -y;
+		}
+		if ((symmetry & 8) != 0)
+			x = -x;
+		return new int[] { x, y, z };
+	}
+
+	/**
+	 * Returns the permutation conjugated by the symmetry: the cubie from the
+	 * position {@code p} is moved to the position {@code positions[p]} and it
+	 * is replaced by the cubie {@code positions[cubie]}.
+	 *
+	 * @param index
+	 *            index of the permutation
+	 * @param length
+	 *            length of the permutation
+	 * @param positions
+	 *            positions after the symmetry
+	 * @return index of the conjugated permutation
+	 */
+	private static int conjugate(int index, int length, int[] positions) {
+		int[] permutation = Coordinate.getPermutation(index, length);
+		int[] conjugate = new int[length];
+		for (int position = 0; position < length; position++) {
+			conjugate[positions[position]] = positions[permutation[position]];
+		}
+		return Coordinate.getPermutationIndex(conjugate);
+	}
+
+	/**
+	 * Returns the permutation after every move of the &lt;U, D, R2, L2, F2,
+	 * B2&gt; group ({@code permutation * moves + move}).
+	 *
+	 * @param coordinate
+	 *            {@link Coordinate#CORNER_PERMUTATION} or
+	 *            {@link Coordinate#UD_EDGE_PERMUTATION}
+	 * @return move table
+	 */
+	private static char[] buildMoveTable(Coordinate coordinate) {
+		int moves = MoveTables.PHASE_TWO_MOVES.length;
+		char[] table = new char[PERMUTATIONS * moves];
+		CubieCube cube = new CubieCube();
+		for (int permutation = 0; permutation < PERMUTATIONS; permutation++) {
+			coordinate.set(cube, permutation);
+			for (int i = 0; i < moves; i++) {
+				CubieCube moved = new CubieCube(cube);
+				moved.multiply(CubieCube.getMoveCube(MoveTables.PHASE_TWO_MOVES[i]));
+				table[permutation * moves + i] = (char) coordinate.get(moved);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Computes the table by the breadth-first search. While the last layer is
+	 * small, its neighbors are set (with all their symmetric entries).
+	 * Otherwise all the not visited states are checked in parallel (moves are
+	 * closed under inversion) and every task writes only the entries of its
+	 * own class.
+	 *
+	 * @return packed table
+	 */
+	private byte[] buildDistances() {
+		char[] cornerMoves = buildMoveTable(Coordinate.CORNER_PERMUTATION);
+		char[] edgeMoves = buildMoveTable(Coordinate.UD_EDGE_PERMUTATION);
+		byte[] table = new byte[SIZE / 2];
+		Arrays.fill(table, (byte) 0xFF);
+		set(table, 0, 0);
+
+		long visited = 1;
+		long frontier = 1;
+		for (int depth = 0; depth < EMPTY - 1; depth++) {
+			final int previous = depth;
+			long found;
+			if (frontier * 4 < SIZE - visited) {
+				found = expand(table, cornerMoves, edgeMoves, previous);
+			} else {
+				found = IntStream.range(0, CLASSES).parallel()
+						.map(cornerClass -> check(table, cornerMoves, edgeMoves, previous, cornerClass))
+						.asLongStream().sum();
+			}
+			if (found == 0)
+				break;
+			visited += found;
+			frontier = found;
+		}
+		return table;
+	}
+
+	/**
+	 * Sets the next distance to all the not visited neighbors of the states
+	 * with the specific distance (and to the entries of the same states
+	 * transformed by the stabilizer of the class).
+	 *
+	 * @param table
+	 *            packed table
+	 * @param cornerMoves
+	 *            move table of the corner permutation
+	 * @param edgeMoves
+	 *            move table of the edge permutation
+	 * @param depth
+	 *            the last distance
+	 * @return number of entries with the next distance
+	 */
+	private long expand(byte[] table, char[] cornerMoves, char[] edgeMoves, int depth) {
+		int moves = MoveTables.PHASE_TWO_MOVES.length;
+		long found = 0;
+		for (int cornerClass = 0; cornerClass < CLASSES; cornerClass++) {
+			int row = cornerClass * PERMUTATIONS;
+			for (int edges = 0; edges < PERMUTATIONS; edges++) {
+				if (get(table, row + edges) != depth)
+					continue;
+				for (int move = 0; move < moves; move++) {
+					int corners = cornerMoves[representatives[cornerClass] * moves + move];
+					int movedClass = cornerClasses[corners];
+					int movedEdges = edgeSymmetries[cornerSymmetries[corners] * PERMUTATIONS
+							+ edgeMoves[edges * moves + move]];
+					int next = movedClass * PERMUTATIONS + movedEdges;
+					if (get(table, next) != EMPTY)
+						continue;
+					set(table, next, depth + 1);
+					found++;
+					for (byte symmetry : stabilizers[movedClass]) {
+						next = movedClass * PERMUTATIONS + edgeSymmetries[symmetry * PERMUTATIONS + movedEdges];
+						if (get(table, next) == EMPTY) {
+							set(table, next, depth + 1);
+							found++;
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Sets the next distance to the not visited states of the class which
+	 * have a neighbor with the specific distance.
+	 *
+	 * @param table
+	 *            packed table
+	 * @param cornerMoves
+	 *            move table of the corner permutation
+	 * @param edgeMoves
+	 *            move table of the edge permutation
+	 * @param depth
+	 *            the last distance
+	 * @param cornerClass
+	 *            class of the corner permutation
+	 * @return number of entries with the next distance
+	 */
+	private int check(byte[] table, char[] cornerMoves, char[] edgeMoves, int depth, int cornerClass) {
+		int moves = MoveTables.PHASE_TWO_MOVES.length;
+		int[] rows = new int[moves];
+		int[] symmetries = new int[moves];
+		for (int move = 0; move < moves; move++) {
+			int corners = cornerMoves[representatives[cornerClass] * moves + move];
+			rows[move] = cornerClasses[corners] * PERMUTATIONS;
+			symmetries[move] = cornerSymmetries[corners] * PERMUTATIONS;
+		}
+
+		int found = 0;
+		int row = cornerClass * PERMUTATIONS;
+		for (int edges = 0; edges < PERMUTATIONS; edges++) {
+			if (get(table, row + edges) != EMPTY)
+				continue;
+			for (int move = 0; move < moves; move++) {
+				int next = rows[move] + edgeSymmetries[symmetries[move] + edgeMoves[edges * moves + move]];
+				if (get(table, next) == depth) {
+					set(table, row + edges, depth + 1);
+					found++;
+					break;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns entry of the packed table.
+	 *
+	 * @param table
+	 *            packed table
+	 * @param index
+	 *            index of the state
+	 * @return value of the entry
+	 */
+	private static int get(byte[] table, int index) {
+		return (table[index >> 1] >> ((index & 1) << 2)) & 0xF;
+	}
+
+	/**
+	 * Sets entry of the packed table.
+	 *
+	 * @param table
+	 *            packed table
+	 * @param index
+	 *            index of the state
+	 * @param value
+	 *            value of the entry
+	 */
+	private static void set(byte[] table, int index, int value) {
+		int shift = (index & 1) << 2;
+		table[index >> 1] = (byte) ((table[index >> 1] & ~(0xF << shift)) | (value << shift));
+	}
+}
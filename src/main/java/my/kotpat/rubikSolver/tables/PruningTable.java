@@ -0,0 +1,219 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import my.kotpat.rubikSolver.domain.Move;
+
+/**
+ * Pattern database: exact number of moves needed to solve the part of the
+ * cube described by one or two {@link Coordinate} values (e.g. orientation of
+ * the corners and positions of the UD-slice edges). The distance of the part
+ * is never greater than the distance of the whole cube, so the table is an
+ * admissible heuristic of the search.
+ * <p>
+ * The table is computed by the breadth-first search from the goal states
+ * using {@link MoveTable} objects of the coordinates. Every distance is kept
+ * in one byte. Tables with the solved state as the only goal should be taken
+ * from {@link PruningTable#get(MoveTables, Coordinate, Coordinate)}, so they
+ * are computed once per process and shared by all the solvers.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public class PruningTable {
+
+	/**
+	 * Distance of the states which could not be reached from the goal states.
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/**
+	 * Value of the table entry which has not been visited yet.
+	 */
+	private static final byte EMPTY = -1;
+
+	/**
+	 * Tables returned by {@link PruningTable#get(MoveTables, Coordinate, Coordinate)}
+	 * for every {@link MoveTables} object.
+	 */
+	private static final Map<MoveTables, Map<Integer, PruningTable>> CACHE = new WeakHashMap<MoveTables, Map<Integer, PruningTable>>();
+
+	/**
+	 * Distances indexed by {@code firstValue * secondSize + secondValue}.
+	 */
+	private final byte[] distances;
+
+	/**
+	 * Number of values of the second coordinate (1 if there is no second
+	 * coordinate).
+	 */
+	private final int secondSize;
+
+	/**
+	 * Maximum distance in the table.
+	 */
+	private int depth;
+
+	/**
+	 * Creates table of the single coordinate with one goal state (value 0).
+	 *
+	 * @param table
+	 *            move table of the coordinate
+	 * @param moves
+	 *            allowed moves ({@link Move#ordinal()})
+	 */
+	public PruningTable(MoveTable table, int[] moves) {
+		this(table, null, moves, new int[] { 0 });
+	}
+
+	/**
+	 * Creates table of the pair of coordinates with one goal state (both
+	 * values equal 0).
+	 *
+	 * @param first
+	 *            move table of the first coordinate
+	 * @param second
+	 *            move table of the second coordinate
+	 * @param moves
+	 *            allowed moves ({@link Move#ordinal()})
+	 */
+	public PruningTable(MoveTable first, MoveTable second, int[] moves) {
+		this(first, second, moves, new int[] { 0 });
+	}
+
+	/**
+	 * Creates table of one or two coordinates with the specific goal states.
+	 *
+	 * @param first
+	 *            move table of the first coordinate
+	 * @param second
+	 *            move table of the second coordinate ({@code null} for the
+	 *            table of one coordinate)
+	 * @param moves
+	 *            allowed moves ({@link Move#ordinal()})
+	 * @param goals
+	 *            indices of the goal states (see
+	 *            {@link PruningTable#getIndex(int, int)})
+	 */
+	public PruningTable(MoveTable first, MoveTable second, int[] moves, int[] goals) {
+		this.secondSize = second == null ? 1 : second.getCoordinate().getSize();
+		this.distances = new byte[first.getCoordinate().getSize() * secondSize];
+		build(first, second, moves, goals);
+	}
+
+	/**
+	 * Returns table of one or two coordinates with one goal state (all the
+	 * values equal 0). The table is computed only once for the move tables.
+	 * If any of the coordinates is defined only in the &lt;U, D, R2, L2, F2,
+	 * B2&gt; group, only moves of this group are used.
+	 *
+	 * @param tables
+	 *            move tables
+	 * @param first
+	 *            the first coordinate
+	 * @param second
+	 *            the second coordinate ({@code null} for the table of one
+	 *            coordinate)
+	 * @return pruning table
+	 */
+	public static synchronized PruningTable get(MoveTables tables, Coordinate first, Coordinate second) {
+		Map<Integer, PruningTable> cached = CACHE.get(tables);
+		if (cached == null) {
+			cached = new HashMap<Integer, PruningTable>();
+			CACHE.put(tables, cached);
+		}
+
+		int key = first.ordinal() * (Coordinate.values().length + 1) + (second == null ? 0 : second.ordinal() + 1);
+		PruningTable table = cached.get(key);
+		if (table == null) {
+			boolean phaseTwo = first.isPhaseTwo() || (second != null && second.isPhaseTwo());
+			int[] moves = phaseTwo ? MoveTables.PHASE_TWO_MOVES : MoveTables.ALL_MOVES;
+			table = new PruningTable(tables.get(first), second == null ? null : tables.get(second), moves);
+			cached.put(key, table);
+		}
+		return table;
+	}
+
+	/**
+	 * Fills the table by the breadth-first search (layer by layer).
+	 *
+	 * @param first
+	 *            move table of the first coordinate
+	 * @param second
+	 *            move table of the second coordinate (could be {@code null})
+	 * @param moves
+	 *            allowed moves
+	 * @param goals
+	 *            indices of the goal states
+	 */
+	private void build(MoveTable first, MoveTable second, int[] moves, int[] goals) {
+		for (int i = 0; i < distances.length; i++) {
+			distances[i] = EMPTY;
+		}
+		for (int goal : goals) {
+			distances[goal] = 0;
+		}
+
+		boolean changed = true;
+		for (depth = 0; changed; depth++) {
+			changed = false;
+			for (int i = 0; i < distances.length; i++) {
+				if (distances[i] != depth)
+					continue;
+				int firstValue = i / secondSize;
+				int secondValue = i % secondSize;
+				for (int move : moves) {
+					int next = first.move(firstValue, move) * secondSize;
+					if (second != null)
+						next += second.move(secondValue, move);
+					if (distances[next] == EMPTY) {
+						distances[next] = (byte) (depth + 1);
+						changed = true;
+					}
+				}
+			}
+		}
+		depth--;
+	}
+
+	/**
+	 * Returns index of the state in the table.
+	 *
+	 * @param firstValue
+	 *            value of the first coordinate
+	 * @param secondValue
+	 *            value of the second coordinate (0 for the table of one
+	 *            coordinate)
+	 * @return index of the state
+	 */
+	public int getIndex(int firstValue, int secondValue) {
+		return firstValue * secondSize + secondValue;
+	}
+
+	/**
+	 * Returns minimum number of moves which solves the part of the cube.
+	 *
+	 * @param firstValue
+	 *            value of the first coordinate
+	 * @param secondValue
+	 *            value of the second coordinate (0 for the table of one
+	 *            coordinate)
+	 * @return distance to the nearest goal state or
+	 *         {@link PruningTable#UNREACHABLE}
+	 */
+	public int getDistance(int firstValue, int secondValue) {
+		int distance = distances[firstValue * secondSize + secondValue];
+		return distance < 0 ? UNREACHABLE : distance;
+	}
+
+	/**
+	 * Returns the maximum distance in the table.
+	 *
+	 * @return maximum distance
+	 */
+	public int getDepth() {
+		return depth;
+	}
+}
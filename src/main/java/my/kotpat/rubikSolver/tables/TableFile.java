@@ -0,0 +1,212 @@
+package my.kotpat.rubikSolver.tables;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent cache of the precomputed tables. Every table is kept in a single
+ * binary file with a small header (magic number, version of the table and
+ * length of the data). The first process which needs the table computes it
+ * and writes the file, every next process (and every next JVM on the host)
+ * only memory-maps the file, so the pages of the table are shared by the
+ * operating system.
+ * <p>
+ * Files are written to a temporary file and then moved to the final name, so
+ * the processes which build the same table at the same time never see
+ * incomplete data.
+ *
+ * @author Patryk Kotlarz
+ *
+ */
+public final class TableFile {
+
+	/**
+	 * Name of the system property with the directory of the table files.
+	 */
+	public static final String DIRECTORY_PROPERTY = "rubikSolver.tablesDirectory";
+
+	/**
+	 * Magic number at the beginning of every table file ("RCTB").
+	 */
+	private static final int MAGIC = 0x52435442;
+
+	/**
+	 * Size of the header: magic number, version and length of the data.
+	 */
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * Fills the table which is not cached yet.
+	 */
+	public interface TableBuilder {
+		/**
+		 * Method should write the whole table to the buffer (starting from
+		 * position 0).
+		 *
+		 * @param table
+		 *            buffer with exactly the length of the table
+		 */
+		public void build(ByteBuffer table);
+	}
+
+	private TableFile() {
+	}
+
+	/**
+	 * Returns the default directory of the table files: value of the
+	 * {@link TableFile#DIRECTORY_PROPERTY} system property or
+	 * {@code rubikSolver} directory in the temporary directory.
+	 *
+	 * @return directory of the table files
+	 */
+	public static Path getDefaultDirectory() {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory != null)
+			return Paths.get(directory);
+		return Paths.get(System.getProperty("java.io.tmpdir"), "rubikSolver");
+	}
+
+	/**
+	 * Returns the table from the file. If the file does not exist (or it has
+	 * different version or length) the table is built by the {@code builder}
+	 * and saved to the file. If the file could not be written, the built table
+	 * is returned from the memory.
+	 *
+	 * @param file
+	 *            path of the table file
+	 * @param version
+	 *            version of the table (change of the table format or content
+	 *            requires a new version)
+	 * @param length
+	 *            length of the table in bytes
+	 * @param builder
+	 *            builder of the table
+	 * @return read-only buffer with the table (position 0, limit
+	 *         {@code length})
+	 */
+	public static ByteBuffer load(Path file, int version, int length, TableBuilder builder) {
+		ByteBuffer table = map(file, version, length);
+		if (table != null)
+			return table;
+
+		ByteBuffer built = ByteBuffer.allocate(length);
+		builder.build(built);
+		built.clear();
+
+		try {
+			save(file, version, built);
+			table = map(file, version, length);
+		} catch (IOException e) {
+			// The directory is not writable, the table is used from memory
+		}
+		if (table != null)
+			return table;
+		return built.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Memory-maps the table from the file which has been already built. The
+	 * table is never built by this method (e.g. the tables which take minutes
+	 * to build are built once by the separate tool).
+	 *
+	 * @param file
+	 *            path of the table file
+	 * @param version
+	 *            version of the table
+	 * @param length
+	 *            length of the table in bytes
+	 * @return read-only buffer with the table (position 0, limit
+	 *         {@code length})
+	 * @throws IOException
+	 *             if the file does not exist or it has different version or
+	 *             length
+	 */
+	public static ByteBuffer open(Path file, int version, int length) throws IOException {
+		ByteBuffer table = map(file, version, length);
+		if (table == null)
+			throw new IOException("Table file " + file + " does not exist or it is not valid");
+		return table;
+	}
+
+	/**
+	 * Memory-maps the table if the file exists and has correct header.
+	 *
+	 * @param file
+	 *            path of the table file
+	 * @param version
+	 *            expected version
+	 * @param length
+	 *            expected length of the table
+	 * @return mapped table or {@code null} if the file could not be used
+	 */
+	private static ByteBuffer map(Path file, int version, int length) {
+		if (!Files.isRegularFile(file))
+			return null;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() != HEADER_SIZE + (long) length)
+				return null;
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0)
+					return null;
+			}
+			header.flip();
+			if (header.getInt() != MAGIC || header.getInt() != version || header.getLong() != length)
+				return null;
+
+			return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the table to the temporary file and moves it to the final path
+	 * (the file is replaced atomically if it already exists).
+	 *
+	 * @param file
+	 *            path of the table file
+	 * @param version
+	 *            version of the table
+	 * @param table
+	 *            the table (from position 0 to the limit)
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	public static void save(Path file, int version, ByteBuffer table) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC).putInt(version).putLong(table.remaining());
+				header.flip();
+				ByteBuffer data = table.duplicate();
+				while (header.hasRemaining() || data.hasRemaining()) {
+					channel.write(new ByteBuffer[] { header, data });
+				}
+				channel.force(true);
+			}
+
+			try {
+				Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+}
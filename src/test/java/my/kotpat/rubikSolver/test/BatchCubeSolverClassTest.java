@@ -0,0 +1,137 @@
+package my.kotpat.rubikSolver.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.BatchCubeSolver;
+import my.kotpat.rubikSolver.services.IDAStarCubeSolver;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.services.TwoByTwoCubeSolver;
+import my.kotpat.rubikSolver.services.TwoPhaseCubeSolver;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class BatchCubeSolverClassTest {
+	@Test
+	public void orderedSolvingTest() throws UnsupportedLayerDimensionException {
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		List<Scramble> scrambles = new ArrayList<Scramble>();
+		for (int i = 0; i < 50; i++) {
+			scrambles.add(generator.getRandomScramble(30));
+		}
+
+		try (BatchCubeSolver solver = new BatchCubeSolver(new TwoPhaseCubeSolver(), 3)) {
+			BatchCubeSolver.Batch batch = solver.solveScrambles(scrambles.iterator(), 3, true);
+			long index = 0;
+			while (batch.hasNext()) {
+				BatchCubeSolver.Result result = batch.next();
+				Assert.assertEquals("Results are not ordered", index++, result.getIndex());
+
+				Cube cube = new Cube(3);
+				cube.scramble(scrambles.get((int) result.getIndex()));
+				cube.scramble(result.getMeta().getSolvingScramble());
+				Assert.assertTrue("Cube is not solved", cube.isSolved());
+			}
+			Assert.assertEquals(50, batch.getSolvedCount());
+			Assert.assertTrue("No throughput", batch.getThroughput() > 0);
+			Assert.assertTrue("No analyzed moves", batch.getAnalyzedMoves() > 0);
+		}
+	}
+
+	@Test
+	public void completionOrderTest() {
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		List<RubiksCube> cubes = IntStream.range(0, 40).mapToObj(i -> {
+			try {
+				Cube cube = new Cube(2);
+				cube.scramble(generator.getRandomScramble(i % 8));
+				return cube;
+			} catch (UnsupportedLayerDimensionException e) {
+				throw new IllegalStateException(e);
+			}
+		}).collect(Collectors.toList());
+
+		try (BatchCubeSolver solver = new BatchCubeSolver(() -> new IDAStarCubeSolver(), 4)) {
+			TreeSet<Long> indexes = new TreeSet<Long>();
+			solver.solve(cubes.stream(), false).stream().forEach(result -> {
+				indexes.add(result.getIndex());
+				RubiksCube cube = result.getCube().copy();
+				cube.scramble(result.getMeta().getSolvingScramble());
+				Assert.assertTrue("Cube is not solved", cube.isSolved());
+			});
+			Assert.assertEquals("Not all the cubes are solved", 40, indexes.size());
+			Assert.assertEquals(39L, (long) indexes.last());
+		}
+	}
+
+	@Test
+	public void reusedScrambleTest() throws UnsupportedLayerDimensionException {
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(5);
+		List<Scramble> scrambles = new ArrayList<Scramble>();
+		for (int i = 0; i < 100; i++) {
+			scrambles.add(generator.getRandomScramble(20));
+		}
+		// The same scramble object is refilled by every call
+		Scramble reused = new Scramble();
+		Iterator<Scramble> iterator = new Iterator<Scramble>() {
+			int next = 0;
+
+			public boolean hasNext() {
+				return next < scrambles.size();
+			}
+
+			public Scramble next() {
+				reused.clear();
+				reused.addAll(scrambles.get(next++));
+				return reused;
+			}
+		};
+
+		try (BatchCubeSolver solver = new BatchCubeSolver(new TwoByTwoCubeSolver(), 2)) {
+			BatchCubeSolver.Batch batch = solver.solveScrambles(iterator, 2, true);
+			while (batch.hasNext()) {
+				BatchCubeSolver.Result result = batch.next();
+				Cube cube = new Cube(2);
+				cube.scramble(scrambles.get((int) result.getIndex()));
+				cube.scramble(result.getMeta().getSolvingScramble());
+				Assert.assertTrue("Cube is not solved", cube.isSolved());
+			}
+			Assert.assertEquals(scrambles.size(), batch.getSolvedCount());
+		}
+	}
+
+	@Test
+	public void failingCubeTest() throws UnsupportedLayerDimensionException {
+		for (boolean ordered : new boolean[] { true, false }) {
+			List<RubiksCube> cubes = Arrays.asList(new Cube(2), new Cube(4), new Cube(2), new Cube(2));
+			try (BatchCubeSolver solver = new BatchCubeSolver(new TwoByTwoCubeSolver(), 2)) {
+				BatchCubeSolver.Batch batch = solver.solve(cubes.iterator(), ordered);
+				int failed = 0;
+				int calls = 0;
+				while (batch.hasNext()) {
+					Assert.assertTrue("Batch is not finished", ++calls <= cubes.size());
+					try {
+						Assert.assertEquals(2, batch.next().getCube().getDimension());
+					} catch (IllegalArgumentException e) {
+						failed++;
+					}
+				}
+				Assert.assertEquals("Failed cube is not reported once", 1, failed);
+				Assert.assertEquals(3, batch.getSolvedCount());
+			}
+		}
+	}
+}
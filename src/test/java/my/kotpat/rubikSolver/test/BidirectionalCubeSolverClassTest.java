@@ -0,0 +1,87 @@
+package my.kotpat.rubikSolver.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.BidirectionalCubeSolver;
+import my.kotpat.rubikSolver.services.IDAStarCubeSolver;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.services.TwoByTwoCubeSolver;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class BidirectionalCubeSolverClassTest {
+	@Test
+	public void twoByTwoSolvingTest() throws UnsupportedLayerDimensionException {
+		BidirectionalCubeSolver solver = new BidirectionalCubeSolver();
+		TwoByTwoCubeSolver optimalSolver = new TwoByTwoCubeSolver();
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		for (int i = 0; i < 10; i++) {
+			Cube cube = new Cube(2);
+			cube.scramble(generator.getRandomScramble(100));
+			SolvingMeta meta = solver.getSolution(cube);
+			Assert.assertEquals("Solution is not optimal", optimalSolver.getSolution(cube).getSolvingScramble()
+					.size(), meta.getSolvingScramble().size());
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+	}
+
+	@Test
+	public void threeByThreeSolvingTest() throws UnsupportedLayerDimensionException {
+		BidirectionalCubeSolver solver = new BidirectionalCubeSolver();
+		IDAStarCubeSolver optimalSolver = new IDAStarCubeSolver();
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		for (int i = 0; i < 5; i++) {
+			Cube cube = new Cube(3);
+			cube.scramble(generator.getRandomScramble(8));
+			SolvingMeta meta = solver.getSolution(cube);
+			Assert.assertEquals("Solution is not optimal", optimalSolver.getSolution(cube).getSolvingScramble()
+					.size(), meta.getSolvingScramble().size());
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+	}
+
+	@Test
+	public void bigCubeSolvingTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(4);
+		cube.scramble(new Scramble("R U2 F' D"));
+		SolvingMeta meta = (new BidirectionalCubeSolver()).getSolution(cube);
+		Assert.assertEquals("Solution is not optimal", 4, meta.getSolvingScramble().size());
+		cube.scramble(meta.getSolvingScramble());
+		Assert.assertTrue("Cube is not solved", cube.isSolved());
+	}
+
+	@Test
+	public void limitingSearchTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		cube.scramble(new Scramble("R U F D L B R2"));
+		Assert.assertNull("Solution is longer than the limit",
+				(new BidirectionalCubeSolver(6, 1 << 20)).getSolution(cube).getSolvingScramble());
+		Assert.assertEquals("Incorrect solution", 7,
+				(new BidirectionalCubeSolver()).getSolution(cube).getSolvingScramble().size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void exceedingStatesTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		cube.scramble(new Scramble("R U F D L B R2"));
+		(new BidirectionalCubeSolver(12, 1000)).getSolution(cube);
+	}
+
+	@Test
+	public void longScrambleTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		cube.scramble(new Scramble("U L' R2 U' R' D2 B L2 U' R' D' B2"));
+		SolvingMeta meta = (new BidirectionalCubeSolver()).getSolution(cube);
+		Assert.assertEquals("Solution is not optimal", 12, meta.getSolvingScramble().size());
+		cube.scramble(meta.getSolvingScramble());
+		Assert.assertTrue("Cube is not solved", cube.isSolved());
+	}
+}
@@ -1,11 +1,24 @@
 package my.kotpat.rubikSolver.test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.BlockJUnit4ClassRunner;
 
 import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.CubeSnapshot;
+import my.kotpat.rubikSolver.domain.Field;
+import my.kotpat.rubikSolver.domain.Layer;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
 import my.kotpat.rubikSolver.domain.Scramble;
 import my.kotpat.rubikSolver.domain.SolvingMeta;
 import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
@@ -36,4 +49,139 @@ public class CubeClassTest {
 		SolvingMeta solution = solver.getSolution(cube);
 		cube.scramble(solution.getSolvingScramble());
 	}
+
+	@Test
+	public void twoByTwoParallelRandomSolvingTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(2);
+		cube.scramble(new Scramble("R U F'"));
+		RandomCubeSolver solver = new RandomCubeSolver(20, 4);
+		SolvingMeta solution = solver.getSolution(cube);
+		Assert.assertEquals(4, solution.getWorkerAnalyzedMoves().length);
+		Assert.assertTrue(solution.getAnalyzedScrambles() > 0);
+		cube.scramble(solution.getSolvingScramble());
+		Assert.assertTrue("Cube is not solved", cube.isSolved());
+	}
+
+	@Test
+	public void snapshotRestoringTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		cube.scramble(generator.getRandomScramble(100));
+		Cube copy = new Cube(cube);
+		CubeSnapshot snapshot = cube.snapshot();
+
+		cube.scramble(generator.getRandomScramble(100));
+		Assert.assertFalse("Copy changed with the cube", PackedCubeClassTest.sameState(cube, copy));
+		cube.restore(snapshot);
+		Assert.assertTrue("Cube is not restored", PackedCubeClassTest.sameState(cube, copy));
+
+		try {
+			copy.restore(snapshot);
+			Assert.fail("Snapshot of the other cube restored");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void hashingStateTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		Cube other = new Cube(3);
+		Assert.assertEquals("Solved cubes are not equal", cube, other);
+
+		Scramble scramble = (new RandomScrambleGenerator()).getRandomScramble(1000);
+		cube.scramble(scramble);
+		Assert.assertNotEquals("Different states have the same hash", other.getStateHash(), cube.getStateHash());
+		Assert.assertNotEquals("Different states are equal", other, cube);
+
+		// The same state after the other moves
+		for (Move move : scramble) {
+			other.move(move);
+			if (!move.isDoubled()) {
+				other.move(move);
+				other.move(move);
+				other.move(move);
+				other.move(move);
+			}
+		}
+		Assert.assertEquals("The same states are not equal", cube, other);
+		Assert.assertEquals("Different hash codes", cube.hashCode(), other.hashCode());
+
+		long hash = cube.getStateHash();
+		cube.updateState();
+		Assert.assertEquals("Incremental hash differs from computed hash", hash, cube.getStateHash());
+
+		Set<Cube> visited = new HashSet<Cube>();
+		visited.add(cube);
+		Assert.assertTrue("Cube not found in the set", visited.contains(other));
+	}
+
+	@Test
+	public void trackingSolvedStateTest() throws UnsupportedLayerDimensionException {
+		for (int dimension = 2; dimension <= 3; dimension++) {
+			Cube cube = new Cube(dimension);
+			Assert.assertEquals("Solved cube has misplaced fields", 0, cube.getMisplacedStickers());
+
+			for (Move move : (new RandomScrambleGenerator()).getRandomScramble(1000)) {
+				cube.move(move);
+				int misplaced = 0;
+				boolean solved = true;
+				for (MoveLayer moveLayer : MoveLayer.values()) {
+					Layer layer = cube.getLayer(moveLayer);
+					solved &= layer.hasAllFieldsEqual();
+					// Centers of 3x3x3 cube are never moved
+					Field.Color center = layer.getField(dimension / 2, dimension / 2).getFieldColor();
+					for (int row = 0; row < dimension; row++) {
+						for (int col = 0; col < dimension; col++) {
+							if (layer.getField(row, col).getFieldColor() != center)
+								misplaced++;
+						}
+					}
+				}
+				Assert.assertEquals("Wrong solved state", solved, cube.isSolved());
+				if (dimension == 3)
+					Assert.assertEquals("Wrong number of misplaced fields", misplaced, cube.getMisplacedStickers());
+			}
+		}
+
+		// Solved 2x2x2 cube in the other orientation
+		Cube cube = new Cube(2);
+		cube.scramble(new Scramble("R L'"));
+		Assert.assertTrue("Rotated cube is not solved", cube.isSolved());
+		Assert.assertEquals("Wrong number of misplaced fields", 16, cube.getMisplacedStickers());
+	}
+
+	@Test
+	public void movingWithoutAllocationTest() throws UnsupportedLayerDimensionException {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+		Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+		Cube cube = new Cube(3);
+		List<Move> movesList = new ArrayList<Move>();
+		for (Move move : (new RandomScrambleGenerator()).getRandomScramble(1000)) {
+			movesList.add(move);
+		}
+		Move[] moves = movesList.toArray(new Move[movesList.size()]);
+
+		// Warming up (resolving the connections, compiling)
+		for (int i = 0; i < 200; i++) {
+			for (Move move : moves) {
+				cube.move(move);
+			}
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = allocationBean.getThreadAllocatedBytes(threadId);
+		long allocatedBefore2 = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 100; i++) {
+			for (Move move : moves) {
+				cube.move(move);
+			}
+		}
+		long allocatedAfter = allocationBean.getThreadAllocatedBytes(threadId);
+		long measuringCost = allocatedBefore2 - allocatedBefore;
+		Assert.assertEquals("Moving the cube allocates memory", 0, allocatedAfter - allocatedBefore2 - measuringCost);
+	}
 }
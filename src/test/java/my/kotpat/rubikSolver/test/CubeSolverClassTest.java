@@ -0,0 +1,116 @@
+package my.kotpat.rubikSolver.test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.BidirectionalCubeSolver;
+import my.kotpat.rubikSolver.services.CubeSolver;
+import my.kotpat.rubikSolver.services.IDAStarCubeSolver;
+import my.kotpat.rubikSolver.services.ParallelCubeSolver;
+import my.kotpat.rubikSolver.services.RandomCubeSolver;
+import my.kotpat.rubikSolver.services.TwoPhaseCubeSolver;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class CubeSolverClassTest {
+	/**
+	 * Superflip (one of the hardest positions, 20 moves).
+	 */
+	private static final String HARD_SCRAMBLE = "U R2 F B R B2 R U2 L B2 R U' D' R2 F R' L B2 U2 F2";
+
+	@Test
+	public void timeoutTest() throws UnsupportedLayerDimensionException {
+		BidirectionalCubeSolver bidirectionalSolver = new BidirectionalCubeSolver();
+		bidirectionalSolver.setMaxStates(1 << 23);
+		CubeSolver[] solvers = { new RandomCubeSolver(), new RandomCubeSolver(100, 2), new IDAStarCubeSolver(),
+				bidirectionalSolver, new ParallelCubeSolver(new IDAStarCubeSolver()) };
+		for (CubeSolver solver : solvers) {
+			Cube cube = new Cube(3);
+			cube.scramble(new Scramble(HARD_SCRAMBLE));
+			long startingTime = System.nanoTime();
+			SolvingMeta meta = solver.getSolution(cube, 200, TimeUnit.MILLISECONDS);
+			long timeMs = (System.nanoTime() - startingTime) / 1000000;
+
+			Assert.assertTrue("Solving is not timed out", meta.isTimedOut());
+			Assert.assertTrue("Solving is not stopped: " + timeMs + " ms", timeMs < 5000);
+			if (meta.getSolvingScramble() != null) {
+				cube.scramble(meta.getSolvingScramble());
+				Assert.assertTrue("Cube is not solved", cube.isSolved());
+			}
+		}
+	}
+
+	@Test
+	public void notTimedOutTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		cube.scramble(new Scramble("R U F' L2"));
+		SolvingMeta meta = new IDAStarCubeSolver().getSolution(cube, 1, TimeUnit.MINUTES);
+		Assert.assertFalse("Solving is timed out", meta.isTimedOut());
+		Assert.assertEquals(4, meta.getSolvingScramble().size());
+	}
+
+	@Test
+	public void asynchronousSolvingTest()
+			throws UnsupportedLayerDimensionException, InterruptedException, ExecutionException {
+		Cube cube = new Cube(3);
+		cube.scramble(new Scramble(HARD_SCRAMBLE));
+		SolvingMeta meta = new TwoPhaseCubeSolver().getSolutionAsync(cube, 1, TimeUnit.MINUTES).get();
+		cube.scramble(meta.getSolvingScramble());
+		Assert.assertTrue("Cube is not solved", cube.isSolved());
+	}
+
+	@Test
+	public void cancellingTest() throws UnsupportedLayerDimensionException, InterruptedException,
+			ExecutionException, TimeoutException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Cube cube = new Cube(3);
+			cube.scramble(new Scramble(HARD_SCRAMBLE));
+			Future<SolvingMeta> future = new RandomCubeSolver().getSolutionAsync(cube, 1, TimeUnit.HOURS, executor);
+			Thread.sleep(100);
+			future.cancel(true);
+
+			// The thread of the executor is released
+			Future<Boolean> next = executor.submit(() -> true);
+			Assert.assertTrue(next.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void interruptingParallelRandomTest() throws UnsupportedLayerDimensionException, InterruptedException {
+		Cube cube = new Cube(3);
+		cube.scramble(new Scramble(HARD_SCRAMBLE));
+		AtomicReference<SolvingMeta> result = new AtomicReference<>();
+		AtomicBoolean interrupted = new AtomicBoolean();
+		Thread thread = new Thread(() -> {
+			result.set(new RandomCubeSolver(100, 2).getSolution(cube, 1, TimeUnit.HOURS));
+			interrupted.set(Thread.currentThread().isInterrupted());
+		});
+		thread.start();
+		Thread.sleep(100);
+		thread.interrupt();
+		thread.join(5000);
+
+		Assert.assertFalse("Solving is not stopped", thread.isAlive());
+		Assert.assertTrue("Solving is not timed out", result.get().isTimedOut());
+		Assert.assertTrue("Interrupted status is lost", interrupted.get());
+		Assert.assertEquals("Analyzed moves of the threads are lost", result.get().getAnalyzedMoves(),
+				result.get().getWorkerAnalyzedMoves()[0] + result.get().getWorkerAnalyzedMoves()[1]);
+	}
+}
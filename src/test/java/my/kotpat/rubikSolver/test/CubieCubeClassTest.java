@@ -0,0 +1,76 @@
+package my.kotpat.rubikSolver.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Field;
+import my.kotpat.rubikSolver.domain.PackedCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.exceptions.InvalidCubeStateException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class CubieCubeClassTest {
+	@Test
+	public void movingTheSameAsCubeTest() throws UnsupportedLayerDimensionException, InvalidCubeStateException {
+		for (int dimension = 2; dimension <= 3; dimension++) {
+			for (int i = 0; i < 100; i++) {
+				Cube cube = new Cube(dimension);
+				Scramble scramble = (new RandomScrambleGenerator()).getRandomScramble(30);
+				cube.scramble(scramble);
+
+				CubieCube cubieCube = new CubieCube();
+				cubieCube.scramble(scramble);
+				if (dimension == 3) {
+					Assert.assertEquals("Cubie cube differs from cube", cubieCube, new CubieCube(cube));
+				} else {
+					CubieCube converted = new CubieCube(cube);
+					for (int corner = 0; corner < CubieCube.CORNERS; corner++) {
+						Assert.assertEquals("Corners differ", cubieCube.getCornerPermutation(corner),
+								converted.getCornerPermutation(corner));
+						Assert.assertEquals("Corners differ", cubieCube.getCornerOrientation(corner),
+								converted.getCornerOrientation(corner));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void convertingToCubeTest() throws UnsupportedLayerDimensionException, InvalidCubeStateException {
+		for (int dimension = 2; dimension <= 3; dimension++) {
+			Cube cube = new Cube(dimension);
+			Scramble scramble = (new RandomScrambleGenerator()).getRandomScramble(100);
+			cube.scramble(scramble);
+
+			CubieCube cubieCube = new CubieCube(cube);
+			Assert.assertEquals("Lossy conversion to Cube", cube.toString(), cubieCube.toCube(dimension).toString());
+			PackedCube packedCube = cubieCube.toPackedCube(dimension);
+			Assert.assertTrue("Lossy conversion to PackedCube", PackedCubeClassTest.sameState(cube, packedCube));
+
+			scramble.reverse();
+			cubieCube.scramble(scramble);
+			Assert.assertTrue("Cubie cube is not solved after reversing scramble", cubieCube.isSolved(dimension));
+		}
+	}
+
+	@Test
+	public void invalidStateTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		cube.getUp().getField(2, 2).setFieldColor(Field.Color.RED);
+		cube.getRight().getField(0, 0).setFieldColor(Field.Color.WHITE);
+
+		boolean tryFlag = false;
+		try {
+			new CubieCube(cube);
+		} catch (InvalidCubeStateException e) {
+			tryFlag = true;
+		}
+		Assert.assertTrue("Flipped corner sticker accepted", tryFlag);
+	}
+}
@@ -0,0 +1,94 @@
+package my.kotpat.rubikSolver.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.IDAStarCubeSolver;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.tables.Pattern;
+import my.kotpat.rubikSolver.tables.PatternDatabase;
+import my.kotpat.rubikSolver.tables.TableFile;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class IDAStarCubeSolverClassTest {
+	@Test
+	public void optimalSolvingTest() throws UnsupportedLayerDimensionException {
+		IDAStarCubeSolver solver = new IDAStarCubeSolver();
+		String[] scrambles = { "R U", "R U R' U'", "F2 D' L B2 R' U" };
+		int[] lengths = { 2, 4, 6 };
+		for (int i = 0; i < scrambles.length; i++) {
+			Cube cube = new Cube(3);
+			cube.scramble(new Scramble(scrambles[i]));
+			SolvingMeta meta = solver.getSolution(cube);
+			Assert.assertEquals("Solution is not optimal", lengths[i], meta.getSolvingScramble().size());
+			Assert.assertTrue("No nodes counted", meta.getAnalyzedMoves() > 0);
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+	}
+
+	@Test
+	public void threeByThreeSolvingTest() throws UnsupportedLayerDimensionException {
+		IDAStarCubeSolver solver = new IDAStarCubeSolver();
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(1);
+		for (int i = 0; i < 10; i++) {
+			Cube cube = new Cube(3);
+			Scramble scramble = generator.getRandomScramble(7);
+			cube.scramble(scramble);
+			SolvingMeta meta = solver.getSolution(cube);
+			Assert.assertTrue("Solution is longer than scramble",
+					meta.getSolvingScramble().size() <= scramble.size());
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+	}
+
+	@Test
+	public void deepScrambleTest() throws UnsupportedLayerDimensionException {
+		// The databases are built offline by PatternDatabase.main
+		Path directory = TableFile.getDefaultDirectory();
+		for (Pattern pattern : new Pattern[] { Pattern.CORNERS, Pattern.FIRST_SEVEN_EDGES,
+				Pattern.LAST_SEVEN_EDGES }) {
+			Assume.assumeTrue("Pattern databases are not built",
+					Files.exists(directory.resolve(PatternDatabase.getFileName(pattern))));
+		}
+
+		IDAStarCubeSolver solver = new IDAStarCubeSolver();
+		Cube cube = new Cube(3);
+		Scramble scramble = new RandomScrambleGenerator(2).getRandomScramble(14);
+		cube.scramble(scramble);
+		SolvingMeta meta = solver.getSolution(cube, 30, TimeUnit.SECONDS);
+		Assert.assertFalse("Deep scramble is not solved in time", meta.isTimedOut());
+		Assert.assertTrue("Solution is longer than scramble", meta.getSolvingScramble().size() <= scramble.size());
+		cube.scramble(meta.getSolvingScramble());
+		Assert.assertTrue("Cube is not solved", cube.isSolved());
+	}
+
+	@Test
+	public void twoByTwoSolvingTest() throws UnsupportedLayerDimensionException {
+		IDAStarCubeSolver solver = new IDAStarCubeSolver();
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(1);
+		for (int i = 0; i < 10; i++) {
+			Cube cube = new Cube(2);
+			cube.scramble(generator.getRandomScramble(100));
+			SolvingMeta meta = solver.getSolution(cube);
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+
+		Cube rotated = new Cube(2);
+		rotated.scramble(new Scramble("R L' U2 F"));
+		Assert.assertEquals("Rotation is not solved", 2, solver.getSolution(rotated).getSolvingScramble().size());
+	}
+}
@@ -20,7 +20,7 @@ public class MoveClassTest {
 		boolean tryFlag = false;
 		Move move = null;
 		try {
-			move = new Move("  2F2   ");
+			move = Move.of("  2F2   ");
 		} catch (UnsupportedMoveException e) {
 			tryFlag = true;
 		}
@@ -31,7 +31,7 @@ public class MoveClassTest {
 
 		tryFlag = false;
 		try {
-			move = new Move(" ;/RLRF ;/? ");
+			move = Move.of(" ;/RLRF ;/? ");
 		} catch (UnsupportedMoveException e) {
 			tryFlag = true;
 		}
@@ -42,7 +42,7 @@ public class MoveClassTest {
 
 		tryFlag = false;
 		try {
-			move = new Move(" ;/U'LRF ;/? ");
+			move = Move.of(" ;/U'LRF ;/? ");
 		} catch (UnsupportedMoveException e) {
 			tryFlag = true;
 		}
@@ -53,7 +53,7 @@ public class MoveClassTest {
 
 		tryFlag = false;
 		try {
-			move = new Move(" ;/K ;/? ");
+			move = Move.of(" ;/K ;/? ");
 		} catch (UnsupportedMoveException e) {
 			tryFlag = true;
 		}
@@ -62,16 +62,16 @@ public class MoveClassTest {
 
 	@Test
 	public void movesEqualTest() throws UnsupportedMoveException {
-		Move move1 = new Move("R2'");
-		Move move2 = new Move("R2");
+		Move move1 = Move.of("R2'");
+		Move move2 = Move.of("R2");
 		Assert.assertTrue("R2' is not equal to R2", move1.equals(move2));
 
-		move1 = new Move("R2'");
-		move2 = new Move("R");
+		move1 = Move.of("R2'");
+		move2 = Move.of("R");
 		Assert.assertFalse("R2' is not equal to R", move1.equals(move2));
 
-		move1 = new Move("L ");
-		move2 = new Move(" L");
+		move1 = Move.of("L ");
+		move2 = Move.of(" L");
 
 		Set<Move> tempSet = new HashSet<Move>();
 		tempSet.add(move1);
@@ -79,12 +79,29 @@ public class MoveClassTest {
 		Assert.assertTrue("Two L moves are not equal in Set object", tempSet.size() == 1);
 	}
 
+	@Test
+	public void internedMovesTest() throws UnsupportedMoveException {
+		Move[] moves = Move.values();
+		Assert.assertEquals("Wrong number of moves", Move.MOVES_COUNT, moves.length);
+		for (int i = 0; i < moves.length; i++) {
+			Move move = moves[i];
+			Assert.assertEquals("Wrong ordinal", i, move.ordinal());
+			Assert.assertSame("Move is not interned", move, Move.of(move.getMoveString()));
+			Assert.assertSame("Move is not interned", move, Move.of(move.getMoveLayer(), move.getTurns()));
+			Assert.assertSame("Wrong inverse move", move, move.inverse().inverse());
+			Assert.assertEquals("Wrong inverse move", move.getMoveLayer(), move.inverse().getMoveLayer());
+			Assert.assertEquals("Wrong inverse move", 4, move.getTurns() + move.inverse().getTurns());
+		}
+		Assert.assertSame("Wrong inverse of R", Move.of("R'"), Move.of("R").inverse());
+		Assert.assertSame("Wrong inverse of R2", Move.of("R2"), Move.of("R2").inverse());
+	}
+
 	@Test
 	public void movesConnecting() throws UnsupportedMoveException {
-		Move moveClock = new Move("R");
-		Move moveCounterClock = new Move("R'");
-		Move moveDoubled = new Move("R2");
-		Move moveAnother = new Move("L");
+		Move moveClock = Move.of("R");
+		Move moveCounterClock = Move.of("R'");
+		Move moveDoubled = Move.of("R2");
+		Move moveAnother = Move.of("L");
 
 		boolean tryFlagDifferentMoveLayers = false;
 		boolean tryFlagFullAngleMove = false;
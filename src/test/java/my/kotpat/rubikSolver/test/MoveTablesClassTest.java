@@ -0,0 +1,122 @@
+package my.kotpat.rubikSolver.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.tables.Coordinate;
+import my.kotpat.rubikSolver.tables.MoveTable;
+import my.kotpat.rubikSolver.tables.MoveTables;
+import my.kotpat.rubikSolver.tables.PermutationPruningTable;
+import my.kotpat.rubikSolver.tables.TableFile;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class MoveTablesClassTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void coordinatesTest() {
+		Random random = new Random();
+		CubieCube cube = new CubieCube();
+		for (Coordinate coordinate : Coordinate.values()) {
+			Assert.assertEquals("Solved cube has non-zero " + coordinate, 0, coordinate.get(new CubieCube()));
+			for (int i = 0; i < 1000; i++) {
+				int value = random.nextInt(coordinate.getSize());
+				coordinate.set(cube, value);
+				Assert.assertEquals("Incorrect " + coordinate, value, coordinate.get(cube));
+			}
+		}
+	}
+
+	@Test
+	public void movingCoordinatesTest() {
+		MoveTables tables = new MoveTables(folder.getRoot().toPath());
+		for (int i = 0; i < 100; i++) {
+			CubieCube cube = new CubieCube();
+			cube.scramble((new RandomScrambleGenerator()).getRandomScramble(30));
+			for (Coordinate coordinate : Coordinate.values()) {
+				if (coordinate.isPhaseTwo())
+					continue;
+				MoveTable table = tables.get(coordinate);
+				for (int move = 0; move < Move.MOVES_COUNT; move++) {
+					CubieCube moved = new CubieCube(cube);
+					moved.multiply(CubieCube.getMoveCube(move));
+					Assert.assertEquals("Incorrect move table of " + coordinate, coordinate.get(moved),
+							table.move(coordinate.get(cube), move));
+				}
+			}
+		}
+
+		MoveTable table = tables.get(Coordinate.UD_EDGE_PERMUTATION);
+		CubieCube cube = new CubieCube();
+		for (int i = 0; i < 1000; i++) {
+			int move = MoveTables.PHASE_TWO_MOVES[i % MoveTables.PHASE_TWO_MOVES.length];
+			int value = table.move(Coordinate.UD_EDGE_PERMUTATION.get(cube), move);
+			cube.multiply(CubieCube.getMoveCube(move));
+			Assert.assertEquals("Incorrect phase two move table", Coordinate.UD_EDGE_PERMUTATION.get(cube), value);
+		}
+	}
+
+	@Test
+	public void permutationPruningTest() {
+		PermutationPruningTable table = new PermutationPruningTable(folder.getRoot().toPath());
+		Assert.assertEquals("Solved state has non-zero distance", 0, table.getDistance(0, 0));
+
+		Random random = new Random(3);
+		for (int i = 0; i < 200; i++) {
+			CubieCube cube = new CubieCube();
+			for (int length = 1; length <= 12; length++) {
+				int[] moves = MoveTables.PHASE_TWO_MOVES;
+				cube.multiply(CubieCube.getMoveCube(moves[random.nextInt(moves.length)]));
+				int corners = Coordinate.CORNER_PERMUTATION.get(cube);
+				int edges = Coordinate.UD_EDGE_PERMUTATION.get(cube);
+				int distance = table.getDistance(corners, edges);
+				Assert.assertTrue("Distance is greater than the length of the scramble", distance <= length);
+				Assert.assertEquals("Distance is zero only for the solved state", corners == 0 && edges == 0,
+						distance == 0);
+				for (int move : moves) {
+					CubieCube moved = new CubieCube(cube);
+					moved.multiply(CubieCube.getMoveCube(move));
+					int next = table.getDistance(Coordinate.CORNER_PERMUTATION.get(moved),
+							Coordinate.UD_EDGE_PERMUTATION.get(moved));
+					Assert.assertTrue("Distances of the neighbors differ by more than 1", Math.abs(next - distance) <= 1);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void cachingTablesTest() throws IOException {
+		File file = new File(folder.getRoot(), "test.bin");
+		final int[] builds = new int[1];
+		TableFile.TableBuilder builder = new TableFile.TableBuilder() {
+			public void build(ByteBuffer table) {
+				builds[0]++;
+				while (table.hasRemaining()) {
+					table.put((byte) table.position());
+				}
+			}
+		};
+
+		ByteBuffer first = TableFile.load(file.toPath(), 1, 1000, builder);
+		ByteBuffer second = TableFile.load(file.toPath(), 1, 1000, builder);
+		Assert.assertEquals("Table built twice", 1, builds[0]);
+		Assert.assertEquals("Different tables", first, second);
+		Assert.assertTrue("Table is not memory-mapped", second.isDirect());
+
+		TableFile.load(file.toPath(), 2, 1000, builder);
+		Assert.assertEquals("Table with new version not built", 2, builds[0]);
+	}
+}
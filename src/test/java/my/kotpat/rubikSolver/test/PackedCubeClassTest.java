@@ -0,0 +1,174 @@
+package my.kotpat.rubikSolver.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.CubeSnapshot;
+import my.kotpat.rubikSolver.domain.Layer;
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+import my.kotpat.rubikSolver.domain.PackedCube;
+import my.kotpat.rubikSolver.domain.RubiksCube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SliceMove;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class PackedCubeClassTest {
+	@Test
+	public void sameStateAsCubeTest() throws UnsupportedLayerDimensionException {
+		for (int dimension = 2; dimension <= 3; dimension++) {
+			Cube cube = new Cube(dimension);
+			PackedCube packedCube = new PackedCube(dimension);
+			Scramble scramble = (new RandomScrambleGenerator()).getRandomScramble(1000);
+			cube.scramble(scramble);
+			packedCube.scramble(scramble);
+			Assert.assertTrue("Packed cube differs from cube", sameState(cube, packedCube));
+			Assert.assertEquals("Different text description", cube.toString(), packedCube.toString());
+		}
+	}
+
+	@Test
+	public void inversingScrambleTest() throws UnsupportedLayerDimensionException {
+		PackedCube cube = new PackedCube(3);
+		Scramble scramble = (new RandomScrambleGenerator()).getRandomScramble(10000);
+		cube.scramble(scramble);
+		Assert.assertFalse("Cube is solved after scrambling", cube.isSolved());
+
+		scramble.reverse();
+		cube.scramble(scramble);
+		Assert.assertTrue("Cube is not solved after reversing scramble", cube.isSolved());
+	}
+
+	@Test
+	public void snapshotRestoringTest() throws UnsupportedLayerDimensionException {
+		PackedCube cube = new PackedCube(3);
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		cube.scramble(generator.getRandomScramble(100));
+		RubiksCube copy = cube.copy();
+		CubeSnapshot snapshot = cube.snapshot();
+
+		cube.scramble(generator.getRandomScramble(100));
+		Assert.assertFalse("Copy changed with the cube", sameState(cube, copy));
+		cube.restore(snapshot);
+		Assert.assertTrue("Cube is not restored", sameState(cube, copy));
+
+		try {
+			new PackedCube(2).restore(snapshot);
+			Assert.fail("Snapshot of the bigger cube restored");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void hashingStateTest() throws UnsupportedLayerDimensionException {
+		for (int dimension = 2; dimension <= 3; dimension++) {
+			Cube cube = new Cube(dimension);
+			PackedCube packedCube = new PackedCube(dimension);
+			Assert.assertEquals("Different hash of the solved cubes", cube.getStateHash(), packedCube.getStateHash());
+
+			Scramble scramble = (new RandomScrambleGenerator()).getRandomScramble(1000);
+			cube.scramble(scramble);
+			packedCube.scramble(scramble);
+			Assert.assertEquals("Different hash of the same states", cube.getStateHash(), packedCube.getStateHash());
+
+			RubiksCube copy = packedCube.copy();
+			Assert.assertEquals("Copy is not equal", packedCube, copy);
+			copy.move(scramble.iterator().next());
+			Assert.assertNotEquals("Different states are equal", packedCube, copy);
+		}
+	}
+
+	@Test
+	public void bigCubeSameStateAsCubeTest() throws UnsupportedLayerDimensionException {
+		for (int dimension = 4; dimension <= Layer.MAXIMUM_CUBE_DIMENSION; dimension++) {
+			Cube cube = new Cube(dimension);
+			PackedCube packedCube = new PackedCube(dimension);
+			Scramble scramble = (new RandomScrambleGenerator()).getRandomScramble(200);
+			cube.scramble(scramble);
+			packedCube.scramble(scramble);
+			Assert.assertTrue("Packed cube differs from cube", sameState(cube, packedCube));
+		}
+	}
+
+	@Test
+	public void movingSlicesTest() throws UnsupportedLayerDimensionException, UnsupportedMoveException {
+		// Rotations of the whole 3x3x3 cube made by the slices
+		String[] rotations = { "R M' L'", "U E' D'", "F S B'", "x", "Rw L'", "y2" };
+		for (String rotation : rotations) {
+			PackedCube cube = new PackedCube(3);
+			move(cube, rotation);
+			Assert.assertTrue("Cube is not solved after " + rotation, cube.isSolved());
+			Assert.assertNotEquals("Cube is not rotated by " + rotation, 0, cube.getMisplacedStickers());
+		}
+
+		PackedCube cube = new PackedCube(3);
+		move(cube, "R M L'");
+		Assert.assertFalse("Cube is solved after wrong direction of M", cube.isSolved());
+
+		PackedCube wide = new PackedCube(4);
+		PackedCube slices = new PackedCube(4);
+		move(wide, "3Rw' Fw2 2-3Uw");
+		move(slices, "R' 2R' 3R' F2 2F2 2U 3U");
+		Assert.assertEquals("Wide moves differ from slices", slices, wide);
+
+		PackedCube rotated = new PackedCube(4);
+		PackedCube turned = new PackedCube(4);
+		move(rotated, "x");
+		move(turned, "3Rw L'");
+		Assert.assertEquals("3Rw L' is not a rotation", rotated, turned);
+	}
+
+	@Test
+	public void inversingSliceMovesTest() throws UnsupportedLayerDimensionException {
+		int dimension = Layer.MAXIMUM_CUBE_DIMENSION;
+		PackedCube cube = new PackedCube(dimension);
+		Random random = new Random();
+		List<SliceMove> moves = new ArrayList<SliceMove>();
+		for (int i = 0; i < 1000; i++) {
+			int firstLayer = 1 + random.nextInt(dimension);
+			int lastLayer = firstLayer + random.nextInt(dimension - firstLayer + 1);
+			moves.add(new SliceMove(MoveLayer.values()[random.nextInt(6)], firstLayer, lastLayer,
+					1 + random.nextInt(3)));
+		}
+		for (SliceMove move : moves) {
+			cube.move(move);
+		}
+		Assert.assertFalse("Cube is solved after scrambling", cube.isSolved());
+
+		Collections.reverse(moves);
+		for (SliceMove move : moves) {
+			cube.move(move.inverse());
+		}
+		Assert.assertTrue("Cube is not solved after reversing moves", cube.isSolved());
+		Assert.assertEquals("Cube is not solved after reversing moves", new PackedCube(dimension), cube);
+	}
+
+	private static void move(PackedCube cube, String sequence) throws UnsupportedMoveException {
+		for (SliceMove move : SliceMove.parseSequence(sequence)) {
+			cube.move(move);
+		}
+	}
+
+	static boolean sameState(RubiksCube first, RubiksCube second) {
+		int dimension = first.getDimension();
+		for (MoveLayer layer : MoveLayer.values()) {
+			for (int row = 0; row < dimension; row++) {
+				for (int col = 0; col < dimension; col++) {
+					if (first.getFieldColor(layer, row, col) != second.getFieldColor(layer, row, col))
+						return false;
+				}
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,85 @@
+package my.kotpat.rubikSolver.test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.IDAStarCubeSolver;
+import my.kotpat.rubikSolver.services.ParallelCubeSolver;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.services.TwoPhaseCubeSolver;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ParallelCubeSolverClassTest {
+	@Test
+	public void optimalSolvingTest() throws UnsupportedLayerDimensionException {
+		ParallelCubeSolver solver = new ParallelCubeSolver(new IDAStarCubeSolver());
+		String[] scrambles = { "", "R", "R U", "F2 D' L B2 R' U", "U R2 F' L D2 B R'" };
+		int[] lengths = { 0, 1, 2, 6, 7 };
+		for (int i = 0; i < scrambles.length; i++) {
+			Cube cube = new Cube(3);
+			cube.scramble(new Scramble(scrambles[i]));
+			SolvingMeta meta = solver.getSolution(cube);
+			Assert.assertEquals("Solution is not optimal", lengths[i], meta.getSolvingScramble().size());
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+	}
+
+	@Test
+	public void workerMovesTest() throws UnsupportedLayerDimensionException {
+		ParallelCubeSolver solver = new ParallelCubeSolver(new IDAStarCubeSolver());
+		Cube cube = new Cube(2);
+		cube.scramble(new Scramble("R U2 F' R2 U' F R'"));
+		SolvingMeta meta = solver.getSolution(cube);
+
+		long sum = 0;
+		for (long moves : meta.getWorkerAnalyzedMoves()) {
+			sum += moves;
+		}
+		Assert.assertTrue("No workers", meta.getWorkerAnalyzedMoves().length > 0);
+		Assert.assertEquals(meta.getAnalyzedMoves(), sum);
+		Assert.assertEquals(new IDAStarCubeSolver().getSolution(cube).getSolvingScramble().size(),
+				meta.getSolvingScramble().size());
+	}
+
+	@Test
+	public void sharedIterationsTest() throws UnsupportedLayerDimensionException {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ParallelCubeSolver solver = new ParallelCubeSolver(new IDAStarCubeSolver(), 2, pool);
+			for (long seed = 1; seed <= 4; seed++) {
+				Cube cube = new Cube(3);
+				cube.scramble(new RandomScrambleGenerator(seed).getRandomScramble(seed % 2 == 0 ? 9 : 11));
+				SolvingMeta sequential = new IDAStarCubeSolver().getSolution(cube);
+				SolvingMeta parallel = solver.getSolution(cube);
+				Assert.assertEquals("Solution is not optimal", sequential.getSolvingScramble().size(),
+						parallel.getSolvingScramble().size());
+				Assert.assertTrue("Too many analyzed moves: " + parallel.getAnalyzedMoves() + " instead of "
+						+ sequential.getAnalyzedMoves(),
+						parallel.getAnalyzedMoves() <= 8 * sequential.getAnalyzedMoves() + 100000);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void firstSolutionTest() throws UnsupportedLayerDimensionException {
+		ParallelCubeSolver solver = new ParallelCubeSolver(new TwoPhaseCubeSolver());
+		solver.setStopOnFirstSolution(true);
+		Cube cube = new Cube(3);
+		cube.scramble(new Scramble("D2 R' F U2 L B' D R2 U' F2 L' B2 U D' R F'"));
+		SolvingMeta meta = solver.getSolution(cube);
+		Assert.assertTrue(meta.getSolvingScramble().size() <= TwoPhaseCubeSolver.DEFAULT_MAX_LENGTH + 2);
+		cube.scramble(meta.getSolvingScramble());
+		Assert.assertTrue("Cube is not solved", cube.isSolved());
+	}
+}
@@ -0,0 +1,89 @@
+package my.kotpat.rubikSolver.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.tables.Pattern;
+import my.kotpat.rubikSolver.tables.PatternDatabase;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class PatternDatabaseClassTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void indexingTest() {
+		Pattern[] patterns = { Pattern.CORNERS, Pattern.FIRST_SIX_EDGES, Pattern.LAST_SEVEN_EDGES };
+		long[] sizes = { 88179840, 42577920, 510935040 };
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		for (int i = 0; i < patterns.length; i++) {
+			Pattern pattern = patterns[i];
+			Assert.assertEquals("Incorrect size", sizes[i], pattern.getSize());
+			for (int j = 0; j < 100; j++) {
+				CubieCube cube = new CubieCube();
+				cube.scramble(generator.getRandomScramble(30));
+				int index = pattern.getIndex(cube);
+				Assert.assertTrue("Index out of range", index >= 0 && index < pattern.getSize());
+
+				CubieCube state = new CubieCube();
+				pattern.setState(state, index);
+				Assert.assertEquals("Different index of the set state", index, pattern.getIndex(state));
+			}
+		}
+	}
+
+	@Test
+	public void buildingTest() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Pattern[] patterns = { new Pattern("test-corners", true, 0, 2, 5, 7),
+				new Pattern("test-edges", false, 1, 4, 8, 11) };
+		for (Pattern pattern : patterns) {
+			try {
+				PatternDatabase.open(pattern, directory);
+				Assert.fail("Database built by opening");
+			} catch (IOException e) {
+			}
+
+			PatternDatabase database = PatternDatabase.build(pattern, directory);
+			File file = new File(folder.getRoot(), PatternDatabase.getFileName(pattern));
+			Assert.assertEquals("Incorrect file size", 16 + (pattern.getSize() + 1) / 2, file.length());
+
+			PatternDatabase loaded = PatternDatabase.open(pattern, directory);
+			CubieCube cube = new CubieCube();
+			CubieCube moved = new CubieCube();
+			for (int index = 0; index < pattern.getSize(); index++) {
+				int distance = loaded.getDistance(index);
+				Assert.assertEquals("Different databases", database.getDistance(index), distance);
+				Assert.assertTrue("State is not visited", distance < 15);
+
+				pattern.setState(cube, index);
+				boolean closer = distance == 0;
+				for (Move move : Move.values()) {
+					moved.copyFrom(cube);
+					moved.move(move);
+					int next = loaded.getDistance(moved);
+					Assert.assertTrue("Inconsistent distances", Math.abs(next - distance) <= 1);
+					closer |= next == distance - 1;
+				}
+				Assert.assertTrue("No move decreases the distance", closer);
+			}
+			Assert.assertEquals("Solved state has non-zero distance", 0, loaded.getDistance(new CubieCube()));
+
+			CubieCube scrambled = new CubieCube();
+			scrambled.scramble(new Scramble("R U F' L2"));
+			Assert.assertTrue("Distance is not admissible", loaded.getDistance(scrambled) <= 4);
+		}
+	}
+}
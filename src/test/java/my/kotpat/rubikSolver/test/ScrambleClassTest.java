@@ -5,7 +5,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.BlockJUnit4ClassRunner;
 
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
 import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
 
 @RunWith(BlockJUnit4ClassRunner.class)
 public class ScrambleClassTest {
@@ -21,4 +26,95 @@ public class ScrambleClassTest {
 		scramble.simplify();
 		Assert.assertTrue("Simplyfying doesn't work correctly", scramble.size() == 7);
 	}
+
+	@Test
+	public void commutingSimplifyingTest() {
+		String[][] cases = { { "R L R'", "Scramble L" }, { "R2 R' L2 F", "Scramble L2 R F" },
+				{ "U D2 U' D2", "Scramble" }, { "R U R' U' U R U' R'", "Scramble" },
+				{ "F B F B F B F B2", "Scramble B" }, { "R L U D' U' D L' R2", "Scramble R'" } };
+		for (String[] simplifying : cases) {
+			Scramble scramble = new Scramble(simplifying[0]);
+			scramble.simplify();
+			Assert.assertEquals(simplifying[0], simplifying[1], scramble.toString());
+		}
+	}
+
+	@Test
+	public void simplifyingKeepsStateTest() {
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(3);
+		for (int i = 0; i < 200; i++) {
+			Scramble scramble = new Scramble();
+			for (int j = 0; j < 100; j++) {
+				scramble.add(generator.getRandomMove());
+			}
+			CubieCube expected = new CubieCube();
+			expected.scramble(scramble);
+
+			scramble.simplify();
+			CubieCube cube = new CubieCube();
+			cube.scramble(scramble);
+			Assert.assertEquals("Simplified scramble moves the cube differently", expected, cube);
+			Assert.assertTrue("Simplified scramble is not canonical", CanonicalSequence.isCanonical(scramble));
+
+			// The scramble and its inverse cancel out completely
+			Scramble inverse = new Scramble();
+			inverse.addAll(scramble);
+			inverse.reverse();
+			scramble.addAll(inverse);
+			scramble.simplify();
+			Assert.assertEquals(0, scramble.size());
+		}
+	}
+
+	@Test
+	public void indexedAccessTest() {
+		Scramble scramble = new Scramble("R U2 F' L D B2");
+		Assert.assertEquals("Scramble R U2 F' L D B2", scramble.toString());
+		Assert.assertEquals("F'", scramble.get(2).getMoveString());
+		Assert.assertEquals(scramble.get(5).ordinal(), scramble.getOrdinal(5));
+
+		int index = 0;
+		for (Move move : scramble) {
+			Assert.assertSame(scramble.get(index++), move);
+		}
+		Assert.assertEquals(6, index);
+
+		scramble.deleteLast();
+		scramble.reverse();
+		Assert.assertEquals("Scramble D' L' F U2 R'", scramble.toString());
+	}
+
+	@Test
+	public void bulkAppendingTest() {
+		Scramble scramble = new Scramble(1);
+		for (int i = 0; i < 1000; i++) {
+			scramble.add(Move.of(i % Move.MOVES_COUNT));
+		}
+		scramble.addAll(scramble);
+		Assert.assertEquals(2000, scramble.size());
+		Assert.assertEquals(Move.of(999 % Move.MOVES_COUNT), scramble.get(1999));
+
+		Scramble other = new Scramble();
+		other.addAll(scramble.toOrdinals(), 10, 5);
+		Assert.assertEquals("Scramble D2 D' F F2 F'", other.toString());
+	}
+
+	@Test
+	public void subScrambleTest() {
+		Scramble scramble = new Scramble("R U F L D B");
+		Scramble view = scramble.subScramble(2, 5);
+		Assert.assertEquals("Scramble F L D", view.toString());
+		Assert.assertEquals("Scramble L", view.subScramble(1, 2).toString());
+
+		// Changes are not visible in the other scrambles
+		view.reverse();
+		view.add(Move.of(MoveLayer.RIGHT, 2));
+		Assert.assertEquals("Scramble D' L' F' R2", view.toString());
+		Assert.assertEquals("Scramble R U F L D B", scramble.toString());
+
+		Scramble secondView = scramble.subScramble(0, 2);
+		scramble.reverse();
+		Assert.assertEquals("Scramble R U", secondView.toString());
+		Assert.assertEquals("Scramble B' D' L' F' U' R'", scramble.toString());
+	}
 }
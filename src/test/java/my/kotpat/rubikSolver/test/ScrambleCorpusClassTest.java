@@ -0,0 +1,117 @@
+package my.kotpat.rubikSolver.test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.services.ScrambleCorpus;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ScrambleCorpusClassTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void writingAndReadingTest() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("corpus.bin");
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(17);
+		List<String> scrambles = new ArrayList<String>();
+		try (ScrambleCorpus.Writer writer = ScrambleCorpus.create(file)) {
+			for (int i = 0; i < 1000; i++) {
+				Scramble scramble = generator.getRandomScramble(i == 500 ? 5000 : i % 41);
+				writer.write(scramble);
+				scrambles.add(scramble.toString());
+			}
+			Assert.assertEquals(1000, writer.getCount());
+		}
+
+		ScrambleCorpus corpus = ScrambleCorpus.open(file);
+		Assert.assertEquals(1000, corpus.size());
+		for (int i = 999; i >= 0; i -= 7) {
+			Assert.assertEquals("Incorrect scramble " + i, scrambles.get(i), corpus.get(i).toString());
+		}
+
+		List<String> read = new ArrayList<String>();
+		corpus.forEach(scramble -> read.add(scramble.toString()));
+		Assert.assertEquals(scrambles, read);
+	}
+
+	@Test
+	public void generatingTest() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("generated.bin");
+		ScrambleCorpus.generate(file, new RandomScrambleGenerator(3), 5000, 20);
+		ScrambleCorpus corpus = ScrambleCorpus.open(file);
+		Assert.assertEquals(5000, corpus.size());
+
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(3);
+		Scramble scramble = new Scramble();
+		for (int i = 0; i < 5000; i++) {
+			corpus.read(i, scramble);
+			Assert.assertEquals(generator.getRandomScramble(20).toString(), scramble.toString());
+		}
+
+		// 20 moves take 13 bytes, the length one byte
+		Assert.assertTrue("Corpus is too big", Files.size(file) < 5000 * 14 + 1000);
+	}
+
+	@Test
+	public void readingWithoutAllocationTest() throws IOException {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+		Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+		Path file = folder.getRoot().toPath().resolve("random.bin");
+		ScrambleCorpus.generate(file, new RandomScrambleGenerator(9), 1000, 25);
+		ScrambleCorpus corpus = ScrambleCorpus.open(file);
+		Scramble scramble = new Scramble();
+
+		// Warming up (growing the scramble, compiling)
+		for (int i = 0; i < 20000; i++) {
+			corpus.read((i * 7919L) % corpus.size(), scramble);
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = allocationBean.getThreadAllocatedBytes(threadId);
+		long allocatedBefore2 = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 20000; i++) {
+			corpus.read((i * 7919L) % corpus.size(), scramble);
+		}
+		long allocatedAfter = allocationBean.getThreadAllocatedBytes(threadId);
+		long measuringCost = allocatedBefore2 - allocatedBefore;
+		Assert.assertEquals("Reading the scramble allocates memory", 0, allocatedAfter - allocatedBefore2 - measuringCost);
+	}
+
+	@Test
+	public void invalidFileTest() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("invalid.bin");
+		Files.write(file, new byte[100]);
+		try {
+			ScrambleCorpus.open(file);
+			Assert.fail("Invalid corpus has been opened");
+		} catch (IOException e) {
+		}
+
+		try (ScrambleCorpus.Writer writer = ScrambleCorpus.create(file)) {
+			writer.write(new RandomScrambleGenerator().getRandomScramble(ScrambleCorpus.MAX_LENGTH + 1));
+			Assert.fail("Too long scramble has been written");
+		} catch (IllegalArgumentException e) {
+		}
+		Assert.assertEquals(0, ScrambleCorpus.open(file).size());
+	}
+}
@@ -1,12 +1,20 @@
 package my.kotpat.rubikSolver.test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.BlockJUnit4ClassRunner;
 
+import my.kotpat.rubikSolver.domain.CanonicalSequence;
+import my.kotpat.rubikSolver.domain.CubieCube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
 import my.kotpat.rubikSolver.domain.Scramble;
 import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.services.RandomStateScrambleGenerator;
 import my.kotpat.rubikSolver.services.ScrambleGenerator;
 
 @RunWith(BlockJUnit4ClassRunner.class)
@@ -18,7 +26,126 @@ public class ScrambleGeneratorClassTest {
 		for (int i = 0; i < 1000; i++) {
 			scramble = generator.getRandomScramble(20);
 			Assert.assertTrue("Incorrect random scramble length", scramble.size() == 20);
+			Assert.assertTrue("Scramble is not canonical", CanonicalSequence.isCanonical(scramble));
+		}
+
+	}
+
+	@Test
+	public void seededScrambleTest() {
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(42);
+		RandomScrambleGenerator sameGenerator = new RandomScrambleGenerator(42);
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals("Generators with the same seed are different",
+					generator.getRandomScramble(25).toString(), sameGenerator.getRandomScramble(25).toString());
+		}
+
+		RandomScrambleGenerator split = generator.split();
+		RandomScrambleGenerator sameSplit = sameGenerator.split();
+		Assert.assertEquals(split.getRandomScramble(50).toString(), sameSplit.getRandomScramble(50).toString());
+		Assert.assertNotEquals("Split generator is not independent", generator.getRandomScramble(50).toString(),
+				split.getRandomScramble(50).toString());
+
+		int[] moves = new int[1000];
+		split.getRandomMoves(moves, moves.length);
+		Scramble scramble = new Scramble();
+		for (int move : moves) {
+			scramble.add(Move.of(move));
+		}
+		Assert.assertTrue("Moves are not canonical", CanonicalSequence.isCanonical(scramble));
+	}
+
+	@Test
+	public void allowedMovesTest() {
+		List<Move> allowedMoves = Arrays.asList(Move.of(MoveLayer.RIGHT, 1), Move.of(MoveLayer.UP, 2));
+		RandomScrambleGenerator generator = new RandomScrambleGenerator(allowedMoves, 5);
+		Scramble scramble = generator.getRandomScramble(100);
+		Assert.assertEquals(100, scramble.size());
+		for (Move move : scramble) {
+			Assert.assertTrue("Move is not allowed", allowedMoves.contains(move));
+		}
+		Assert.assertTrue("Scramble is not canonical", CanonicalSequence.isCanonical(scramble));
+	}
+
+	@Test
+	public void randomStateScrambleTest() {
+		RandomStateScrambleGenerator generator = new RandomStateScrambleGenerator(7);
+		RandomStateScrambleGenerator states = new RandomStateScrambleGenerator(7);
+		for (int i = 0; i < 30; i++) {
+			CubieCube state = states.getRandomState();
+			Scramble scramble = generator.getRandomScramble();
+			Assert.assertTrue("Scramble is too long", scramble.size() <= RandomStateScrambleGenerator.DEFAULT_LENGTH);
+
+			CubieCube cube = new CubieCube();
+			cube.scramble(scramble);
+			Assert.assertEquals("Scramble does not reach the random state", state, cube);
+		}
+	}
+
+	@Test
+	public void randomStateDistributionTest() {
+		RandomStateScrambleGenerator generator = new RandomStateScrambleGenerator(11);
+		int samples = 24000;
+		int[] cornerPositions = new int[CubieCube.CORNERS];
+		int[] cornerOrientations = new int[3];
+		int[] edgeOrientations = new int[2];
+		int oddPermutations = 0;
+		for (int i = 0; i < samples; i++) {
+			CubieCube cube = generator.getRandomState();
+			Assert.assertTrue("Random state is not valid", cube.isValid(3));
+			cornerPositions[cube.getCornerPermutation(CubieCube.CORNERS - 1)]++;
+			cornerOrientations[cube.getCornerOrientation(CubieCube.CORNERS - 1)]++;
+			edgeOrientations[cube.getEdgeOrientation(CubieCube.EDGES - 1)]++;
+			oddPermutations += cube.getEdgeParity();
+		}
+
+		for (int count : cornerPositions) {
+			Assert.assertEquals(samples / CubieCube.CORNERS, count, samples / 50);
 		}
+		for (int count : cornerOrientations) {
+			Assert.assertEquals(samples / 3, count, samples / 50);
+		}
+		for (int count : edgeOrientations) {
+			Assert.assertEquals(samples / 2, count, samples / 50);
+		}
+		Assert.assertEquals(samples / 2, oddPermutations, samples / 50);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooShortRandomStateScrambleTest() {
+		new RandomStateScrambleGenerator().getRandomScramble(RandomStateScrambleGenerator.MIN_LENGTH - 1);
+	}
+
+	@Test
+	public void canonicalSequenceTest() {
+		Assert.assertTrue(CanonicalSequence.isCanonical(new Scramble("L R D U B F R")));
+		Assert.assertFalse(CanonicalSequence.isCanonical(new Scramble("R L")));
+		Assert.assertFalse(CanonicalSequence.isCanonical(new Scramble("U2 U'")));
+		Assert.assertFalse(CanonicalSequence.isCanonical(new Scramble("L R L")));
 
+		// Number of canonical sequences grows about 13.35 times with every move
+		long[] counts = new long[7];
+		counts[CanonicalSequence.START + 1] = 1;
+		for (int length = 0; length < 10; length++) {
+			long[] next = new long[7];
+			for (int state = CanonicalSequence.START; state < 6; state++) {
+				for (Move move : Move.values()) {
+					int layer = move.getMoveLayer().ordinal();
+					if (CanonicalSequence.isAllowed(state, layer))
+						next[layer + 1] += counts[state + 1];
+				}
+			}
+			long total = 0;
+			for (int i = 0; i < counts.length; i++) {
+				total += counts[i];
+			}
+			long nextTotal = 0;
+			for (int i = 0; i < next.length; i++) {
+				nextTotal += next[i];
+			}
+			if (length > 5)
+				Assert.assertEquals(13.35, (double) nextTotal / total, 0.01);
+			counts = next;
+		}
 	}
 }
@@ -0,0 +1,89 @@
+package my.kotpat.rubikSolver.test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.Move;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.ScrambleParser;
+import my.kotpat.rubikSolver.exceptions.MoveSyntaxException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ScrambleParserClassTest {
+	@Test
+	public void parsingMovesTest() throws UnsupportedMoveException {
+		List<Move> moves = new ArrayList<Move>();
+		new ScrambleParser().parse("R2 U'F\tB2'\r\nL D", moves::add);
+
+		String[] expected = { "R2", "U'", "F", "B2", "L", "D" };
+		Assert.assertEquals("Incorrect number of moves", expected.length, moves.size());
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertSame("Incorrect move", Move.of(expected[i]), moves.get(i));
+		}
+	}
+
+	@Test
+	public void reportingErrorPositionTest() {
+		try {
+			new ScrambleParser().parse("R U\nF2 x D", move -> {
+			});
+			Assert.fail("Incorrect character is not reported");
+		} catch (MoveSyntaxException e) {
+			Assert.assertEquals("Incorrect position", 7, e.getPosition());
+			Assert.assertEquals("Incorrect line", 2, e.getLine());
+			Assert.assertEquals("Incorrect column", 4, e.getColumn());
+			Assert.assertEquals("Incorrect character", 'x', e.getCharacter());
+		}
+	}
+
+	@Test
+	public void lenientParsingTest() throws MoveSyntaxException {
+		ScrambleParser parser = new ScrambleParser(true);
+		Assert.assertEquals("Incorrect scramble", new Scramble(" F22RkuUzD2d22d").size(),
+				parser.parseScramble(" F22RkuUzD2d22d").size());
+		Assert.assertEquals("Incorrect scramble length", 4, parser.parseScramble(" F22RkuUzD2d22d").size());
+	}
+
+	@Test
+	public void parsingSourcesTest() throws IOException, MoveSyntaxException {
+		String text = "R U R' U' F2 B' L2 D R2'";
+		ScrambleParser parser = new ScrambleParser();
+
+		List<Move> fromText = new ArrayList<Move>();
+		List<Move> fromReader = new ArrayList<Move>();
+		List<Move> fromBuffer = new ArrayList<Move>();
+		parser.parse(text, fromText::add);
+		parser.parse(new StringReader(text), fromReader::add);
+		ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+		parser.parse(buffer, fromBuffer::add);
+
+		Assert.assertEquals("Incorrect number of moves", 9, fromText.size());
+		Assert.assertEquals("Reader gives other moves", fromText, fromReader);
+		Assert.assertEquals("ByteBuffer gives other moves", fromText, fromBuffer);
+		Assert.assertFalse("Buffer is not consumed", buffer.hasRemaining());
+	}
+
+	@Test
+	public void applyingToCubeTest() throws MoveSyntaxException, UnsupportedLayerDimensionException {
+		String text = "R U2 F' L D' B2 R' U";
+		Cube parsed = new Cube(3);
+		new ScrambleParser().apply(text, parsed);
+
+		Cube scrambled = new Cube(3);
+		scrambled.scramble(new Scramble(text));
+		Assert.assertEquals("Cube states are different", scrambled, parsed);
+		Assert.assertFalse("Cube is solved", parsed.isSolved());
+	}
+}
@@ -0,0 +1,58 @@
+package my.kotpat.rubikSolver.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Move.MoveLayer;
+import my.kotpat.rubikSolver.domain.SliceMove;
+import my.kotpat.rubikSolver.exceptions.UnsupportedMoveException;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class SliceMoveClassTest {
+	@Test
+	public void creatingMovesTest() throws UnsupportedMoveException {
+		assertMove("R", MoveLayer.RIGHT, 1, 1, 1);
+		assertMove("Rw'", MoveLayer.RIGHT, 1, 2, 3);
+		assertMove("r2", MoveLayer.RIGHT, 1, 2, 2);
+		assertMove("3Fw", MoveLayer.FRONT, 1, 3, 1);
+		assertMove("4u'", MoveLayer.UP, 1, 4, 3);
+		assertMove("2L2'", MoveLayer.LEFT, 2, 2, 2);
+		assertMove("2-4Bw", MoveLayer.BACK, 2, 4, 1);
+		assertMove("M'", MoveLayer.LEFT, 2, 4, 3);
+		assertMove("E", MoveLayer.DOWN, 2, 4, 1);
+		assertMove("x2", MoveLayer.RIGHT, 1, 5, 2);
+	}
+
+	@Test
+	public void incorrectMovesTest() {
+		String[] incorrect = { "", "Q", "rw", "Mw", "2M", "0R", "R3", "R'2", "4-2Rw", "2-Rw", "X" };
+		for (String moveString : incorrect) {
+			try {
+				new SliceMove(moveString);
+				Assert.fail("Move " + moveString + " created");
+			} catch (UnsupportedMoveException e) {
+			}
+		}
+	}
+
+	@Test
+	public void convertingToStringTest() throws UnsupportedMoveException {
+		String[] moves = { "R", "Rw'", "3Fw2", "2L", "2-4Bw'", "M", "E2", "S'", "x", "y'", "z2" };
+		for (String moveString : moves) {
+			SliceMove move = new SliceMove(moveString);
+			Assert.assertEquals("Wrong text form", moveString, move.getMoveString());
+			Assert.assertEquals("Wrong inverse move", move, move.inverse().inverse());
+		}
+	}
+
+	private static void assertMove(String moveString, MoveLayer layer, int firstLayer, int lastLayer, int turns)
+			throws UnsupportedMoveException {
+		SliceMove move = new SliceMove(moveString);
+		Assert.assertEquals("Wrong layer of " + moveString, layer, move.getMoveLayer());
+		Assert.assertEquals("Wrong first layer of " + moveString, firstLayer, move.getFirstLayer());
+		Assert.assertEquals("Wrong last layer of " + moveString, lastLayer, move.getLastLayer(5));
+		Assert.assertEquals("Wrong turns of " + moveString, turns, move.getTurns());
+	}
+}
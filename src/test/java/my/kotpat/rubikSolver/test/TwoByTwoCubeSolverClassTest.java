@@ -0,0 +1,78 @@
+package my.kotpat.rubikSolver.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.Scramble;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.IDAStarCubeSolver;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.services.TwoByTwoCubeSolver;
+import my.kotpat.rubikSolver.tables.CornerDistanceTable;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class TwoByTwoCubeSolverClassTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void optimalSolvingTest() throws UnsupportedLayerDimensionException {
+		TwoByTwoCubeSolver solver = new TwoByTwoCubeSolver();
+		IDAStarCubeSolver optimalSolver = new IDAStarCubeSolver();
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		for (int i = 0; i < 20; i++) {
+			Cube cube = new Cube(2);
+			cube.scramble(generator.getRandomScramble(i < 10 ? 6 : 100));
+			SolvingMeta meta = solver.getSolution(cube);
+			Assert.assertTrue("Solution is too long", meta.getSolvingScramble().size() <= 11);
+			if (i < 10)
+				Assert.assertEquals("Solution is not optimal", optimalSolver.getSolution(cube).getSolvingScramble()
+						.size(), meta.getSolvingScramble().size());
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+
+		Cube rotated = new Cube(2);
+		rotated.scramble(new Scramble("R L' U2 F"));
+		Assert.assertEquals("Rotation is not solved", 2, solver.getSolution(rotated).getSolvingScramble().size());
+	}
+
+	@Test
+	public void cachingTableTest() {
+		CornerDistanceTable table = new CornerDistanceTable(folder.getRoot().toPath());
+		File file = new File(folder.getRoot(), CornerDistanceTable.FILE_NAME);
+		Assert.assertEquals("Incorrect file size", 16 + CornerDistanceTable.SIZE / 4, file.length());
+
+		CornerDistanceTable loaded = new CornerDistanceTable(folder.getRoot().toPath());
+		for (int index = 0; index < CornerDistanceTable.SIZE; index++) {
+			Assert.assertEquals("Different tables", table.getDistanceMod3(index), loaded.getDistanceMod3(index));
+			Assert.assertTrue("State is not visited", loaded.getDistanceMod3(index) < 3);
+		}
+		Assert.assertEquals("Solved state has non-zero distance", 0, loaded.getDistanceMod3(0));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void corruptedTableTest() throws IOException, UnsupportedLayerDimensionException {
+		new CornerDistanceTable(folder.getRoot().toPath());
+		try (RandomAccessFile file = new RandomAccessFile(new File(folder.getRoot(), CornerDistanceTable.FILE_NAME),
+				"rw")) {
+			file.seek(16);
+			file.write(new byte[CornerDistanceTable.SIZE / 4]);
+		}
+
+		TwoByTwoCubeSolver solver = new TwoByTwoCubeSolver(new CornerDistanceTable(folder.getRoot().toPath()));
+		Cube cube = new Cube(2);
+		cube.scramble(new Scramble("R U F"));
+		solver.getSolution(cube);
+	}
+}
@@ -0,0 +1,50 @@
+package my.kotpat.rubikSolver.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import my.kotpat.rubikSolver.domain.Cube;
+import my.kotpat.rubikSolver.domain.SolvingMeta;
+import my.kotpat.rubikSolver.exceptions.UnsupportedLayerDimensionException;
+import my.kotpat.rubikSolver.services.RandomScrambleGenerator;
+import my.kotpat.rubikSolver.services.TwoPhaseCubeSolver;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class TwoPhaseCubeSolverClassTest {
+	@Test
+	public void solvingTest() throws UnsupportedLayerDimensionException {
+		TwoPhaseCubeSolver solver = new TwoPhaseCubeSolver();
+		RandomScrambleGenerator generator = new RandomScrambleGenerator();
+		for (int i = 0; i < 50; i++) {
+			Cube cube = new Cube(3);
+			cube.scramble(generator.getRandomScramble(50));
+			SolvingMeta meta = solver.getSolution(cube);
+			Assert.assertNotNull("Solution is not found", meta.getSolvingScramble());
+			Assert.assertTrue("Solution is too long",
+					meta.getSolvingScramble().size() <= TwoPhaseCubeSolver.DEFAULT_MAX_LENGTH);
+			cube.scramble(meta.getSolvingScramble());
+			Assert.assertTrue("Cube is not solved", cube.isSolved());
+		}
+	}
+
+	@Test
+	public void solvedCubeTest() throws UnsupportedLayerDimensionException {
+		SolvingMeta meta = (new TwoPhaseCubeSolver()).getSolution(new Cube(3));
+		Assert.assertEquals("Solved cube needs moves", 0, meta.getSolvingScramble().size());
+	}
+
+	@Test
+	public void maxLengthTest() throws UnsupportedLayerDimensionException {
+		Cube cube = new Cube(3);
+		cube.scramble((new RandomScrambleGenerator()).getRandomScramble(50));
+		TwoPhaseCubeSolver solver = new TwoPhaseCubeSolver(3);
+		Assert.assertNull("Too long solution is returned", solver.getSolution(cube).getSolvingScramble());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unsupportedDimensionTest() throws UnsupportedLayerDimensionException {
+		(new TwoPhaseCubeSolver()).getSolution(new Cube(2));
+	}
+}